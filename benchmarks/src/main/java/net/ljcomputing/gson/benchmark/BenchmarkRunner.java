@@ -0,0 +1,59 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler enabled, so every result reports allocation per
+ * operation next to throughput and latency percentiles. Command line arguments are the regular
+ * JMH options and take precedence.
+ *
+ * @author James G. Willmore
+ *
+ */
+public final class BenchmarkRunner {
+
+  /**
+   * Instantiates a new benchmark runner.
+   */
+  private BenchmarkRunner() {
+  }
+
+  /**
+   * The main method.
+   *
+   * @param args the JMH command line arguments
+   * @throws RunnerException the runner exception
+   * @throws CommandLineOptionException the command line option exception
+   */
+  public static void main(final String[] args)
+      throws RunnerException, CommandLineOptionException {
+    final Options options = new OptionsBuilder().parent(new CommandLineOptions(args))
+        .addProfiler(GCProfiler.class).resultFormat(ResultFormatType.JSON)
+        .result("jmh-result.json").build();
+
+    new Runner(options).run();
+  }
+}
@@ -0,0 +1,86 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.benchmark;
+
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import net.ljcomputing.gson.converter.GsonConverterService;
+import net.ljcomputing.gson.converter.impl.GsonConverterServiceImpl;
+
+/**
+ * Benchmarks {@link GsonConverterService#fromJson(String, Type)} on list payloads.
+ *
+ * @author James G. Willmore
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class FromJsonTypeBenchmark {
+
+  /** The payload. */
+  @Param({ "LIST_1K", "LIST_1M" })
+  private Payload payload;
+
+  /** The converter service. */
+  private GsonConverterService service;
+
+  /** The json. */
+  private String json;
+
+  /** The target type. */
+  private Type target;
+
+  /**
+   * Set up the trial.
+   */
+  @Setup(Level.Trial)
+  public void setUp() {
+    service = new GsonConverterServiceImpl();
+    json = service.toJson(payload.create());
+    target = payload.getType();
+  }
+
+  /**
+   * Benchmark fromJson with a generic type target.
+   *
+   * @return the list
+   */
+  @Benchmark
+  @SuppressWarnings("rawtypes")
+  public List fromJsonType() {
+    return service.fromJson(json, target);
+  }
+}
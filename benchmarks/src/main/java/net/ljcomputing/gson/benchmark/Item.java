@@ -0,0 +1,91 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.benchmark;
+
+import java.util.UUID;
+
+/**
+ * Benchmark model mirroring the flat POJO used by the converter service tests.
+ *
+ * @author James G. Willmore
+ *
+ */
+public class Item {
+
+  /** The uuid. */
+  private UUID uuid;
+
+  /** The id. */
+  private Long id;
+
+  /** The key. */
+  private String key;
+
+  /** The value. */
+  private String value;
+
+  /**
+   * Create an item populated from the given index.
+   *
+   * @param index the index
+   * @return the item
+   */
+  public static Item of(final long index) {
+    final Item item = new Item();
+    item.uuid = new UUID(index, ~index);
+    item.id = index;
+    item.key = "key-" + index;
+    item.value = "value-" + index;
+    return item;
+  }
+
+  /**
+   * Gets the uuid.
+   *
+   * @return the uuid
+   */
+  public UUID getUuid() {
+    return uuid;
+  }
+
+  /**
+   * Gets the id.
+   *
+   * @return the id
+   */
+  public Long getId() {
+    return id;
+  }
+
+  /**
+   * Gets the key.
+   *
+   * @return the key
+   */
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * Gets the value.
+   *
+   * @return the value
+   */
+  public String getValue() {
+    return value;
+  }
+}
@@ -0,0 +1,103 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark model for deep nested object graphs.
+ *
+ * @author James G. Willmore
+ *
+ */
+public class Node {
+
+  /** The id. */
+  private Long id;
+
+  /** The name. */
+  private String name;
+
+  /** The items held by this node. */
+  private List<Item> items = new ArrayList<>();
+
+  /** The child node. */
+  private Node child;
+
+  /**
+   * Create a chain of nodes of the given depth, each holding the given number of items.
+   *
+   * @param depth the depth
+   * @param itemsPerNode the items per node
+   * @return the root node
+   */
+  public static Node chain(final int depth, final int itemsPerNode) {
+    Node root = null;
+
+    for (int level = depth - 1; level >= 0; level--) {
+      final Node node = new Node();
+      node.id = (long) level;
+      node.name = "node-" + level;
+
+      for (int i = 0; i < itemsPerNode; i++) {
+        node.items.add(Item.of((long) level * itemsPerNode + i));
+      }
+
+      node.child = root;
+      root = node;
+    }
+
+    return root;
+  }
+
+  /**
+   * Gets the id.
+   *
+   * @return the id
+   */
+  public Long getId() {
+    return id;
+  }
+
+  /**
+   * Gets the name.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the items.
+   *
+   * @return the items
+   */
+  public List<Item> getItems() {
+    return items;
+  }
+
+  /**
+   * Gets the child.
+   *
+   * @return the child
+   */
+  public Node getChild() {
+    return child;
+  }
+}
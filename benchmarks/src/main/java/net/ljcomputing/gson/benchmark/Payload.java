@@ -0,0 +1,137 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.benchmark;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Benchmark payload shapes, from a single POJO up to a one million element list.
+ *
+ * @author James G. Willmore
+ *
+ */
+public enum Payload {
+
+  /** A single flat POJO. */
+  SINGLE(Item.class) {
+    @Override
+    public Object create() {
+      return Item.of(1L);
+    }
+  },
+
+  /** A list of one thousand POJOs. */
+  LIST_1K(Types.ITEM_LIST) {
+    @Override
+    public Object create() {
+      return items(1000);
+    }
+  },
+
+  /** A list of one million POJOs. */
+  LIST_1M(Types.ITEM_LIST) {
+    @Override
+    public Object create() {
+      return items(1000000);
+    }
+  },
+
+  /** A chain of 256 nested nodes, each holding four POJOs. */
+  DEEP_GRAPH(Node.class) {
+    @Override
+    public Object create() {
+      return Node.chain(256, 4);
+    }
+  };
+
+  /** The payload type. */
+  private final Type type;
+
+  /**
+   * Instantiates a new payload.
+   *
+   * @param type the type
+   */
+  Payload(final Type type) {
+    this.type = type;
+  }
+
+  /**
+   * Create a new instance of the payload.
+   *
+   * @return the object
+   */
+  public abstract Object create();
+
+  /**
+   * Gets the payload type.
+   *
+   * @return the type
+   */
+  public Type getType() {
+    return type;
+  }
+
+  /**
+   * Gets the raw payload class.
+   *
+   * @return the raw type
+   */
+  public Class<?> getRawType() {
+    return TypeToken.get(type).getRawType();
+  }
+
+  /**
+   * Checks if the payload is a list.
+   *
+   * @return true, if the payload is a list
+   */
+  public boolean isList() {
+    return Types.ITEM_LIST == type;
+  }
+
+  /**
+   * Create a list of items.
+   *
+   * @param size the size
+   * @return the list
+   */
+  private static List<Item> items(final int size) {
+    final List<Item> items = new ArrayList<>(size);
+
+    for (int i = 0; i < size; i++) {
+      items.add(Item.of(i));
+    }
+
+    return items;
+  }
+
+  /**
+   * Holder for the generic payload types, which cannot be referenced from enum constants
+   * directly.
+   */
+  private static final class Types {
+
+    /** The item list type. */
+    private static final Type ITEM_LIST = new TypeToken<List<Item>>() {
+    }.getType();
+  }
+}
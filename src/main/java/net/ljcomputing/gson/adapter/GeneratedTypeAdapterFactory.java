@@ -0,0 +1,151 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.adapter;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+
+import net.ljcomputing.gson.annotation.ExcludeFromJson;
+import net.ljcomputing.gson.annotation.GenerateTypeAdapter;
+
+/**
+ * Type adapter factory returning the compile-time generated adapters of models annotated with
+ * {@link GenerateTypeAdapter}.
+ *
+ * <p>
+ * A model whose generated adapter cannot be found (for instance when annotation processing was
+ * disabled) is logged once and left to Gson's reflective adapter.
+ * </p>
+ *
+ * <p>
+ * Generated adapters write the default view. A factory created for another view declines the
+ * models declaring fields excluded from specific views, which Gson then adapts reflectively
+ * with the view's exclusion strategy.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class GeneratedTypeAdapterFactory implements TypeAdapterFactory {
+
+  /** The generated adapter class name suffix. */
+  public static final String SUFFIX = "_GsonTypeAdapter";
+
+  /** The SLF4J logger. */
+  private static final Logger LOGGER = LoggerFactory.getLogger(GeneratedTypeAdapterFactory.class);
+
+  /** The generated adapter constructors, or null for types without one. */
+  private static final ClassValue<Constructor<?>> CONSTRUCTORS = new ClassValue<Constructor<?>>() {
+    @Override
+    protected Constructor<?> computeValue(final Class<?> type) {
+      if (!type.isAnnotationPresent(GenerateTypeAdapter.class)) {
+        return null;
+      }
+
+      try {
+        return Class.forName(adapterName(type), true, type.getClassLoader())
+            .getConstructor(Gson.class);
+      } catch (ClassNotFoundException | NoSuchMethodException exception) {
+        LOGGER.warn("No generated type adapter for {}, using reflection: {}", type.getName(),
+            exception.toString());
+        return null;
+      }
+    }
+  };
+
+  /** Indicates a type declares fields excluded from specific views. */
+  private static final ClassValue<Boolean> VIEW_SCOPED = new ClassValue<Boolean>() {
+    @Override
+    protected Boolean computeValue(final Class<?> type) {
+      for (Class<?> current = type; null != current && Object.class != current;
+          current = current.getSuperclass()) {
+        for (final Field field : current.getDeclaredFields()) {
+          final ExcludeFromJson annotation = field.getAnnotation(ExcludeFromJson.class);
+
+          if (null != annotation && 0 != annotation.views().length) {
+            return true;
+          }
+        }
+      }
+
+      return false;
+    }
+  };
+
+  /** The view, or null for the default one. */
+  private final Class<?> view;
+
+  /**
+   * Instantiates a new generated type adapter factory for the default view.
+   */
+  public GeneratedTypeAdapterFactory() {
+    this(null);
+  }
+
+  /**
+   * Instantiates a new generated type adapter factory for the given view.
+   *
+   * @param view the view, or null for the default one
+   */
+  public GeneratedTypeAdapterFactory(final Class<?> view) {
+    this.view = view;
+  }
+
+  /**
+   * Get the name of the generated adapter of a model.
+   *
+   * @param type the model
+   * @return the adapter class name
+   */
+  public static String adapterName(final Class<?> type) {
+    return type.getName().replace('$', '_') + SUFFIX;
+  }
+
+  /**
+   * @see com.google.gson.TypeAdapterFactory#create(com.google.gson.Gson,
+   *      com.google.gson.reflect.TypeToken)
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> type) {
+    final Constructor<?> constructor = CONSTRUCTORS.get(type.getRawType());
+
+    if (null == constructor || null != view && VIEW_SCOPED.get(type.getRawType())) {
+      return null;
+    }
+
+    try {
+      return (TypeAdapter<T>) constructor.newInstance(gson);
+    } catch (InstantiationException | IllegalAccessException exception) {
+      throw new JsonIOException("Could not create " + constructor.getName(), exception);
+    } catch (InvocationTargetException exception) {
+      throw new JsonIOException("Could not create " + constructor.getName(),
+          exception.getCause());
+    }
+  }
+}
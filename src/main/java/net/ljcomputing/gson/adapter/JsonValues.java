@@ -0,0 +1,141 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.adapter;
+
+import java.io.IOException;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.internal.bind.ReflectiveTypeAdapterFactory;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Value readers and writers called by the generated type adapters, matching the behavior of
+ * Gson's own adapters.
+ *
+ * @author James G. Willmore
+ *
+ */
+public final class JsonValues {
+
+  /**
+   * Instantiates a new JSON values.
+   */
+  private JsonValues() {
+  }
+
+  /**
+   * Read a boolean; like Gson, a string value is parsed.
+   *
+   * @param in the reader
+   * @return the boolean
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public static boolean readBoolean(final JsonReader in) throws IOException {
+    if (in.peek() == JsonToken.STRING) {
+      return Boolean.parseBoolean(in.nextString());
+    }
+
+    return in.nextBoolean();
+  }
+
+  /**
+   * Read an int.
+   *
+   * @param in the reader
+   * @return the int
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public static int readInt(final JsonReader in) throws IOException {
+    try {
+      return in.nextInt();
+    } catch (NumberFormatException exception) {
+      throw new JsonSyntaxException(exception);
+    }
+  }
+
+  /**
+   * Read a long.
+   *
+   * @param in the reader
+   * @return the long
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public static long readLong(final JsonReader in) throws IOException {
+    try {
+      return in.nextLong();
+    } catch (NumberFormatException exception) {
+      throw new JsonSyntaxException(exception);
+    }
+  }
+
+  /**
+   * Read a string, or null; like Gson, a boolean value is converted.
+   *
+   * @param in the reader
+   * @return the string
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public static String readString(final JsonReader in) throws IOException {
+    final JsonToken token = in.peek();
+
+    if (token == JsonToken.NULL) {
+      in.nextNull();
+      return null;
+    }
+
+    if (token == JsonToken.BOOLEAN) {
+      return Boolean.toString(in.nextBoolean());
+    }
+
+    return in.nextString();
+  }
+
+  /**
+   * Write a value whose declared type is a non-final class, preferring the adapter of its runtime
+   * type the same way Gson's reflective adapter does.
+   *
+   * @param <T> the declared type
+   * @param gson the gson
+   * @param declared the adapter of the declared type
+   * @param declaredType the declared type
+   * @param out the writer
+   * @param value the value
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> void writeRuntime(final Gson gson, final TypeAdapter<T> declared,
+      final Class<T> declaredType, final JsonWriter out, final T value) throws IOException {
+    TypeAdapter<T> adapter = declared;
+
+    if (null != value && value.getClass() != declaredType) {
+      final TypeAdapter<T> runtime = (TypeAdapter<T>) gson.getAdapter(value.getClass());
+
+      // a custom adapter for the declared type beats a reflective one for the runtime type
+      if (!(runtime instanceof ReflectiveTypeAdapterFactory.Adapter)
+          || declared instanceof ReflectiveTypeAdapterFactory.Adapter) {
+        adapter = runtime;
+      }
+    }
+
+    adapter.write(out, value);
+  }
+}
@@ -0,0 +1,145 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.adapter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.internal.$Gson$Types;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Type adapter factory reading the keys of JSON objects bound to maps as member names.
+ *
+ * <p>
+ * Gson's own map adapter turns each member name into a string value through a hook that only
+ * works on the state of its own {@link JsonReader}. Readers extending it, such as the binary,
+ * limited and interning readers, are read here instead: every key goes through
+ * {@link JsonReader#nextName()}, so those readers see map keys as the member names they are.
+ * Gson's own reader, the array form of complex keys and writing are left to Gson's adapter,
+ * which also creates the map instances.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class KeyedMapTypeAdapterFactory implements TypeAdapterFactory {
+
+  /** The empty object Gson's adapter reads into a new, empty map. */
+  private static final JsonObject EMPTY = new JsonObject();
+
+  /**
+   * @see com.google.gson.TypeAdapterFactory#create(com.google.gson.Gson,
+   *      com.google.gson.reflect.TypeToken)
+   */
+  @Override
+  public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> type) {
+    final Class<? super T> rawType = type.getRawType();
+
+    if (!Map.class.isAssignableFrom(rawType)) {
+      return null;
+    }
+
+    final Type[] keyAndValueTypes =
+        $Gson$Types.getMapKeyAndValueTypes(type.getType(), rawType);
+    final Type keyType = keyAndValueTypes[0];
+    final TypeAdapter<?> keyAdapter = String.class == keyType || Object.class == keyType
+        ? null : gson.getAdapter(TypeToken.get(keyType));
+
+    return new KeyedMapAdapter<T>(gson.getDelegateAdapter(this, type), keyAdapter,
+        gson.getAdapter(TypeToken.get(keyAndValueTypes[1])));
+  }
+
+  /**
+   * Map adapter reading member names as keys.
+   *
+   * @param <T> the map type
+   */
+  private static final class KeyedMapAdapter<T> extends TypeAdapter<T> {
+
+    /** Gson's map adapter. */
+    private final TypeAdapter<T> delegate;
+
+    /** The key adapter, or null for keys kept as the names. */
+    private final TypeAdapter<?> keyAdapter;
+
+    /** The value adapter. */
+    private final TypeAdapter<?> valueAdapter;
+
+    /**
+     * Instantiates a new keyed map adapter.
+     *
+     * @param delegate Gson's map adapter
+     * @param keyAdapter the key adapter, or null for keys kept as the names
+     * @param valueAdapter the value adapter
+     */
+    private KeyedMapAdapter(final TypeAdapter<T> delegate, final TypeAdapter<?> keyAdapter,
+        final TypeAdapter<?> valueAdapter) {
+      this.delegate = delegate;
+      this.keyAdapter = keyAdapter;
+      this.valueAdapter = valueAdapter;
+    }
+
+    /**
+     * @see com.google.gson.TypeAdapter#write(com.google.gson.stream.JsonWriter, java.lang.Object)
+     */
+    @Override
+    public void write(final JsonWriter out, final T value) throws IOException {
+      delegate.write(out, value);
+    }
+
+    /**
+     * @see com.google.gson.TypeAdapter#read(com.google.gson.stream.JsonReader)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T read(final JsonReader in) throws IOException {
+      if (JsonReader.class == in.getClass() || JsonToken.BEGIN_OBJECT != in.peek()) {
+        return delegate.read(in);
+      }
+
+      final T map = delegate.fromJsonTree(EMPTY);
+      final Map<Object, Object> entries = (Map<Object, Object>) map;
+
+      in.beginObject();
+
+      while (in.hasNext()) {
+        final String name = in.nextName();
+        final Object key =
+            null == keyAdapter ? name : keyAdapter.fromJsonTree(new JsonPrimitive(name));
+
+        if (null != entries.put(key, valueAdapter.read(in))) {
+          throw new JsonSyntaxException("duplicate key: " + key);
+        }
+      }
+
+      in.endObject();
+      return map;
+    }
+  }
+}
@@ -0,0 +1,47 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation that indicates the serialized form of the annotated type's instances may be cached
+ * and reused for as long as the same instance is serialized.
+ * 
+ * <p>
+ * Instances must be immutable, or carry a field annotated with {@link JsonVersion} that changes
+ * whenever they do.
+ * </p>
+ * 
+ * @author James G. Willmore
+ *
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface CacheableJson {
+
+  /**
+   * The time to live of a cached form, in milliseconds; 0 uses the cache's default.
+   *
+   * @return the time to live
+   */
+  long ttlMillis() default 0;
+}
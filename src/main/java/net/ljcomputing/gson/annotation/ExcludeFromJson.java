@@ -22,10 +22,21 @@ import java.lang.annotation.RetentionPolicy;
 /**
  * Annotation that indicates that annotated member should be excluded from JSON.
  * 
+ * <p>
+ * Without {@link #views()} the member is always excluded. With views, it is written by default
+ * and left out only when serializing with one of those views, or a subtype of one.
+ * </p>
+ * 
  * @author James G. Willmore
  *
  */
 @Retention(RetentionPolicy.RUNTIME)
 public @interface ExcludeFromJson {
 
+  /**
+   * The serialization views excluding the member; empty to exclude it from all of them.
+   *
+   * @return the views
+   */
+  Class<?>[] views() default {};
 }
@@ -0,0 +1,50 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation that indicates a Gson type adapter should be generated for the annotated model at
+ * compile time, instead of Gson's reflective adapter being built at runtime.
+ * 
+ * <p>
+ * The generated adapter is named after the model, with nested class names joined by an
+ * underscore and a {@code _GsonTypeAdapter} suffix, and is registered through
+ * {@link net.ljcomputing.gson.adapter.GeneratedTypeAdapterFactory}. Fields annotated with
+ * {@link ExcludeFromJson} are left out of it.
+ * </p>
+ *
+ * <p>
+ * Names and fields are fixed at compile time, so field naming policies, exclusion strategies,
+ * {@code Expose} and {@code Since} configured on the Gson builder do not apply to the generated
+ * adapter. The Gson bean of {@code GsonConfiguration} therefore uses Gson's reflective adapter
+ * for annotated models whenever a {@code GsonBuilderCustomizer} is present.
+ * </p>
+ * 
+ * @author James G. Willmore
+ *
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface GenerateTypeAdapter {
+
+}
@@ -0,0 +1,99 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.binary;
+
+/**
+ * Constants of the compact binary encoding.
+ *
+ * <p>
+ * A document starts with the {@link #VERSION} byte, followed by a single value. Every value
+ * starts with a tag byte: numbers that are integral are zigzag varints, other doubles are eight
+ * big-endian bytes and numbers that fit neither are decimal strings. Strings are the varint length
+ * of their UTF-8 bytes followed by the bytes. Arrays and objects run until an {@link #END} tag.
+ * </p>
+ *
+ * <p>
+ * Object member names go through a per-stream dictionary: the first occurrence of a name is
+ * written in full and numbered, later ones by their number, in a single byte for the first
+ * {@value #SMALL_KEY_REFS} names. At most {@value #MAX_KEYS} names are numbered per stream.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public final class BinaryFormat {
+
+  /** The media type subtype. */
+  public static final String SUBTYPE = "x-ljc-binary";
+
+  /** The media type. */
+  public static final String MEDIA_TYPE = "application/" + SUBTYPE;
+
+  /** The format version, the first byte of a document. */
+  public static final int VERSION = 1;
+
+  /** The maximum number of names numbered in the per-stream dictionary. */
+  public static final int MAX_KEYS = 4096;
+
+  /** The number of names referenced in a single byte. */
+  public static final int SMALL_KEY_REFS = 128;
+
+  /** Null. */
+  static final int NULL = 0x00;
+
+  /** False. */
+  static final int FALSE = 0x01;
+
+  /** True. */
+  static final int TRUE = 0x02;
+
+  /** Integral number, zigzag varint. */
+  static final int INT = 0x03;
+
+  /** Double, eight big-endian bytes. */
+  static final int DOUBLE = 0x04;
+
+  /** String, varint length and UTF-8 bytes. */
+  static final int STRING = 0x05;
+
+  /** Begin array. */
+  static final int BEGIN_ARRAY = 0x06;
+
+  /** Begin object. */
+  static final int BEGIN_OBJECT = 0x07;
+
+  /** End of array or object. */
+  static final int END = 0x08;
+
+  /** Number as a decimal string. */
+  static final int NUMBER = 0x09;
+
+  /** Reference to a numbered name, varint number. */
+  static final int KEY_REF = 0x0A;
+
+  /** Name written in full, varint length and UTF-8 bytes. */
+  static final int KEY = 0x0B;
+
+  /** Single byte reference to one of the first numbered names, or'ed with its number. */
+  static final int SMALL_KEY_REF = 0x80;
+
+  /**
+   * Instantiates a new binary format.
+   */
+  private BinaryFormat() {
+  }
+}
@@ -0,0 +1,822 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.binary;
+
+import static net.ljcomputing.gson.binary.BinaryFormat.BEGIN_ARRAY;
+import static net.ljcomputing.gson.binary.BinaryFormat.BEGIN_OBJECT;
+import static net.ljcomputing.gson.binary.BinaryFormat.DOUBLE;
+import static net.ljcomputing.gson.binary.BinaryFormat.END;
+import static net.ljcomputing.gson.binary.BinaryFormat.FALSE;
+import static net.ljcomputing.gson.binary.BinaryFormat.INT;
+import static net.ljcomputing.gson.binary.BinaryFormat.KEY;
+import static net.ljcomputing.gson.binary.BinaryFormat.KEY_REF;
+import static net.ljcomputing.gson.binary.BinaryFormat.MAX_KEYS;
+import static net.ljcomputing.gson.binary.BinaryFormat.NULL;
+import static net.ljcomputing.gson.binary.BinaryFormat.NUMBER;
+import static net.ljcomputing.gson.binary.BinaryFormat.SMALL_KEY_REF;
+import static net.ljcomputing.gson.binary.BinaryFormat.STRING;
+import static net.ljcomputing.gson.binary.BinaryFormat.TRUE;
+import static net.ljcomputing.gson.binary.BinaryFormat.VERSION;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import net.ljcomputing.gson.io.BufferPool;
+import net.ljcomputing.gson.limit.JsonLimiter;
+import net.ljcomputing.gson.limit.JsonLimits;
+
+/**
+ * JSON reader decoding the compact {@link BinaryFormat} instead of JSON text.
+ *
+ * <p>
+ * Gson's type adapters read through it unchanged. Member names come from the per-stream
+ * dictionary, so repeated names share a single String. Maps are read through the
+ * {@link net.ljcomputing.gson.adapter.KeyedMapTypeAdapterFactory} registered by
+ * {@code GsonFactory}, since Gson's own map adapter only reads keys from its own reader. Closing
+ * the reader returns its buffer to the {@link BufferPool}; the source stream is owned by the
+ * caller and is not closed.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class BinaryJsonReader extends JsonReader {
+
+  /** The text reader handed to {@link JsonReader}, which is never read from. */
+  private static final Reader UNUSED = new Reader() {
+    @Override
+    public int read(final char[] cbuf, final int off, final int len) throws IOException {
+      throw new IOException("Binary readers do not read text");
+    }
+
+    @Override
+    public void close() {
+    }
+  };
+
+  /** No tag has been peeked. */
+  private static final int PEEKED_NONE = -2;
+
+  /** The end of the document has been peeked. */
+  private static final int PEEKED_EOF = -1;
+
+  /** Before the top-level value. */
+  private static final int DOCUMENT = 0;
+
+  /** After the top-level value. */
+  private static final int DOCUMENT_DONE = 1;
+
+  /** Inside an array. */
+  private static final int ARRAY = 2;
+
+  /** Inside an object, before a name or its end. */
+  private static final int OBJECT_NAME = 3;
+
+  /** Inside an object, before a member value. */
+  private static final int OBJECT_VALUE = 4;
+
+  /** The source stream. */
+  private final InputStream in;
+
+  /** The numbered names. */
+  private final List<String> keys = new ArrayList<>();
+
+  /** The buffer, or null once closed. */
+  private byte[] buffer;
+
+  /** The buffer position. */
+  private int position;
+
+  /** The buffer limit. */
+  private int limit;
+
+  /** Indicates the source stream is exhausted. */
+  private boolean eof;
+
+  /** Indicates the version byte has been read. */
+  private boolean started;
+
+  /** The peeked tag. */
+  private int peeked = PEEKED_NONE;
+
+  /** The context stack. */
+  private int[] stack = new int[32];
+
+  /** The context stack depth. */
+  private int depth = 1;
+
+  /** The limiter. */
+  private final JsonLimiter limiter;
+
+  /**
+   * Instantiates a new binary JSON reader.
+   *
+   * @param in the source stream
+   */
+  public BinaryJsonReader(final InputStream in) {
+    this(in, JsonLimits.none());
+  }
+
+  /**
+   * Instantiates a new binary JSON reader enforcing the given limits as it reads.
+   *
+   * @param in the source stream
+   * @param limits the limits
+   */
+  public BinaryJsonReader(final InputStream in, final JsonLimits limits) {
+    super(UNUSED);
+    this.limiter = limits.newLimiter();
+    this.in = limits.isUnlimited() ? in : limiter.wrap(in);
+    this.buffer = BufferPool.acquireBytes();
+    this.stack[0] = DOCUMENT;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#peek()
+   */
+  @Override
+  public JsonToken peek() throws IOException {
+    final int tag = peekTag();
+    final int context = stack[depth - 1];
+
+    if (PEEKED_EOF == tag) {
+      return JsonToken.END_DOCUMENT;
+    }
+
+    if (OBJECT_NAME == context) {
+      if (END == tag) {
+        return JsonToken.END_OBJECT;
+      }
+
+      if (tag >= SMALL_KEY_REF || KEY == tag || KEY_REF == tag) {
+        return JsonToken.NAME;
+      }
+
+      throw new MalformedJsonException("Expected a name but was tag " + tag);
+    }
+
+    switch (tag) {
+      case NULL:
+        return JsonToken.NULL;
+      case FALSE:
+      case TRUE:
+        return JsonToken.BOOLEAN;
+      case INT:
+      case DOUBLE:
+      case NUMBER:
+        return JsonToken.NUMBER;
+      case STRING:
+        return JsonToken.STRING;
+      case BEGIN_ARRAY:
+        return JsonToken.BEGIN_ARRAY;
+      case BEGIN_OBJECT:
+        return JsonToken.BEGIN_OBJECT;
+      case END:
+        if (ARRAY == context) {
+          return JsonToken.END_ARRAY;
+        }
+
+        throw new MalformedJsonException("Unexpected end of container");
+      default:
+        throw new MalformedJsonException("Unknown tag " + tag);
+    }
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#beginArray()
+   */
+  @Override
+  public void beginArray() throws IOException {
+    expect(JsonToken.BEGIN_ARRAY);
+    peeked = PEEKED_NONE;
+    push(ARRAY);
+    limiter.beginContainer(true);
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#endArray()
+   */
+  @Override
+  public void endArray() throws IOException {
+    expect(JsonToken.END_ARRAY);
+    peeked = PEEKED_NONE;
+    depth--;
+    limiter.endContainer();
+    afterValue();
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#beginObject()
+   */
+  @Override
+  public void beginObject() throws IOException {
+    expect(JsonToken.BEGIN_OBJECT);
+    peeked = PEEKED_NONE;
+    push(OBJECT_NAME);
+    limiter.beginContainer(false);
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#endObject()
+   */
+  @Override
+  public void endObject() throws IOException {
+    expect(JsonToken.END_OBJECT);
+    peeked = PEEKED_NONE;
+    depth--;
+    limiter.endContainer();
+    afterValue();
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#hasNext()
+   */
+  @Override
+  public boolean hasNext() throws IOException {
+    final JsonToken token = peek();
+    return JsonToken.END_OBJECT != token && JsonToken.END_ARRAY != token
+        && JsonToken.END_DOCUMENT != token;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#nextName()
+   */
+  @Override
+  public String nextName() throws IOException {
+    expect(JsonToken.NAME);
+    final String name = readName(peeked);
+    peeked = PEEKED_NONE;
+    stack[depth - 1] = OBJECT_VALUE;
+    limiter.name();
+    return name;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#nextString()
+   */
+  @Override
+  public String nextString() throws IOException {
+    final JsonToken token = peek();
+    final String value;
+
+    if (JsonToken.STRING == token) {
+      peeked = PEEKED_NONE;
+      value = readString();
+    } else if (JsonToken.NUMBER == token) {
+      value = readNumberText();
+    } else {
+      throw new IllegalStateException("Expected a string but was " + token);
+    }
+
+    limiter.value();
+    afterValue();
+    return value;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#nextBoolean()
+   */
+  @Override
+  public boolean nextBoolean() throws IOException {
+    expect(JsonToken.BOOLEAN);
+    final boolean value = TRUE == peeked;
+    peeked = PEEKED_NONE;
+    limiter.value();
+    afterValue();
+    return value;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#nextNull()
+   */
+  @Override
+  public void nextNull() throws IOException {
+    expect(JsonToken.NULL);
+    peeked = PEEKED_NONE;
+    limiter.value();
+    afterValue();
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#nextDouble()
+   */
+  @Override
+  public double nextDouble() throws IOException {
+    final JsonToken token = peek();
+    final double value;
+
+    if (JsonToken.NUMBER == token && INT == peeked) {
+      peeked = PEEKED_NONE;
+      value = readZigzag();
+    } else if (JsonToken.NUMBER == token && DOUBLE == peeked) {
+      peeked = PEEKED_NONE;
+      value = readDouble();
+    } else if (JsonToken.NUMBER == token || JsonToken.STRING == token) {
+      peeked = PEEKED_NONE;
+      value = Double.parseDouble(readString());
+    } else {
+      throw new IllegalStateException("Expected a double but was " + token);
+    }
+
+    limiter.value();
+    afterValue();
+
+    if (!isLenient() && (Double.isNaN(value) || Double.isInfinite(value))) {
+      throw new MalformedJsonException("JSON forbids NaN and infinities: " + value);
+    }
+
+    return value;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#nextLong()
+   */
+  @Override
+  public long nextLong() throws IOException {
+    final JsonToken token = peek();
+    final long value;
+
+    if (JsonToken.NUMBER == token && INT == peeked) {
+      peeked = PEEKED_NONE;
+      value = readZigzag();
+    } else if (JsonToken.NUMBER == token && DOUBLE == peeked) {
+      peeked = PEEKED_NONE;
+      final double number = readDouble();
+      value = (long) number;
+
+      if (value != number) {
+        throw new NumberFormatException("Expected a long but was " + number);
+      }
+    } else if (JsonToken.NUMBER == token || JsonToken.STRING == token) {
+      peeked = PEEKED_NONE;
+      value = parseLong(readString());
+    } else {
+      throw new IllegalStateException("Expected a long but was " + token);
+    }
+
+    limiter.value();
+    afterValue();
+    return value;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#nextInt()
+   */
+  @Override
+  public int nextInt() throws IOException {
+    final long value = nextLong();
+
+    if ((int) value != value) {
+      throw new NumberFormatException("Expected an int but was " + value);
+    }
+
+    return (int) value;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#skipValue()
+   */
+  @Override
+  public void skipValue() throws IOException {
+    int count = 0;
+
+    do {
+      switch (peek()) {
+        case BEGIN_ARRAY:
+          beginArray();
+          count++;
+          break;
+        case BEGIN_OBJECT:
+          beginObject();
+          count++;
+          break;
+        case END_ARRAY:
+          endArray();
+          count--;
+          break;
+        case END_OBJECT:
+          endObject();
+          count--;
+          break;
+        case NAME:
+          nextName();
+          break;
+        case STRING:
+        case NUMBER:
+          skipScalar();
+          break;
+        case BOOLEAN:
+          nextBoolean();
+          break;
+        case NULL:
+          nextNull();
+          break;
+        default:
+          return;
+      }
+    } while (0 != count);
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#close()
+   */
+  @Override
+  public void close() throws IOException {
+    if (null != buffer) {
+      BufferPool.releaseBytes(buffer);
+      buffer = null;
+    }
+
+    peeked = PEEKED_NONE;
+    stack[0] = DOCUMENT_DONE;
+    depth = 1;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#toString()
+   */
+  @Override
+  public String toString() {
+    return getClass().getSimpleName();
+  }
+
+  /**
+   * Peek the next tag, reading the version byte first.
+   *
+   * @return the tag, or {@link #PEEKED_EOF}
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private int peekTag() throws IOException {
+    if (PEEKED_NONE != peeked) {
+      return peeked;
+    }
+
+    if (null == buffer) {
+      throw new IOException("Reader closed");
+    }
+
+    if (DOCUMENT_DONE == stack[depth - 1]) {
+      peeked = PEEKED_EOF;
+      return peeked;
+    }
+
+    if (!started) {
+      final int version = read();
+
+      if (version < 0) {
+        throw new EOFException("End of input");
+      }
+
+      if (VERSION != version) {
+        throw new MalformedJsonException("Unsupported binary format version " + version);
+      }
+
+      started = true;
+    }
+
+    final int tag = read();
+
+    if (tag < 0) {
+      throw new EOFException("End of input");
+    }
+
+    peeked = tag;
+    return peeked;
+  }
+
+  /**
+   * Check the next token.
+   *
+   * @param expected the expected token
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void expect(final JsonToken expected) throws IOException {
+    final JsonToken token = peek();
+
+    if (expected != token) {
+      throw new IllegalStateException("Expected " + expected + " but was " + token);
+    }
+  }
+
+  /**
+   * Push a context.
+   *
+   * @param context the context
+   */
+  private void push(final int context) {
+    if (depth == stack.length) {
+      stack = Arrays.copyOf(stack, depth * 2);
+    }
+
+    stack[depth++] = context;
+  }
+
+  /**
+   * Move past a value in the current context.
+   */
+  private void afterValue() {
+    final int context = stack[depth - 1];
+
+    if (OBJECT_VALUE == context) {
+      stack[depth - 1] = OBJECT_NAME;
+    } else if (DOCUMENT == context) {
+      stack[depth - 1] = DOCUMENT_DONE;
+    }
+  }
+
+  /**
+   * Read a name given its tag.
+   *
+   * @param tag the tag
+   * @return the name
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private String readName(final int tag) throws IOException {
+    if (KEY == tag) {
+      final String name = readString();
+
+      if (keys.size() < MAX_KEYS) {
+        keys.add(name);
+      }
+
+      return name;
+    }
+
+    final long number = tag >= SMALL_KEY_REF ? tag & ~SMALL_KEY_REF : readVarint();
+
+    if (number >= keys.size()) {
+      throw new MalformedJsonException("Unknown name reference " + number);
+    }
+
+    return keys.get((int) number);
+  }
+
+  /**
+   * Read the peeked number as text.
+   *
+   * @return the text
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private String readNumberText() throws IOException {
+    final int tag = peeked;
+    peeked = PEEKED_NONE;
+
+    if (INT == tag) {
+      return Long.toString(readZigzag());
+    }
+
+    if (DOUBLE == tag) {
+      return Double.toString(readDouble());
+    }
+
+    return readString();
+  }
+
+  /**
+   * Skip the peeked string or number.
+   *
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void skipScalar() throws IOException {
+    final int tag = peeked;
+    peeked = PEEKED_NONE;
+
+    if (INT == tag) {
+      readVarint();
+    } else if (DOUBLE == tag) {
+      skip(8);
+    } else {
+      skip(readLength());
+    }
+
+    limiter.value();
+    afterValue();
+  }
+
+  /**
+   * Parse a long, accepting integral values in any decimal notation.
+   *
+   * @param text the text
+   * @return the long
+   */
+  private static long parseLong(final String text) {
+    try {
+      return Long.parseLong(text);
+    } catch (NumberFormatException exception) {
+      try {
+        return new BigDecimal(text).longValueExact();
+      } catch (ArithmeticException arithmeticException) {
+        throw new NumberFormatException("Expected a long but was " + text);
+      }
+    }
+  }
+
+  /**
+   * Read a length prefixed UTF-8 string.
+   *
+   * @return the string
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private String readString() throws IOException {
+    final int length = readLength();
+    limiter.string(length);
+
+    if (length <= buffer.length) {
+      require(length);
+      final String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+      position += length;
+      return value;
+    }
+
+    // the declared length is untrusted: grow as the bytes arrive rather than allocate it upfront
+    byte[] bytes = new byte[Math.min(length, 2 * buffer.length)];
+    int offset = limit - position;
+    System.arraycopy(buffer, position, bytes, 0, offset);
+    position = limit;
+
+    while (offset < length) {
+      if (offset == bytes.length) {
+        bytes = Arrays.copyOf(bytes, (int) Math.min(length, 2L * bytes.length));
+      }
+
+      final int read = in.read(bytes, offset, bytes.length - offset);
+
+      if (read < 0) {
+        throw new EOFException("End of input");
+      }
+
+      offset += read;
+    }
+
+    return new String(bytes, 0, length, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Read a length.
+   *
+   * @return the length
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private int readLength() throws IOException {
+    final long length = readVarint();
+
+    if (length > Integer.MAX_VALUE) {
+      throw new MalformedJsonException("Invalid length " + length);
+    }
+
+    return (int) length;
+  }
+
+  /**
+   * Read a zigzag encoded varint.
+   *
+   * @return the value
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private long readZigzag() throws IOException {
+    final long value = readVarint();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * Read an unsigned varint.
+   *
+   * @return the value
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private long readVarint() throws IOException {
+    long value = 0;
+
+    for (int shift = 0; shift < 64; shift += 7) {
+      final int b = read();
+
+      if (b < 0) {
+        throw new EOFException("End of input");
+      }
+
+      value |= (long) (b & 0x7F) << shift;
+
+      if (0 == (b & 0x80)) {
+        return value;
+      }
+    }
+
+    throw new MalformedJsonException("Malformed varint");
+  }
+
+  /**
+   * Read a big-endian double.
+   *
+   * @return the value
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private double readDouble() throws IOException {
+    require(8);
+    long bits = 0;
+
+    for (int i = 0; i < 8; i++) {
+      bits = (bits << 8) | (buffer[position++] & 0xFF);
+    }
+
+    return Double.longBitsToDouble(bits);
+  }
+
+  /**
+   * Skip bytes.
+   *
+   * @param count the count
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void skip(final int count) throws IOException {
+    int remaining = count;
+
+    while (remaining > 0) {
+      if (position >= limit && !fill()) {
+        throw new EOFException("End of input");
+      }
+
+      final int skipped = Math.min(remaining, limit - position);
+      position += skipped;
+      remaining -= skipped;
+    }
+  }
+
+  /**
+   * Read a byte.
+   *
+   * @return the byte, or -1 at the end of input
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private int read() throws IOException {
+    if (position >= limit && !fill()) {
+      return -1;
+    }
+
+    return buffer[position++] & 0xFF;
+  }
+
+  /**
+   * Make sure the given number of bytes, at most the buffer size, is buffered.
+   *
+   * @param count the count
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void require(final int count) throws IOException {
+    while (limit - position < count) {
+      if (!fill()) {
+        throw new EOFException("End of input");
+      }
+    }
+  }
+
+  /**
+   * Move the unread bytes to the start of the buffer and read more bytes from the source.
+   *
+   * @return true, if bytes were read
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private boolean fill() throws IOException {
+    final int remaining = limit - position;
+    System.arraycopy(buffer, position, buffer, 0, remaining);
+    position = 0;
+    limit = remaining;
+
+    while (!eof && limit < buffer.length) {
+      final int read = in.read(buffer, limit, buffer.length - limit);
+
+      if (read < 0) {
+        eof = true;
+      } else if (read > 0) {
+        limit += read;
+        return true;
+      }
+    }
+
+    return false;
+  }
+}
@@ -0,0 +1,474 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.binary;
+
+import static net.ljcomputing.gson.binary.BinaryFormat.BEGIN_ARRAY;
+import static net.ljcomputing.gson.binary.BinaryFormat.BEGIN_OBJECT;
+import static net.ljcomputing.gson.binary.BinaryFormat.DOUBLE;
+import static net.ljcomputing.gson.binary.BinaryFormat.END;
+import static net.ljcomputing.gson.binary.BinaryFormat.FALSE;
+import static net.ljcomputing.gson.binary.BinaryFormat.INT;
+import static net.ljcomputing.gson.binary.BinaryFormat.KEY;
+import static net.ljcomputing.gson.binary.BinaryFormat.KEY_REF;
+import static net.ljcomputing.gson.binary.BinaryFormat.MAX_KEYS;
+import static net.ljcomputing.gson.binary.BinaryFormat.NULL;
+import static net.ljcomputing.gson.binary.BinaryFormat.NUMBER;
+import static net.ljcomputing.gson.binary.BinaryFormat.SMALL_KEY_REF;
+import static net.ljcomputing.gson.binary.BinaryFormat.SMALL_KEY_REFS;
+import static net.ljcomputing.gson.binary.BinaryFormat.STRING;
+import static net.ljcomputing.gson.binary.BinaryFormat.TRUE;
+import static net.ljcomputing.gson.binary.BinaryFormat.VERSION;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.gson.stream.JsonWriter;
+
+import net.ljcomputing.gson.io.BufferPool;
+
+/**
+ * JSON writer emitting the compact {@link BinaryFormat} instead of JSON text.
+ *
+ * <p>
+ * Gson's type adapters write through it unchanged, so the binary form follows the same field
+ * model, naming and exclusion rules as JSON. Bytes are encoded into a pooled buffer which is
+ * drained to the target stream whenever it fills up. Closing the writer flushes it and returns
+ * the buffer to the {@link BufferPool}; the target stream is owned by the caller and is not
+ * closed.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class BinaryJsonWriter extends JsonWriter {
+
+  /** The largest integral double that converts to a long exactly. */
+  private static final double MAX_EXACT_DOUBLE = 9007199254740992.0;
+
+  /** The text writer handed to {@link JsonWriter}, which is never written to. */
+  private static final Writer UNUSED = new Writer() {
+    @Override
+    public void write(final char[] cbuf, final int off, final int len) throws IOException {
+      throw new IOException("Binary writers do not write text");
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+  };
+
+  /** The target stream. */
+  private final OutputStream out;
+
+  /** The numbered names. */
+  private final Map<String, Integer> keys = new HashMap<>();
+
+  /** The buffer, or null once closed. */
+  private byte[] buffer;
+
+  /** The buffer position. */
+  private int position;
+
+  /** The name of the next value, or null. */
+  private String deferredName;
+
+  /** Indicates the version byte has been written. */
+  private boolean started;
+
+  /**
+   * Instantiates a new binary JSON writer.
+   *
+   * @param out the target stream
+   */
+  public BinaryJsonWriter(final OutputStream out) {
+    super(UNUSED);
+    this.out = out;
+    this.buffer = BufferPool.acquireBytes();
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonWriter#beginArray()
+   */
+  @Override
+  public JsonWriter beginArray() throws IOException {
+    beforeValue();
+    writeByte(BEGIN_ARRAY);
+    return this;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonWriter#endArray()
+   */
+  @Override
+  public JsonWriter endArray() throws IOException {
+    writeByte(END);
+    return this;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonWriter#beginObject()
+   */
+  @Override
+  public JsonWriter beginObject() throws IOException {
+    beforeValue();
+    writeByte(BEGIN_OBJECT);
+    return this;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonWriter#endObject()
+   */
+  @Override
+  public JsonWriter endObject() throws IOException {
+    if (null != deferredName) {
+      throw new IllegalStateException("Dangling name: " + deferredName);
+    }
+
+    writeByte(END);
+    return this;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonWriter#name(java.lang.String)
+   */
+  @Override
+  public JsonWriter name(final String name) throws IOException {
+    if (null == name) {
+      throw new NullPointerException("name == null");
+    }
+
+    if (null != deferredName) {
+      throw new IllegalStateException("Name already set: " + deferredName);
+    }
+
+    deferredName = name;
+    return this;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonWriter#value(java.lang.String)
+   */
+  @Override
+  public JsonWriter value(final String value) throws IOException {
+    if (null == value) {
+      return nullValue();
+    }
+
+    beforeValue();
+    writeByte(STRING);
+    writeString(value);
+    return this;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonWriter#nullValue()
+   */
+  @Override
+  public JsonWriter nullValue() throws IOException {
+    if (null != deferredName && !getSerializeNulls()) {
+      // skip the name and the value, as the text writer does
+      deferredName = null;
+      return this;
+    }
+
+    beforeValue();
+    writeByte(NULL);
+    return this;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonWriter#value(boolean)
+   */
+  @Override
+  public JsonWriter value(final boolean value) throws IOException {
+    beforeValue();
+    writeByte(value ? TRUE : FALSE);
+    return this;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonWriter#value(double)
+   */
+  @Override
+  public JsonWriter value(final double value) throws IOException {
+    if (!isLenient() && (Double.isNaN(value) || Double.isInfinite(value))) {
+      throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+    }
+
+    // integral doubles within the exactly representable range are written as varints; -0.0 is not
+    if (Math.abs(value) <= MAX_EXACT_DOUBLE && value == (long) value
+        && (0 != value || 0 == Double.doubleToRawLongBits(value))) {
+      return value((long) value);
+    }
+
+    beforeValue();
+    ensureCapacity(9);
+    buffer[position++] = DOUBLE;
+
+    final long bits = Double.doubleToRawLongBits(value);
+
+    for (int shift = 56; shift >= 0; shift -= 8) {
+      buffer[position++] = (byte) (bits >>> shift);
+    }
+
+    return this;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonWriter#value(long)
+   */
+  @Override
+  public JsonWriter value(final long value) throws IOException {
+    beforeValue();
+    ensureCapacity(11);
+    buffer[position++] = INT;
+    putVarint((value << 1) ^ (value >> 63));
+    return this;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonWriter#value(java.lang.Number)
+   */
+  @Override
+  public JsonWriter value(final Number value) throws IOException {
+    if (null == value) {
+      return nullValue();
+    }
+
+    if (value instanceof Integer || value instanceof Long || value instanceof Short
+        || value instanceof Byte || value instanceof AtomicInteger
+        || value instanceof AtomicLong) {
+      return value(value.longValue());
+    }
+
+    if (value instanceof Double || value instanceof Float) {
+      return value(value.doubleValue());
+    }
+
+    if (value instanceof BigInteger && ((BigInteger) value).bitLength() < 64) {
+      return value(value.longValue());
+    }
+
+    final String text = value.toString();
+
+    if (!isLenient()
+        && ("-Infinity".equals(text) || "Infinity".equals(text) || "NaN".equals(text))) {
+      throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+    }
+
+    beforeValue();
+    writeByte(NUMBER);
+    writeString(text);
+    return this;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonWriter#flush()
+   */
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    drain();
+    out.flush();
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonWriter#close()
+   */
+  @Override
+  public void close() throws IOException {
+    if (null != buffer) {
+      try {
+        flush();
+      } finally {
+        BufferPool.releaseBytes(buffer);
+        buffer = null;
+      }
+    }
+  }
+
+  /**
+   * Write the version byte before the first value and the pending name before a member value.
+   *
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void beforeValue() throws IOException {
+    ensureOpen();
+
+    if (!started) {
+      started = true;
+      writeByte(VERSION);
+    }
+
+    if (null == deferredName) {
+      return;
+    }
+
+    final String name = deferredName;
+    final Integer number = keys.get(name);
+    deferredName = null;
+
+    if (null == number) {
+      writeByte(KEY);
+      writeString(name);
+
+      if (keys.size() < MAX_KEYS) {
+        keys.put(name, keys.size());
+      }
+    } else if (number < SMALL_KEY_REFS) {
+      writeByte(SMALL_KEY_REF | number);
+    } else {
+      ensureCapacity(6);
+      buffer[position++] = KEY_REF;
+      putVarint(number);
+    }
+  }
+
+  /**
+   * Write a string as its UTF-8 length and bytes. Unpaired surrogates are written as '?'.
+   *
+   * @param value the value
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void writeString(final String value) throws IOException {
+    final int length = value.length();
+    int size = 0;
+
+    for (int i = 0; i < length; i++) {
+      final char c = value.charAt(i);
+
+      if (c < 0x80) {
+        size++;
+      } else if (c < 0x800) {
+        size += 2;
+      } else if (Character.isHighSurrogate(c) && i + 1 < length
+          && Character.isLowSurrogate(value.charAt(i + 1))) {
+        size += 4;
+        i++;
+      } else if (Character.isSurrogate(c)) {
+        size++;
+      } else {
+        size += 3;
+      }
+    }
+
+    ensureCapacity(5);
+    putVarint(size);
+
+    for (int i = 0; i < length; i++) {
+      if (buffer.length - position < 4) {
+        drain();
+      }
+
+      final char c = value.charAt(i);
+
+      if (c < 0x80) {
+        buffer[position++] = (byte) c;
+      } else if (c < 0x800) {
+        buffer[position++] = (byte) (0xC0 | (c >> 6));
+        buffer[position++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c) && i + 1 < length
+          && Character.isLowSurrogate(value.charAt(i + 1))) {
+        final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+        buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        buffer[position++] = '?';
+      } else {
+        buffer[position++] = (byte) (0xE0 | (c >> 12));
+        buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+  }
+
+  /**
+   * Write a single byte.
+   *
+   * @param b the byte
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void writeByte(final int b) throws IOException {
+    ensureCapacity(1);
+    buffer[position++] = (byte) b;
+  }
+
+  /**
+   * Put an unsigned varint into the buffer, which must have room for it.
+   *
+   * @param value the value
+   */
+  private void putVarint(final long value) {
+    long remaining = value;
+
+    while ((remaining & ~0x7FL) != 0) {
+      buffer[position++] = (byte) ((remaining & 0x7F) | 0x80);
+      remaining >>>= 7;
+    }
+
+    buffer[position++] = (byte) remaining;
+  }
+
+  /**
+   * Drain the buffer if it has less than the given room left.
+   *
+   * @param room the room
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void ensureCapacity(final int room) throws IOException {
+    ensureOpen();
+
+    if (buffer.length - position < room) {
+      drain();
+    }
+  }
+
+  /**
+   * Drain the buffered bytes to the target stream.
+   *
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void drain() throws IOException {
+    if (position > 0) {
+      out.write(buffer, 0, position);
+      position = 0;
+    }
+  }
+
+  /**
+   * Ensure the writer is open.
+   *
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void ensureOpen() throws IOException {
+    if (null == buffer) {
+      throw new IOException("Writer closed");
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.cache;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A cached serialized form: its UTF-8 bytes, and its String form decoded on first use.
+ *
+ * @author James G. Willmore
+ *
+ */
+public final class CachedJson {
+
+  /** The UTF-8 bytes. */
+  private final byte[] bytes;
+
+  /** The String form, once decoded. */
+  private volatile String string;
+
+  /**
+   * Instantiates a new cached JSON.
+   *
+   * @param bytes the UTF-8 bytes
+   */
+  CachedJson(final byte[] bytes) {
+    this.bytes = bytes;
+  }
+
+  /**
+   * Write the UTF-8 bytes to the given stream.
+   *
+   * @param out the stream
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public void writeTo(final OutputStream out) throws IOException {
+    out.write(bytes);
+  }
+
+  /**
+   * Gets a read-only view of the UTF-8 bytes.
+   *
+   * @return the byte buffer
+   */
+  public ByteBuffer asByteBuffer() {
+    return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+  }
+
+  /**
+   * Gets a copy of the UTF-8 bytes.
+   *
+   * @return the bytes
+   */
+  public byte[] toByteArray() {
+    return Arrays.copyOf(bytes, bytes.length);
+  }
+
+  /**
+   * Gets the length of the UTF-8 form.
+   *
+   * @return the length
+   */
+  public int length() {
+    return bytes.length;
+  }
+
+  /**
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    String decoded = string;
+
+    if (null == decoded) {
+      // racing threads decode the same value
+      decoded = new String(bytes, StandardCharsets.UTF_8);
+      string = decoded;
+    }
+
+    return decoded;
+  }
+}
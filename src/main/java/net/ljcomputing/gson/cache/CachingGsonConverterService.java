@@ -0,0 +1,415 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import com.google.gson.JsonIOException;
+
+import net.ljcomputing.gson.converter.GsonConverterService;
+import net.ljcomputing.gson.io.StringInterner;
+import net.ljcomputing.gson.merge.DiffFormat;
+import net.ljcomputing.gson.merge.KeyedMergePolicy;
+import net.ljcomputing.gson.merge.MergeOptions;
+
+/**
+ * GSON converter service decorator serving the serialization of {@code CacheableJson} instances
+ * from a {@link SerializedFormCache}. Everything else is passed to the delegate.
+ *
+ * <p>
+ * Merges and merge patches change their target in place, so merging into a cacheable instance
+ * invalidates its cached form once the merge is done.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class CachingGsonConverterService implements GsonConverterService {
+
+  /** The delegate. */
+  private transient final GsonConverterService delegate;
+
+  /** The cache. */
+  private transient final SerializedFormCache cache;
+
+  /**
+   * Instantiates a new caching gson converter service.
+   *
+   * @param delegate the delegate
+   * @param cache the cache
+   */
+  public CachingGsonConverterService(final GsonConverterService delegate,
+      final SerializedFormCache cache) {
+    this.delegate = delegate;
+    this.cache = cache;
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toJson(java.lang.Object)
+   */
+  public final String toJson(final Object source) {
+    if (!cache.isCacheable(source)) {
+      return delegate.toJson(source);
+    }
+
+    return cached(source).toString();
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toJson(java.lang.Object,
+   *      java.lang.Class)
+   */
+  public final String toJson(final Object source, final Class<?> view) {
+    return delegate.toJson(source, view);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toJson(java.lang.Object,
+   *      java.lang.Appendable)
+   */
+  public final void toJson(final Object source, final Appendable writer) {
+    if (!cache.isCacheable(source)) {
+      delegate.toJson(source, writer);
+      return;
+    }
+
+    try {
+      writer.append(cached(source).toString());
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toJson(java.lang.Object,
+   *      java.io.OutputStream)
+   */
+  public final void toJson(final Object source, final OutputStream out) {
+    if (!cache.isCacheable(source)) {
+      delegate.toJson(source, out);
+      return;
+    }
+
+    try {
+      cached(source).writeTo(out);
+      out.flush();
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toJsonBytes(java.lang.Object)
+   */
+  public final byte[] toJsonBytes(final Object source) {
+    if (!cache.isCacheable(source)) {
+      return delegate.toJsonBytes(source);
+    }
+
+    return cached(source).toByteArray();
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toJson(java.lang.Object,
+   *      java.nio.ByteBuffer)
+   */
+  public final int toJson(final Object source, final ByteBuffer buffer) {
+    if (!cache.isCacheable(source)) {
+      return delegate.toJson(source, buffer);
+    }
+
+    final CachedJson json = cached(source);
+
+    if (buffer.remaining() < json.length()) {
+      throw new BufferOverflowException();
+    }
+
+    buffer.put(json.asByteBuffer());
+    return json.length();
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.lang.String,
+   *      java.lang.Class)
+   */
+  public final Object fromJson(final String json, final Class<?> target) {
+    return delegate.fromJson(json, target);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.lang.String,
+   *      java.lang.reflect.Type)
+   */
+  @SuppressWarnings("rawtypes")
+  public final List fromJson(final String json, final Type target) {
+    return delegate.fromJson(json, target);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.io.Reader,
+   *      java.lang.reflect.Type)
+   */
+  public final <T> T fromJson(final Reader json, final Type target) {
+    return delegate.fromJson(json, target);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.io.InputStream,
+   *      java.lang.reflect.Type)
+   */
+  public final <T> T fromJson(final InputStream json, final Type target) {
+    return delegate.fromJson(json, target);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.io.Reader,
+   *      java.lang.reflect.Type, net.ljcomputing.gson.io.StringInterner)
+   */
+  public final <T> T fromJson(final Reader json, final Type target,
+      final StringInterner interner) {
+    return delegate.fromJson(json, target, interner);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.io.InputStream,
+   *      java.lang.reflect.Type, net.ljcomputing.gson.io.StringInterner)
+   */
+  public final <T> T fromJson(final InputStream json, final Type target,
+      final StringInterner interner) {
+    return delegate.fromJson(json, target, interner);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.io.Reader,
+   *      java.lang.reflect.Type, java.util.Set)
+   */
+  public final <T> T fromJson(final Reader json, final Type target,
+      final Set<String> fieldPaths) {
+    return delegate.fromJson(json, target, fieldPaths);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(byte[],
+   *      java.lang.reflect.Type)
+   */
+  public final <T> T fromJson(final byte[] json, final Type target) {
+    return delegate.fromJson(json, target);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.nio.ByteBuffer,
+   *      java.lang.reflect.Type)
+   */
+  public final <T> T fromJson(final ByteBuffer json, final Type target) {
+    return delegate.fromJson(json, target);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJsonArray(java.io.Reader,
+   *      java.lang.reflect.Type)
+   */
+  public final <T> Stream<T> fromJsonArray(final Reader json, final Type elementType) {
+    return delegate.fromJsonArray(json, elementType);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJsonArray(java.io.InputStream,
+   *      java.lang.reflect.Type)
+   */
+  public final <T> Stream<T> fromJsonArray(final InputStream json, final Type elementType) {
+    return delegate.fromJsonArray(json, elementType);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toBinary(java.lang.Object)
+   */
+  public final byte[] toBinary(final Object source) {
+    return delegate.toBinary(source);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toBinary(java.lang.Object,
+   *      java.io.OutputStream)
+   */
+  public final void toBinary(final Object source, final OutputStream out) {
+    delegate.toBinary(source, out);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromBinary(java.io.InputStream,
+   *      java.lang.reflect.Type)
+   */
+  public final <T> T fromBinary(final InputStream binary, final Type target) {
+    return delegate.fromBinary(binary, target);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromBinary(byte[],
+   *      java.lang.reflect.Type)
+   */
+  public final <T> T fromBinary(final byte[] binary, final Type target) {
+    return delegate.fromBinary(binary, target);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#merge(java.lang.Object,
+   *      java.lang.Object)
+   */
+  public final Object merge(final Object to, final Object from) {
+    try {
+      return delegate.merge(to, from);
+    } finally {
+      cache.invalidate(to);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService
+   * #merge(java.lang.Object, java.lang.Object, java.lang.String[])
+   */
+  public final Object merge(final Object to, final Object from, final String... ignoredProperties) {
+    try {
+      return delegate.merge(to, from, ignoredProperties);
+    } finally {
+      cache.invalidate(to);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#mergeAll(java.util.Collection,
+   *      java.util.Collection, java.util.function.Function)
+   */
+  public final <T, K> Collection<T> mergeAll(final Collection<T> to,
+      final Collection<? extends T> from, final Function<? super T, ? extends K> key) {
+    try {
+      return delegate.mergeAll(to, from, key);
+    } finally {
+      invalidateAll(to);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#mergeAll(java.util.Collection,
+   *      java.util.Collection, java.util.function.Function,
+   *      net.ljcomputing.gson.merge.KeyedMergePolicy)
+   */
+  public final <T, K> Collection<T> mergeAll(final Collection<T> to,
+      final Collection<? extends T> from, final Function<? super T, ? extends K> key,
+      final KeyedMergePolicy policy) {
+    try {
+      return delegate.mergeAll(to, from, key, policy);
+    } finally {
+      invalidateAll(to);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService
+   * #deepMerge(java.lang.Object, java.lang.Object, net.ljcomputing.gson.merge.MergeOptions)
+   */
+  public final Object deepMerge(final Object to, final Object from, final MergeOptions options) {
+    try {
+      return delegate.deepMerge(to, from, options);
+    } finally {
+      cache.invalidate(to);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService
+   * #applyMergePatch(java.lang.Object, java.io.Reader)
+   */
+  public final Object applyMergePatch(final Object target, final Reader patch) {
+    try {
+      return delegate.applyMergePatch(target, patch);
+    } finally {
+      cache.invalidate(target);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService
+   * #applyMergePatch(java.lang.Object, java.lang.String)
+   */
+  public final Object applyMergePatch(final Object target, final String patch) {
+    try {
+      return delegate.applyMergePatch(target, patch);
+    } finally {
+      cache.invalidate(target);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#diff(java.lang.Object,
+   *      java.lang.Object)
+   */
+  public final String diff(final Object before, final Object after) {
+    return delegate.diff(before, after);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#diff(java.lang.Object,
+   *      java.lang.Object, net.ljcomputing.gson.merge.DiffFormat)
+   */
+  public final String diff(final Object before, final Object after, final DiffFormat format) {
+    return delegate.diff(before, after, format);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#diff(java.lang.Object,
+   *      java.lang.Object, net.ljcomputing.gson.merge.DiffFormat, java.lang.Appendable)
+   */
+  public final void diff(final Object before, final Object after, final DiffFormat format,
+      final Appendable writer) {
+    delegate.diff(before, after, format, writer);
+  }
+
+  /**
+   * Get the cached form of a cacheable source.
+   *
+   * @param source the source
+   * @return the cached form
+   */
+  private CachedJson cached(final Object source) {
+    return cache.get(source, delegate::toJsonBytes);
+  }
+
+  /**
+   * Invalidate the cached forms of the elements of a merged collection.
+   *
+   * @param elements the elements
+   */
+  private void invalidateAll(final Collection<?> elements) {
+    for (final Object element : elements) {
+      if (cache.isCacheable(element)) {
+        cache.invalidate(element);
+      }
+    }
+  }
+}
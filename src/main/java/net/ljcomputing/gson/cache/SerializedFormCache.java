@@ -0,0 +1,468 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import net.ljcomputing.gson.annotation.CacheableJson;
+import net.ljcomputing.gson.annotation.JsonVersion;
+import net.ljcomputing.gson.reflect.ClassModel;
+import net.ljcomputing.gson.reflect.FieldAccessor;
+
+/**
+ * Size-bounded LRU cache of the serialized forms of {@link CacheableJson} instances.
+ *
+ * <p>
+ * Entries are keyed by instance identity; a cached form is reused only while the instance's
+ * {@link JsonVersion} field, if any, keeps the value it had when it was serialized, and until its
+ * time to live expires. The cache is split into independently locked LRU segments, each holding
+ * an equal share of the byte budget. Cached instances are strongly referenced until they are
+ * evicted, expire or are invalidated.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class SerializedFormCache {
+
+  /** The number of segments. */
+  private static final int SEGMENTS = 16;
+
+  /** The per type cache policies. */
+  private static final ClassValue<Policy> POLICIES = new ClassValue<Policy>() {
+    @Override
+    protected Policy computeValue(final Class<?> type) {
+      return Policy.of(type);
+    }
+  };
+
+  /** The segments. */
+  private final Segment[] segments = new Segment[SEGMENTS];
+
+  /** The default time to live, in nanoseconds; 0 for none. */
+  private final long defaultTtlNanos;
+
+  /** The hits. */
+  private final LongAdder hits = new LongAdder();
+
+  /** The misses. */
+  private final LongAdder misses = new LongAdder();
+
+  /** The evictions. */
+  private final LongAdder evictions = new LongAdder();
+
+  /** The expirations and stale versions. */
+  private final LongAdder expirations = new LongAdder();
+
+  /**
+   * Instantiates a new serialized form cache.
+   *
+   * @param maxBytes the maximum total size of the cached forms, in bytes
+   * @param defaultTtlMillis the default time to live, in milliseconds; 0 for none
+   */
+  public SerializedFormCache(final long maxBytes, final long defaultTtlMillis) {
+    for (int i = 0; i < SEGMENTS; i++) {
+      segments[i] = new Segment(Math.max(1, maxBytes / SEGMENTS));
+    }
+
+    this.defaultTtlNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, defaultTtlMillis));
+  }
+
+  /**
+   * Check whether a value's serialized form may be cached.
+   *
+   * @param value the value
+   * @return true, if cacheable
+   */
+  public boolean isCacheable(final Object value) {
+    return null != value && POLICIES.get(value.getClass()).cacheable;
+  }
+
+  /**
+   * Get the cached form of a value.
+   *
+   * @param value the value
+   * @return the cached form, or null
+   */
+  public CachedJson get(final Object value) {
+    if (!isCacheable(value)) {
+      return null;
+    }
+
+    final Policy policy = POLICIES.get(value.getClass());
+    final Key key = new Key(value);
+    final Segment segment = segmentOf(key);
+    final CachedEntry entry;
+
+    synchronized (segment) {
+      entry = segment.get(key);
+
+      if (null != entry && (entry.isExpired(System.nanoTime())
+          || !Objects.equals(entry.version, policy.versionOf(value)))) {
+        segment.remove(key);
+        segment.weight -= entry.json.length();
+        expirations.increment();
+        misses.increment();
+        return null;
+      }
+    }
+
+    if (null == entry) {
+      misses.increment();
+      return null;
+    }
+
+    hits.increment();
+    return entry.json;
+  }
+
+  /**
+   * Get the cached form of a value, serializing and caching it on a miss. Values that are not
+   * cacheable are serialized every time.
+   *
+   * @param value the value
+   * @param serializer the serializer producing UTF-8 bytes
+   * @return the serialized form
+   */
+  public CachedJson get(final Object value, final Function<Object, byte[]> serializer) {
+    if (!isCacheable(value)) {
+      return new CachedJson(serializer.apply(value));
+    }
+
+    final CachedJson cached = get(value);
+
+    if (null != cached) {
+      return cached;
+    }
+
+    final Policy policy = POLICIES.get(value.getClass());
+
+    // read the version before serializing, so a concurrent update makes the entry stale
+    final Object version = policy.versionOf(value);
+    final CachedJson json = new CachedJson(serializer.apply(value));
+    final long ttlNanos = 0 == policy.ttlNanos ? defaultTtlNanos : policy.ttlNanos;
+    final long expiresAt = 0 == ttlNanos ? Long.MAX_VALUE : System.nanoTime() + ttlNanos;
+    final Key key = new Key(value);
+
+    segmentOf(key).add(key, new CachedEntry(json, version, expiresAt));
+    return json;
+  }
+
+  /**
+   * Invalidate the cached form of a value.
+   *
+   * @param value the value
+   */
+  public void invalidate(final Object value) {
+    if (null != value) {
+      final Key key = new Key(value);
+      final Segment segment = segmentOf(key);
+
+      synchronized (segment) {
+        final CachedEntry entry = segment.remove(key);
+
+        if (null != entry) {
+          segment.weight -= entry.json.length();
+        }
+      }
+    }
+  }
+
+  /**
+   * Invalidate the cached forms of all instances of a type.
+   *
+   * @param type the type
+   */
+  public void invalidateAll(final Class<?> type) {
+    for (final Segment segment : segments) {
+      synchronized (segment) {
+        final Iterator<Map.Entry<Key, CachedEntry>> entries = segment.entrySet().iterator();
+
+        while (entries.hasNext()) {
+          final Map.Entry<Key, CachedEntry> entry = entries.next();
+
+          if (entry.getKey().value.getClass() == type) {
+            segment.weight -= entry.getValue().json.length();
+            entries.remove();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Invalidate all cached forms.
+   */
+  public void invalidateAll() {
+    for (final Segment segment : segments) {
+      synchronized (segment) {
+        segment.clear();
+        segment.weight = 0;
+      }
+    }
+  }
+
+  /**
+   * Take a snapshot of the cache statistics.
+   *
+   * @return the statistics
+   */
+  public Map<String, Object> snapshot() {
+    final Map<String, Object> snapshot = new LinkedHashMap<>();
+    long entries = 0;
+    long bytes = 0;
+
+    for (final Segment segment : segments) {
+      synchronized (segment) {
+        entries += segment.size();
+        bytes += segment.weight;
+      }
+    }
+
+    snapshot.put("entries", entries);
+    snapshot.put("bytes", bytes);
+    snapshot.put("hits", hits.sum());
+    snapshot.put("misses", misses.sum());
+    snapshot.put("evictions", evictions.sum());
+    snapshot.put("expirations", expirations.sum());
+
+    return snapshot;
+  }
+
+  /**
+   * Gets the hit count.
+   *
+   * @return the hits
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Gets the miss count.
+   *
+   * @return the misses
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Get the segment of a key.
+   *
+   * @param key the key
+   * @return the segment
+   */
+  private Segment segmentOf(final Key key) {
+    final int hash = key.hash ^ (key.hash >>> 16);
+    return segments[hash & (SEGMENTS - 1)];
+  }
+
+  /**
+   * The caching policy of a type.
+   */
+  private static final class Policy {
+
+    /** Indicates instances are cacheable. */
+    private final boolean cacheable;
+
+    /** The time to live, in nanoseconds; 0 for the cache's default. */
+    private final long ttlNanos;
+
+    /** The version field, or null. */
+    private final FieldAccessor version;
+
+    /**
+     * Instantiates a new policy.
+     *
+     * @param cacheable the cacheable
+     * @param ttlNanos the ttl nanos
+     * @param version the version
+     */
+    private Policy(final boolean cacheable, final long ttlNanos, final FieldAccessor version) {
+      this.cacheable = cacheable;
+      this.ttlNanos = ttlNanos;
+      this.version = version;
+    }
+
+    /**
+     * Build the policy of a type.
+     *
+     * @param type the type
+     * @return the policy
+     */
+    private static Policy of(final Class<?> type) {
+      final CacheableJson cacheable = type.getAnnotation(CacheableJson.class);
+
+      if (null == cacheable) {
+        return new Policy(false, 0, null);
+      }
+
+      FieldAccessor version = null;
+
+      for (final FieldAccessor field : ClassModel.of(type).getFields()) {
+        if (field.getField().isAnnotationPresent(JsonVersion.class)) {
+          version = field;
+        }
+      }
+
+      return new Policy(true, TimeUnit.MILLISECONDS.toNanos(Math.max(0, cacheable.ttlMillis())),
+          version);
+    }
+
+    /**
+     * Read the version of a value.
+     *
+     * @param value the value
+     * @return the version, or null
+     */
+    private Object versionOf(final Object value) {
+      return null == version ? null : version.get(value);
+    }
+  }
+
+  /**
+   * Identity key.
+   */
+  private static final class Key {
+
+    /** The value. */
+    private final Object value;
+
+    /** The identity hash. */
+    private final int hash;
+
+    /**
+     * Instantiates a new key.
+     *
+     * @param value the value
+     */
+    private Key(final Object value) {
+      this.value = value;
+      this.hash = System.identityHashCode(value);
+    }
+
+    /**
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(final Object obj) {
+      return obj instanceof Key && ((Key) obj).value == value;
+    }
+  }
+
+  /**
+   * Cache entry.
+   */
+  private static final class CachedEntry {
+
+    /** The cached form. */
+    private final CachedJson json;
+
+    /** The version the form was serialized at. */
+    private final Object version;
+
+    /** The {@link System#nanoTime()} the entry expires at. */
+    private final long expiresAt;
+
+    /**
+     * Instantiates a new entry.
+     *
+     * @param json the json
+     * @param version the version
+     * @param expiresAt the expiry time
+     */
+    private CachedEntry(final CachedJson json, final Object version, final long expiresAt) {
+      this.json = json;
+      this.version = version;
+      this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Check whether the entry has expired.
+     *
+     * @param now the current {@link System#nanoTime()}
+     * @return true, if expired
+     */
+    private boolean isExpired(final long now) {
+      return Long.MAX_VALUE != expiresAt && now - expiresAt >= 0;
+    }
+  }
+
+  /**
+   * Access ordered segment, evicting its least recently used entries beyond its byte budget.
+   * Callers synchronize on the segment.
+   */
+  @SuppressWarnings("serial")
+  private final class Segment extends LinkedHashMap<Key, CachedEntry> {
+
+    /** The byte budget. */
+    private final long maxWeight;
+
+    /** The cached bytes. */
+    private long weight;
+
+    /**
+     * Instantiates a new segment.
+     *
+     * @param maxWeight the byte budget
+     */
+    private Segment(final long maxWeight) {
+      super(16, 0.75f, true);
+      this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Add an entry and evict the least recently used ones beyond the budget. An entry larger
+     * than the whole budget is not cached.
+     *
+     * @param key the key
+     * @param entry the entry
+     */
+    private synchronized void add(final Key key, final CachedEntry entry) {
+      if (entry.json.length() > maxWeight) {
+        return;
+      }
+
+      final CachedEntry replaced = super.put(key, entry);
+      weight += entry.json.length() - (null == replaced ? 0 : replaced.json.length());
+
+      final Iterator<CachedEntry> eldest = values().iterator();
+
+      while (weight > maxWeight && eldest.hasNext()) {
+        weight -= eldest.next().json.length();
+        eldest.remove();
+        evictions.increment();
+      }
+    }
+  }
+}
@@ -0,0 +1,194 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.config;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.util.Assert;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import net.ljcomputing.gson.binary.BinaryFormat;
+import net.ljcomputing.gson.binary.BinaryJsonReader;
+import net.ljcomputing.gson.binary.BinaryJsonWriter;
+import net.ljcomputing.gson.limit.JsonLimits;
+
+/**
+ * HTTP message converter reading and writing the compact {@link BinaryFormat} through the shared
+ * Gson instance.
+ *
+ * <p>
+ * It only handles {@value BinaryFormat#MEDIA_TYPE}, so it is chosen when a client asks for that
+ * type in its Accept header, or sends it as the request Content-Type; registered after the JSON
+ * converter, every other client still gets JSON.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class BinaryGsonHttpMessageConverter extends AbstractHttpMessageConverter<Object>
+    implements GenericHttpMessageConverter<Object> {
+
+  /** The binary media type. */
+  public static final MediaType BINARY = new MediaType("application", BinaryFormat.SUBTYPE);
+
+  /** The Gson instance. */
+  private Gson gson = GsonFactory.createDefault();
+
+  /** The request body limits. */
+  private JsonLimits jsonLimits = JsonLimits.none();
+
+  /**
+   * Instantiates a new binary gson http message converter.
+   */
+  public BinaryGsonHttpMessageConverter() {
+    super(BINARY);
+  }
+
+  /**
+   * Sets the Gson instance.
+   *
+   * @param gson the new gson
+   */
+  public void setGson(final Gson gson) {
+    Assert.notNull(gson, "'gson' is required");
+    this.gson = gson;
+  }
+
+  /**
+   * Gets the Gson instance.
+   *
+   * @return the gson
+   */
+  public Gson getGson() {
+    return gson;
+  }
+
+  /**
+   * Sets the limits checked while reading request bodies; unlimited by default.
+   *
+   * @param jsonLimits the new JSON limits
+   */
+  public void setJsonLimits(final JsonLimits jsonLimits) {
+    this.jsonLimits = null == jsonLimits ? JsonLimits.none() : jsonLimits;
+  }
+
+  /**
+   * @see org.springframework.http.converter.AbstractHttpMessageConverter#supports(java.lang.Class)
+   */
+  @Override
+  protected boolean supports(final Class<?> clazz) {
+    return true;
+  }
+
+  /**
+   * @see org.springframework.http.converter.GenericHttpMessageConverter
+   *      #canRead(java.lang.reflect.Type, java.lang.Class, org.springframework.http.MediaType)
+   */
+  @Override
+  public boolean canRead(final Type type, final Class<?> contextClass,
+      final MediaType mediaType) {
+    return canRead(mediaType);
+  }
+
+  /**
+   * @see org.springframework.http.converter.GenericHttpMessageConverter
+   *      #read(java.lang.reflect.Type, java.lang.Class, org.springframework.http.HttpInputMessage)
+   */
+  @Override
+  public Object read(final Type type, final Class<?> contextClass,
+      final HttpInputMessage inputMessage) throws IOException {
+    return readBinary(type, inputMessage);
+  }
+
+  /**
+   * @see org.springframework.http.converter.AbstractHttpMessageConverter
+   *      #readInternal(java.lang.Class, org.springframework.http.HttpInputMessage)
+   */
+  @Override
+  protected Object readInternal(final Class<? extends Object> clazz,
+      final HttpInputMessage inputMessage) throws IOException {
+    return readBinary(clazz, inputMessage);
+  }
+
+  /**
+   * @see org.springframework.http.converter.AbstractHttpMessageConverter
+   *      #writeInternal(java.lang.Object, org.springframework.http.HttpOutputMessage)
+   */
+  @Override
+  protected void writeInternal(final Object o, final HttpOutputMessage outputMessage)
+      throws IOException {
+    final OutputStream body = outputMessage.getBody();
+
+    try (final BinaryJsonWriter writer = new BinaryJsonWriter(body)) {
+      if (null == o) {
+        gson.toJson(JsonNull.INSTANCE, writer);
+      } else {
+        gson.toJson(o, o.getClass(), writer);
+      }
+    } catch (JsonIOException exception) {
+      throw new HttpMessageNotWritableException(
+          "Could not write binary: " + exception.getMessage(), exception);
+    }
+  }
+
+  /**
+   * Decode a body, rejecting content after the value.
+   *
+   * @param type the type
+   * @param inputMessage the input message
+   * @return the value
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private Object readBinary(final Type type, final HttpInputMessage inputMessage)
+      throws IOException {
+    try {
+      jsonLimits.checkSize(inputMessage.getHeaders().getContentLength());
+
+      try (final BinaryJsonReader reader =
+          new BinaryJsonReader(inputMessage.getBody(), jsonLimits)) {
+        final Object result = gson.fromJson(reader, type);
+
+        if (null != result && reader.peek() != JsonToken.END_DOCUMENT) {
+          throw new JsonIOException("Binary document was not fully consumed.");
+        }
+
+        return result;
+      } catch (MalformedJsonException exception) {
+        throw new JsonSyntaxException(exception);
+      }
+    } catch (JsonParseException exception) {
+      throw new HttpMessageNotReadableException(
+          "Could not read binary: " + exception.getMessage(), exception);
+    }
+  }
+}
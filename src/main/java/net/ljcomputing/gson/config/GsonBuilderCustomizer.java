@@ -0,0 +1,36 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.config;
+
+import com.google.gson.GsonBuilder;
+
+/**
+ * Callback for customizing the shared Gson instance. Every bean implementing this interface is
+ * applied to the builder before the Gson bean is created.
+ *
+ * @author James G. Willmore
+ *
+ */
+public interface GsonBuilderCustomizer {
+
+  /**
+   * Customize the builder.
+   *
+   * @param builder the builder
+   */
+  void customize(GsonBuilder builder);
+}
@@ -18,19 +18,98 @@ package net.ljcomputing.gson.config;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.web.HttpMessageConverters;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.http.converter.GenericHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageConverter;
-import org.springframework.http.converter.json.GsonHttpMessageConverter;
+import org.springframework.util.StringUtils;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import net.ljcomputing.gson.binary.BinaryFormat;
+import net.ljcomputing.gson.cache.CachingGsonConverterService;
+import net.ljcomputing.gson.cache.SerializedFormCache;
+import net.ljcomputing.gson.converter.AsyncGsonConverterService;
+import net.ljcomputing.gson.converter.GsonConverterService;
+import net.ljcomputing.gson.converter.impl.AsyncGsonConverterServiceImpl;
+import net.ljcomputing.gson.converter.impl.GsonConverterServiceImpl;
+import net.ljcomputing.gson.io.StringInterner;
+import net.ljcomputing.gson.limit.JsonLimits;
+import net.ljcomputing.gson.metrics.ConversionMetrics;
+import net.ljcomputing.gson.metrics.GsonMetricsEndpoint;
+import net.ljcomputing.gson.metrics.MeteredGsonConverterService;
+import net.ljcomputing.gson.metrics.MeteredHttpMessageConverter;
+import net.ljcomputing.gson.projection.FieldProjector;
 
 /**
  * Configuration class implementing GSON.
  * 
+ * <p>
+ * Defines the single Gson instance shared by the converter services and the HTTP message
+ * converters. It is configured through the following properties:
+ * </p>
+ * <ul>
+ * <li>{@value #SERIALIZE_NULLS} - serialize null fields (default true)</li>
+ * <li>{@value #HTML_ESCAPING} - escape HTML characters (default true)</li>
+ * <li>{@value #PRETTY_PRINTING} - pretty print output (default false)</li>
+ * <li>{@value #WARMUP_TYPES} - comma separated class names whose adapters are built at
+ * startup</li>
+ * <li>{@value #WARMUP_PACKAGES} - comma separated packages whose classes are warmed up</li>
+ * <li>{@value #HTTP_GZIP} - gzip responses when the client accepts it (default true)</li>
+ * <li>{@value #HTTP_BUFFER_SIZE} - response buffer size; smaller bodies get a Content-Length
+ * (default {@value StreamingGsonHttpMessageConverter#DEFAULT_BUFFER_SIZE})</li>
+ * <li>{@value #HTTP_FLUSH_INTERVAL} - elements of a {@code Stream} or {@code Iterator} response
+ * written between flushes (default
+ * {@value StreamingGsonHttpMessageConverter#DEFAULT_FLUSH_INTERVAL})</li>
+ * <li>{@value #HTTP_BINARY} - answer clients accepting {@value BinaryFormat#MEDIA_TYPE} with the
+ * compact binary encoding (default true)</li>
+ * <li>{@value #ASYNC_CONCURRENCY} - conversions run at once by the asynchronous service
+ * (default the number of processors)</li>
+ * <li>{@value #ASYNC_QUEUE_DEPTH} - conversions waiting to run before new ones are rejected
+ * (default four times the concurrency)</li>
+ * <li>{@value #ASYNC_ADMISSION_TIMEOUT} - milliseconds a caller waits for admission (default 0,
+ * reject at once)</li>
+ * <li>{@value #ASYNC_VIRTUAL_THREADS} - use virtual threads when the runtime has them (default
+ * true)</li>
+ * <li>{@value #METRICS_ENABLED} - meter the converter service and HTTP message converter
+ * (default true)</li>
+ * <li>{@value #CACHE_ENABLED} - cache the serialized forms of {@code CacheableJson} instances
+ * (default true)</li>
+ * <li>{@value #CACHE_MAX_BYTES} - byte budget of the serialized form cache (default 32MB)</li>
+ * <li>{@value #CACHE_TTL} - default milliseconds a cached form lives (default 0, until
+ * evicted)</li>
+ * <li>{@value #INTERN_ENABLED} - deduplicate decoded strings and map keys through a shared
+ * interner (default false)</li>
+ * <li>{@value #INTERN_CAPACITY} - slots of the shared interner (default
+ * {@value StringInterner#DEFAULT_CAPACITY})</li>
+ * <li>{@value #INTERN_MAX_LENGTH} - length beyond which strings are not interned (default
+ * {@value StringInterner#DEFAULT_MAX_LENGTH})</li>
+ * <li>{@value #LIMITS_MAX_BYTES} - largest input accepted, in bytes of binary input or
+ * characters of JSON text (default 0, unlimited)</li>
+ * <li>{@value #LIMITS_MAX_DEPTH} - deepest nesting of arrays and objects accepted (default
+ * {@value #DEFAULT_MAX_DEPTH})</li>
+ * <li>{@value #LIMITS_MAX_STRING_LENGTH} - longest string or member name accepted (default 0,
+ * unlimited)</li>
+ * <li>{@value #LIMITS_MAX_ARRAY_LENGTH} - most array elements accepted (default 0,
+ * unlimited)</li>
+ * <li>{@value #LIMITS_MAX_OBJECT_MEMBERS} - most object members accepted (default 0,
+ * unlimited)</li>
+ * <li>{@value #PROJECTION_MAX_ADAPTERS} - projection adapters cached for the most recently used
+ * field path sets (default {@value FieldProjector#DEFAULT_MAX_ADAPTERS})</li>
+ * </ul>
+ * 
  * @author James G. Willmore
  *
  */
@@ -38,23 +117,383 @@ import org.springframework.http.converter.json.GsonHttpMessageConverter;
 @ComponentScan(basePackages = { "net.ljcomputing.gson.converter" })
 public class GsonConfiguration {
 
+  /** The serialize nulls property. */
+  public static final String SERIALIZE_NULLS = "ljcomputing.gson.serialize-nulls";
+
+  /** The HTML escaping property. */
+  public static final String HTML_ESCAPING = "ljcomputing.gson.html-escaping";
+
+  /** The pretty printing property. */
+  public static final String PRETTY_PRINTING = "ljcomputing.gson.pretty-printing";
+
+  /** The warm-up types property. */
+  public static final String WARMUP_TYPES = "ljcomputing.gson.warmup.types";
+
+  /** The warm-up packages property. */
+  public static final String WARMUP_PACKAGES = "ljcomputing.gson.warmup.packages";
+
+  /** The HTTP gzip property. */
+  public static final String HTTP_GZIP = "ljcomputing.gson.http.gzip";
+
+  /** The HTTP buffer size property. */
+  public static final String HTTP_BUFFER_SIZE = "ljcomputing.gson.http.buffer-size";
+
+  /** The HTTP flush interval property. */
+  public static final String HTTP_FLUSH_INTERVAL = "ljcomputing.gson.http.flush-interval";
+
+  /** The HTTP binary encoding property. */
+  public static final String HTTP_BINARY = "ljcomputing.gson.http.binary";
+
+  /** The async concurrency property. */
+  public static final String ASYNC_CONCURRENCY = "ljcomputing.gson.async.concurrency";
+
+  /** The async queue depth property. */
+  public static final String ASYNC_QUEUE_DEPTH = "ljcomputing.gson.async.queue-depth";
+
+  /** The async admission timeout property. */
+  public static final String ASYNC_ADMISSION_TIMEOUT =
+      "ljcomputing.gson.async.admission-timeout-ms";
+
+  /** The async virtual threads property. */
+  public static final String ASYNC_VIRTUAL_THREADS = "ljcomputing.gson.async.virtual-threads";
+
+  /** The metrics enabled property. */
+  public static final String METRICS_ENABLED = "ljcomputing.gson.metrics.enabled";
+
+  /** The cache enabled property. */
+  public static final String CACHE_ENABLED = "ljcomputing.gson.cache.enabled";
+
+  /** The cache maximum bytes property. */
+  public static final String CACHE_MAX_BYTES = "ljcomputing.gson.cache.max-bytes";
+
+  /** The cache time to live property. */
+  public static final String CACHE_TTL = "ljcomputing.gson.cache.ttl-ms";
+
+  /** The intern enabled property. */
+  public static final String INTERN_ENABLED = "ljcomputing.gson.intern.enabled";
+
+  /** The intern capacity property. */
+  public static final String INTERN_CAPACITY = "ljcomputing.gson.intern.capacity";
+
+  /** The intern maximum length property. */
+  public static final String INTERN_MAX_LENGTH = "ljcomputing.gson.intern.max-length";
+
+  /** The limits maximum bytes property. */
+  public static final String LIMITS_MAX_BYTES = "ljcomputing.gson.limits.max-bytes";
+
+  /** The limits maximum depth property. */
+  public static final String LIMITS_MAX_DEPTH = "ljcomputing.gson.limits.max-depth";
+
+  /** The limits maximum string length property. */
+  public static final String LIMITS_MAX_STRING_LENGTH =
+      "ljcomputing.gson.limits.max-string-length";
+
+  /** The limits maximum array length property. */
+  public static final String LIMITS_MAX_ARRAY_LENGTH = "ljcomputing.gson.limits.max-array-length";
+
+  /** The limits maximum object members property. */
+  public static final String LIMITS_MAX_OBJECT_MEMBERS =
+      "ljcomputing.gson.limits.max-object-members";
+
+  /** The projection maximum adapters property. */
+  public static final String PROJECTION_MAX_ADAPTERS =
+      "ljcomputing.gson.projection.max-adapters";
+
+  /** The default maximum nesting depth. */
+  public static final int DEFAULT_MAX_DEPTH = 512;
+
+  /** The default cache byte budget. */
+  private static final long DEFAULT_CACHE_MAX_BYTES = 32L * 1024 * 1024;
+
   /** The SLF4J logger. */
   private static final Logger LOGGER = LoggerFactory.getLogger(GsonConfiguration.class);
 
+  /** The environment. */
+  @Autowired
+  private Environment environment;
+
+  /** The Gson builder customizers. */
+  @Autowired(required = false)
+  private List<GsonBuilderCustomizer> customizers = Collections.emptyList();
+
+  /**
+   * The shared Gson instance.
+   *
+   * @return the gson
+   */
+  @Bean
+  public Gson gson() {
+    if (!customizers.isEmpty()) {
+      LOGGER.info("Gson builder customizers present, @GenerateTypeAdapter models use reflection");
+    }
+
+    return newBuilder(null).create();
+  }
+
+  /**
+   * The Gson instances serializing each view, configured as the shared one.
+   *
+   * @return the gson views
+   */
+  @Bean
+  public GsonViews gsonViews() {
+    return new GsonViews(view -> newBuilder(view).create());
+  }
+
+  /**
+   * Warm-up of the configured types' adapters.
+   *
+   * @return the gson warmup
+   */
+  @Bean
+  public GsonWarmup gsonWarmup() {
+    return new GsonWarmup(gson(), commaDelimited(WARMUP_TYPES), commaDelimited(WARMUP_PACKAGES));
+  }
+
+  /**
+   * The conversion metrics registry.
+   *
+   * @return the conversion metrics
+   */
+  @Bean
+  public ConversionMetrics conversionMetrics() {
+    return new ConversionMetrics();
+  }
+
+  /**
+   * The actuator endpoint exposing the conversion metrics.
+   *
+   * @return the gson metrics endpoint
+   */
+  @Bean
+  public GsonMetricsEndpoint gsonMetricsEndpoint() {
+    return new GsonMetricsEndpoint(conversionMetrics(), serializedFormCache());
+  }
+
+  /**
+   * The string interner shared by the converter services, defined only when interning is
+   * enabled; per call interners can be passed to the converter service instead.
+   *
+   * @return the string interner
+   */
+  @Bean
+  @ConditionalOnProperty(name = INTERN_ENABLED, havingValue = "true")
+  public StringInterner stringInterner() {
+    return new StringInterner(
+        environment.getProperty(INTERN_CAPACITY, Integer.class, StringInterner.DEFAULT_CAPACITY),
+        environment.getProperty(INTERN_MAX_LENGTH, Integer.class,
+            StringInterner.DEFAULT_MAX_LENGTH));
+  }
+
+  /**
+   * The input limits enforced by the converter service and the HTTP message converters; rejected
+   * payloads are counted by the conversion metrics.
+   *
+   * @return the JSON limits
+   */
+  @Bean
+  public JsonLimits jsonLimits() {
+    return JsonLimits.builder()
+        .maxBytes(environment.getProperty(LIMITS_MAX_BYTES, Long.class, 0L))
+        .maxDepth(environment.getProperty(LIMITS_MAX_DEPTH, Integer.class, DEFAULT_MAX_DEPTH))
+        .maxStringLength(environment.getProperty(LIMITS_MAX_STRING_LENGTH, Integer.class, 0))
+        .maxArrayLength(environment.getProperty(LIMITS_MAX_ARRAY_LENGTH, Integer.class, 0))
+        .maxObjectMembers(environment.getProperty(LIMITS_MAX_OBJECT_MEMBERS, Integer.class, 0))
+        .rejectionListener(conversionMetrics()::recordRejected).build();
+  }
+
+  /**
+   * The field projector of the converter service, caching a bounded number of projection
+   * adapters.
+   *
+   * @return the field projector
+   */
+  @Bean
+  public FieldProjector fieldProjector() {
+    return new FieldProjector(gson(), environment.getProperty(PROJECTION_MAX_ADAPTERS,
+        Integer.class, FieldProjector.DEFAULT_MAX_ADAPTERS));
+  }
+
+  /**
+   * The cache of serialized forms, shared by the converter service and the HTTP message
+   * converter.
+   *
+   * @return the serialized form cache
+   */
+  @Bean
+  public SerializedFormCache serializedFormCache() {
+    return new SerializedFormCache(
+        environment.getProperty(CACHE_MAX_BYTES, Long.class, DEFAULT_CACHE_MAX_BYTES),
+        environment.getProperty(CACHE_TTL, Long.class, 0L));
+  }
+
+  /**
+   * The converter service to inject: the scanned implementation, caching serialized forms when
+   * the cache is enabled and metered when metrics are enabled.
+   *
+   * @param gsonConverterServiceImpl the gson converter service implementation
+   * @return the gson converter service
+   */
+  @Bean
+  @Primary
+  public GsonConverterService meteredGsonConverterService(
+      final GsonConverterServiceImpl gsonConverterServiceImpl) {
+    GsonConverterService service = gsonConverterServiceImpl;
+
+    if (isCacheEnabled()) {
+      service = new CachingGsonConverterService(service, serializedFormCache());
+    }
+
+    if (isMetricsEnabled()) {
+      service = new MeteredGsonConverterService(service, conversionMetrics());
+    }
+
+    return service;
+  }
+
+  /**
+   * The asynchronous converter service, running conversions off the request threads.
+   *
+   * @param gsonConverterService the gson converter service
+   * @return the async gson converter service
+   */
+  @Bean
+  public AsyncGsonConverterService asyncGsonConverterService(
+      final GsonConverterService gsonConverterService) {
+    final int concurrency = environment.getProperty(ASYNC_CONCURRENCY, Integer.class,
+        Runtime.getRuntime().availableProcessors());
+
+    return new AsyncGsonConverterServiceImpl(gsonConverterService, concurrency,
+        environment.getProperty(ASYNC_QUEUE_DEPTH, Integer.class, concurrency * 4),
+        environment.getProperty(ASYNC_ADMISSION_TIMEOUT, Long.class, 0L),
+        environment.getProperty(ASYNC_VIRTUAL_THREADS, Boolean.class, true));
+  }
+
+  /**
+   * The streaming HTTP message converter sharing the Gson instance, metered when metrics are
+   * enabled.
+   *
+   * @return the gson http message converter
+   */
+  @Bean
+  public GenericHttpMessageConverter<Object> gsonHttpMessageConverter() {
+    final StreamingGsonHttpMessageConverter messageConverter =
+        new StreamingGsonHttpMessageConverter();
+
+    messageConverter.setGson(gson());
+    messageConverter.setGzipEnabled(environment.getProperty(HTTP_GZIP, Boolean.class, true));
+    messageConverter.setBufferSize(environment.getProperty(HTTP_BUFFER_SIZE, Integer.class,
+        StreamingGsonHttpMessageConverter.DEFAULT_BUFFER_SIZE));
+    messageConverter.setFlushInterval(environment.getProperty(HTTP_FLUSH_INTERVAL, Integer.class,
+        StreamingGsonHttpMessageConverter.DEFAULT_FLUSH_INTERVAL));
+    messageConverter.setJsonLimits(jsonLimits());
+
+    if (isCacheEnabled()) {
+      messageConverter.setSerializedFormCache(serializedFormCache());
+    }
+
+    if (!isMetricsEnabled()) {
+      return messageConverter;
+    }
+
+    return new MeteredHttpMessageConverter(messageConverter, conversionMetrics());
+  }
+
   /**
-   * Custom converters definitions.
+   * The HTTP message converter for the compact binary encoding, sharing the Gson instance and
+   * metered when metrics are enabled.
+   *
+   * @return the binary http message converter
+   */
+  @Bean
+  @ConditionalOnProperty(name = HTTP_BINARY, havingValue = "true", matchIfMissing = true)
+  public GenericHttpMessageConverter<Object> binaryHttpMessageConverter() {
+    final BinaryGsonHttpMessageConverter messageConverter = new BinaryGsonHttpMessageConverter();
+
+    messageConverter.setGson(gson());
+    messageConverter.setJsonLimits(jsonLimits());
+
+    if (!isMetricsEnabled()) {
+      return messageConverter;
+    }
+
+    return new MeteredHttpMessageConverter(messageConverter, conversionMetrics());
+  }
+
+  /**
+   * Custom converters definitions; JSON comes first, so it is produced unless a client asks
+   * for the binary encoding.
    *
    * @return the http message converters
    */
   @Bean
   public HttpMessageConverters customConverters() {
     final Collection<HttpMessageConverter<?>> messageConverters = new ArrayList<>();
-    final GsonHttpMessageConverter messageConverter = new GsonHttpMessageConverter();
 
-    messageConverters.add(messageConverter);
+    messageConverters.add(gsonHttpMessageConverter());
+
+    if (environment.getProperty(HTTP_BINARY, Boolean.class, true)) {
+      messageConverters.add(binaryHttpMessageConverter());
+    }
 
     LOGGER.info("Returning custom converters");
 
     return new HttpMessageConverters(true, messageConverters);
   }
+
+  /**
+   * Create a builder with the configured properties and customizers. The generated type adapters
+   * are left out when customizers are present, since they could not honour the naming policies
+   * and exclusion rules a customizer may add.
+   *
+   * @param view the view, or null for the default one
+   * @return the gson builder
+   */
+  private GsonBuilder newBuilder(final Class<?> view) {
+    final GsonBuilder builder = GsonFactory.newBuilder(
+        environment.getProperty(SERIALIZE_NULLS, Boolean.class, true), view, customizers.isEmpty());
+
+    if (!environment.getProperty(HTML_ESCAPING, Boolean.class, true)) {
+      builder.disableHtmlEscaping();
+    }
+
+    if (environment.getProperty(PRETTY_PRINTING, Boolean.class, false)) {
+      builder.setPrettyPrinting();
+    }
+
+    for (final GsonBuilderCustomizer customizer : customizers) {
+      customizer.customize(builder);
+    }
+
+    return builder;
+  }
+
+  /**
+   * Check whether metrics are enabled.
+   *
+   * @return true, if enabled
+   */
+  private boolean isMetricsEnabled() {
+    return environment.getProperty(METRICS_ENABLED, Boolean.class, true);
+  }
+
+  /**
+   * Check whether the serialized form cache is enabled.
+   *
+   * @return true, if enabled
+   */
+  private boolean isCacheEnabled() {
+    return environment.getProperty(CACHE_ENABLED, Boolean.class, true);
+  }
+
+  /**
+   * Read a comma delimited property.
+   *
+   * @param property the property
+   * @return the values
+   */
+  private Collection<String> commaDelimited(final String property) {
+    return StringUtils.commaDelimitedListToSet(
+        StringUtils.trimAllWhitespace(environment.getProperty(property, "")));
+  }
 }
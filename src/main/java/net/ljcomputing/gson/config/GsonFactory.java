@@ -0,0 +1,118 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.config;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import net.ljcomputing.gson.adapter.GeneratedTypeAdapterFactory;
+import net.ljcomputing.gson.adapter.KeyedMapTypeAdapterFactory;
+import net.ljcomputing.gson.primitive.PrimitiveTypeAdapterFactory;
+import net.ljcomputing.gson.strategy.ExcludeFromJsonAnnotationExclusionStrategy;
+
+/**
+ * Factory for the Gson instances used by the converter services and HTTP message converters.
+ *
+ * <p>
+ * Inside a Spring context the single Gson bean defined by {@link GsonConfiguration} should be
+ * used; this factory provides the same baseline configuration for code running outside of one.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public final class GsonFactory {
+
+  /**
+   * Instantiates a new gson factory.
+   */
+  private GsonFactory() {
+  }
+
+  /**
+   * Create a new builder with the baseline configuration: the {@code ExcludeFromJson} exclusion
+   * strategy, the compile-time generated type adapters, unboxed primitive arrays and lists and
+   * serialized nulls.
+   *
+   * @return the gson builder
+   */
+  public static GsonBuilder newBuilder() {
+    return newBuilder(true);
+  }
+
+  /**
+   * Create a new builder with the {@code ExcludeFromJson} exclusion strategy, the compile-time
+   * generated type adapters and unboxed primitive arrays and lists.
+   *
+   * @param serializeNulls true to serialize null fields
+   * @return the gson builder
+   */
+  public static GsonBuilder newBuilder(final boolean serializeNulls) {
+    return newBuilder(serializeNulls, null);
+  }
+
+  /**
+   * Create a new builder serializing the given view: the {@code ExcludeFromJson} exclusion
+   * strategy and generated type adapters of that view and unboxed primitive arrays and lists.
+   *
+   * @param serializeNulls true to serialize null fields
+   * @param view the view, or null for the default one
+   * @return the gson builder
+   */
+  public static GsonBuilder newBuilder(final boolean serializeNulls, final Class<?> view) {
+    return newBuilder(serializeNulls, view, true);
+  }
+
+  /**
+   * Create a new builder serializing the given view, optionally without the compile-time
+   * generated type adapters. Generated adapters fix names and fields at compile time, so a builder
+   * that will be given naming policies, exclusion strategies, {@code Expose} or {@code Since}
+   * rules must leave them out for those rules to apply to every model.
+   *
+   * @param serializeNulls true to serialize null fields
+   * @param view the view, or null for the default one
+   * @param generatedAdapters true to register the generated type adapters
+   * @return the gson builder
+   */
+  public static GsonBuilder newBuilder(final boolean serializeNulls, final Class<?> view,
+      final boolean generatedAdapters) {
+    final GsonBuilder builder = new GsonBuilder()
+        .setExclusionStrategies(new ExcludeFromJsonAnnotationExclusionStrategy(view));
+
+    if (generatedAdapters) {
+      builder.registerTypeAdapterFactory(new GeneratedTypeAdapterFactory(view));
+    }
+
+    builder.registerTypeAdapterFactory(new KeyedMapTypeAdapterFactory())
+        .registerTypeAdapterFactory(new PrimitiveTypeAdapterFactory());
+
+    if (serializeNulls) {
+      builder.serializeNulls();
+    }
+
+    return builder;
+  }
+
+  /**
+   * Create a Gson instance with the baseline configuration.
+   *
+   * @return the gson
+   */
+  public static Gson createDefault() {
+    return newBuilder().create();
+  }
+}
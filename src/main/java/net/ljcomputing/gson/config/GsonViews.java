@@ -0,0 +1,75 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import com.google.gson.Gson;
+
+/**
+ * Cache of the Gson instances serializing each view.
+ *
+ * <p>
+ * A view is any class named by {@code ExcludeFromJson#views()}. Its Gson instance is built the
+ * first time the view is asked for and kept, together with the type adapters it compiles, so
+ * choosing a view per call costs a map lookup.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class GsonViews {
+
+  /** The Gson instances, by view. */
+  private final ConcurrentMap<Class<?>, Gson> views = new ConcurrentHashMap<>();
+
+  /** The factory of a view's Gson instance. */
+  private final Function<Class<?>, Gson> factory;
+
+  /**
+   * Instantiates new gson views with the baseline configuration.
+   */
+  public GsonViews() {
+    this(view -> GsonFactory.newBuilder(true, view).create());
+  }
+
+  /**
+   * Instantiates new gson views.
+   *
+   * @param factory the factory of a view's Gson instance
+   */
+  public GsonViews(final Function<Class<?>, Gson> factory) {
+    this.factory = factory;
+  }
+
+  /**
+   * Get the Gson instance serializing a view.
+   *
+   * @param view the view
+   * @return the gson
+   */
+  public Gson get(final Class<?> view) {
+    if (null == view) {
+      throw new IllegalArgumentException("A view is required");
+    }
+
+    final Gson gson = views.get(view);
+    return null == gson ? views.computeIfAbsent(view, factory) : gson;
+  }
+}
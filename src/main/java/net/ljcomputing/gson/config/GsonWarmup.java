@@ -0,0 +1,180 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.config;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.core.type.filter.TypeFilter;
+import org.springframework.util.ClassUtils;
+
+import com.google.gson.Gson;
+
+import net.ljcomputing.gson.reflect.ClassModel;
+
+/**
+ * Builds the Gson type adapters (and merge field models) of the configured types at startup, so
+ * the first requests after a deploy do not pay for reflective adapter creation.
+ *
+ * <p>
+ * Types are listed by class name or found by scanning base packages for concrete classes. A type
+ * that cannot be loaded or adapted is logged and skipped.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class GsonWarmup implements InitializingBean {
+
+  /** The SLF4J logger. */
+  private static final Logger LOGGER = LoggerFactory.getLogger(GsonWarmup.class);
+
+  /** The gson. */
+  private final Gson gson;
+
+  /** The type names. */
+  private final Collection<String> typeNames;
+
+  /** The base packages. */
+  private final Collection<String> basePackages;
+
+  /** The warmed up types. */
+  private volatile List<Class<?>> warmedUpTypes = Collections.emptyList();
+
+  /** The warm-up duration, in nanoseconds. */
+  private volatile long durationNanos;
+
+  /**
+   * Instantiates a new gson warmup.
+   *
+   * @param gson the gson
+   * @param typeNames the type names
+   * @param basePackages the base packages
+   */
+  public GsonWarmup(final Gson gson, final Collection<String> typeNames,
+      final Collection<String> basePackages) {
+    this.gson = gson;
+    this.typeNames = typeNames;
+    this.basePackages = basePackages;
+  }
+
+  /**
+   * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+   */
+  @Override
+  public void afterPropertiesSet() {
+    warmUp();
+  }
+
+  /**
+   * Build the adapters of all configured types.
+   *
+   * @return the warmed up types
+   */
+  public List<Class<?>> warmUp() {
+    final long start = System.nanoTime();
+    final List<Class<?>> warmed = new ArrayList<>();
+
+    for (final Class<?> type : resolveTypes()) {
+      try {
+        gson.getAdapter(type);
+        ClassModel.of(type);
+        warmed.add(type);
+      } catch (RuntimeException exception) {
+        LOGGER.warn("Gson warm-up skipped {}: {}", type.getName(), exception.getMessage());
+      }
+    }
+
+    durationNanos = System.nanoTime() - start;
+    warmedUpTypes = Collections.unmodifiableList(warmed);
+
+    if (!warmed.isEmpty()) {
+      LOGGER.info("Gson warm-up built adapters for {} types in {} ms", warmed.size(),
+          getDurationMillis());
+    }
+
+    return warmedUpTypes;
+  }
+
+  /**
+   * Resolve the configured types.
+   *
+   * @return the types
+   */
+  private Set<Class<?>> resolveTypes() {
+    final Set<String> names = new LinkedHashSet<>(typeNames);
+
+    if (!basePackages.isEmpty()) {
+      final ClassPathScanningCandidateComponentProvider scanner =
+          new ClassPathScanningCandidateComponentProvider(false);
+      scanner.addIncludeFilter(new TypeFilter() {
+        @Override
+        public boolean match(final MetadataReader reader, final MetadataReaderFactory factory) {
+          return true;
+        }
+      });
+
+      for (final String basePackage : basePackages) {
+        for (final BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+          names.add(candidate.getBeanClassName());
+        }
+      }
+    }
+
+    final Set<Class<?>> types = new LinkedHashSet<>();
+
+    for (final String name : names) {
+      try {
+        types.add(ClassUtils.forName(name, ClassUtils.getDefaultClassLoader()));
+      } catch (ClassNotFoundException | LinkageError exception) {
+        LOGGER.warn("Gson warm-up could not load {}: {}", name, exception.getMessage());
+      }
+    }
+
+    return types;
+  }
+
+  /**
+   * Gets the warmed up types.
+   *
+   * @return the warmed up types
+   */
+  public List<Class<?>> getWarmedUpTypes() {
+    return warmedUpTypes;
+  }
+
+  /**
+   * Gets the duration of the last warm-up, in milliseconds.
+   *
+   * @return the duration
+   */
+  public long getDurationMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(durationNanos);
+  }
+}
@@ -20,16 +20,14 @@ import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.converter.HttpMessageConverter;
-import org.springframework.http.converter.json.GsonHttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurerAdapter;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-
-import net.ljcomputing.gson.strategy.ExcludeFromJsonAnnotationExclusionStrategy;
+import net.ljcomputing.gson.limit.JsonLimits;
 
 /**
  * GSON Web MVC configurer adapter - overrides message converters.
@@ -44,6 +42,20 @@ public class GsonWebMvcConfigurerAdapter extends WebMvcConfigurerAdapter {
   /** The logger. */
   private static final Logger LOGGER = LoggerFactory.getLogger(GsonWebMvcConfigurerAdapter.class);
 
+  /** The shared message converter, when a {@link GsonConfiguration} is present. */
+  @Autowired(required = false)
+  @Qualifier("gsonHttpMessageConverter")
+  private HttpMessageConverter<?> gsonHttpMessageConverter;
+
+  /** The binary message converter, when a {@link GsonConfiguration} enables it. */
+  @Autowired(required = false)
+  @Qualifier("binaryHttpMessageConverter")
+  private HttpMessageConverter<?> binaryHttpMessageConverter;
+
+  /** The input limits of the fallback message converter, when defined. */
+  @Autowired(required = false)
+  private JsonLimits jsonLimits;
+
   /**
    * Instantiates a new gson web mvc configurer adapter.
    */
@@ -58,14 +70,19 @@ public class GsonWebMvcConfigurerAdapter extends WebMvcConfigurerAdapter {
    */
   @Override
   public final void configureMessageConverters(final List<HttpMessageConverter<?>> converters) {
-    final Gson gson = new GsonBuilder()
-        .setExclusionStrategies(new ExcludeFromJsonAnnotationExclusionStrategy()).serializeNulls()
-        .create();
-
-    final GsonHttpMessageConverter messageConverter = new GsonHttpMessageConverter();
+    if (null != gsonHttpMessageConverter) {
+      converters.add(gsonHttpMessageConverter);
+    } else {
+      final StreamingGsonHttpMessageConverter messageConverter =
+          new StreamingGsonHttpMessageConverter();
 
-    messageConverter.setGson(gson);
+      messageConverter.setGson(GsonFactory.createDefault());
+      messageConverter.setJsonLimits(jsonLimits);
+      converters.add(messageConverter);
+    }
 
-    converters.add(messageConverter);
+    if (null != binaryHttpMessageConverter) {
+      converters.add(binaryHttpMessageConverter);
+    }
   }
 }
@@ -0,0 +1,575 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.config;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.GsonHttpMessageConverter;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import net.ljcomputing.gson.cache.CachedJson;
+import net.ljcomputing.gson.cache.SerializedFormCache;
+import net.ljcomputing.gson.io.BufferPool;
+import net.ljcomputing.gson.io.GzipBodyOutputStream;
+import net.ljcomputing.gson.io.PooledByteArrayOutputStream;
+import net.ljcomputing.gson.io.Utf8StreamReader;
+import net.ljcomputing.gson.io.Utf8StreamWriter;
+import net.ljcomputing.gson.limit.JsonLimits;
+import net.ljcomputing.gson.limit.LimitedJsonReader;
+
+/**
+ * Gson HTTP message converter serializing straight into the response stream.
+ *
+ * <p>
+ * UTF-8 responses are encoded by a {@link Utf8StreamWriter} into a pooled body buffer rather than
+ * through an {@link java.io.OutputStreamWriter}. A body that fits in the buffer is sent in one
+ * write with its Content-Length; a larger body is streamed as soon as the buffer fills up. The
+ * body is gzip compressed, with a pooled deflater, when the current request accepts it. Values
+ * with a cached serialized form are written straight from the cache's bytes. Other charsets are
+ * left to {@link GsonHttpMessageConverter}. Request bodies are read through a
+ * {@link LimitedJsonReader} when {@link JsonLimits} are set.
+ * </p>
+ *
+ * <p>
+ * A {@link Stream} or {@link Iterator} is written as a JSON array one element at a time, in any
+ * charset, flushing the response every few elements, so only the element being serialized is held
+ * in memory. The source is closed once written, or as soon as writing fails, e.g. because the
+ * client went away.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class StreamingGsonHttpMessageConverter extends GsonHttpMessageConverter {
+
+  /** The default body buffer size, in bytes. */
+  public static final int DEFAULT_BUFFER_SIZE = 16 * 1024;
+
+  /** The default number of streamed elements between flushes. */
+  public static final int DEFAULT_FLUSH_INTERVAL = 100;
+
+  /** The gzip content coding. */
+  private static final String GZIP = "gzip";
+
+  /** The body buffer size. */
+  private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+  /** The number of streamed elements between flushes. */
+  private int flushInterval = DEFAULT_FLUSH_INTERVAL;
+
+  /** Indicates gzip compression is negotiated. */
+  private boolean gzipEnabled = true;
+
+  /** The JSON prefix. */
+  private String jsonPrefix;
+
+  /** The serialized form cache, or null. */
+  private SerializedFormCache serializedFormCache;
+
+  /** The request body limits. */
+  private JsonLimits jsonLimits = JsonLimits.none();
+
+  /**
+   * Sets the body buffer size; a body up to this size is sent with its Content-Length. Buffers
+   * larger than {@link net.ljcomputing.gson.io.BufferPool#MAX_POOLED_SIZE} are not pooled.
+   *
+   * @param bufferSize the new buffer size, in bytes
+   */
+  public void setBufferSize(final int bufferSize) {
+    this.bufferSize = Math.max(bufferSize, 512);
+  }
+
+  /**
+   * Sets the number of elements of a streamed array written between flushes of the response.
+   *
+   * @param flushInterval the new flush interval
+   */
+  public void setFlushInterval(final int flushInterval) {
+    this.flushInterval = Math.max(flushInterval, 1);
+  }
+
+  /**
+   * Sets whether gzip compression is negotiated.
+   *
+   * @param gzipEnabled the new gzip enabled
+   */
+  public void setGzipEnabled(final boolean gzipEnabled) {
+    this.gzipEnabled = gzipEnabled;
+  }
+
+  /**
+   * Sets the cache the serialized forms of {@code CacheableJson} values are written from.
+   *
+   * @param serializedFormCache the new serialized form cache, or null for none
+   */
+  public void setSerializedFormCache(final SerializedFormCache serializedFormCache) {
+    this.serializedFormCache = serializedFormCache;
+  }
+
+  /**
+   * Sets the limits checked while reading request bodies; unlimited by default.
+   *
+   * @param jsonLimits the new JSON limits
+   */
+  public void setJsonLimits(final JsonLimits jsonLimits) {
+    this.jsonLimits = null == jsonLimits ? JsonLimits.none() : jsonLimits;
+  }
+
+  /**
+   * @see org.springframework.http.converter.json.GsonHttpMessageConverter
+   *      #setJsonPrefix(java.lang.String)
+   */
+  @Override
+  public void setJsonPrefix(final String jsonPrefix) {
+    super.setJsonPrefix(jsonPrefix);
+    this.jsonPrefix = jsonPrefix;
+  }
+
+  /**
+   * @see org.springframework.http.converter.json.GsonHttpMessageConverter#setPrefixJson(boolean)
+   */
+  @Override
+  public void setPrefixJson(final boolean prefixJson) {
+    super.setPrefixJson(prefixJson);
+    this.jsonPrefix = prefixJson ? "{} && " : null;
+  }
+
+  /**
+   * @see org.springframework.http.converter.json.GsonHttpMessageConverter
+   *      #read(java.lang.reflect.Type, java.lang.Class,
+   *      org.springframework.http.HttpInputMessage)
+   */
+  @Override
+  public Object read(final Type type, final Class<?> contextClass,
+      final HttpInputMessage inputMessage) throws IOException {
+    if (jsonLimits.isUnlimited()) {
+      return super.read(type, contextClass, inputMessage);
+    }
+
+    return readLimited(getTypeToken(type).getType(), inputMessage);
+  }
+
+  /**
+   * @see org.springframework.http.converter.json.GsonHttpMessageConverter
+   *      #readInternal(java.lang.Class, org.springframework.http.HttpInputMessage)
+   */
+  @Override
+  protected Object readInternal(final Class<?> clazz, final HttpInputMessage inputMessage)
+      throws IOException {
+    if (jsonLimits.isUnlimited()) {
+      return super.readInternal(clazz, inputMessage);
+    }
+
+    return readLimited(getTypeToken(clazz).getType(), inputMessage);
+  }
+
+  /**
+   * Read a request body, enforcing the limits: a declared Content-Length over the size limit is
+   * rejected before reading, the rest as the body is parsed. As with Gson's reader based methods,
+   * content after the value is rejected.
+   *
+   * @param type the target type
+   * @param inputMessage the input message
+   * @return the value
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private Object readLimited(final Type type, final HttpInputMessage inputMessage)
+      throws IOException {
+    final HttpHeaders headers = inputMessage.getHeaders();
+    final MediaType contentType = headers.getContentType();
+    final Charset charset = null == contentType || null == contentType.getCharSet()
+        ? DEFAULT_CHARSET : contentType.getCharSet();
+
+    try {
+      jsonLimits.checkSize(headers.getContentLength());
+
+      final Reader body = StandardCharsets.UTF_8.equals(charset)
+          ? new Utf8StreamReader(inputMessage.getBody())
+          : new InputStreamReader(inputMessage.getBody(), charset);
+
+      try (final JsonReader reader = new LimitedJsonReader(body, jsonLimits)) {
+        final Object result = getGson().fromJson(reader, type);
+
+        if (null != result && reader.peek() != JsonToken.END_DOCUMENT) {
+          throw new JsonIOException("JSON document was not fully consumed.");
+        }
+
+        return result;
+      } catch (MalformedJsonException exception) {
+        throw new JsonSyntaxException(exception);
+      }
+    } catch (JsonParseException exception) {
+      throw new HttpMessageNotReadableException("Could not read JSON: " + exception.getMessage(),
+          exception);
+    }
+  }
+
+  /**
+   * @see org.springframework.http.converter.json.GsonHttpMessageConverter
+   *      #writeInternal(java.lang.Object, org.springframework.http.HttpOutputMessage)
+   */
+  @Override
+  protected void writeInternal(final Object o, final HttpOutputMessage outputMessage)
+      throws IOException {
+    final HttpHeaders headers = outputMessage.getHeaders();
+    final MediaType contentType = headers.getContentType();
+    final Charset charset = null == contentType || null == contentType.getCharSet()
+        ? DEFAULT_CHARSET : contentType.getCharSet();
+
+    final boolean streamed = o instanceof Stream || o instanceof Iterator;
+
+    if (!StandardCharsets.UTF_8.equals(charset) && !streamed) {
+      super.writeInternal(o, outputMessage);
+      return;
+    }
+
+    final boolean gzip = gzipEnabled && null == headers.getFirst(HttpHeaders.CONTENT_ENCODING)
+        && acceptsGzip();
+
+    if (gzip) {
+      headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+      headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    }
+
+    final BodyOutputStream body = new BodyOutputStream(outputMessage, bufferSize);
+
+    try {
+      final OutputStream encoded = gzip ? new GzipBodyOutputStream(body, streamed) : body;
+
+      try {
+        if (streamed) {
+          writeElements(o, encoded, body, charset);
+        } else if (null != serializedFormCache && serializedFormCache.isCacheable(o)) {
+          writeCached(o, encoded);
+        } else {
+          writeJson(o, encoded);
+        }
+      } finally {
+        if (gzip) {
+          encoded.close();
+        }
+      }
+
+      body.complete();
+    } catch (JsonIOException exception) {
+      throw new HttpMessageNotWritableException("Could not write JSON: " + exception.getMessage(),
+          exception);
+    } finally {
+      body.release();
+    }
+  }
+
+  /**
+   * Serialize a value into the body.
+   *
+   * @param o the value
+   * @param body the body
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void writeJson(final Object o, final OutputStream body) throws IOException {
+    try (final Utf8StreamWriter writer = new Utf8StreamWriter(body)) {
+      if (null != jsonPrefix) {
+        writer.write(jsonPrefix);
+      }
+
+      getGson().toJson(o, writer);
+    }
+  }
+
+  /**
+   * Write the elements of a stream or iterator as a JSON array, flushing the response every
+   * {@link #setFlushInterval(int) flush interval} elements. The source is closed when done.
+   *
+   * @param source the stream or iterator
+   * @param encoded the body, after any content coding
+   * @param body the body
+   * @param charset the charset
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void writeElements(final Object source, final OutputStream encoded,
+      final BodyOutputStream body, final Charset charset) throws IOException {
+    final Iterator<?> elements =
+        source instanceof Stream ? ((Stream<?>) source).iterator() : (Iterator<?>) source;
+    final Gson gson = getGson();
+
+    try (final Writer writer = StandardCharsets.UTF_8.equals(charset)
+        ? new Utf8StreamWriter(encoded) : new OutputStreamWriter(encoded, charset)) {
+      if (null != jsonPrefix) {
+        writer.write(jsonPrefix);
+      }
+
+      writer.write('[');
+      int count = 0;
+
+      while (elements.hasNext()) {
+        if (count > 0) {
+          writer.write(',');
+        }
+
+        gson.toJson(elements.next(), writer);
+
+        if (0 == ++count % flushInterval) {
+          writer.flush();
+          body.commit();
+        }
+      }
+
+      writer.write(']');
+    } finally {
+      closeSource(source);
+    }
+  }
+
+  /**
+   * Close a streamed source, releasing whatever it reads from.
+   *
+   * @param source the stream or iterator
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private static void closeSource(final Object source) throws IOException {
+    if (source instanceof Stream) {
+      ((Stream<?>) source).close();
+    } else if (source instanceof AutoCloseable) {
+      try {
+        ((AutoCloseable) source).close();
+      } catch (IOException | RuntimeException exception) {
+        throw exception;
+      } catch (Exception exception) {
+        throw new IOException(exception);
+      }
+    }
+  }
+
+  /**
+   * Write the cached serialized form of a value into the body, serializing it on a miss.
+   *
+   * @param o the value
+   * @param body the body
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void writeCached(final Object o, final OutputStream body) throws IOException {
+    final CachedJson json = serializedFormCache.get(o, value -> {
+      try (final PooledByteArrayOutputStream out = new PooledByteArrayOutputStream();
+          final Utf8StreamWriter writer = new Utf8StreamWriter(out)) {
+        getGson().toJson(value, writer);
+        writer.flush();
+        return out.toByteArray();
+      } catch (IOException exception) {
+        throw new JsonIOException(exception);
+      }
+    });
+
+    if (null != jsonPrefix) {
+      body.write(jsonPrefix.getBytes(StandardCharsets.UTF_8));
+    }
+
+    json.writeTo(body);
+  }
+
+  /**
+   * Check whether the current request accepts a gzip coded response.
+   *
+   * @return true, if gzip is acceptable
+   */
+  private static boolean acceptsGzip() {
+    final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+
+    if (!(attributes instanceof ServletRequestAttributes)) {
+      return false;
+    }
+
+    final HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+    final String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+
+    if (null == acceptEncoding) {
+      return false;
+    }
+
+    Boolean gzip = null;
+    Boolean any = null;
+
+    // an explicit gzip entry wins over the wildcard, wherever either appears
+    for (final String coding : acceptEncoding.split(",")) {
+      final String[] parts = coding.split(";");
+      final String name = parts[0].trim();
+
+      if (GZIP.equalsIgnoreCase(name)) {
+        gzip = !isZeroQuality(parts);
+      } else if ("*".equals(name)) {
+        any = !isZeroQuality(parts);
+      }
+    }
+
+    return null != gzip ? gzip : Boolean.TRUE.equals(any);
+  }
+
+  /**
+   * Check whether a coding's parameters carry q=0.
+   *
+   * @param parts the coding and its parameters
+   * @return true, if the coding is explicitly refused
+   */
+  private static boolean isZeroQuality(final String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      final String parameter = parts[i].trim();
+
+      if (parameter.startsWith("q=")) {
+        try {
+          return Double.parseDouble(parameter.substring(2)) <= 0;
+        } catch (NumberFormatException exception) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Response body buffering the first bytes in a pooled buffer. The headers are only committed,
+   * with the Content-Length when known, once the body completes or outgrows the buffer.
+   */
+  private static final class BodyOutputStream extends OutputStream {
+
+    /** The output message. */
+    private final HttpOutputMessage outputMessage;
+
+    /** The buffer, or null once released. */
+    private byte[] buffer;
+
+    /** The number of bytes buffered before the body is committed. */
+    private final int capacity;
+
+    /** The buffered byte count. */
+    private int count;
+
+    /** The committed response stream, or null while buffering. */
+    private OutputStream committed;
+
+    /**
+     * Instantiates a new body output stream.
+     *
+     * @param outputMessage the output message
+     * @param bufferSize the buffer size
+     */
+    private BodyOutputStream(final HttpOutputMessage outputMessage, final int bufferSize) {
+      this.outputMessage = outputMessage;
+      this.buffer = BufferPool.acquireBytes(bufferSize);
+      this.capacity = Math.min(bufferSize, buffer.length);
+    }
+
+    /**
+     * @see java.io.OutputStream#write(int)
+     */
+    @Override
+    public void write(final int b) throws IOException {
+      if (null != committed) {
+        committed.write(b);
+      } else if (count < capacity) {
+        buffer[count++] = (byte) b;
+      } else {
+        write(new byte[] { (byte) b }, 0, 1);
+      }
+    }
+
+    /**
+     * @see java.io.OutputStream#write(byte[], int, int)
+     */
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      if (null == committed) {
+        if (len <= capacity - count) {
+          System.arraycopy(b, off, buffer, count, len);
+          count += len;
+          return;
+        }
+
+        committed = outputMessage.getBody();
+        committed.write(buffer, 0, count);
+        count = 0;
+      }
+
+      committed.write(b, off, len);
+    }
+
+    /**
+     * Send the buffered bytes without a Content-Length and flush the response stream.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private void commit() throws IOException {
+      if (null == committed) {
+        committed = outputMessage.getBody();
+        committed.write(buffer, 0, count);
+        count = 0;
+      }
+
+      committed.flush();
+    }
+
+    /**
+     * Send the buffered bytes, with the Content-Length when the whole body was buffered.
+     *
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private void complete() throws IOException {
+      if (null == committed) {
+        outputMessage.getHeaders().setContentLength(count);
+        committed = outputMessage.getBody();
+        committed.write(buffer, 0, count);
+        count = 0;
+      }
+    }
+
+    /**
+     * Return the buffer to the pool.
+     */
+    private void release() {
+      BufferPool.releaseBytes(buffer);
+      buffer = null;
+    }
+  }
+}
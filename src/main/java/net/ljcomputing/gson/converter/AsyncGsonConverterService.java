@@ -0,0 +1,112 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.converter;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+
+import net.ljcomputing.gson.merge.MergeOptions;
+
+/**
+ * Interface defining an asynchronous GSON converter service, running conversions off the caller's
+ * thread.
+ * 
+ * <p>
+ * The number of conversions admitted at once is bounded. A conversion that cannot be admitted
+ * returns a future completed exceptionally with a
+ * {@link java.util.concurrent.RejectedExecutionException}, leaving the caller to apply
+ * backpressure (e.g. answer 503) instead of piling up work.
+ * </p>
+ * 
+ * @author James G. Willmore
+ *
+ */
+public interface AsyncGsonConverterService {
+
+  /**
+   * Transform given source Object to JSON.
+   *
+   * @param source the source
+   * @return the future string
+   */
+  CompletableFuture<String> toJson(Object source);
+
+  /**
+   * Transform given source Object to UTF-8 encoded JSON bytes.
+   *
+   * @param source the source
+   * @return the future bytes
+   */
+  CompletableFuture<byte[]> toJsonBytes(Object source);
+
+  /**
+   * From json.
+   *
+   * @param <T> the generic type
+   * @param json the json
+   * @param target the target
+   * @return the future object
+   */
+  <T> CompletableFuture<T> fromJson(String json, Type target);
+
+  /**
+   * From json, decoding UTF-8 encoded JSON bytes.
+   *
+   * @param <T> the generic type
+   * @param json the json
+   * @param target the target
+   * @return the future object
+   */
+  <T> CompletableFuture<T> fromJson(byte[] json, Type target);
+
+  /**
+   * Merge.
+   *
+   * @param <T> the generic type
+   * @param to the to
+   * @param from the from
+   * @param ignoredProperties the ignored properties
+   * @return the future merged object
+   */
+  <T> CompletableFuture<T> merge(T to, Object from, String... ignoredProperties);
+
+  /**
+   * Deep merge.
+   *
+   * @param <T> the generic type
+   * @param to the to
+   * @param from the from
+   * @param options the merge options
+   * @return the future merged object
+   */
+  <T> CompletableFuture<T> deepMerge(T to, Object from, MergeOptions options);
+
+  /**
+   * Gets the number of conversions admitted and not yet finished, running or queued.
+   *
+   * @return the in flight count
+   */
+  int getInFlight();
+
+  /**
+   * Gets the number of conversions rejected so far.
+   *
+   * @return the rejected count
+   */
+  long getRejected();
+}
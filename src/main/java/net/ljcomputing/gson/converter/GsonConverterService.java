@@ -16,8 +16,21 @@
 
 package net.ljcomputing.gson.converter;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import net.ljcomputing.gson.io.StringInterner;
+import net.ljcomputing.gson.merge.DiffFormat;
+import net.ljcomputing.gson.merge.KeyedMergePolicy;
+import net.ljcomputing.gson.merge.MergeOptions;
 
 /**
  * Interface defining GSON converter service.
@@ -35,6 +48,54 @@ public interface GsonConverterService {
    */
   String toJson(Object source);
 
+  /**
+   * Transform given source Object to JSON, leaving out the fields annotated with
+   * {@code ExcludeFromJson} for the given view or one of its supertypes.
+   *
+   * @param source the source
+   * @param view the view
+   * @return the string
+   */
+  String toJson(Object source, Class<?> view);
+
+  /**
+   * Write the JSON form of the given source Object to the given appendable, without building the
+   * whole document as a String.
+   *
+   * @param source the source
+   * @param writer the writer
+   */
+  void toJson(Object source, Appendable writer);
+
+  /**
+   * Write the UTF-8 encoded JSON form of the given source Object to the given stream, without
+   * building the whole document as a String. The stream is flushed but not closed.
+   *
+   * @param source the source
+   * @param out the out
+   */
+  void toJson(Object source, OutputStream out);
+
+  /**
+   * Transform given source Object to UTF-8 encoded JSON bytes, encoding straight to bytes rather
+   * than through a String.
+   *
+   * @param source the source
+   * @return the bytes
+   */
+  byte[] toJsonBytes(Object source);
+
+  /**
+   * Write the UTF-8 encoded JSON form of the given source Object into the given buffer, from its
+   * position on. If the buffer is too small a {@link java.nio.BufferOverflowException} is thrown
+   * and its position is left unchanged.
+   *
+   * @param source the source
+   * @param buffer the buffer
+   * @return the number of bytes written
+   */
+  int toJson(Object source, ByteBuffer buffer);
+
   /**
    * From json.
    *
@@ -54,6 +115,145 @@ public interface GsonConverterService {
   @SuppressWarnings("rawtypes")
   List fromJson(String json, Type target);
 
+  /**
+   * From json, streaming from the given reader. The reader is not closed.
+   *
+   * @param <T> the generic type
+   * @param json the json
+   * @param target the target
+   * @return the object
+   */
+  <T> T fromJson(Reader json, Type target);
+
+  /**
+   * From json, streaming UTF-8 encoded JSON from the given stream. The stream is not closed.
+   *
+   * @param <T> the generic type
+   * @param json the json
+   * @param target the target
+   * @return the object
+   */
+  <T> T fromJson(InputStream json, Type target);
+
+  /**
+   * From json, streaming from the given reader and deduplicating the string values and map keys
+   * read through the given interner. The reader is not closed.
+   *
+   * @param <T> the generic type
+   * @param json the json
+   * @param target the target
+   * @param interner the interner, scoped to this call or shared
+   * @return the object
+   */
+  <T> T fromJson(Reader json, Type target, StringInterner interner);
+
+  /**
+   * From json, streaming UTF-8 encoded JSON from the given stream and deduplicating the string
+   * values and map keys read through the given interner. The stream is not closed.
+   *
+   * @param <T> the generic type
+   * @param json the json
+   * @param target the target
+   * @param interner the interner, scoped to this call or shared
+   * @return the object
+   */
+  <T> T fromJson(InputStream json, Type target, StringInterner interner);
+
+  /**
+   * From json, streaming from the given reader but materializing only the given dot separated
+   * field paths, such as {@code id} and {@code customer.name}. Every other value is skipped
+   * without being bound; unselected fields keep their default values. The reader is not closed.
+   *
+   * @param <T> the generic type
+   * @param json the json
+   * @param target the target
+   * @param fieldPaths the field paths
+   * @return the object
+   */
+  <T> T fromJson(Reader json, Type target, Set<String> fieldPaths);
+
+  /**
+   * From json, decoding UTF-8 encoded JSON bytes directly.
+   *
+   * @param <T> the generic type
+   * @param json the json
+   * @param target the target
+   * @return the object
+   */
+  <T> T fromJson(byte[] json, Type target);
+
+  /**
+   * From json, decoding the remaining UTF-8 encoded JSON bytes of the given buffer directly. The
+   * buffer's position is advanced past the bytes read.
+   *
+   * @param <T> the generic type
+   * @param json the json
+   * @param target the target
+   * @return the object
+   */
+  <T> T fromJson(ByteBuffer json, Type target);
+
+  /**
+   * Lazily decode the elements of a top-level JSON array. Each element is decoded only when the
+   * stream pulls it; closing the stream closes the reader.
+   *
+   * @param <T> the generic type
+   * @param json the json
+   * @param elementType the element type
+   * @return the stream of elements
+   */
+  <T> Stream<T> fromJsonArray(Reader json, Type elementType);
+
+  /**
+   * Lazily decode the elements of a top-level, UTF-8 encoded JSON array. Each element is decoded
+   * only when the stream pulls it; closing the stream closes the input stream.
+   *
+   * @param <T> the generic type
+   * @param json the json
+   * @param elementType the element type
+   * @return the stream of elements
+   */
+  <T> Stream<T> fromJsonArray(InputStream json, Type elementType);
+
+  /**
+   * Transform given source Object to the compact binary encoding, which follows the same field
+   * model and exclusion rules as JSON.
+   *
+   * @param source the source
+   * @return the bytes
+   * @see net.ljcomputing.gson.binary.BinaryFormat
+   */
+  byte[] toBinary(Object source);
+
+  /**
+   * Write the compact binary encoding of the given source Object to the given stream. The stream
+   * is flushed but not closed.
+   *
+   * @param source the source
+   * @param out the out
+   */
+  void toBinary(Object source, OutputStream out);
+
+  /**
+   * From the compact binary encoding, streaming from the given stream. The stream is not closed.
+   *
+   * @param <T> the generic type
+   * @param binary the binary encoded value
+   * @param target the target
+   * @return the object
+   */
+  <T> T fromBinary(InputStream binary, Type target);
+
+  /**
+   * From the compact binary encoding.
+   *
+   * @param <T> the generic type
+   * @param binary the binary encoded value
+   * @param target the target
+   * @return the object
+   */
+  <T> T fromBinary(byte[] binary, Type target);
+
   /**
    * Merge.
    *
@@ -72,4 +272,102 @@ public interface GsonConverterService {
    * @return the object
    */
   Object merge(Object to, Object from, String ... ignoredProperties);
+
+  /**
+   * Merge a collection of source objects into the target objects they match by key, the way
+   * {@link #merge(Object, Object)} merges a single pair, adding unmatched source objects. Large
+   * collections are merged in parallel. The target collection is modified in place.
+   *
+   * @param <T> the element type
+   * @param <K> the key type
+   * @param to the target collection
+   * @param from the source collection
+   * @param key the key function
+   * @return the target collection
+   */
+  <T, K> Collection<T> mergeAll(Collection<T> to, Collection<? extends T> from,
+      Function<? super T, ? extends K> key);
+
+  /**
+   * Merge a collection of source objects into the target objects they match by key, the way
+   * {@link #merge(Object, Object)} merges a single pair, then add or remove the unmatched objects
+   * according to the policy. Large collections are merged in parallel. The target collection is
+   * modified in place.
+   *
+   * @param <T> the element type
+   * @param <K> the key type
+   * @param to the target collection
+   * @param from the source collection
+   * @param key the key function
+   * @param policy the policy
+   * @return the target collection
+   */
+  <T, K> Collection<T> mergeAll(Collection<T> to, Collection<? extends T> from,
+      Function<? super T, ? extends K> key, KeyedMergePolicy policy);
+
+  /**
+   * Deep merge the given source object graph into the target graph, recursing into nested beans
+   * and merging collections and maps according to the given options.
+   *
+   * @param to the to
+   * @param from the from
+   * @param options the merge options
+   * @return the object
+   */
+  Object deepMerge(Object to, Object from, MergeOptions options);
+
+  /**
+   * Apply an RFC 7386 JSON Merge Patch, streamed from the given reader, directly to the target.
+   * Only the fields named in the patch are written; {@code null} clears a field and nested
+   * objects are patched recursively. The reader is not closed.
+   *
+   * @param target the target, a map or a bean
+   * @param patch the patch
+   * @return the target
+   * @throws IllegalArgumentException if the target is neither a map nor a bean
+   */
+  Object applyMergePatch(Object target, Reader patch);
+
+  /**
+   * Apply an RFC 7386 JSON Merge Patch directly to the target. Only the fields named in the
+   * patch are written; {@code null} clears a field and nested objects are patched recursively.
+   *
+   * @param target the target, a map or a bean
+   * @param patch the patch
+   * @return the target
+   * @throws IllegalArgumentException if the target is neither a map nor a bean
+   */
+  Object applyMergePatch(Object target, String patch);
+
+  /**
+   * Compute the smallest RFC 7386 JSON Merge Patch turning the before object into the after
+   * object, which must be of the same type. Fields excluded from JSON are not compared.
+   *
+   * @param before the before object
+   * @param after the after object
+   * @return the merge patch
+   */
+  String diff(Object before, Object after);
+
+  /**
+   * Compute the delta turning the before object into the after object, which must be of the
+   * same type, in the given format. Fields excluded from JSON are not compared.
+   *
+   * @param before the before object
+   * @param after the after object
+   * @param format the format
+   * @return the delta document
+   */
+  String diff(Object before, Object after, DiffFormat format);
+
+  /**
+   * Write the delta turning the before object into the after object, which must be of the same
+   * type, in the given format to the given appendable.
+   *
+   * @param before the before object
+   * @param after the after object
+   * @param format the format
+   * @param writer the writer
+   */
+  void diff(Object before, Object after, DiffFormat format, Appendable writer);
 }
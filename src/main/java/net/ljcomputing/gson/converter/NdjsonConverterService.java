@@ -0,0 +1,109 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.converter;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Interface defining JSON Lines (NDJSON) batch conversion: one JSON value per line, and the
+ * parallel import of files holding a large JSON array.
+ *
+ * @author James G. Willmore
+ *
+ */
+public interface NdjsonConverterService {
+
+  /**
+   * Decode all lines of the given input, in parallel.
+   *
+   * @param <T> the generic type
+   * @param json the json lines
+   * @param target the target type of each line
+   * @param ordered true to keep the input order, false to collect chunks as they complete
+   * @return the list of decoded values
+   */
+  <T> List<T> fromNdjson(Reader json, Type target, boolean ordered);
+
+  /**
+   * Decode the lines of the given input in parallel, handing each value to the consumer on the
+   * calling thread.
+   *
+   * @param <T> the generic type
+   * @param json the json lines
+   * @param target the target type of each line
+   * @param ordered true to keep the input order, false to deliver chunks as they complete
+   * @param consumer the consumer
+   * @return the number of values decoded
+   */
+  <T> long fromNdjson(Reader json, Type target, boolean ordered, Consumer<? super T> consumer);
+
+  /**
+   * Decode the lines of the given UTF-8 input in parallel, handing each value to the consumer on
+   * the calling thread. The stream is not closed.
+   *
+   * @param <T> the generic type
+   * @param json the json lines
+   * @param target the target type of each line
+   * @param ordered true to keep the input order, false to deliver chunks as they complete
+   * @param consumer the consumer
+   * @return the number of values decoded
+   */
+  <T> long fromNdjson(InputStream json, Type target, boolean ordered,
+      Consumer<? super T> consumer);
+
+  /**
+   * Decode the elements of the top-level JSON array held by the given UTF-8 file in parallel,
+   * handing each value to the consumer on the calling thread. The file is memory-mapped and split
+   * into chunks of whole elements, so it is never read into memory as a whole.
+   *
+   * @param <T> the generic type
+   * @param file the file
+   * @param elementType the target type of each element
+   * @param ordered true to keep the file order, false to deliver chunks as they complete
+   * @param consumer the consumer
+   * @return the number of values decoded
+   */
+  <T> long fromJsonArrayFile(Path file, Type elementType, boolean ordered,
+      Consumer<? super T> consumer);
+
+  /**
+   * Encode the given values as JSON lines, serializing batches in parallel and writing them in
+   * order. The writer is flushed but not closed.
+   *
+   * @param source the source values
+   * @param out the out
+   * @return the number of values written
+   */
+  long toNdjson(Iterable<?> source, Writer out);
+
+  /**
+   * Encode the given values as UTF-8 JSON lines, serializing batches in parallel and writing them
+   * in order. The stream is flushed but not closed.
+   *
+   * @param source the source values
+   * @param out the out
+   * @return the number of values written
+   */
+  long toNdjson(Iterable<?> source, OutputStream out);
+}
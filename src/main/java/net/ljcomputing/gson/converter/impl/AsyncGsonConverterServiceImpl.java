@@ -0,0 +1,296 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.converter.impl;
+
+import java.io.StringReader;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+
+import net.ljcomputing.gson.converter.AsyncGsonConverterService;
+import net.ljcomputing.gson.converter.GsonConverterService;
+import net.ljcomputing.gson.merge.MergeOptions;
+
+/**
+ * Asynchronous GSON converter service implementation, delegating to a
+ * {@link GsonConverterService} on its own executor.
+ *
+ * <p>
+ * At most {@code concurrency} conversions run at once and at most {@code queueDepth} more wait
+ * for their turn; a conversion beyond that waits up to the admission timeout and is then
+ * rejected. The executor is a fixed pool of {@code concurrency} daemon threads, or virtual threads
+ * gated by a semaphore when the runtime provides them.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class AsyncGsonConverterServiceImpl implements AsyncGsonConverterService, DisposableBean {
+
+  /** The SLF4J logger. */
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(AsyncGsonConverterServiceImpl.class);
+
+  /** The delegate. */
+  private transient final GsonConverterService delegate;
+
+  /** The executor. */
+  private transient final ExecutorService executor;
+
+  /** The running permits, when the executor does not bound concurrency itself; or null. */
+  private transient final Semaphore running;
+
+  /** The admission permits: running plus queued conversions. */
+  private transient final Semaphore admission;
+
+  /** The admission permit count. */
+  private final int admissionLimit;
+
+  /** The admission timeout, in milliseconds. */
+  private final long admissionTimeoutMillis;
+
+  /** The rejected count. */
+  private final AtomicLong rejected = new AtomicLong();
+
+  /**
+   * Instantiates a new async gson converter service impl with its own executor.
+   *
+   * @param delegate the delegate
+   * @param concurrency the maximum number of running conversions
+   * @param queueDepth the maximum number of queued conversions
+   * @param admissionTimeoutMillis how long a caller waits for admission, 0 to reject at once
+   * @param virtualThreads true to use virtual threads when the runtime has them
+   */
+  public AsyncGsonConverterServiceImpl(final GsonConverterService delegate, final int concurrency,
+      final int queueDepth, final long admissionTimeoutMillis, final boolean virtualThreads) {
+    final ExecutorService virtual = virtualThreads ? newVirtualThreadExecutor() : null;
+
+    this.delegate = delegate;
+    this.executor = null == virtual ? newPlatformThreadExecutor(concurrency) : virtual;
+    this.running = null == virtual ? null : new Semaphore(concurrency);
+    this.admissionLimit = concurrency + Math.max(0, queueDepth);
+    this.admission = new Semaphore(admissionLimit);
+    this.admissionTimeoutMillis = admissionTimeoutMillis;
+
+    LOGGER.info("Async conversions on {} threads: {} running, {} queued",
+        null == virtual ? "platform" : "virtual", concurrency, queueDepth);
+  }
+
+  /**
+   * Create a virtual thread per task executor, if the runtime provides one.
+   *
+   * @return the executor, or null
+   */
+  private static ExecutorService newVirtualThreadExecutor() {
+    try {
+      final Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return (ExecutorService) factory.invoke(null);
+    } catch (ReflectiveOperationException exception) {
+      return null;
+    }
+  }
+
+  /**
+   * Create a fixed pool of daemon threads.
+   *
+   * @param concurrency the number of threads
+   * @return the executor
+   */
+  private static ExecutorService newPlatformThreadExecutor(final int concurrency) {
+    final AtomicInteger count = new AtomicInteger();
+    final ThreadFactory threads = runnable -> {
+      final Thread thread = new Thread(runnable, "gson-async-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+
+    return Executors.newFixedThreadPool(concurrency, threads);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.AsyncGsonConverterService#toJson(java.lang.Object)
+   */
+  public final CompletableFuture<String> toJson(final Object source) {
+    return submit(() -> delegate.toJson(source));
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.AsyncGsonConverterService#toJsonBytes(java.lang.Object)
+   */
+  public final CompletableFuture<byte[]> toJsonBytes(final Object source) {
+    return submit(() -> delegate.toJsonBytes(source));
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.AsyncGsonConverterService#fromJson(java.lang.String,
+   *      java.lang.reflect.Type)
+   */
+  public final <T> CompletableFuture<T> fromJson(final String json, final Type target) {
+    // the reader overload, as the legacy String overload only returns lists
+    return submit(() -> delegate.<T>fromJson(new StringReader(json), target));
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.AsyncGsonConverterService#fromJson(byte[],
+   *      java.lang.reflect.Type)
+   */
+  public final <T> CompletableFuture<T> fromJson(final byte[] json, final Type target) {
+    return submit(() -> delegate.<T>fromJson(json, target));
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.AsyncGsonConverterService
+   * #merge(java.lang.Object, java.lang.Object, java.lang.String[])
+   */
+  @SuppressWarnings("unchecked")
+  public final <T> CompletableFuture<T> merge(final T to, final Object from,
+      final String... ignoredProperties) {
+    return submit(() -> (T) delegate.merge(to, from, ignoredProperties));
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.AsyncGsonConverterService
+   * #deepMerge(java.lang.Object, java.lang.Object, net.ljcomputing.gson.merge.MergeOptions)
+   */
+  @SuppressWarnings("unchecked")
+  public final <T> CompletableFuture<T> deepMerge(final T to, final Object from,
+      final MergeOptions options) {
+    return submit(() -> (T) delegate.deepMerge(to, from, options));
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.AsyncGsonConverterService#getInFlight()
+   */
+  public final int getInFlight() {
+    return admissionLimit - admission.availablePermits();
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.AsyncGsonConverterService#getRejected()
+   */
+  public final long getRejected() {
+    return rejected.get();
+  }
+
+  /**
+   * Admit and run a conversion.
+   *
+   * @param <T> the generic type
+   * @param conversion the conversion
+   * @return the future result
+   */
+  private <T> CompletableFuture<T> submit(final Supplier<T> conversion) {
+    if (!admit()) {
+      rejected.incrementAndGet();
+      return failed(new RejectedExecutionException(
+          "Conversion rejected: " + admissionLimit + " conversions in flight"));
+    }
+
+    try {
+      return CompletableFuture.supplyAsync(() -> run(conversion), executor);
+    } catch (RejectedExecutionException exception) {
+      // the executor has been shut down
+      admission.release();
+      rejected.incrementAndGet();
+      return failed(exception);
+    }
+  }
+
+  /**
+   * Acquire an admission permit, waiting up to the admission timeout.
+   *
+   * @return true, if admitted
+   */
+  private boolean admit() {
+    if (admission.tryAcquire()) {
+      return true;
+    }
+
+    if (admissionTimeoutMillis <= 0) {
+      return false;
+    }
+
+    try {
+      return admission.tryAcquire(admissionTimeoutMillis, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * Run an admitted conversion, releasing its permits when done.
+   *
+   * @param <T> the generic type
+   * @param conversion the conversion
+   * @return the result
+   */
+  private <T> T run(final Supplier<T> conversion) {
+    try {
+      if (null == running) {
+        return conversion.get();
+      }
+
+      running.acquireUninterruptibly();
+
+      try {
+        return conversion.get();
+      } finally {
+        running.release();
+      }
+    } finally {
+      admission.release();
+    }
+  }
+
+  /**
+   * Create a future completed with the given exception.
+   *
+   * @param <T> the generic type
+   * @param exception the exception
+   * @return the future
+   */
+  private static <T> CompletableFuture<T> failed(final Throwable exception) {
+    final CompletableFuture<T> future = new CompletableFuture<>();
+    future.completeExceptionally(exception);
+    return future;
+  }
+
+  /**
+   * Shut the executor down, letting admitted conversions finish.
+   *
+   * @see org.springframework.beans.factory.DisposableBean#destroy()
+   */
+  @Override
+  public void destroy() {
+    executor.shutdown();
+  }
+}
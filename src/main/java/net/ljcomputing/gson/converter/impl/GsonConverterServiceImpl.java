@@ -16,45 +16,171 @@
 
 package net.ljcomputing.gson.converter.impl;
 
-import java.lang.reflect.Field;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.Writer;
 import java.lang.reflect.Type;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.Collection;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
 
+import net.ljcomputing.gson.binary.BinaryJsonReader;
+import net.ljcomputing.gson.binary.BinaryJsonWriter;
+import net.ljcomputing.gson.config.GsonFactory;
+import net.ljcomputing.gson.config.GsonViews;
 import net.ljcomputing.gson.converter.GsonConverterService;
-import net.ljcomputing.gson.strategy.ExcludeFromJsonAnnotationExclusionStrategy;
+import net.ljcomputing.gson.io.AppendableWriter;
+import net.ljcomputing.gson.io.ByteBufferInputStream;
+import net.ljcomputing.gson.io.ByteBufferOutputStream;
+import net.ljcomputing.gson.io.InterningJsonReader;
+import net.ljcomputing.gson.io.JsonArrayIterator;
+import net.ljcomputing.gson.io.PooledByteArrayOutputStream;
+import net.ljcomputing.gson.io.StringInterner;
+import net.ljcomputing.gson.io.Utf8StreamReader;
+import net.ljcomputing.gson.io.Utf8StreamWriter;
+import net.ljcomputing.gson.limit.JsonLimits;
+import net.ljcomputing.gson.limit.LimitedJsonReader;
+import net.ljcomputing.gson.merge.DeepMerger;
+import net.ljcomputing.gson.merge.DiffFormat;
+import net.ljcomputing.gson.merge.KeyedCollectionMerger;
+import net.ljcomputing.gson.merge.KeyedMergePolicy;
+import net.ljcomputing.gson.merge.MergeOptions;
+import net.ljcomputing.gson.merge.MergePatcher;
+import net.ljcomputing.gson.merge.MergePlanCache;
+import net.ljcomputing.gson.merge.ObjectDiffer;
+import net.ljcomputing.gson.projection.FieldProjector;
 
 /**
  * GSON converter service implementation.
+ *
+ * <p>
+ * When a shared {@link StringInterner} is set, every decoding method deduplicates the string
+ * values and map keys it reads through it. When {@link JsonLimits} are set, every decoding method
+ * enforces them as it reads and fails with a {@code JsonLimitExceededException}.
+ * </p>
  * 
  * @author James G. Willmore
  *
  */
 @Service
 public class GsonConverterServiceImpl implements GsonConverterService {
-  /** The SLF4J Logger. */
-  private static final Logger LOGGER = LoggerFactory.getLogger(GsonConverterServiceImpl.class);
-
   /** The Gson instance. */
   private transient final Gson gson;
 
+  /** The compiled merge plans. */
+  private transient final MergePlanCache mergePlans = new MergePlanCache();
+
+  /** The deep merger. */
+  private transient final DeepMerger deepMerger = new DeepMerger(mergePlans);
+
+  /** The keyed collection merger. */
+  private transient final KeyedCollectionMerger keyedMerger = new KeyedCollectionMerger(mergePlans);
+
+  /** The merge patcher. */
+  private transient final MergePatcher mergePatcher;
+
+  /** The object differ. */
+  private transient final ObjectDiffer objectDiffer;
+
+  /** The field projector. */
+  private transient volatile FieldProjector fieldProjector;
+
+  /** The indent of the JSON writers, or null when Gson does not pretty print. */
+  private transient final String indent;
+
+  /** The Gson instances serializing each view. */
+  private transient volatile GsonViews gsonViews = new GsonViews();
+
+  /** The shared string interner, or null. */
+  private transient volatile StringInterner stringInterner;
+
+  /** The input limits. */
+  private transient volatile JsonLimits jsonLimits = JsonLimits.none();
+
   /**
-   * Instantiates a new gson converter service impl.
+   * Instantiates a new gson converter service impl with the default Gson configuration.
    */
   public GsonConverterServiceImpl() {
-    gson = new GsonBuilder()
-        .setExclusionStrategies(new ExcludeFromJsonAnnotationExclusionStrategy()).serializeNulls()
-        .create();
+    this(GsonFactory.createDefault());
+  }
+
+  /**
+   * Instantiates a new gson converter service impl using the given, shared Gson instance.
+   *
+   * @param gson the gson
+   */
+  @Autowired
+  public GsonConverterServiceImpl(final Gson gson) {
+    this.gson = gson;
+    this.indent = indentOf(gson);
+    this.mergePatcher = new MergePatcher(gson);
+    this.objectDiffer = new ObjectDiffer(gson);
+    this.fieldProjector = new FieldProjector(gson);
+  }
+
+  /**
+   * Sets the string interner shared by all decoding calls.
+   *
+   * @param stringInterner the new string interner, or null for none
+   */
+  @Autowired(required = false)
+  public void setStringInterner(final StringInterner stringInterner) {
+    this.stringInterner = stringInterner;
+  }
+
+  /**
+   * Sets the limits checked while decoding JSON and binary input; unlimited by default.
+   *
+   * @param jsonLimits the new JSON limits
+   */
+  @Autowired(required = false)
+  public void setJsonLimits(final JsonLimits jsonLimits) {
+    this.jsonLimits = null == jsonLimits ? JsonLimits.none() : jsonLimits;
+  }
+
+  /**
+   * Sets the field projector decoding partial documents; it must use this service's Gson
+   * instance. By default it caches {@value FieldProjector#DEFAULT_MAX_ADAPTERS} adapters.
+   *
+   * @param fieldProjector the new field projector
+   */
+  @Autowired(required = false)
+  public void setFieldProjector(final FieldProjector fieldProjector) {
+    this.fieldProjector = null == fieldProjector ? new FieldProjector(gson) : fieldProjector;
+  }
+
+  /**
+   * Sets the Gson instances serializing each view; by default they have the baseline
+   * configuration.
+   *
+   * @param gsonViews the new gson views
+   */
+  @Autowired(required = false)
+  public void setGsonViews(final GsonViews gsonViews) {
+    this.gsonViews = gsonViews;
   }
 
   /**
@@ -64,12 +190,75 @@ public class GsonConverterServiceImpl implements GsonConverterService {
     return gson.toJson(source);
   }
 
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toJson(java.lang.Object,
+   *      java.lang.Class)
+   */
+  public final String toJson(final Object source, final Class<?> view) {
+    return gsonViews.get(view).toJson(source);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toJson(java.lang.Object,
+   *      java.lang.Appendable)
+   */
+  public final void toJson(final Object source, final Appendable writer) {
+    try {
+      writeJson(source, AppendableWriter.of(writer));
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toJson(java.lang.Object,
+   *      java.io.OutputStream)
+   */
+  public final void toJson(final Object source, final OutputStream out) {
+    try (final Utf8StreamWriter writer = new Utf8StreamWriter(out)) {
+      writeJson(source, writer);
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toJsonBytes(java.lang.Object)
+   */
+  public final byte[] toJsonBytes(final Object source) {
+    try (final PooledByteArrayOutputStream out = new PooledByteArrayOutputStream()) {
+      toJson(source, out);
+      return out.toByteArray();
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toJson(java.lang.Object,
+   *      java.nio.ByteBuffer)
+   */
+  public final int toJson(final Object source, final ByteBuffer buffer) {
+    final int start = buffer.position();
+
+    try {
+      toJson(source, new ByteBufferOutputStream(buffer));
+    } catch (BufferOverflowException exception) {
+      buffer.position(start);
+      throw exception;
+    }
+
+    return buffer.position() - start;
+  }
+
   /**
    * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.lang.String,
    *      java.lang.Class)
    */
   public final Object fromJson(final String json, final Class<?> target) {
-    return gson.fromJson(json, target);
+    if (null == stringInterner && jsonLimits.isUnlimited() || null == json) {
+      return gson.fromJson(json, target);
+    }
+
+    return fromJson(new StringReader(json), (Type) target);
   }
 
   /**
@@ -78,7 +267,150 @@ public class GsonConverterServiceImpl implements GsonConverterService {
    */
   @SuppressWarnings("rawtypes")
   public final List fromJson(final String json, final Type target) {
-    return gson.fromJson(json, target);
+    if (null == stringInterner && jsonLimits.isUnlimited() || null == json) {
+      return gson.fromJson(json, target);
+    }
+
+    return fromJson(new StringReader(json), target);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.io.Reader,
+   *      java.lang.reflect.Type)
+   */
+  public final <T> T fromJson(final Reader json, final Type target) {
+    return fromJson(json, target, stringInterner);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.io.InputStream,
+   *      java.lang.reflect.Type)
+   */
+  public final <T> T fromJson(final InputStream json, final Type target) {
+    return fromJson(json, target, stringInterner);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.io.Reader,
+   *      java.lang.reflect.Type, net.ljcomputing.gson.io.StringInterner)
+   */
+  public final <T> T fromJson(final Reader json, final Type target,
+      final StringInterner interner) {
+    final JsonReader reader = newJsonReader(json, interner);
+    final T result = gson.fromJson(reader, target);
+    assertFullConsumption(result, reader);
+    return result;
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.io.InputStream,
+   *      java.lang.reflect.Type, net.ljcomputing.gson.io.StringInterner)
+   */
+  public final <T> T fromJson(final InputStream json, final Type target,
+      final StringInterner interner) {
+    try (final Utf8StreamReader reader = new Utf8StreamReader(json)) {
+      return fromJson(reader, target, interner);
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.io.Reader,
+   *      java.lang.reflect.Type, java.util.Set)
+   */
+  public final <T> T fromJson(final Reader json, final Type target,
+      final Set<String> fieldPaths) {
+    return fieldProjector.read(newJsonReader(json, stringInterner), target, fieldPaths);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(byte[],
+   *      java.lang.reflect.Type)
+   */
+  public final <T> T fromJson(final byte[] json, final Type target) {
+    return fromJson(new ByteArrayInputStream(json), target);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.nio.ByteBuffer,
+   *      java.lang.reflect.Type)
+   */
+  public final <T> T fromJson(final ByteBuffer json, final Type target) {
+    return fromJson(new ByteBufferInputStream(json), target);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJsonArray(java.io.Reader,
+   *      java.lang.reflect.Type)
+   */
+  public final <T> Stream<T> fromJsonArray(final Reader json, final Type elementType) {
+    @SuppressWarnings("unchecked")
+    final TypeAdapter<T> adapter = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(elementType));
+    return new JsonArrayIterator<T>(newJsonReader(json, stringInterner), adapter).stream();
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJsonArray(java.io.InputStream,
+   *      java.lang.reflect.Type)
+   */
+  public final <T> Stream<T> fromJsonArray(final InputStream json, final Type elementType) {
+    final Stream<T> elements = fromJsonArray(new Utf8StreamReader(json), elementType);
+    return elements.onClose(() -> {
+      try {
+        json.close();
+      } catch (IOException exception) {
+        throw new JsonIOException(exception);
+      }
+    });
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toBinary(java.lang.Object)
+   */
+  public final byte[] toBinary(final Object source) {
+    try (final PooledByteArrayOutputStream out = new PooledByteArrayOutputStream()) {
+      toBinary(source, out);
+      return out.toByteArray();
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toBinary(java.lang.Object,
+   *      java.io.OutputStream)
+   */
+  public final void toBinary(final Object source, final OutputStream out) {
+    try (final BinaryJsonWriter writer = new BinaryJsonWriter(out)) {
+      if (null == source) {
+        gson.toJson(JsonNull.INSTANCE, writer);
+      } else {
+        gson.toJson(source, source.getClass(), writer);
+      }
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromBinary(java.io.InputStream,
+   *      java.lang.reflect.Type)
+   */
+  public final <T> T fromBinary(final InputStream binary, final Type target) {
+    try (final BinaryJsonReader reader = new BinaryJsonReader(binary, jsonLimits)) {
+      final T result = gson.fromJson(reader, target);
+      assertFullConsumption(result, reader);
+      return result;
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromBinary(byte[],
+   *      java.lang.reflect.Type)
+   */
+  public final <T> T fromBinary(final byte[] binary, final Type target) {
+    return fromBinary(new ByteArrayInputStream(binary), target);
   }
 
   /**
@@ -102,131 +434,168 @@ public class GsonConverterServiceImpl implements GsonConverterService {
    * #merge(java.lang.Object, java.lang.Object, java.lang.String[])
    */
   public final Object merge(final Object to, final Object from, final String... ignoredProperties) {
-    mergeValues(getKeysFromJson(toJson(from)), to, from, ignoredProperties);
+    mergePlans.getPlan(to.getClass(), from.getClass(), ignoredProperties).apply(to, from);
     return to;
   }
 
   /**
-   * Find field.
-   *
-   * @param clazz the clazz
-   * @param fieldName the field name
-   * @return the field
+   * @see net.ljcomputing.gson.converter.GsonConverterService#mergeAll(java.util.Collection,
+   *      java.util.Collection, java.util.function.Function)
    */
-  private Field findField(final Class<?> clazz, final String fieldName) {
-    Field field = null;
-    Class<?> current = clazz;
+  public final <T, K> Collection<T> mergeAll(final Collection<T> to,
+      final Collection<? extends T> from, final Function<? super T, ? extends K> key) {
+    return mergeAll(to, from, key, KeyedMergePolicy.UPSERT);
+  }
 
-    do {
-      try {
-        field = current.getDeclaredField(fieldName);
-      } catch (NoSuchFieldException | SecurityException exception) {
-        LOGGER.debug("exception ignored while getting declared field {} for class {}: {}",
-            fieldName, clazz, exception.getMessage());
-      }
-    } while ((current = current.getSuperclass()) != null);
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#mergeAll(java.util.Collection,
+   *      java.util.Collection, java.util.function.Function,
+   *      net.ljcomputing.gson.merge.KeyedMergePolicy)
+   */
+  public final <T, K> Collection<T> mergeAll(final Collection<T> to,
+      final Collection<? extends T> from, final Function<? super T, ? extends K> key,
+      final KeyedMergePolicy policy) {
+    return keyedMerger.merge(to, from, key, null == policy ? KeyedMergePolicy.UPSERT : policy);
+  }
 
-    return field;
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService
+   * #deepMerge(java.lang.Object, java.lang.Object, net.ljcomputing.gson.merge.MergeOptions)
+   */
+  public final Object deepMerge(final Object to, final Object from, final MergeOptions options) {
+    return deepMerger.merge(to, from, null == options ? MergeOptions.defaults() : options);
   }
 
   /**
-   * Merge values.
-   *
-   * @param keysFrom the keys from
-   * @param to the to Object
-   * @param from the from Object
-   * @param ignoredProperties the ignored properties
+   * @see net.ljcomputing.gson.converter.GsonConverterService
+   * #applyMergePatch(java.lang.Object, java.io.Reader)
    */
-  @SuppressWarnings("rawtypes")
-  private void mergeValues(final List keysFrom, final Object to, final Object from,
-      final String... ignoredProperties) {
-    final Class toClass = to.getClass();
-    final Class fromClass = from.getClass();
+  public final Object applyMergePatch(final Object target, final Reader patch) {
+    return mergePatcher.apply(target, newJsonReader(patch, stringInterner));
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService
+   * #applyMergePatch(java.lang.Object, java.lang.String)
+   */
+  public final Object applyMergePatch(final Object target, final String patch) {
+    return applyMergePatch(target, new StringReader(patch));
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#diff(java.lang.Object,
+   *      java.lang.Object)
+   */
+  public final String diff(final Object before, final Object after) {
+    return diff(before, after, DiffFormat.MERGE_PATCH);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#diff(java.lang.Object,
+   *      java.lang.Object, net.ljcomputing.gson.merge.DiffFormat)
+   */
+  public final String diff(final Object before, final Object after, final DiffFormat format) {
+    final StringBuilder delta = new StringBuilder();
+    diff(before, after, format, delta);
+    return delta.toString();
+  }
 
-    if (null != ignoredProperties) {
-      Arrays.sort(ignoredProperties);
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#diff(java.lang.Object,
+   *      java.lang.Object, net.ljcomputing.gson.merge.DiffFormat, java.lang.Appendable)
+   */
+  public final void diff(final Object before, final Object after, final DiffFormat format,
+      final Appendable writer) {
+    try {
+      final JsonWriter jsonWriter = newJsonWriter(AppendableWriter.of(writer));
+      objectDiffer.diff(before, after, format, jsonWriter);
+      jsonWriter.flush();
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
     }
+  }
 
-    for (final Object key : keysFrom) {
-      try {
-        if (null != ignoredProperties
-            && Arrays.binarySearch(ignoredProperties, key.toString()) < 0) {
-          final Field fieldTo = findField(toClass, key.toString());
-          final Field fieldFrom = findField(fromClass, key.toString());
-
-          if (null == fieldTo) {
-            LOGGER.debug("fieldTo is null for class {}, using key {}", toClass, key);
-          }
-
-          if (null == fieldFrom) {
-            LOGGER.debug("fieldFrom is null for class {}, using key {}", fromClass, key);
-          }
-
-          setFieldValues(to, fieldTo, from, fieldFrom);
-        }
-      } catch (IllegalArgumentException | IllegalAccessException exception) {
-        LOGGER.error(
-            "Exception occured while setting value for key '{}' -  from ['{}'] ; to ['{}']:", key,
-            from, to, exception);
-      }
+  /**
+   * Write the given source to the given writer through a Gson JSON writer.
+   *
+   * @param source the source
+   * @param writer the writer
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void writeJson(final Object source, final Writer writer) throws IOException {
+    final JsonWriter jsonWriter = newJsonWriter(writer);
+
+    if (null == source) {
+      gson.toJson(JsonNull.INSTANCE, jsonWriter);
+    } else {
+      gson.toJson(source, source.getClass(), jsonWriter);
     }
+
+    jsonWriter.flush();
   }
-  
+
   /**
-   * Sets the field values.
+   * Create a new JSON writer on the given writer, indented as Gson's own writers are. Gson applies
+   * its HTML escaping and null serialization settings itself when serializing.
    *
-   * @param to the to
-   * @param fieldTo the field to
-   * @param from the from
-   * @param fieldFrom the field from
-   * @throws IllegalArgumentException the illegal argument exception
-   * @throws IllegalAccessException the illegal access exception
+   * @param writer the writer
+   * @return the json writer
    */
-  private static void setFieldValues(final Object to, final Field fieldTo, final Object from,
-      final Field fieldFrom) throws IllegalArgumentException, IllegalAccessException {
-    if (null != fieldTo && null != fieldFrom) {
-      fieldTo.setAccessible(true);
-      fieldFrom.setAccessible(true);
-      fieldTo.set(to, fieldFrom.get(from));
+  private JsonWriter newJsonWriter(final Writer writer) {
+    final JsonWriter jsonWriter = new JsonWriter(writer);
+
+    if (null != indent) {
+      jsonWriter.setIndent(indent);
     }
+
+    return jsonWriter;
   }
 
   /**
-   * Gets the keys from json.
+   * Find the indent of the given Gson instance, which does not expose its pretty printing
+   * setting: a pretty printing instance breaks the lines of an array and indents with two spaces.
    *
-   * @param json the json
-   * @return the keys from json
+   * @param gson the gson
+   * @return the indent, or null
    */
-  @SuppressWarnings("rawtypes")
-  private List getKeysFromJson(final String json) {
-    final Object things = gson.fromJson(json, Object.class);
-    final List keys = new ArrayList();
-    collectAllTheKeys(keys, things);
-    return keys;
+  private static String indentOf(final Gson gson) {
+    final JsonArray probe = new JsonArray();
+    probe.add(JsonNull.INSTANCE);
+    return gson.toJson(probe).indexOf('\n') < 0 ? null : "  ";
   }
 
   /**
-   * Collect all the keys.
+   * Create a new JSON reader on the given reader, enforcing the input limits.
    *
-   * @param keys the keys
-   * @param object the object
-   */
-  @SuppressWarnings({ "rawtypes", "unchecked" })
-  private void collectAllTheKeys(final List keys, final Object object) {
-    Collection values = null;
-
-    if (object instanceof Map) {
-      final Map map = (Map) object;
-      keys.addAll(map.keySet());
-      values = map.values();
-    } else if (object instanceof Collection) {
-      values = (Collection) object;
-    } else {
-      return;
+   * @param reader the reader
+   * @param interner the string interner, or null
+   * @return the json reader
+   */
+  private JsonReader newJsonReader(final Reader reader, final StringInterner interner) {
+    final JsonLimits limits = jsonLimits;
+
+    if (!limits.isUnlimited()) {
+      return new LimitedJsonReader(reader, limits, interner);
     }
 
-    for (final Object value : values) {
-      collectAllTheKeys(keys, value);
+    return null == interner ? new JsonReader(reader) : new InterningJsonReader(reader, interner);
+  }
+
+  /**
+   * Assert the whole document was consumed, as Gson does for its own reader based methods.
+   *
+   * @param result the result
+   * @param reader the reader
+   */
+  private static void assertFullConsumption(final Object result, final JsonReader reader) {
+    try {
+      if (null != result && reader.peek() != JsonToken.END_DOCUMENT) {
+        throw new JsonIOException("JSON document was not fully consumed.");
+      }
+    } catch (MalformedJsonException exception) {
+      throw new JsonSyntaxException(exception);
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
     }
   }
 }
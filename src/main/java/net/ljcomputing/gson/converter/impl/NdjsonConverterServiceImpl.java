@@ -0,0 +1,493 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.converter.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.SequenceInputStream;
+import java.io.StringReader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+
+import net.ljcomputing.gson.config.GsonFactory;
+import net.ljcomputing.gson.converter.NdjsonConverterService;
+import net.ljcomputing.gson.io.AppendableWriter;
+import net.ljcomputing.gson.io.ByteBufferInputStream;
+import net.ljcomputing.gson.io.ChunkPipeline;
+import net.ljcomputing.gson.io.InterningJsonReader;
+import net.ljcomputing.gson.io.LineChunker;
+import net.ljcomputing.gson.io.MappedJsonArrayChunker;
+import net.ljcomputing.gson.io.StringInterner;
+import net.ljcomputing.gson.io.Utf8StreamReader;
+import net.ljcomputing.gson.io.Utf8StreamWriter;
+
+/**
+ * JSON Lines (NDJSON) converter service implementation.
+ *
+ * <p>
+ * Input is split into line-aligned chunks which are decoded in parallel on a
+ * {@link ForkJoinPool}. Each non-blank line must hold exactly one strict JSON value; a malformed
+ * line fails with its line number. Output values are serialized in parallel batches and written
+ * in order. At most twice the pool parallelism chunks are in flight, which bounds memory use. JSON
+ * array files are memory-mapped and split into chunks of whole elements the same way. When a
+ * {@link StringInterner} is set, decoded string values and map keys are deduplicated through it.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+@Service
+public class NdjsonConverterServiceImpl implements NdjsonConverterService {
+
+  /** The default chunk size, in characters. */
+  public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+  /** The default number of values serialized per batch. */
+  public static final int DEFAULT_BATCH_SIZE = 512;
+
+  /** The opening bracket of a chunk of array elements. */
+  private static final byte[] OPEN_ARRAY = { '[' };
+
+  /** The closing bracket of a chunk of array elements. */
+  private static final byte[] CLOSE_ARRAY = { ']' };
+
+  /** The Gson instance. */
+  private transient final Gson gson;
+
+  /** The pool. */
+  private transient final ForkJoinPool pool;
+
+  /** The chunk size. */
+  private final int chunkSize;
+
+  /** The batch size. */
+  private final int batchSize;
+
+  /** The maximum number of chunks in flight. */
+  private final int maxInFlight;
+
+  /** The shared string interner, or null. */
+  private transient volatile StringInterner stringInterner;
+
+  /**
+   * Instantiates a new NDJSON converter service impl with the default Gson configuration and the
+   * common pool.
+   */
+  public NdjsonConverterServiceImpl() {
+    this(GsonFactory.createDefault());
+  }
+
+  /**
+   * Instantiates a new NDJSON converter service impl using the given, shared Gson instance and
+   * the common pool.
+   *
+   * @param gson the gson
+   */
+  @Autowired
+  public NdjsonConverterServiceImpl(final Gson gson) {
+    this(gson, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE, DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Instantiates a new NDJSON converter service impl.
+   *
+   * @param gson the gson
+   * @param pool the pool
+   * @param chunkSize the chunk size, in characters
+   * @param batchSize the number of values serialized per batch
+   */
+  public NdjsonConverterServiceImpl(final Gson gson, final ForkJoinPool pool, final int chunkSize,
+      final int batchSize) {
+    this.gson = gson;
+    this.pool = pool;
+    this.chunkSize = chunkSize;
+    this.batchSize = batchSize;
+    this.maxInFlight = Math.max(2, pool.getParallelism() * 2);
+  }
+
+  /**
+   * Sets the string interner shared by all decoding calls.
+   *
+   * @param stringInterner the new string interner, or null for none
+   */
+  @Autowired(required = false)
+  public void setStringInterner(final StringInterner stringInterner) {
+    this.stringInterner = stringInterner;
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.NdjsonConverterService#fromNdjson(java.io.Reader,
+   *      java.lang.reflect.Type, boolean)
+   */
+  public final <T> List<T> fromNdjson(final Reader json, final Type target,
+      final boolean ordered) {
+    final List<T> values = new ArrayList<>();
+    fromNdjson(json, target, ordered, (Consumer<T>) values::add);
+    return values;
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.NdjsonConverterService#fromNdjson(java.io.Reader,
+   *      java.lang.reflect.Type, boolean, java.util.function.Consumer)
+   */
+  public final <T> long fromNdjson(final Reader json, final Type target, final boolean ordered,
+      final Consumer<? super T> consumer) {
+    @SuppressWarnings("unchecked")
+    final TypeAdapter<T> adapter = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(target));
+    final LineChunker chunker = new LineChunker(json, chunkSize);
+    final ChunkPipeline<List<T>> pipeline = new ChunkPipeline<>(pool, ordered);
+    final StringInterner interner = stringInterner;
+    long count = 0;
+    long line = 1;
+
+    try {
+      String chunk;
+
+      while (null != (chunk = chunker.next())) {
+        final String lines = chunk;
+        final long firstLine = line;
+        pipeline.submit(() -> decodeChunk(lines, firstLine, adapter, interner));
+        line += countLines(lines);
+
+        if (pipeline.size() >= maxInFlight) {
+          count += deliver(pipeline.take(), consumer);
+        }
+      }
+
+      while (pipeline.size() > 0) {
+        count += deliver(pipeline.take(), consumer);
+      }
+
+      return count;
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    } finally {
+      pipeline.cancel();
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.NdjsonConverterService#fromNdjson(java.io.InputStream,
+   *      java.lang.reflect.Type, boolean, java.util.function.Consumer)
+   */
+  public final <T> long fromNdjson(final InputStream json, final Type target,
+      final boolean ordered, final Consumer<? super T> consumer) {
+    try (final Utf8StreamReader reader = new Utf8StreamReader(json)) {
+      return fromNdjson(reader, target, ordered, consumer);
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.NdjsonConverterService#fromJsonArrayFile(
+   *      java.nio.file.Path, java.lang.reflect.Type, boolean, java.util.function.Consumer)
+   */
+  public final <T> long fromJsonArrayFile(final Path file, final Type elementType,
+      final boolean ordered, final Consumer<? super T> consumer) {
+    @SuppressWarnings("unchecked")
+    final TypeAdapter<T> adapter = (TypeAdapter<T>) gson.getAdapter(TypeToken.get(elementType));
+    final ChunkPipeline<List<T>> pipeline = new ChunkPipeline<>(pool, ordered);
+    final StringInterner interner = stringInterner;
+    long count = 0;
+
+    try (final MappedJsonArrayChunker chunker = new MappedJsonArrayChunker(file, chunkSize)) {
+      ByteBuffer chunk;
+
+      while (null != (chunk = chunker.next())) {
+        final ByteBuffer elements = chunk;
+        pipeline.submit(() -> decodeElements(elements, adapter, interner));
+
+        if (pipeline.size() >= maxInFlight) {
+          count += deliver(pipeline.take(), consumer);
+        }
+      }
+
+      while (pipeline.size() > 0) {
+        count += deliver(pipeline.take(), consumer);
+      }
+
+      return count;
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    } finally {
+      pipeline.cancel();
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.NdjsonConverterService#toNdjson(java.lang.Iterable,
+   *      java.io.Writer)
+   */
+  public final long toNdjson(final Iterable<?> source, final Writer out) {
+    final ChunkPipeline<String> pipeline = new ChunkPipeline<>(pool, true);
+    final Iterator<?> values = source.iterator();
+    long count = 0;
+
+    try {
+      while (values.hasNext()) {
+        final List<Object> batch = new ArrayList<>(batchSize);
+
+        while (batch.size() < batchSize && values.hasNext()) {
+          batch.add(values.next());
+        }
+
+        count += batch.size();
+        pipeline.submit(() -> encodeBatch(batch));
+
+        if (pipeline.size() >= maxInFlight) {
+          out.write(pipeline.take());
+        }
+      }
+
+      while (pipeline.size() > 0) {
+        out.write(pipeline.take());
+      }
+
+      out.flush();
+      return count;
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    } finally {
+      pipeline.cancel();
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.NdjsonConverterService#toNdjson(java.lang.Iterable,
+   *      java.io.OutputStream)
+   */
+  public final long toNdjson(final Iterable<?> source, final OutputStream out) {
+    try (final Utf8StreamWriter writer = new Utf8StreamWriter(out)) {
+      return toNdjson(source, writer);
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    }
+  }
+
+  /**
+   * Count the lines of a chunk, which ends with a newline unless it is the last one.
+   *
+   * @param lines the lines
+   * @return the number of newlines
+   */
+  private static long countLines(final String lines) {
+    long count = 0;
+
+    for (int i = 0; i < lines.length(); i++) {
+      if ('\n' == lines.charAt(i)) {
+        count++;
+      }
+    }
+
+    return count;
+  }
+
+  /**
+   * Decode every value of a chunk of lines, skipping blank lines.
+   *
+   * @param <T> the generic type
+   * @param lines the lines
+   * @param firstLine the number of the first line
+   * @param adapter the adapter
+   * @param interner the string interner, or null
+   * @return the values
+   */
+  private static <T> List<T> decodeChunk(final String lines, final long firstLine,
+      final TypeAdapter<T> adapter, final StringInterner interner) {
+    final List<T> values = new ArrayList<>();
+    final StringBuilder record = new StringBuilder();
+    long line = firstLine;
+    int start = 0;
+
+    while (start < lines.length()) {
+      final int newline = lines.indexOf('\n', start);
+      final int end = newline < 0 ? lines.length() : newline;
+
+      if (!isBlank(lines, start, end)) {
+        record.setLength(0);
+        record.append('[').append(lines, start, end).append(']');
+        values.add(decodeLine(record.toString(), line, adapter, interner));
+      }
+
+      start = end + 1;
+      line++;
+    }
+
+    return values;
+  }
+
+  /**
+   * Decode the single value of a line.
+   *
+   * @param <T> the generic type
+   * @param record the line, wrapped in brackets
+   * @param line the line number
+   * @param adapter the adapter
+   * @param interner the string interner, or null
+   * @return the value
+   */
+  private static <T> T decodeLine(final String record, final long line,
+      final TypeAdapter<T> adapter, final StringInterner interner) {
+    // a strict reader only accepts an object or array at the top level, so the value is read as
+    // the single element of an array
+    final JsonReader reader = null == interner ? new JsonReader(new StringReader(record))
+        : new InterningJsonReader(new StringReader(record), interner);
+
+    try {
+      reader.beginArray();
+      final T value = adapter.read(reader);
+      reader.endArray();
+
+      if (reader.peek() != JsonToken.END_DOCUMENT) {
+        throw new MalformedJsonException("Expected a single value");
+      }
+
+      return value;
+    } catch (MalformedJsonException | IllegalStateException | JsonSyntaxException exception) {
+      throw new JsonSyntaxException("Malformed NDJSON at line " + line, exception);
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    }
+  }
+
+  /**
+   * Checks if a line holds only whitespace.
+   *
+   * @param lines the lines
+   * @param start the start of the line
+   * @param end the end of the line
+   * @return true, if the line is blank
+   */
+  private static boolean isBlank(final String lines, final int start, final int end) {
+    for (int i = start; i < end; i++) {
+      final char c = lines.charAt(i);
+
+      if (' ' != c && '\t' != c && '\r' != c) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Decode a chunk of comma separated array elements.
+   *
+   * @param <T> the generic type
+   * @param elements the UTF-8 encoded elements
+   * @param adapter the adapter
+   * @param interner the string interner, or null
+   * @return the values
+   */
+  private static <T> List<T> decodeElements(final ByteBuffer elements,
+      final TypeAdapter<T> adapter, final StringInterner interner) {
+    // the chunk is read as the body of an array, between brackets of its own
+    final InputStream array = new SequenceInputStream(new ByteArrayInputStream(OPEN_ARRAY),
+        new SequenceInputStream(new ByteBufferInputStream(elements),
+            new ByteArrayInputStream(CLOSE_ARRAY)));
+
+    try (final Utf8StreamReader utf8 = new Utf8StreamReader(array)) {
+      final JsonReader reader =
+          null == interner ? new JsonReader(utf8) : new InterningJsonReader(utf8, interner);
+      final List<T> values = new ArrayList<>();
+
+      reader.beginArray();
+
+      while (reader.hasNext()) {
+        values.add(adapter.read(reader));
+      }
+
+      reader.endArray();
+      return values;
+    } catch (MalformedJsonException | IllegalStateException exception) {
+      throw new JsonSyntaxException(exception);
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    }
+  }
+
+  /**
+   * Encode a batch of values, one line per value.
+   *
+   * @param batch the batch
+   * @return the lines
+   */
+  private String encodeBatch(final List<Object> batch) {
+    final StringBuilder lines = new StringBuilder(batch.size() * 128);
+
+    // unlike Gson's own writers this one never indents, so each value stays on one line
+    final JsonWriter writer = new JsonWriter(AppendableWriter.of(lines));
+
+    try {
+      for (final Object value : batch) {
+        if (null == value) {
+          gson.toJson(JsonNull.INSTANCE, writer);
+        } else {
+          gson.toJson(value, value.getClass(), writer);
+        }
+
+        writer.flush();
+        lines.append('\n');
+      }
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    }
+
+    return lines.toString();
+  }
+
+  /**
+   * Deliver decoded values to the consumer.
+   *
+   * @param <T> the generic type
+   * @param values the values
+   * @param consumer the consumer
+   * @return the number of values delivered
+   */
+  private static <T> int deliver(final List<T> values, final Consumer<? super T> consumer) {
+    for (final T value : values) {
+      consumer.accept(value);
+    }
+
+    return values.size();
+  }
+}
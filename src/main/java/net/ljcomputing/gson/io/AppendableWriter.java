@@ -0,0 +1,116 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.io;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writer forwarding to an {@link Appendable}.
+ *
+ * @author James G. Willmore
+ *
+ */
+public class AppendableWriter extends Writer {
+
+  /** The target. */
+  private final Appendable target;
+
+  /**
+   * Instantiates a new appendable writer.
+   *
+   * @param target the target
+   */
+  public AppendableWriter(final Appendable target) {
+    super();
+    this.target = target;
+  }
+
+  /**
+   * Wrap the given appendable, returning it unchanged when it already is a writer.
+   *
+   * @param appendable the appendable
+   * @return the writer
+   */
+  public static Writer of(final Appendable appendable) {
+    return appendable instanceof Writer ? (Writer) appendable : new AppendableWriter(appendable);
+  }
+
+  /**
+   * @see java.io.Writer#write(char[], int, int)
+   */
+  @Override
+  public void write(final char[] cbuf, final int off, final int len) throws IOException {
+    for (int i = off; i < off + len; i++) {
+      target.append(cbuf[i]);
+    }
+  }
+
+  /**
+   * @see java.io.Writer#write(int)
+   */
+  @Override
+  public void write(final int c) throws IOException {
+    target.append((char) c);
+  }
+
+  /**
+   * @see java.io.Writer#write(java.lang.String, int, int)
+   */
+  @Override
+  public void write(final String str, final int off, final int len) throws IOException {
+    target.append(str, off, off + len);
+  }
+
+  /**
+   * @see java.io.Writer#append(java.lang.CharSequence)
+   */
+  @Override
+  public Writer append(final CharSequence csq) throws IOException {
+    target.append(csq);
+    return this;
+  }
+
+  /**
+   * @see java.io.Writer#append(java.lang.CharSequence, int, int)
+   */
+  @Override
+  public Writer append(final CharSequence csq, final int start, final int end)
+      throws IOException {
+    target.append(csq, start, end);
+    return this;
+  }
+
+  /**
+   * @see java.io.Writer#flush()
+   */
+  @Override
+  public void flush() throws IOException {
+    if (target instanceof Flushable) {
+      ((Flushable) target).flush();
+    }
+  }
+
+  /**
+   * @see java.io.Writer#close()
+   */
+  @Override
+  public void close() throws IOException {
+    flush();
+  }
+}
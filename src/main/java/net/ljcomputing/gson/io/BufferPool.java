@@ -0,0 +1,124 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.io;
+
+/**
+ * Per-thread pool of reusable I/O buffers.
+ *
+ * <p>
+ * Each thread keeps at most {@link #SLOTS} byte buffers parked in the pool, enough for a codec
+ * stacked on a buffered body. A buffer is taken out by {@link #acquireBytes()} and put back by
+ * {@link #releaseBytes(byte[])}; when no parked buffer fits, a fresh one is allocated, so callers
+ * never share an array.
+ * </p>
+ *
+ * <p>
+ * Only buffers up to {@link #MAX_POOLED_SIZE} are parked, and a parked buffer is never swapped
+ * for a larger one, so the memory held per thread stays bounded by the sizes the codecs
+ * actually request rather than by the largest payload a thread has ever seen.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public final class BufferPool {
+
+  /** The default buffer size. */
+  public static final int DEFAULT_SIZE = 8192;
+
+  /**
+   * The largest buffer kept in the pool, enough for the default HTTP body buffer; bigger buffers
+   * are left to the garbage collector.
+   */
+  public static final int MAX_POOLED_SIZE = 64 * 1024;
+
+  /** The number of buffers parked per thread. */
+  public static final int SLOTS = 2;
+
+  /** The parked byte buffers. */
+  private static final ThreadLocal<byte[][]> BYTES = new ThreadLocal<byte[][]>() {
+    @Override
+    protected byte[][] initialValue() {
+      return new byte[SLOTS][];
+    }
+  };
+
+  /**
+   * Instantiates a new buffer pool.
+   */
+  private BufferPool() {
+  }
+
+  /**
+   * Acquire a byte buffer of at least {@link #DEFAULT_SIZE} bytes.
+   *
+   * @return the byte buffer
+   */
+  public static byte[] acquireBytes() {
+    return acquireBytes(DEFAULT_SIZE);
+  }
+
+  /**
+   * Acquire a byte buffer of at least the given size.
+   *
+   * @param minimumSize the minimum size
+   * @return the byte buffer
+   */
+  public static byte[] acquireBytes(final int minimumSize) {
+    final byte[][] slots = BYTES.get();
+    int best = -1;
+
+    // take the smallest parked buffer that fits, leaving larger ones for larger requests
+    for (int i = 0; i < SLOTS; i++) {
+      final byte[] pooled = slots[i];
+
+      if (null != pooled && pooled.length >= minimumSize
+          && (best < 0 || pooled.length < slots[best].length)) {
+        best = i;
+      }
+    }
+
+    if (best >= 0) {
+      final byte[] pooled = slots[best];
+      slots[best] = null;
+      return pooled;
+    }
+
+    return new byte[Math.max(minimumSize, DEFAULT_SIZE)];
+  }
+
+  /**
+   * Release a byte buffer back to the pool. The buffer is parked only if it is no larger than
+   * {@link #MAX_POOLED_SIZE} and a slot is free; otherwise it is left to the garbage collector.
+   *
+   * @param buffer the buffer, may be null
+   */
+  public static void releaseBytes(final byte[] buffer) {
+    if (null == buffer || buffer.length > MAX_POOLED_SIZE) {
+      return;
+    }
+
+    final byte[][] slots = BYTES.get();
+
+    for (int i = 0; i < SLOTS; i++) {
+      if (null == slots[i]) {
+        slots[i] = buffer;
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,78 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.io;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Input stream reading the remaining bytes of a {@link ByteBuffer}, heap or direct, advancing its
+ * position.
+ *
+ * @author James G. Willmore
+ *
+ */
+public class ByteBufferInputStream extends InputStream {
+
+  /** The source buffer. */
+  private final ByteBuffer buffer;
+
+  /**
+   * Instantiates a new byte buffer input stream.
+   *
+   * @param buffer the source buffer
+   */
+  public ByteBufferInputStream(final ByteBuffer buffer) {
+    super();
+    this.buffer = buffer;
+  }
+
+  /**
+   * @see java.io.InputStream#read()
+   */
+  @Override
+  public int read() {
+    return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+  }
+
+  /**
+   * @see java.io.InputStream#read(byte[], int, int)
+   */
+  @Override
+  public int read(final byte[] b, final int off, final int len) {
+    if (0 == len) {
+      return 0;
+    }
+
+    if (!buffer.hasRemaining()) {
+      return -1;
+    }
+
+    final int read = Math.min(len, buffer.remaining());
+    buffer.get(b, off, read);
+    return read;
+  }
+
+  /**
+   * @see java.io.InputStream#available()
+   */
+  @Override
+  public int available() {
+    return buffer.remaining();
+  }
+}
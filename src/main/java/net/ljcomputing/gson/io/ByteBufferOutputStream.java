@@ -0,0 +1,63 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.io;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Output stream writing into a {@link ByteBuffer}, heap or direct, from its position on.
+ *
+ * <p>
+ * Writing past the buffer's limit throws {@link java.nio.BufferOverflowException}.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class ByteBufferOutputStream extends OutputStream {
+
+  /** The target buffer. */
+  private final ByteBuffer buffer;
+
+  /**
+   * Instantiates a new byte buffer output stream.
+   *
+   * @param buffer the target buffer
+   */
+  public ByteBufferOutputStream(final ByteBuffer buffer) {
+    super();
+    this.buffer = buffer;
+  }
+
+  /**
+   * @see java.io.OutputStream#write(int)
+   */
+  @Override
+  public void write(final int b) {
+    buffer.put((byte) b);
+  }
+
+  /**
+   * @see java.io.OutputStream#write(byte[], int, int)
+   */
+  @Override
+  public void write(final byte[] b, final int off, final int len) {
+    buffer.put(b, off, len);
+  }
+}
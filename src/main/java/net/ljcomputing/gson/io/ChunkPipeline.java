@@ -0,0 +1,140 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.io;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.google.gson.JsonIOException;
+
+/**
+ * Runs chunk tasks on an executor and hands their results back either in submission order or in
+ * completion order.
+ *
+ * <p>
+ * The pipeline is meant to be driven by a single thread: the producer submits tasks and takes
+ * results, keeping {@link #size()} bounded to limit memory. Failures of a task are rethrown from
+ * {@link #take()}; {@link #cancel()} should be called in a finally block to abandon tasks still
+ * in flight.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ * @param <V> the chunk result type
+ */
+public class ChunkPipeline<V> {
+
+  /** Indicates if results are handed back in submission order. */
+  private final boolean ordered;
+
+  /** The in-flight tasks, in submission order. */
+  private final Deque<Future<V>> inFlight = new ArrayDeque<>();
+
+  /** The executor. */
+  private final ExecutorService executor;
+
+  /** The completion service, used for unordered pipelines. */
+  private final CompletionService<V> completion;
+
+  /**
+   * Instantiates a new chunk pipeline.
+   *
+   * @param executor the executor
+   * @param ordered true to hand back results in submission order
+   */
+  public ChunkPipeline(final ExecutorService executor, final boolean ordered) {
+    this.ordered = ordered;
+    this.executor = executor;
+    this.completion = ordered ? null : new ExecutorCompletionService<V>(executor);
+  }
+
+  /**
+   * Submit a chunk task.
+   *
+   * @param task the task
+   */
+  public void submit(final Callable<V> task) {
+    inFlight.add(ordered ? executor.submit(task) : completion.submit(task));
+  }
+
+  /**
+   * Gets the number of tasks in flight.
+   *
+   * @return the size
+   */
+  public int size() {
+    return inFlight.size();
+  }
+
+  /**
+   * Wait for and return the next result.
+   *
+   * @return the result
+   */
+  public V take() {
+    try {
+      final Future<V> future = ordered ? inFlight.poll() : completion.take();
+
+      if (!ordered) {
+        inFlight.remove(future);
+      }
+
+      return future.get();
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+      throw new JsonIOException("Interrupted while waiting for a chunk", exception);
+    } catch (ExecutionException exception) {
+      Throwable cause = exception.getCause();
+
+      // a fork/join task rethrows a copy of an exception thrown on another thread, wrapping it
+      if (null != cause && null != cause.getCause()
+          && cause.getClass() == cause.getCause().getClass()) {
+        cause = cause.getCause();
+      }
+
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+
+      throw new JsonIOException(cause);
+    }
+  }
+
+  /**
+   * Cancel all tasks still in flight.
+   */
+  public void cancel() {
+    final List<Future<V>> pending = new ArrayList<>(inFlight);
+    inFlight.clear();
+
+    for (final Future<V> future : pending) {
+      future.cancel(true);
+    }
+  }
+}
@@ -0,0 +1,98 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream counting the bytes read through it.
+ *
+ * @author James G. Willmore
+ *
+ */
+public class CountingInputStream extends FilterInputStream {
+
+  /** The byte count. */
+  private long count;
+
+  /**
+   * Instantiates a new counting input stream.
+   *
+   * @param in the source stream
+   */
+  public CountingInputStream(final InputStream in) {
+    super(in);
+  }
+
+  /**
+   * @see java.io.FilterInputStream#read()
+   */
+  @Override
+  public int read() throws IOException {
+    final int b = in.read();
+
+    if (b >= 0) {
+      count++;
+    }
+
+    return b;
+  }
+
+  /**
+   * @see java.io.FilterInputStream#read(byte[], int, int)
+   */
+  @Override
+  public int read(final byte[] b, final int off, final int len) throws IOException {
+    final int read = in.read(b, off, len);
+
+    if (read > 0) {
+      count += read;
+    }
+
+    return read;
+  }
+
+  /**
+   * @see java.io.FilterInputStream#skip(long)
+   */
+  @Override
+  public long skip(final long n) throws IOException {
+    final long skipped = in.skip(n);
+    count += skipped;
+    return skipped;
+  }
+
+  /**
+   * @see java.io.FilterInputStream#markSupported()
+   */
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  /**
+   * Gets the number of bytes read.
+   *
+   * @return the count
+   */
+  public long getCount() {
+    return count;
+  }
+}
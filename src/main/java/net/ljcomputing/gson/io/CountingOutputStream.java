@@ -0,0 +1,70 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream counting the bytes written through it.
+ *
+ * @author James G. Willmore
+ *
+ */
+public class CountingOutputStream extends FilterOutputStream {
+
+  /** The byte count. */
+  private long count;
+
+  /**
+   * Instantiates a new counting output stream.
+   *
+   * @param out the target stream
+   */
+  public CountingOutputStream(final OutputStream out) {
+    super(out);
+  }
+
+  /**
+   * @see java.io.FilterOutputStream#write(int)
+   */
+  @Override
+  public void write(final int b) throws IOException {
+    out.write(b);
+    count++;
+  }
+
+  /**
+   * @see java.io.FilterOutputStream#write(byte[], int, int)
+   */
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    out.write(b, off, len);
+    count += len;
+  }
+
+  /**
+   * Gets the number of bytes written.
+   *
+   * @return the count
+   */
+  public long getCount() {
+    return count;
+  }
+}
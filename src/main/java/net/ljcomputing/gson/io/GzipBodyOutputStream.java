@@ -0,0 +1,154 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Gzip stream reusing a per-thread {@link Deflater} instead of allocating (and natively
+ * initializing) a new one for every response, as {@link java.util.zip.GZIPOutputStream} does.
+ *
+ * <p>
+ * Closing the stream writes the gzip trailer and returns the deflater to the pool; the target
+ * stream is owned by the caller and is not closed.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class GzipBodyOutputStream extends DeflaterOutputStream {
+
+  /** The gzip header: magic, deflate method, no flags, no time, no extra flags, unknown OS. */
+  private static final byte[] HEADER = {
+      0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+
+  /** The parked deflaters. */
+  private static final ThreadLocal<Deflater> DEFLATERS = new ThreadLocal<>();
+
+  /** The checksum of the uncompressed data. */
+  private final CRC32 crc = new CRC32();
+
+  /** Indicates the trailer has been written. */
+  private boolean finished;
+
+  /** Indicates the stream is closed. */
+  private boolean closed;
+
+  /**
+   * Instantiates a new gzip body output stream.
+   *
+   * @param out the target stream
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public GzipBodyOutputStream(final OutputStream out) throws IOException {
+    this(out, false);
+  }
+
+  /**
+   * Instantiates a new gzip body output stream.
+   *
+   * @param out the target stream
+   * @param syncFlush whether flushing compresses the pending input, so it reaches the client
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public GzipBodyOutputStream(final OutputStream out, final boolean syncFlush)
+      throws IOException {
+    super(out, acquireDeflater(), 512, syncFlush);
+    out.write(HEADER);
+  }
+
+  /**
+   * Acquire a raw deflater at the default compression level.
+   *
+   * @return the deflater
+   */
+  private static Deflater acquireDeflater() {
+    final Deflater pooled = DEFLATERS.get();
+
+    if (null != pooled) {
+      DEFLATERS.set(null);
+      return pooled;
+    }
+
+    return new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+  }
+
+  /**
+   * @see java.util.zip.DeflaterOutputStream#write(byte[], int, int)
+   */
+  @Override
+  public void write(final byte[] b, final int off, final int len) throws IOException {
+    if (closed) {
+      throw new IOException("Stream closed");
+    }
+
+    super.write(b, off, len);
+    crc.update(b, off, len);
+  }
+
+  /**
+   * @see java.util.zip.DeflaterOutputStream#finish()
+   */
+  @Override
+  public void finish() throws IOException {
+    if (!finished) {
+      finished = true;
+      super.finish();
+      writeInt((int) crc.getValue());
+      writeInt((int) def.getBytesRead());
+    }
+  }
+
+  /**
+   * Write an int in little-endian byte order.
+   *
+   * @param value the value
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void writeInt(final int value) throws IOException {
+    out.write(value & 0xFF);
+    out.write((value >> 8) & 0xFF);
+    out.write((value >> 16) & 0xFF);
+    out.write((value >> 24) & 0xFF);
+  }
+
+  /**
+   * @see java.util.zip.DeflaterOutputStream#close()
+   */
+  @Override
+  public void close() throws IOException {
+    if (!closed) {
+      try {
+        finish();
+      } finally {
+        closed = true;
+        def.reset();
+
+        if (null == DEFLATERS.get()) {
+          DEFLATERS.set(def);
+        } else {
+          def.end();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,67 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.io;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import com.google.gson.stream.JsonReader;
+
+/**
+ * JSON reader passing the names and string values it reads through a {@link StringInterner}.
+ *
+ * <p>
+ * Gson's adapters read string fields and map keys, including the keys of the maps built for
+ * untyped values, through {@link #nextString()} and {@link #nextName()}, so repeated values
+ * share a single instance in the decoded graph.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class InterningJsonReader extends JsonReader {
+
+  /** The interner. */
+  private final StringInterner interner;
+
+  /**
+   * Instantiates a new interning JSON reader.
+   *
+   * @param in the source
+   * @param interner the interner
+   */
+  public InterningJsonReader(final Reader in, final StringInterner interner) {
+    super(in);
+    this.interner = interner;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#nextString()
+   */
+  @Override
+  public String nextString() throws IOException {
+    return interner.intern(super.nextString());
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#nextName()
+   */
+  @Override
+  public String nextName() throws IOException {
+    return interner.intern(super.nextName());
+  }
+}
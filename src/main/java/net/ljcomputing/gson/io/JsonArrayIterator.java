@@ -0,0 +1,151 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+/**
+ * Iterator decoding the elements of a top-level JSON array one at a time, as they are pulled.
+ *
+ * <p>
+ * Only the element being decoded is held in memory. Closing the iterator closes the underlying
+ * reader; it is also closed once the end of the array has been reached.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ * @param <T> the element type
+ */
+public class JsonArrayIterator<T> implements Iterator<T>, Closeable {
+
+  /** The reader. */
+  private final JsonReader reader;
+
+  /** The element adapter. */
+  private final TypeAdapter<T> adapter;
+
+  /** Indicates the array has been opened. */
+  private boolean started;
+
+  /** Indicates the iterator is exhausted or closed. */
+  private boolean finished;
+
+  /**
+   * Instantiates a new JSON array iterator.
+   *
+   * @param reader the reader, positioned before the array
+   * @param adapter the element adapter
+   */
+  public JsonArrayIterator(final JsonReader reader, final TypeAdapter<T> adapter) {
+    this.reader = reader;
+    this.adapter = adapter;
+  }
+
+  /**
+   * Create a sequential stream over the iterator; closing the stream closes the iterator.
+   *
+   * @return the stream
+   */
+  public Stream<T> stream() {
+    return StreamSupport
+        .stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED), false)
+        .onClose(() -> {
+          try {
+            close();
+          } catch (IOException exception) {
+            throw new JsonIOException(exception);
+          }
+        });
+  }
+
+  /**
+   * @see java.util.Iterator#hasNext()
+   */
+  @Override
+  public boolean hasNext() {
+    if (finished) {
+      return false;
+    }
+
+    try {
+      if (!started) {
+        reader.beginArray();
+        started = true;
+      }
+
+      if (reader.hasNext()) {
+        return true;
+      }
+
+      reader.endArray();
+
+      if (reader.peek() != JsonToken.END_DOCUMENT) {
+        throw new JsonIOException("JSON document was not fully consumed.");
+      }
+
+      close();
+      return false;
+    } catch (MalformedJsonException | IllegalStateException exception) {
+      throw new JsonSyntaxException(exception);
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    }
+  }
+
+  /**
+   * @see java.util.Iterator#next()
+   */
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+
+    try {
+      return adapter.read(reader);
+    } catch (MalformedJsonException | IllegalStateException exception) {
+      throw new JsonSyntaxException(exception);
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    }
+  }
+
+  /**
+   * @see java.io.Closeable#close()
+   */
+  @Override
+  public void close() throws IOException {
+    if (!finished) {
+      finished = true;
+      reader.close();
+    }
+  }
+}
@@ -0,0 +1,104 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Splits character input into line-aligned chunks of roughly the requested size.
+ *
+ * <p>
+ * Each chunk ends right after a newline (or at the end of input) so no line is ever split
+ * between two chunks. A single line longer than the chunk size makes the chunk grow to fit it.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class LineChunker {
+
+  /** The source. */
+  private final Reader reader;
+
+  /** The buffer. */
+  private char[] buffer;
+
+  /** The number of characters carried over from the previous chunk. */
+  private int carried;
+
+  /** Indicates the source is exhausted. */
+  private boolean eof;
+
+  /**
+   * Instantiates a new line chunker.
+   *
+   * @param reader the source
+   * @param chunkSize the target chunk size, in characters
+   */
+  public LineChunker(final Reader reader, final int chunkSize) {
+    this.reader = reader;
+    this.buffer = new char[Math.max(chunkSize, 16)];
+  }
+
+  /**
+   * Read the next chunk.
+   *
+   * @return the chunk, or null at the end of input
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public String next() throws IOException {
+    int filled = carried;
+    int searchFrom = 0;
+
+    while (true) {
+      while (filled < buffer.length && !eof) {
+        final int read = reader.read(buffer, filled, buffer.length - filled);
+
+        if (read < 0) {
+          eof = true;
+        } else {
+          filled += read;
+        }
+      }
+
+      if (0 == filled) {
+        carried = 0;
+        return null;
+      }
+
+      if (eof) {
+        carried = 0;
+        return new String(buffer, 0, filled);
+      }
+
+      for (int i = filled - 1; i >= searchFrom; i--) {
+        if ('\n' == buffer[i]) {
+          final String chunk = new String(buffer, 0, i + 1);
+          carried = filled - i - 1;
+          System.arraycopy(buffer, i + 1, buffer, 0, carried);
+          return chunk;
+        }
+      }
+
+      // one line is longer than the buffer
+      searchFrom = filled;
+      buffer = Arrays.copyOf(buffer, buffer.length * 2);
+    }
+  }
+}
@@ -0,0 +1,281 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+
+/**
+ * Splits a UTF-8 file holding a top-level JSON array into chunks of whole elements, without
+ * decoding them.
+ *
+ * <p>
+ * The file is memory-mapped one window at a time, so files beyond 2GB are supported, and only
+ * scanned for the commas separating top-level elements: strings, escapes and nesting are tracked,
+ * nothing else is validated. Each chunk is a read-only buffer holding the comma separated
+ * elements, without the enclosing brackets, of roughly the requested size; a single element
+ * larger than the chunk size makes a chunk of its own. Chunks stay valid after the chunker moves
+ * on or is closed, so they can be decoded in parallel.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class MappedJsonArrayChunker implements Closeable {
+
+  /** The default window size, in bytes. */
+  public static final long DEFAULT_WINDOW_SIZE = 1L << 30;
+
+  /** The file channel. */
+  private final FileChannel channel;
+
+  /** The file size. */
+  private final long size;
+
+  /** The chunk size, in bytes. */
+  private final int chunkSize;
+
+  /** The window size, in bytes. */
+  private final long windowSize;
+
+  /** The current window. */
+  private MappedByteBuffer window;
+
+  /** The file offset of the current window. */
+  private long windowStart;
+
+  /** The file offset of the next byte to scan. */
+  private long position;
+
+  /** Indicates the opening bracket has been read. */
+  private boolean started;
+
+  /** Indicates the closing bracket has been read. */
+  private boolean finished;
+
+  /**
+   * Instantiates a new mapped JSON array chunker with the default window size.
+   *
+   * @param file the file
+   * @param chunkSize the target chunk size, in bytes
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public MappedJsonArrayChunker(final Path file, final int chunkSize) throws IOException {
+    this(file, chunkSize, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Instantiates a new mapped JSON array chunker.
+   *
+   * @param file the file
+   * @param chunkSize the target chunk size, in bytes
+   * @param windowSize the size of the mapped windows, in bytes
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public MappedJsonArrayChunker(final Path file, final int chunkSize, final long windowSize)
+      throws IOException {
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    this.size = channel.size();
+    this.chunkSize = Math.max(chunkSize, 1);
+    this.windowSize = Math.min(Math.max(windowSize, 16), Integer.MAX_VALUE);
+  }
+
+  /**
+   * Read the next chunk.
+   *
+   * @return the chunk, or null at the end of the array
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public ByteBuffer next() throws IOException {
+    if (finished) {
+      return null;
+    }
+
+    if (!started) {
+      skipWhitespace();
+
+      if (position >= size || '[' != byteAt(position)) {
+        throw new JsonSyntaxException("Expected a JSON array at offset " + position);
+      }
+
+      position++;
+      started = true;
+    }
+
+    final long start = position;
+    boolean content = false;
+    boolean inString = false;
+    boolean escaped = false;
+    int depth = 0;
+
+    for (; position < size; position++) {
+      final byte b = byteAt(position);
+
+      if (inString) {
+        if (escaped) {
+          escaped = false;
+        } else if ('\\' == b) {
+          escaped = true;
+        } else if ('"' == b) {
+          inString = false;
+        }
+
+        continue;
+      }
+
+      switch (b) {
+        case ' ':
+        case '\t':
+        case '\n':
+        case '\r':
+          continue;
+        case '"':
+          inString = true;
+          break;
+        case '{':
+        case '[':
+          depth++;
+          break;
+        case '}':
+        case ']':
+          if (0 == depth) {
+            return end(start, content);
+          }
+
+          depth--;
+          break;
+        case ',':
+          if (0 == depth && position - start >= chunkSize) {
+            final ByteBuffer chunk = slice(start, position);
+            position++;
+            return chunk;
+          }
+
+          break;
+        default:
+          break;
+      }
+
+      content = true;
+    }
+
+    throw new JsonSyntaxException("Unterminated JSON array at offset " + position);
+  }
+
+  /**
+   * End the array at the current position, which holds the closing bracket.
+   *
+   * @param start the start of the last chunk
+   * @param content true if the last chunk holds anything but whitespace
+   * @return the last chunk, or null if empty
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private ByteBuffer end(final long start, final boolean content) throws IOException {
+    if (']' != byteAt(position)) {
+      throw new JsonSyntaxException("Unexpected '}' at offset " + position);
+    }
+
+    final long close = position++;
+    finished = true;
+    skipWhitespace();
+
+    if (position < size) {
+      throw new JsonSyntaxException("Unexpected content after the JSON array at offset "
+          + position);
+    }
+
+    return content ? slice(start, close) : null;
+  }
+
+  /**
+   * Skip whitespace and byte order marks.
+   *
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void skipWhitespace() throws IOException {
+    while (position < size) {
+      final int b = byteAt(position) & 0xFF;
+
+      if (' ' == b || '\t' == b || '\n' == b || '\r' == b) {
+        position++;
+      } else if (0 == position && 0xEF == b && size >= 3
+          && (byte) 0xBB == byteAt(1) && (byte) 0xBF == byteAt(2)) {
+        position += 3;
+      } else {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Get a byte of the file, moving the window when needed.
+   *
+   * @param offset the file offset
+   * @return the byte
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private byte byteAt(final long offset) throws IOException {
+    if (null == window || offset < windowStart || offset >= windowStart + window.capacity()) {
+      windowStart = offset;
+      window = channel.map(MapMode.READ_ONLY, offset, Math.min(windowSize, size - offset));
+    }
+
+    return window.get((int) (offset - windowStart));
+  }
+
+  /**
+   * Get a read-only buffer over a range of the file, sharing the current window when it holds
+   * the range.
+   *
+   * @param start the start offset
+   * @param end the end offset, exclusive
+   * @return the buffer
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private ByteBuffer slice(final long start, final long end) throws IOException {
+    if (start >= windowStart && end <= windowStart + window.capacity()) {
+      final ByteBuffer chunk = window.duplicate();
+      chunk.limit((int) (end - windowStart));
+      chunk.position((int) (start - windowStart));
+      return chunk.slice();
+    }
+
+    if (end - start > Integer.MAX_VALUE) {
+      throw new JsonIOException("JSON array element at offset " + start + " exceeds 2GB");
+    }
+
+    return channel.map(MapMode.READ_ONLY, start, end - start);
+  }
+
+  /**
+   * @see java.io.Closeable#close()
+   */
+  @Override
+  public void close() throws IOException {
+    window = null;
+    channel.close();
+  }
+}
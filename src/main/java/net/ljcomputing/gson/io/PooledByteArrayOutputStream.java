@@ -0,0 +1,125 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.io;
+
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Growable in-memory byte stream backed by a pooled buffer.
+ *
+ * <p>
+ * Unlike {@link java.io.ByteArrayOutputStream} the buffer is taken from the {@link BufferPool}
+ * and returned to it on close, so in steady state only the array made by {@link #toByteArray()}
+ * is allocated. Only the pooled buffer goes back to the pool: once the stream outgrows it, the
+ * grown copies are one-off arrays left to the garbage collector. The stream is not thread safe.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class PooledByteArrayOutputStream extends OutputStream {
+
+  /** The buffer, or null once closed. */
+  private byte[] buffer;
+
+  /** The buffer taken from the pool, or null once released. */
+  private byte[] pooled;
+
+  /** The byte count. */
+  private int count;
+
+  /**
+   * Instantiates a new pooled byte array output stream.
+   */
+  public PooledByteArrayOutputStream() {
+    super();
+    this.pooled = BufferPool.acquireBytes();
+    this.buffer = pooled;
+  }
+
+  /**
+   * @see java.io.OutputStream#write(int)
+   */
+  @Override
+  public void write(final int b) {
+    ensureCapacity(count + 1);
+    buffer[count++] = (byte) b;
+  }
+
+  /**
+   * @see java.io.OutputStream#write(byte[], int, int)
+   */
+  @Override
+  public void write(final byte[] b, final int off, final int len) {
+    ensureCapacity(count + len);
+    System.arraycopy(b, off, buffer, count, len);
+    count += len;
+  }
+
+  /**
+   * Grow the buffer to hold at least the given number of bytes.
+   *
+   * @param capacity the capacity
+   */
+  private void ensureCapacity(final int capacity) {
+    if (null == buffer) {
+      throw new IllegalStateException("Stream closed");
+    }
+
+    if (capacity > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(capacity, buffer.length * 2));
+      releasePooled();
+    }
+  }
+
+  /**
+   * Return the pooled buffer to the pool, if it is still held.
+   */
+  private void releasePooled() {
+    BufferPool.releaseBytes(pooled);
+    pooled = null;
+  }
+
+  /**
+   * Gets the number of bytes written.
+   *
+   * @return the size
+   */
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Copy the written bytes to a new array.
+   *
+   * @return the bytes
+   */
+  public byte[] toByteArray() {
+    return Arrays.copyOf(buffer, count);
+  }
+
+  /**
+   * @see java.io.OutputStream#close()
+   */
+  @Override
+  public void close() {
+    releasePooled();
+    buffer = null;
+  }
+}
@@ -0,0 +1,181 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.io;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, lock-free pool deduplicating the strings read while deserializing.
+ *
+ * <p>
+ * The pool is a fixed size, direct mapped table: each string hashes to one slot, and a string
+ * equal to the one in its slot is replaced by it, while any other string takes the slot over.
+ * Memory use is therefore bounded by the capacity and the maximum interned length, at the cost
+ * of missing some duplicates when frequent values collide. Unlike {@link String#intern()} the
+ * pool can be scoped to a single call and is garbage collected with it, or shared between calls
+ * and threads.
+ * </p>
+ *
+ * <p>
+ * The bytes saved are estimated from the JDK 8 layout of a String and its char array with
+ * compressed references. Names are counted as well, so duplicate field names of beans, which
+ * would not have been retained anyway, make the estimate an upper bound.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class StringInterner {
+
+  /** The default capacity. */
+  public static final int DEFAULT_CAPACITY = 4096;
+
+  /** The default maximum interned length. */
+  public static final int DEFAULT_MAX_LENGTH = 64;
+
+  /** The String object size, in bytes. */
+  private static final int STRING_SIZE = 24;
+
+  /** The char array header size, in bytes. */
+  private static final int ARRAY_HEADER_SIZE = 16;
+
+  /** The table. */
+  private final AtomicReferenceArray<String> table;
+
+  /** The maximum interned length. */
+  private final int maxLength;
+
+  /** The lookups. */
+  private final LongAdder lookups = new LongAdder();
+
+  /** The hits. */
+  private final LongAdder hits = new LongAdder();
+
+  /** The bytes saved. */
+  private final LongAdder bytesSaved = new LongAdder();
+
+  /**
+   * Instantiates a new string interner with the default capacity and maximum length.
+   */
+  public StringInterner() {
+    this(DEFAULT_CAPACITY, DEFAULT_MAX_LENGTH);
+  }
+
+  /**
+   * Instantiates a new string interner.
+   *
+   * @param capacity the number of slots, rounded up to a power of two
+   * @param maxLength the length beyond which strings are not interned
+   */
+  public StringInterner(final int capacity, final int maxLength) {
+    int size = 1;
+
+    while (size < capacity && size < (1 << 30)) {
+      size <<= 1;
+    }
+
+    this.table = new AtomicReferenceArray<>(size);
+    this.maxLength = maxLength;
+  }
+
+  /**
+   * Get the pooled copy of a string, pooling the string itself when there is none.
+   *
+   * @param value the value
+   * @return the pooled copy, or the value itself
+   */
+  public String intern(final String value) {
+    if (null == value || value.length() > maxLength) {
+      return value;
+    }
+
+    final int hash = value.hashCode();
+    final int slot = (hash ^ (hash >>> 16)) & (table.length() - 1);
+    final String pooled = table.get(slot);
+
+    lookups.increment();
+
+    if (null != pooled && pooled.equals(value)) {
+      if (pooled != value) {
+        hits.increment();
+        bytesSaved.add(retainedSize(value));
+      }
+
+      return pooled;
+    }
+
+    table.lazySet(slot, value);
+    return value;
+  }
+
+  /**
+   * Gets the capacity.
+   *
+   * @return the capacity
+   */
+  public int getCapacity() {
+    return table.length();
+  }
+
+  /**
+   * Gets the number of duplicates replaced by a pooled copy.
+   *
+   * @return the hits
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Gets the estimated number of bytes saved.
+   *
+   * @return the bytes saved
+   */
+  public long getBytesSaved() {
+    return bytesSaved.sum();
+  }
+
+  /**
+   * Take a snapshot of the statistics.
+   *
+   * @return the statistics
+   */
+  public Map<String, Object> snapshot() {
+    final Map<String, Object> snapshot = new LinkedHashMap<>();
+
+    snapshot.put("capacity", table.length());
+    snapshot.put("maxLength", maxLength);
+    snapshot.put("lookups", lookups.sum());
+    snapshot.put("hits", hits.sum());
+    snapshot.put("bytesSaved", bytesSaved.sum());
+
+    return snapshot;
+  }
+
+  /**
+   * Estimate the heap retained by a string.
+   *
+   * @param value the value
+   * @return the size, in bytes
+   */
+  private static long retainedSize(final String value) {
+    return STRING_SIZE + ((ARRAY_HEADER_SIZE + 2L * value.length() + 7) & ~7L);
+  }
+}
@@ -0,0 +1,202 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * Reader decoding UTF-8 bytes from a stream through a pooled buffer.
+ *
+ * <p>
+ * Unlike {@link java.io.InputStreamReader} no charset decoder or per-instance byte buffer is
+ * allocated. Malformed sequences, including overlong forms, encoded surrogates and code points
+ * above U+10FFFF, decode to U+FFFD one byte at a time. Closing the reader returns the buffer to
+ * the {@link BufferPool}; the source stream is owned by the caller and is not closed.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class Utf8StreamReader extends Reader {
+
+  /** The replacement character for malformed input. */
+  private static final char REPLACEMENT = '\uFFFD';
+
+  /** The source stream. */
+  private final InputStream in;
+
+  /** The buffer. */
+  private byte[] buffer;
+
+  /** The buffer position. */
+  private int position;
+
+  /** The buffer limit. */
+  private int limit;
+
+  /** Indicates the source stream is exhausted. */
+  private boolean eof;
+
+  /** A low surrogate that did not fit in the previous read, or 0. */
+  private char pendingLowSurrogate;
+
+  /**
+   * Instantiates a new UTF-8 stream reader.
+   *
+   * @param in the source stream
+   */
+  public Utf8StreamReader(final InputStream in) {
+    super();
+    this.in = in;
+    this.buffer = BufferPool.acquireBytes();
+  }
+
+  /**
+   * @see java.io.Reader#read(char[], int, int)
+   */
+  @Override
+  public int read(final char[] cbuf, final int off, final int len) throws IOException {
+    if (null == buffer) {
+      throw new IOException("Reader closed");
+    }
+
+    if (0 == len) {
+      return 0;
+    }
+
+    int count = 0;
+
+    if (0 != pendingLowSurrogate) {
+      cbuf[off] = pendingLowSurrogate;
+      pendingLowSurrogate = 0;
+      count++;
+    }
+
+    while (count < len) {
+      if (position >= limit && (count > 0 || !fill())) {
+        // return what was decoded rather than block, or stop at end of input
+        break;
+      }
+
+      final int b = buffer[position] & 0xFF;
+
+      if (b < 0x80) {
+        cbuf[off + count++] = (char) b;
+        position++;
+        continue;
+      }
+
+      // C0, C1 and F5 to FF never start a well-formed sequence
+      final int length = b >= 0xF5 ? 0 : b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : b >= 0xC2 ? 2 : 0;
+
+      if (position + length > limit && !eof) {
+        if (count > 0) {
+          break;
+        }
+
+        fill();
+        continue;
+      }
+
+      if (0 == length || position + length > limit) {
+        // stray continuation byte, invalid lead byte or sequence truncated at end of input
+        cbuf[off + count++] = REPLACEMENT;
+        position++;
+        continue;
+      }
+
+      // the second byte bounds rule out overlong forms, surrogates and code points over U+10FFFF
+      int low = 0xE0 == b ? 0xA0 : 0xF0 == b ? 0x90 : 0x80;
+      int high = 0xED == b ? 0x9F : 0xF4 == b ? 0x8F : 0xBF;
+      int codePoint = b & (0xFF >> (length + 1));
+      boolean valid = true;
+
+      for (int i = 1; i < length; i++) {
+        final int next = buffer[position + i] & 0xFF;
+
+        if (next < low || next > high) {
+          valid = false;
+          break;
+        }
+
+        low = 0x80;
+        high = 0xBF;
+
+        codePoint = (codePoint << 6) | (next & 0x3F);
+      }
+
+      if (!valid) {
+        cbuf[off + count++] = REPLACEMENT;
+        position++;
+      } else if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+        position += length;
+        cbuf[off + count++] = Character.highSurrogate(codePoint);
+
+        if (count < len) {
+          cbuf[off + count++] = Character.lowSurrogate(codePoint);
+        } else {
+          pendingLowSurrogate = Character.lowSurrogate(codePoint);
+        }
+      } else {
+        position += length;
+        cbuf[off + count++] = (char) codePoint;
+      }
+    }
+
+    return 0 == count ? -1 : count;
+  }
+
+  /**
+   * Move the undecoded bytes to the start of the buffer and read more bytes from the source.
+   *
+   * @return true, if bytes are available for decoding
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private boolean fill() throws IOException {
+    final int remaining = limit - position;
+    System.arraycopy(buffer, position, buffer, 0, remaining);
+    position = 0;
+    limit = remaining;
+
+    int read = 0;
+
+    while (0 == read && !eof) {
+      read = in.read(buffer, limit, buffer.length - limit);
+
+      if (read < 0) {
+        eof = true;
+      } else {
+        limit += read;
+      }
+    }
+
+    return position < limit;
+  }
+
+  /**
+   * @see java.io.Reader#close()
+   */
+  @Override
+  public void close() throws IOException {
+    if (null != buffer) {
+      BufferPool.releaseBytes(buffer);
+      buffer = null;
+    }
+  }
+}
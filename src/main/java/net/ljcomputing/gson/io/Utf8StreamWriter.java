@@ -0,0 +1,206 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+
+/**
+ * Writer encoding characters straight to UTF-8 bytes in a pooled buffer, which is drained to the
+ * target stream whenever it fills up.
+ *
+ * <p>
+ * Unlike {@link java.io.OutputStreamWriter} no charset encoder or intermediate char buffer is
+ * involved. Closing the writer flushes it and returns the buffer to the {@link BufferPool}; the
+ * target stream is owned by the caller and is not closed. Unpaired surrogates are written as
+ * '?', as {@link String#getBytes(java.nio.charset.Charset)} does.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class Utf8StreamWriter extends Writer {
+
+  /** The target stream. */
+  private final OutputStream out;
+
+  /** The buffer. */
+  private byte[] buffer;
+
+  /** The buffer position. */
+  private int position;
+
+  /** A high surrogate waiting for its low surrogate, or 0. */
+  private char pendingHighSurrogate;
+
+  /**
+   * Instantiates a new UTF-8 stream writer.
+   *
+   * @param out the target stream
+   */
+  public Utf8StreamWriter(final OutputStream out) {
+    super();
+    this.out = out;
+    this.buffer = BufferPool.acquireBytes();
+  }
+
+  /**
+   * @see java.io.Writer#write(int)
+   */
+  @Override
+  public void write(final int c) throws IOException {
+    ensureOpen();
+    encode((char) c);
+  }
+
+  /**
+   * @see java.io.Writer#write(char[], int, int)
+   */
+  @Override
+  public void write(final char[] cbuf, final int off, final int len) throws IOException {
+    ensureOpen();
+    final int end = off + len;
+
+    for (int i = off; i < end; i++) {
+      final char c = cbuf[i];
+
+      if (c < 0x80 && position < buffer.length && 0 == pendingHighSurrogate) {
+        buffer[position++] = (byte) c;
+      } else {
+        encode(c);
+      }
+    }
+  }
+
+  /**
+   * @see java.io.Writer#write(java.lang.String, int, int)
+   */
+  @Override
+  public void write(final String str, final int off, final int len) throws IOException {
+    ensureOpen();
+    final int end = off + len;
+
+    for (int i = off; i < end; i++) {
+      final char c = str.charAt(i);
+
+      if (c < 0x80 && position < buffer.length && 0 == pendingHighSurrogate) {
+        buffer[position++] = (byte) c;
+      } else {
+        encode(c);
+      }
+    }
+  }
+
+  /**
+   * Encode a single character.
+   *
+   * @param c the character
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void encode(final char c) throws IOException {
+    if (buffer.length - position < 4) {
+      drain();
+    }
+
+    if (0 != pendingHighSurrogate) {
+      final char high = pendingHighSurrogate;
+      pendingHighSurrogate = 0;
+
+      if (Character.isLowSurrogate(c)) {
+        final int codePoint = Character.toCodePoint(high, c);
+        buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+        return;
+      }
+
+      buffer[position++] = '?';
+      encode(c);
+      return;
+    }
+
+    if (c < 0x80) {
+      buffer[position++] = (byte) c;
+    } else if (c < 0x800) {
+      buffer[position++] = (byte) (0xC0 | (c >> 6));
+      buffer[position++] = (byte) (0x80 | (c & 0x3F));
+    } else if (Character.isHighSurrogate(c)) {
+      pendingHighSurrogate = c;
+    } else if (Character.isLowSurrogate(c)) {
+      buffer[position++] = '?';
+    } else {
+      buffer[position++] = (byte) (0xE0 | (c >> 12));
+      buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+      buffer[position++] = (byte) (0x80 | (c & 0x3F));
+    }
+  }
+
+  /**
+   * Drain the buffered bytes to the target stream.
+   *
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void drain() throws IOException {
+    if (position > 0) {
+      out.write(buffer, 0, position);
+      position = 0;
+    }
+  }
+
+  /**
+   * Ensure the writer is open.
+   *
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void ensureOpen() throws IOException {
+    if (null == buffer) {
+      throw new IOException("Writer closed");
+    }
+  }
+
+  /**
+   * @see java.io.Writer#flush()
+   */
+  @Override
+  public void flush() throws IOException {
+    ensureOpen();
+    drain();
+    out.flush();
+  }
+
+  /**
+   * @see java.io.Writer#close()
+   */
+  @Override
+  public void close() throws IOException {
+    if (null != buffer) {
+      try {
+        if (0 != pendingHighSurrogate) {
+          pendingHighSurrogate = 0;
+          encode('?');
+        }
+
+        flush();
+      } finally {
+        BufferPool.releaseBytes(buffer);
+        buffer = null;
+      }
+    }
+  }
+}
@@ -0,0 +1,62 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.limit;
+
+/**
+ * The limits checked while parsing.
+ *
+ * @author James G. Willmore
+ *
+ */
+public enum JsonLimit {
+
+  /** The input size: bytes of binary input, characters of JSON text. */
+  BYTES("bytes"),
+
+  /** The nesting depth of arrays and objects. */
+  DEPTH("depth"),
+
+  /** The length of a string value or member name. */
+  STRING_LENGTH("stringLength"),
+
+  /** The number of elements of an array. */
+  ARRAY_LENGTH("arrayLength"),
+
+  /** The number of members of an object. */
+  OBJECT_MEMBERS("objectMembers");
+
+  /** The label. */
+  private final String label;
+
+  /**
+   * Instantiates a new JSON limit.
+   *
+   * @param label the label
+   */
+  JsonLimit(final String label) {
+    this.label = label;
+  }
+
+  /**
+   * Gets the label used in metrics and messages.
+   *
+   * @return the label
+   */
+  public String getLabel() {
+    return label;
+  }
+}
@@ -0,0 +1,72 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.limit;
+
+import com.google.gson.JsonParseException;
+
+/**
+ * Exception thrown when parsed input exceeds one of its {@link JsonLimits}.
+ *
+ * <p>
+ * Being a {@link JsonParseException}, it surfaces from Gson unchanged and Spring's HTTP message
+ * converters turn it into a 400 response.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class JsonLimitExceededException extends JsonParseException {
+
+  /** The serial version UID. */
+  private static final long serialVersionUID = 2431895473622381720L;
+
+  /** The exceeded limit. */
+  private final JsonLimit limit;
+
+  /** The maximum allowed. */
+  private final long maximum;
+
+  /**
+   * Instantiates a new JSON limit exceeded exception.
+   *
+   * @param limit the exceeded limit
+   * @param maximum the maximum allowed
+   */
+  public JsonLimitExceededException(final JsonLimit limit, final long maximum) {
+    super("JSON input exceeds the " + limit.getLabel() + " limit of " + maximum);
+    this.limit = limit;
+    this.maximum = maximum;
+  }
+
+  /**
+   * Gets the exceeded limit.
+   *
+   * @return the limit
+   */
+  public JsonLimit getLimit() {
+    return limit;
+  }
+
+  /**
+   * Gets the maximum allowed.
+   *
+   * @return the maximum
+   */
+  public long getMaximum() {
+    return maximum;
+  }
+}
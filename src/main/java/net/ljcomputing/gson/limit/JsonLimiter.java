@@ -0,0 +1,412 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.limit;
+
+import java.io.FilterInputStream;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Tracks a single parse against its {@link JsonLimits}, failing as soon as one is exceeded.
+ *
+ * <p>
+ * Readers call it as they consume tokens: {@link #beginContainer(boolean)} and
+ * {@link #endContainer()} around arrays and objects, {@link #name()} for every member,
+ * {@link #value()} for every other value, {@link #string(long)} with the length of strings and
+ * names, and the size is counted by reading through {@link #wrap(Reader)} or
+ * {@link #wrap(InputStream)}. JSON text read through {@link #wrap(Reader)} also has its strings,
+ * names and unquoted literals measured as their characters arrive, an escape sequence counting
+ * as the single character it stands for, so an oversized string is rejected before the reader
+ * has buffered it. A limiter is not thread-safe.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class JsonLimiter {
+
+  /** The limits. */
+  private final JsonLimits limits;
+
+  /** The maximum input size. */
+  private final long maxBytes;
+
+  /** The maximum nesting depth. */
+  private final int maxDepth;
+
+  /** The maximum string length. */
+  private final int maxStringLength;
+
+  /** The maximum array length. */
+  private final int maxArrayLength;
+
+  /** The maximum object member count. */
+  private final int maxObjectMembers;
+
+  /** The element or member count of each open container. */
+  private int[] counts = new int[16];
+
+  /** Indicates which open containers are arrays. */
+  private boolean[] arrays = new boolean[16];
+
+  /** The number of open containers. */
+  private int depth;
+
+  /** The input size read so far. */
+  private long read;
+
+  /** The lexical state of the JSON text read so far. */
+  private Lexeme lexeme = Lexeme.TEXT;
+
+  /** The quote of the current string. */
+  private char quote;
+
+  /** The length of the current string or literal. */
+  private int length;
+
+  /** The hex digits left in the current unicode escape. */
+  private int hexDigits;
+
+  /**
+   * Instantiates a new JSON limiter.
+   *
+   * @param limits the limits
+   * @param maxBytes the maximum input size
+   * @param maxDepth the maximum nesting depth
+   * @param maxStringLength the maximum string length
+   * @param maxArrayLength the maximum array length
+   * @param maxObjectMembers the maximum object member count
+   */
+  JsonLimiter(final JsonLimits limits, final long maxBytes, final int maxDepth,
+      final int maxStringLength, final int maxArrayLength, final int maxObjectMembers) {
+    this.limits = limits;
+    this.maxBytes = maxBytes;
+    this.maxDepth = maxDepth;
+    this.maxStringLength = maxStringLength;
+    this.maxArrayLength = maxArrayLength;
+    this.maxObjectMembers = maxObjectMembers;
+  }
+
+  /**
+   * Count an array or object being opened, as a value of its parent.
+   *
+   * @param array true for an array
+   */
+  public void beginContainer(final boolean array) {
+    value();
+
+    if (depth >= maxDepth) {
+      throw limits.reject(JsonLimit.DEPTH);
+    }
+
+    if (depth == counts.length) {
+      counts = Arrays.copyOf(counts, depth * 2);
+      arrays = Arrays.copyOf(arrays, depth * 2);
+    }
+
+    counts[depth] = 0;
+    arrays[depth++] = array;
+  }
+
+  /**
+   * Count the innermost array or object being closed.
+   */
+  public void endContainer() {
+    if (depth > 0) {
+      depth--;
+    }
+  }
+
+  /**
+   * Count an object member.
+   */
+  public void name() {
+    if (depth > 0 && ++counts[depth - 1] > maxObjectMembers) {
+      throw limits.reject(JsonLimit.OBJECT_MEMBERS);
+    }
+  }
+
+  /**
+   * Count a value, which is an element when the innermost container is an array.
+   */
+  public void value() {
+    if (depth > 0 && arrays[depth - 1] && ++counts[depth - 1] > maxArrayLength) {
+      throw limits.reject(JsonLimit.ARRAY_LENGTH);
+    }
+  }
+
+  /**
+   * Check the length of a string value or member name.
+   *
+   * @param length the length
+   */
+  public void string(final long length) {
+    if (length > maxStringLength) {
+      throw limits.reject(JsonLimit.STRING_LENGTH);
+    }
+  }
+
+  /**
+   * Count input read.
+   *
+   * @param count the bytes or characters read
+   */
+  public void read(final long count) {
+    read += count;
+
+    if (read > maxBytes) {
+      throw limits.reject(JsonLimit.BYTES);
+    }
+  }
+
+  /**
+   * Wrap a reader of JSON text so the characters read from it are counted and its strings are
+   * measured.
+   *
+   * @param in the reader
+   * @return the counting reader
+   */
+  public Reader wrap(final Reader in) {
+    final boolean scan = Integer.MAX_VALUE != maxStringLength;
+
+    return new FilterReader(in) {
+      @Override
+      public int read() throws IOException {
+        final int c = super.read();
+
+        if (c >= 0) {
+          JsonLimiter.this.read(1);
+
+          if (scan) {
+            scan((char) c);
+          }
+        }
+
+        return c;
+      }
+
+      @Override
+      public int read(final char[] cbuf, final int off, final int len) throws IOException {
+        final int count = super.read(cbuf, off, len);
+
+        if (count > 0) {
+          JsonLimiter.this.read(count);
+        }
+
+        if (scan) {
+          for (int i = off; i < off + count; i++) {
+            scan(cbuf[i]);
+          }
+        }
+
+        return count;
+      }
+    };
+  }
+
+  /**
+   * Advance the lexical state of the JSON text by one character, checking the length of the
+   * current string or unquoted literal. Comments, which lenient readers accept, are skipped.
+   *
+   * @param c the character
+   */
+  private void scan(final char c) {
+    switch (lexeme) {
+      case STRING:
+        if (c == quote) {
+          lexeme = Lexeme.TEXT;
+        } else {
+          if ('\\' == c) {
+            lexeme = Lexeme.ESCAPE;
+          }
+
+          string(++length);
+        }
+        break;
+      case ESCAPE:
+        if ('u' == c) {
+          hexDigits = 4;
+          lexeme = Lexeme.UNICODE;
+        } else {
+          lexeme = Lexeme.STRING;
+        }
+        break;
+      case UNICODE:
+        if (0 == --hexDigits) {
+          lexeme = Lexeme.STRING;
+        }
+        break;
+      case LITERAL:
+        if (isDelimiter(c)) {
+          text(c);
+        } else {
+          string(++length);
+        }
+        break;
+      case SLASH:
+        if ('*' == c) {
+          lexeme = Lexeme.BLOCK_COMMENT;
+        } else if ('/' == c) {
+          lexeme = Lexeme.LINE_COMMENT;
+        } else {
+          text(c);
+        }
+        break;
+      case LINE_COMMENT:
+        if ('\n' == c || '\r' == c) {
+          lexeme = Lexeme.TEXT;
+        }
+        break;
+      case BLOCK_COMMENT:
+        if ('*' == c) {
+          lexeme = Lexeme.BLOCK_STAR;
+        }
+        break;
+      case BLOCK_STAR:
+        if ('/' == c) {
+          lexeme = Lexeme.TEXT;
+        } else if ('*' != c) {
+          lexeme = Lexeme.BLOCK_COMMENT;
+        }
+        break;
+      default:
+        text(c);
+        break;
+    }
+  }
+
+  /**
+   * Advance the lexical state by a character read between tokens.
+   *
+   * @param c the character
+   */
+  private void text(final char c) {
+    if ('"' == c || '\'' == c) {
+      quote = c;
+      length = 0;
+      lexeme = Lexeme.STRING;
+    } else if ('/' == c) {
+      lexeme = Lexeme.SLASH;
+    } else if ('#' == c) {
+      lexeme = Lexeme.LINE_COMMENT;
+    } else if (isDelimiter(c)) {
+      lexeme = Lexeme.TEXT;
+    } else {
+      length = 1;
+      lexeme = Lexeme.LITERAL;
+      string(length);
+    }
+  }
+
+  /**
+   * Checks if the given character ends an unquoted literal, as it does for {@code JsonReader}.
+   *
+   * @param c the character
+   * @return true, if the character is whitespace, punctuation or starts a comment
+   */
+  private static boolean isDelimiter(final char c) {
+    switch (c) {
+      case ' ':
+      case '\t':
+      case '\f':
+      case '\r':
+      case '\n':
+      case '{':
+      case '}':
+      case '[':
+      case ']':
+      case ':':
+      case ',':
+      case ';':
+      case '=':
+      case '/':
+      case '\\':
+      case '#':
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Wrap a stream so the bytes read from it are counted.
+   *
+   * @param in the stream
+   * @return the counting stream
+   */
+  public InputStream wrap(final InputStream in) {
+    return new FilterInputStream(in) {
+      @Override
+      public int read() throws IOException {
+        final int b = super.read();
+
+        if (b >= 0) {
+          JsonLimiter.this.read(1);
+        }
+
+        return b;
+      }
+
+      @Override
+      public int read(final byte[] b, final int off, final int len) throws IOException {
+        final int count = super.read(b, off, len);
+
+        if (count > 0) {
+          JsonLimiter.this.read(count);
+        }
+
+        return count;
+      }
+    };
+  }
+
+  /**
+   * Lexical states of JSON text.
+   */
+  private enum Lexeme {
+
+    /** Between tokens. */
+    TEXT,
+
+    /** Inside a quoted string or name. */
+    STRING,
+
+    /** After the backslash of an escape sequence. */
+    ESCAPE,
+
+    /** Inside the hex digits of a unicode escape. */
+    UNICODE,
+
+    /** Inside an unquoted literal, a number, keyword or lenient string. */
+    LITERAL,
+
+    /** After a slash, which may start a comment. */
+    SLASH,
+
+    /** Inside an end of line comment. */
+    LINE_COMMENT,
+
+    /** Inside a block comment. */
+    BLOCK_COMMENT,
+
+    /** After a star inside a block comment. */
+    BLOCK_STAR
+  }
+}
@@ -0,0 +1,270 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.limit;
+
+import java.util.function.Consumer;
+
+/**
+ * Immutable limits on the input accepted by a parse. Instances are created through
+ * {@link #builder()}.
+ *
+ * <p>
+ * Every limit defaults to unlimited. A rejection listener, when set, is told about every limit
+ * exceeded, for instance to count rejected payloads.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public final class JsonLimits {
+
+  /** The unlimited limits. */
+  private static final JsonLimits NONE = builder().build();
+
+  /** The maximum input size. */
+  private final long maxBytes;
+
+  /** The maximum nesting depth. */
+  private final int maxDepth;
+
+  /** The maximum string length. */
+  private final int maxStringLength;
+
+  /** The maximum array length. */
+  private final int maxArrayLength;
+
+  /** The maximum object member count. */
+  private final int maxObjectMembers;
+
+  /** The rejection listener, or null. */
+  private final Consumer<JsonLimit> rejectionListener;
+
+  /**
+   * Instantiates new JSON limits.
+   *
+   * @param builder the builder
+   */
+  private JsonLimits(final Builder builder) {
+    this.maxBytes = builder.maxBytes;
+    this.maxDepth = builder.maxDepth;
+    this.maxStringLength = builder.maxStringLength;
+    this.maxArrayLength = builder.maxArrayLength;
+    this.maxObjectMembers = builder.maxObjectMembers;
+    this.rejectionListener = builder.rejectionListener;
+  }
+
+  /**
+   * Gets the unlimited limits.
+   *
+   * @return the JSON limits
+   */
+  public static JsonLimits none() {
+    return NONE;
+  }
+
+  /**
+   * Create a new builder.
+   *
+   * @return the builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Checks if no limit is set.
+   *
+   * @return true, if unlimited
+   */
+  public boolean isUnlimited() {
+    return Long.MAX_VALUE == maxBytes && Integer.MAX_VALUE == maxDepth
+        && Integer.MAX_VALUE == maxStringLength && Integer.MAX_VALUE == maxArrayLength
+        && Integer.MAX_VALUE == maxObjectMembers;
+  }
+
+  /**
+   * Gets the maximum of a limit.
+   *
+   * @param limit the limit
+   * @return the maximum
+   */
+  public long getMaximum(final JsonLimit limit) {
+    switch (limit) {
+      case BYTES:
+        return maxBytes;
+      case DEPTH:
+        return maxDepth;
+      case STRING_LENGTH:
+        return maxStringLength;
+      case ARRAY_LENGTH:
+        return maxArrayLength;
+      default:
+        return maxObjectMembers;
+    }
+  }
+
+  /**
+   * Check an input size known upfront, such as a Content-Length.
+   *
+   * @param size the size, in bytes, or a negative value if unknown
+   */
+  public void checkSize(final long size) {
+    if (size > maxBytes) {
+      throw reject(JsonLimit.BYTES);
+    }
+  }
+
+  /**
+   * Create a parse limiter tracking a single input.
+   *
+   * @return the JSON limiter
+   */
+  public JsonLimiter newLimiter() {
+    return new JsonLimiter(this, maxBytes, maxDepth, maxStringLength, maxArrayLength,
+        maxObjectMembers);
+  }
+
+  /**
+   * Report an exceeded limit to the rejection listener.
+   *
+   * @param limit the exceeded limit
+   * @return the exception to throw
+   */
+  JsonLimitExceededException reject(final JsonLimit limit) {
+    if (null != rejectionListener) {
+      rejectionListener.accept(limit);
+    }
+
+    return new JsonLimitExceededException(limit, getMaximum(limit));
+  }
+
+  /**
+   * Builder for {@link JsonLimits}. A maximum of zero or less means unlimited.
+   */
+  public static final class Builder {
+
+    /** The maximum input size. */
+    private long maxBytes = Long.MAX_VALUE;
+
+    /** The maximum nesting depth. */
+    private int maxDepth = Integer.MAX_VALUE;
+
+    /** The maximum string length. */
+    private int maxStringLength = Integer.MAX_VALUE;
+
+    /** The maximum array length. */
+    private int maxArrayLength = Integer.MAX_VALUE;
+
+    /** The maximum object member count. */
+    private int maxObjectMembers = Integer.MAX_VALUE;
+
+    /** The rejection listener. */
+    private Consumer<JsonLimit> rejectionListener;
+
+    /**
+     * Instantiates a new builder.
+     */
+    private Builder() {
+    }
+
+    /**
+     * Set the maximum input size: bytes of binary input, characters of JSON text.
+     *
+     * @param maxBytes the maximum input size
+     * @return the builder
+     */
+    public Builder maxBytes(final long maxBytes) {
+      this.maxBytes = maxBytes > 0 ? maxBytes : Long.MAX_VALUE;
+      return this;
+    }
+
+    /**
+     * Set the maximum nesting depth of arrays and objects.
+     *
+     * @param maxDepth the maximum depth
+     * @return the builder
+     */
+    public Builder maxDepth(final int maxDepth) {
+      this.maxDepth = unlimitedIfNotPositive(maxDepth);
+      return this;
+    }
+
+    /**
+     * Set the maximum length of string values and member names. In JSON text, unquoted
+     * literals such as numbers are held to the same length.
+     *
+     * @param maxStringLength the maximum string length
+     * @return the builder
+     */
+    public Builder maxStringLength(final int maxStringLength) {
+      this.maxStringLength = unlimitedIfNotPositive(maxStringLength);
+      return this;
+    }
+
+    /**
+     * Set the maximum number of elements of an array.
+     *
+     * @param maxArrayLength the maximum array length
+     * @return the builder
+     */
+    public Builder maxArrayLength(final int maxArrayLength) {
+      this.maxArrayLength = unlimitedIfNotPositive(maxArrayLength);
+      return this;
+    }
+
+    /**
+     * Set the maximum number of members of an object.
+     *
+     * @param maxObjectMembers the maximum object member count
+     * @return the builder
+     */
+    public Builder maxObjectMembers(final int maxObjectMembers) {
+      this.maxObjectMembers = unlimitedIfNotPositive(maxObjectMembers);
+      return this;
+    }
+
+    /**
+     * Set the listener told about every exceeded limit.
+     *
+     * @param rejectionListener the rejection listener, or null for none
+     * @return the builder
+     */
+    public Builder rejectionListener(final Consumer<JsonLimit> rejectionListener) {
+      this.rejectionListener = rejectionListener;
+      return this;
+    }
+
+    /**
+     * Builds the limits.
+     *
+     * @return the JSON limits
+     */
+    public JsonLimits build() {
+      return new JsonLimits(this);
+    }
+
+    /**
+     * Map a maximum of zero or less to unlimited.
+     *
+     * @param maximum the maximum
+     * @return the maximum, or {@link Integer#MAX_VALUE}
+     */
+    private static int unlimitedIfNotPositive(final int maximum) {
+      return maximum > 0 ? maximum : Integer.MAX_VALUE;
+    }
+  }
+}
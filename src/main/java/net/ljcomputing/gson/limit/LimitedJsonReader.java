@@ -0,0 +1,201 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.limit;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import com.google.gson.stream.JsonReader;
+
+import net.ljcomputing.gson.io.StringInterner;
+
+/**
+ * JSON reader enforcing {@link JsonLimits} as it reads, optionally passing the names and string
+ * values it reads through a {@link StringInterner} as {@code InterningJsonReader} does.
+ *
+ * <p>
+ * The input size and the length of strings, names and unquoted literals are checked as
+ * characters are pulled into the reader's buffer, before an oversized string is built, and every
+ * other limit as soon as the offending token is consumed, so a hostile body is rejected after
+ * reading little more than the allowed amount. Values skipped by {@link #skipValue()} only count
+ * towards the size and string lengths, and as one element of their parent. Map keys are counted
+ * as members when maps are read through the
+ * {@link net.ljcomputing.gson.adapter.KeyedMapTypeAdapterFactory} registered by
+ * {@code GsonFactory}.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class LimitedJsonReader extends JsonReader {
+
+  /** The limiter. */
+  private final JsonLimiter limiter;
+
+  /** The interner, or null. */
+  private final StringInterner interner;
+
+  /**
+   * Instantiates a new limited JSON reader.
+   *
+   * @param in the source
+   * @param limits the limits
+   */
+  public LimitedJsonReader(final Reader in, final JsonLimits limits) {
+    this(in, limits, null);
+  }
+
+  /**
+   * Instantiates a new limited JSON reader.
+   *
+   * @param in the source
+   * @param limits the limits
+   * @param interner the interner, or null
+   */
+  public LimitedJsonReader(final Reader in, final JsonLimits limits,
+      final StringInterner interner) {
+    this(limits.newLimiter(), in, interner);
+  }
+
+  /**
+   * Instantiates a new limited JSON reader.
+   *
+   * @param limiter the limiter
+   * @param in the source
+   * @param interner the interner, or null
+   */
+  private LimitedJsonReader(final JsonLimiter limiter, final Reader in,
+      final StringInterner interner) {
+    super(limiter.wrap(in));
+    this.limiter = limiter;
+    this.interner = interner;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#beginArray()
+   */
+  @Override
+  public void beginArray() throws IOException {
+    super.beginArray();
+    limiter.beginContainer(true);
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#endArray()
+   */
+  @Override
+  public void endArray() throws IOException {
+    super.endArray();
+    limiter.endContainer();
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#beginObject()
+   */
+  @Override
+  public void beginObject() throws IOException {
+    super.beginObject();
+    limiter.beginContainer(false);
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#endObject()
+   */
+  @Override
+  public void endObject() throws IOException {
+    super.endObject();
+    limiter.endContainer();
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#nextName()
+   */
+  @Override
+  public String nextName() throws IOException {
+    final String name = super.nextName();
+    limiter.name();
+    return null == interner ? name : interner.intern(name);
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#nextString()
+   */
+  @Override
+  public String nextString() throws IOException {
+    final String value = super.nextString();
+    limiter.value();
+    return null == interner ? value : interner.intern(value);
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#nextBoolean()
+   */
+  @Override
+  public boolean nextBoolean() throws IOException {
+    final boolean value = super.nextBoolean();
+    limiter.value();
+    return value;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#nextNull()
+   */
+  @Override
+  public void nextNull() throws IOException {
+    super.nextNull();
+    limiter.value();
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#nextDouble()
+   */
+  @Override
+  public double nextDouble() throws IOException {
+    final double value = super.nextDouble();
+    limiter.value();
+    return value;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#nextLong()
+   */
+  @Override
+  public long nextLong() throws IOException {
+    final long value = super.nextLong();
+    limiter.value();
+    return value;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#nextInt()
+   */
+  @Override
+  public int nextInt() throws IOException {
+    final int value = super.nextInt();
+    limiter.value();
+    return value;
+  }
+
+  /**
+   * @see com.google.gson.stream.JsonReader#skipValue()
+   */
+  @Override
+  public void skipValue() throws IOException {
+    super.skipValue();
+    limiter.value();
+  }
+}
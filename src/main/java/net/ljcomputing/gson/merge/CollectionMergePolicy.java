@@ -0,0 +1,39 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.merge;
+
+/**
+ * Policy applied when both sides of a deep merge hold a collection or a map.
+ *
+ * @author James G. Willmore
+ *
+ */
+public enum CollectionMergePolicy {
+
+  /** The source collection or map replaces the target one. */
+  REPLACE,
+
+  /** The source elements or entries are added to the target. */
+  APPEND,
+
+  /**
+   * Source elements are matched to target elements by key and merged pair by pair; unmatched
+   * source elements are added. Map entries are matched by map key, collection elements by the
+   * configured key property.
+   */
+  MATCH_BY_KEY
+}
@@ -0,0 +1,331 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.merge;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.ljcomputing.gson.reflect.ClassModel;
+import net.ljcomputing.gson.reflect.FieldAccessException;
+import net.ljcomputing.gson.reflect.FieldAccessor;
+
+/**
+ * Recursive, type-aware merge working directly on the object graph.
+ *
+ * <p>
+ * Nested beans are merged field by field instead of being copied by reference, collections and
+ * maps follow the configured {@link CollectionMergePolicy}, and every source object is merged at
+ * most once into each target so cyclic graphs terminate. Field pairing reuses the compiled {@link MergePlan}s.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class DeepMerger {
+
+  /** The SLF4J logger. */
+  private static final Logger LOGGER = LoggerFactory.getLogger(DeepMerger.class);
+
+  /** The merge plans. */
+  private final MergePlanCache mergePlans;
+
+  /**
+   * Instantiates a new deep merger.
+   *
+   * @param mergePlans the merge plans
+   */
+  public DeepMerger(final MergePlanCache mergePlans) {
+    this.mergePlans = mergePlans;
+  }
+
+  /**
+   * Merge the given source graph into the given target graph.
+   *
+   * @param to the to Object
+   * @param from the from Object
+   * @param options the options
+   * @return the to Object
+   */
+  public Object merge(final Object to, final Object from, final MergeOptions options) {
+    if (null != to && null != from) {
+      mergeBean(to, from, options, "", new IdentityHashMap<Object, Set<Object>>());
+    }
+
+    return to;
+  }
+
+  /**
+   * Merge two beans field by field.
+   *
+   * @param to the to Object
+   * @param from the from Object
+   * @param options the options
+   * @param path the property path of the beans
+   * @param visited the targets each visited source object was merged into
+   */
+  private void mergeBean(final Object to, final Object from, final MergeOptions options,
+      final String path, final Map<Object, Set<Object>> visited) {
+    if (to == from || !visited
+        .computeIfAbsent(from, key -> Collections.newSetFromMap(new IdentityHashMap<>()))
+        .add(to)) {
+      return;
+    }
+
+    final MergePlan plan = mergePlans.getPlan(to.getClass(), from.getClass());
+    final Set<String> ignored = options.getIgnoredProperties();
+
+    for (int i = 0; i < plan.size(); i++) {
+      final FieldAccessor source = plan.getSource(i);
+      final String propertyPath = path.isEmpty() ? source.getName() : path + "." + source.getName();
+
+      if (ignored.contains(propertyPath)) {
+        continue;
+      }
+
+      try {
+        mergeField(to, plan.getTarget(i), source.get(from), options, propertyPath, visited);
+      } catch (FieldAccessException | ClassCastException | IllegalArgumentException
+          | UnsupportedOperationException exception) {
+        LOGGER.error(
+            "Exception occured while setting value for key '{}' -  from ['{}'] ; to ['{}']:",
+            propertyPath, from, to, exception);
+      }
+    }
+  }
+
+  /**
+   * Merge a single field value.
+   *
+   * @param to the to Object
+   * @param target the target field
+   * @param value the source value
+   * @param options the options
+   * @param path the property path
+   * @param visited the targets each visited source object was merged into
+   */
+  private void mergeField(final Object to, final FieldAccessor target, final Object value,
+      final MergeOptions options, final String path, final Map<Object, Set<Object>> visited) {
+    if (null == value) {
+      if (!options.isSkipNulls()) {
+        target.set(to, null);
+      }
+
+      return;
+    }
+
+    final Object current = target.get(to);
+    final Object merged = mergeValue(current, value, options, path, visited);
+
+    if (merged != current) {
+      target.set(to, merged);
+    }
+  }
+
+  /**
+   * Merge a source value into the current value.
+   *
+   * @param current the current value
+   * @param value the source value, not null
+   * @param options the options
+   * @param path the property path
+   * @param visited the targets each visited source object was merged into
+   * @return the value to store
+   */
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  private Object mergeValue(final Object current, final Object value, final MergeOptions options,
+      final String path, final Map<Object, Set<Object>> visited) {
+    if (null == current) {
+      return value;
+    }
+
+    if (current instanceof Collection && value instanceof Collection) {
+      return mergeCollection((Collection) current, (Collection) value, options, path, visited);
+    }
+
+    if (current instanceof Map && value instanceof Map) {
+      return mergeMap((Map) current, (Map) value, options, path, visited);
+    }
+
+    if (ClassModel.isBean(current.getClass()) && ClassModel.isBean(value.getClass())) {
+      mergeBean(current, value, options, path, visited);
+      return current;
+    }
+
+    return value;
+  }
+
+  /**
+   * Merge two collections according to the collection policy.
+   *
+   * @param current the current collection
+   * @param value the source collection
+   * @param options the options
+   * @param path the property path
+   * @param visited the targets each visited source object was merged into
+   * @return the collection to store
+   */
+  private Collection<Object> mergeCollection(final Collection<Object> current,
+      final Collection<Object> value, final MergeOptions options, final String path,
+      final Map<Object, Set<Object>> visited) {
+    switch (options.getCollectionPolicy()) {
+      case APPEND:
+        return addAll(current, value);
+      case MATCH_BY_KEY:
+        final Map<Object, Object> index = new HashMap<>();
+
+        for (final Object element : current) {
+          final Object key = keyOf(element, options);
+
+          if (null != key && !index.containsKey(key)) {
+            index.put(key, element);
+          }
+        }
+
+        final List<Object> additions = new ArrayList<>();
+
+        for (final Object element : value) {
+          final Object key = keyOf(element, options);
+          final Object match = null == key ? null : index.get(key);
+
+          if (null == match) {
+            additions.add(element);
+          } else if (match != element) {
+            mergeValue(match, element, options, path, visited);
+          }
+        }
+
+        return addAll(current, additions);
+      default:
+        return value;
+    }
+  }
+
+  /**
+   * Merge two maps according to the map policy.
+   *
+   * @param current the current map
+   * @param value the source map
+   * @param options the options
+   * @param path the property path
+   * @param visited the targets each visited source object was merged into
+   * @return the map to store
+   */
+  private Map<Object, Object> mergeMap(final Map<Object, Object> current,
+      final Map<Object, Object> value, final MergeOptions options, final String path,
+      final Map<Object, Set<Object>> visited) {
+    switch (options.getMapPolicy()) {
+      case APPEND:
+        return putAll(current, value);
+      case MATCH_BY_KEY:
+        final Map<Object, Object> updates = new LinkedHashMap<>();
+
+        for (final Map.Entry<Object, Object> entry : value.entrySet()) {
+          final Object existing = current.get(entry.getKey());
+
+          if (null == entry.getValue()) {
+            if (!options.isSkipNulls() && null != existing) {
+              updates.put(entry.getKey(), null);
+            }
+          } else {
+            final Object merged =
+                mergeValue(existing, entry.getValue(), options, path + "." + entry.getKey(),
+                    visited);
+
+            if (merged != existing) {
+              updates.put(entry.getKey(), merged);
+            }
+          }
+        }
+
+        return updates.isEmpty() ? current : putAll(current, updates);
+      default:
+        return value;
+    }
+  }
+
+  /**
+   * Gets the key used to match a collection element. Beans are keyed by the configured key
+   * property, value types by themselves.
+   *
+   * @param element the element
+   * @param options the options
+   * @return the key, or null if the element cannot be matched
+   */
+  private static Object keyOf(final Object element, final MergeOptions options) {
+    if (null == element || !ClassModel.isBean(element.getClass())) {
+      return element;
+    }
+
+    final FieldAccessor accessor = ClassModel.of(element.getClass())
+        .findField(options.getKeyProperty());
+    return null == accessor ? null : accessor.get(element);
+  }
+
+  /**
+   * Add the given elements to the collection, copying it first if it is unmodifiable.
+   *
+   * @param current the current collection
+   * @param additions the additions
+   * @return the resulting collection
+   */
+  private static Collection<Object> addAll(final Collection<Object> current,
+      final Collection<Object> additions) {
+    if (additions.isEmpty()) {
+      return current;
+    }
+
+    try {
+      current.addAll(additions);
+      return current;
+    } catch (UnsupportedOperationException exception) {
+      final Collection<Object> copy =
+          current instanceof Set ? new LinkedHashSet<>(current) : new ArrayList<>(current);
+      copy.addAll(additions);
+      return copy;
+    }
+  }
+
+  /**
+   * Put the given entries into the map, copying it first if it is unmodifiable.
+   *
+   * @param current the current map
+   * @param entries the entries
+   * @return the resulting map
+   */
+  private static Map<Object, Object> putAll(final Map<Object, Object> current,
+      final Map<Object, Object> entries) {
+    try {
+      current.putAll(entries);
+      return current;
+    } catch (UnsupportedOperationException exception) {
+      final Map<Object, Object> copy = new LinkedHashMap<>(current);
+      copy.putAll(entries);
+      return copy;
+    }
+  }
+}
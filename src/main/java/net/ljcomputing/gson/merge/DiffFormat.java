@@ -0,0 +1,32 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.merge;
+
+/**
+ * The formats of the delta documents produced by {@link ObjectDiffer}.
+ *
+ * @author James G. Willmore
+ *
+ */
+public enum DiffFormat {
+
+  /** RFC 7386 JSON Merge Patch: an object holding only the changed members. */
+  MERGE_PATCH,
+
+  /** RFC 6902 JSON Patch: an array of add, remove and replace operations. */
+  JSON_PATCH
+}
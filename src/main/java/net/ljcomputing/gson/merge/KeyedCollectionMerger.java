@@ -0,0 +1,228 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.merge;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * Merges two collections by matching their elements on a key.
+ *
+ * <p>
+ * The target elements are indexed by key in a hash map, so matching is linear in the size of
+ * both collections. Each matched pair is merged the same way as
+ * {@code GsonConverterService.merge}, through the cached {@link MergePlan}s. When there are at
+ * least as many pairs as the parallel threshold, the pair merges are split across a
+ * {@link ForkJoinPool}. Target elements are assumed to be distinct objects. If several source
+ * elements share a key, they are merged into their match one after the other, in source order.
+ * Elements with a null key never match.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class KeyedCollectionMerger {
+
+  /** The default minimum number of matched pairs merged in parallel. */
+  public static final int DEFAULT_PARALLEL_THRESHOLD = 4096;
+
+  /** The number of pairs merged by one task. */
+  private static final int TASK_SIZE = 1024;
+
+  /** The merge plans. */
+  private final MergePlanCache mergePlans;
+
+  /** The pool. */
+  private final ForkJoinPool pool;
+
+  /** The minimum number of matched pairs merged in parallel. */
+  private final int parallelThreshold;
+
+  /**
+   * Instantiates a new keyed collection merger on the common pool.
+   *
+   * @param mergePlans the merge plans
+   */
+  public KeyedCollectionMerger(final MergePlanCache mergePlans) {
+    this(mergePlans, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Instantiates a new keyed collection merger.
+   *
+   * @param mergePlans the merge plans
+   * @param pool the pool
+   * @param parallelThreshold the minimum number of matched pairs merged in parallel
+   */
+  public KeyedCollectionMerger(final MergePlanCache mergePlans, final ForkJoinPool pool,
+      final int parallelThreshold) {
+    this.mergePlans = mergePlans;
+    this.pool = pool;
+    this.parallelThreshold = Math.max(1, parallelThreshold);
+  }
+
+  /**
+   * Merge the source elements into the target elements they match by key, then add or remove
+   * the unmatched elements according to the policy. The target collection is modified in place.
+   *
+   * @param <T> the element type
+   * @param <K> the key type
+   * @param to the target collection
+   * @param from the source collection
+   * @param key the key function
+   * @param policy the policy
+   * @return the target collection
+   * @throws UnsupportedOperationException if elements must be added to or removed from an
+   *         unmodifiable target
+   */
+  public <T, K> Collection<T> merge(final Collection<T> to, final Collection<? extends T> from,
+      final Function<? super T, ? extends K> key, final KeyedMergePolicy policy) {
+    final Map<K, T> index = new HashMap<>(Math.max(16, (int) (to.size() / 0.75f) + 1));
+
+    for (final T element : to) {
+      final K elementKey = null == element ? null : key.apply(element);
+
+      if (null != elementKey) {
+        index.putIfAbsent(elementKey, element);
+      }
+    }
+
+    final Set<K> matchedKeys = new HashSet<>();
+    final List<Object> targets = new ArrayList<>();
+    final List<Object> sources = new ArrayList<>();
+    final List<Object> repeatedTargets = new ArrayList<>();
+    final List<Object> repeatedSources = new ArrayList<>();
+    final List<T> additions = new ArrayList<>();
+
+    for (final T element : from) {
+      final K elementKey = null == element ? null : key.apply(element);
+      final T match = null == elementKey ? null : index.get(elementKey);
+
+      if (null == match) {
+        if (null != elementKey && !matchedKeys.add(elementKey)) {
+          // a key already seen among the source elements; added only once
+          continue;
+        }
+
+        additions.add(element);
+      } else if (match != element) {
+        if (matchedKeys.add(elementKey)) {
+          targets.add(match);
+          sources.add(element);
+        } else {
+          repeatedTargets.add(match);
+          repeatedSources.add(element);
+        }
+      } else {
+        matchedKeys.add(elementKey);
+      }
+    }
+
+    mergePairs(targets, sources);
+    new PairMerge(repeatedTargets, repeatedSources, 0, repeatedTargets.size()).compute();
+
+    if (KeyedMergePolicy.SYNC == policy) {
+      to.removeIf(element -> null == element || !matchedKeys.contains(key.apply(element)));
+    }
+
+    if (KeyedMergePolicy.UPDATE != policy) {
+      to.addAll(additions);
+    }
+
+    return to;
+  }
+
+  /**
+   * Merge the given pairs, in parallel when there are enough of them.
+   *
+   * @param targets the targets
+   * @param sources the sources
+   */
+  private void mergePairs(final List<Object> targets, final List<Object> sources) {
+    final PairMerge merge = new PairMerge(targets, sources, 0, targets.size());
+
+    if (targets.size() < parallelThreshold) {
+      merge.compute();
+    } else {
+      pool.invoke(merge);
+    }
+  }
+
+  /**
+   * Task merging a range of pairs, splitting itself until ranges are small enough.
+   */
+  private final class PairMerge extends RecursiveAction {
+
+    /** The serial version UID. */
+    private static final long serialVersionUID = 1L;
+
+    /** The targets. */
+    private final List<Object> targets;
+
+    /** The sources. */
+    private final List<Object> sources;
+
+    /** The first pair. */
+    private final int from;
+
+    /** The end of the range. */
+    private final int to;
+
+    /**
+     * Instantiates a new pair merge.
+     *
+     * @param targets the targets
+     * @param sources the sources
+     * @param from the first pair
+     * @param to the end of the range
+     */
+    PairMerge(final List<Object> targets, final List<Object> sources, final int from,
+        final int to) {
+      this.targets = targets;
+      this.sources = sources;
+      this.from = from;
+      this.to = to;
+    }
+
+    /**
+     * @see java.util.concurrent.RecursiveAction#compute()
+     */
+    @Override
+    protected void compute() {
+      if (to - from > TASK_SIZE && inForkJoinPool()) {
+        final int middle = (from + to) >>> 1;
+        invokeAll(new PairMerge(targets, sources, from, middle),
+            new PairMerge(targets, sources, middle, to));
+        return;
+      }
+
+      for (int i = from; i < to; i++) {
+        final Object target = targets.get(i);
+        final Object source = sources.get(i);
+        mergePlans.getPlan(target.getClass(), source.getClass()).apply(target, source);
+      }
+    }
+  }
+}
@@ -0,0 +1,38 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.merge;
+
+/**
+ * Policy applied to the elements left unmatched by a keyed collection merge.
+ *
+ * @author James G. Willmore
+ *
+ */
+public enum KeyedMergePolicy {
+
+  /** Only matched pairs are merged; unmatched elements on either side are left alone. */
+  UPDATE,
+
+  /** Matched pairs are merged and unmatched source elements are added to the target. */
+  UPSERT,
+
+  /**
+   * Matched pairs are merged, unmatched source elements are added and target elements with no
+   * source counterpart are removed, so the target ends up holding exactly the source keys.
+   */
+  SYNC
+}
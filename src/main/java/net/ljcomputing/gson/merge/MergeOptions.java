@@ -0,0 +1,219 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.merge;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Immutable options controlling a deep merge. Instances are created through {@link #builder()}.
+ *
+ * @author James G. Willmore
+ *
+ */
+public final class MergeOptions {
+
+  /** The default key property used to match collection elements. */
+  public static final String DEFAULT_KEY_PROPERTY = "id";
+
+  /** The default options. */
+  private static final MergeOptions DEFAULTS = builder().build();
+
+  /** Indicates if null source values are skipped. */
+  private final boolean skipNulls;
+
+  /** The collection policy. */
+  private final CollectionMergePolicy collectionPolicy;
+
+  /** The map policy. */
+  private final CollectionMergePolicy mapPolicy;
+
+  /** The key property used to match collection elements. */
+  private final String keyProperty;
+
+  /** The ignored property paths. */
+  private final Set<String> ignoredProperties;
+
+  /**
+   * Instantiates new merge options.
+   *
+   * @param builder the builder
+   */
+  private MergeOptions(final Builder builder) {
+    this.skipNulls = builder.skipNulls;
+    this.collectionPolicy = builder.collectionPolicy;
+    this.mapPolicy = builder.mapPolicy;
+    this.keyProperty = builder.keyProperty;
+    this.ignoredProperties = Collections.unmodifiableSet(new HashSet<>(builder.ignoredProperties));
+  }
+
+  /**
+   * Gets the default options: nulls are copied, collections and maps are replaced.
+   *
+   * @return the merge options
+   */
+  public static MergeOptions defaults() {
+    return DEFAULTS;
+  }
+
+  /**
+   * Create a new builder.
+   *
+   * @return the builder
+   */
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  /**
+   * Checks if null source values are skipped.
+   *
+   * @return true, if nulls are skipped
+   */
+  public boolean isSkipNulls() {
+    return skipNulls;
+  }
+
+  /**
+   * Gets the collection policy.
+   *
+   * @return the collection policy
+   */
+  public CollectionMergePolicy getCollectionPolicy() {
+    return collectionPolicy;
+  }
+
+  /**
+   * Gets the map policy.
+   *
+   * @return the map policy
+   */
+  public CollectionMergePolicy getMapPolicy() {
+    return mapPolicy;
+  }
+
+  /**
+   * Gets the key property used to match collection elements.
+   *
+   * @return the key property
+   */
+  public String getKeyProperty() {
+    return keyProperty;
+  }
+
+  /**
+   * Gets the ignored property paths, dotted for nested properties (e.g. "address.zip").
+   *
+   * @return the ignored properties
+   */
+  public Set<String> getIgnoredProperties() {
+    return ignoredProperties;
+  }
+
+  /**
+   * Builder for {@link MergeOptions}.
+   */
+  public static final class Builder {
+
+    /** Indicates if null source values are skipped. */
+    private boolean skipNulls;
+
+    /** The collection policy. */
+    private CollectionMergePolicy collectionPolicy = CollectionMergePolicy.REPLACE;
+
+    /** The map policy. */
+    private CollectionMergePolicy mapPolicy = CollectionMergePolicy.REPLACE;
+
+    /** The key property. */
+    private String keyProperty = DEFAULT_KEY_PROPERTY;
+
+    /** The ignored properties. */
+    private final Set<String> ignoredProperties = new HashSet<>();
+
+    /**
+     * Instantiates a new builder.
+     */
+    private Builder() {
+    }
+
+    /**
+     * Skip null source values instead of copying them.
+     *
+     * @param skipNulls true to skip nulls
+     * @return the builder
+     */
+    public Builder skipNulls(final boolean skipNulls) {
+      this.skipNulls = skipNulls;
+      return this;
+    }
+
+    /**
+     * Set the collection policy.
+     *
+     * @param collectionPolicy the collection policy
+     * @return the builder
+     */
+    public Builder collectionPolicy(final CollectionMergePolicy collectionPolicy) {
+      this.collectionPolicy = collectionPolicy;
+      return this;
+    }
+
+    /**
+     * Set the map policy.
+     *
+     * @param mapPolicy the map policy
+     * @return the builder
+     */
+    public Builder mapPolicy(final CollectionMergePolicy mapPolicy) {
+      this.mapPolicy = mapPolicy;
+      return this;
+    }
+
+    /**
+     * Set the key property used to match collection elements.
+     *
+     * @param keyProperty the key property
+     * @return the builder
+     */
+    public Builder keyProperty(final String keyProperty) {
+      this.keyProperty = keyProperty;
+      return this;
+    }
+
+    /**
+     * Add ignored property paths.
+     *
+     * @param ignoredProperties the ignored properties
+     * @return the builder
+     */
+    public Builder ignore(final String... ignoredProperties) {
+      this.ignoredProperties.addAll(Arrays.asList(ignoredProperties));
+      return this;
+    }
+
+    /**
+     * Builds the options.
+     *
+     * @return the merge options
+     */
+    public MergeOptions build() {
+      return new MergeOptions(this);
+    }
+  }
+}
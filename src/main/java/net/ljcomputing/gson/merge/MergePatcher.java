@@ -0,0 +1,229 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.merge;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Objects;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
+
+import net.ljcomputing.gson.reflect.ClassModel;
+import net.ljcomputing.gson.reflect.FieldAccessor;
+
+/**
+ * Applies RFC 7386 JSON Merge Patch documents directly to target objects.
+ *
+ * <p>
+ * The patch is streamed: each member is matched to a field by its JSON name and only the named
+ * fields are written, through the cached {@link FieldAccessor}s. An explicit {@code null} clears
+ * the field (primitives are reset to their default value), an object recurses into the current
+ * bean or map, creating it when the field is null, and any other value, arrays included,
+ * replaces the field's value. Unknown and excluded members are skipped. No intermediate object or
+ * tree is built for the patch itself.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class MergePatcher {
+
+  /** The Gson instance, providing the adapters of replaced values. */
+  private final Gson gson;
+
+  /**
+   * Instantiates a new merge patcher.
+   *
+   * @param gson the gson
+   */
+  public MergePatcher(final Gson gson) {
+    this.gson = gson;
+  }
+
+  /**
+   * Apply the merge patch read from the given reader to the target. The patch must be a JSON
+   * object, as a patch of any other kind would replace the target itself, and the target must be
+   * a map or a bean; values such as strings, numbers or collections cannot be patched in place.
+   *
+   * @param target the target
+   * @param reader the reader, positioned before the patch
+   * @return the target
+   * @throws IllegalArgumentException if the target is neither a map nor a bean
+   */
+  @SuppressWarnings("unchecked")
+  public Object apply(final Object target, final JsonReader reader) {
+    if (!(target instanceof Map) && !ClassModel.isBean(target.getClass())) {
+      throw new IllegalArgumentException(
+          "A merge patch cannot be applied in place to a " + target.getClass().getName());
+    }
+
+    try {
+      if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+        throw new JsonSyntaxException("A merge patch applied to an object must be a JSON object "
+            + "but was " + reader.peek());
+      }
+
+      if (target instanceof Map) {
+        patchMap((Map<Object, Object>) target, target.getClass(), reader);
+      } else {
+        patchBean(target, reader);
+      }
+
+      if (reader.peek() != JsonToken.END_DOCUMENT) {
+        throw new JsonIOException("JSON document was not fully consumed.");
+      }
+
+      return target;
+    } catch (MalformedJsonException | IllegalStateException exception) {
+      throw new JsonSyntaxException(exception);
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    }
+  }
+
+  /**
+   * Patch the fields of a bean with the members of the current object.
+   *
+   * @param target the target
+   * @param reader the reader, positioned before the object
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void patchBean(final Object target, final JsonReader reader) throws IOException {
+    final ClassModel model = ClassModel.of(target.getClass());
+
+    reader.beginObject();
+
+    while (reader.hasNext()) {
+      final FieldAccessor field = model.findJsonField(reader.nextName());
+
+      if (null == field) {
+        reader.skipValue();
+      } else {
+        field.set(target, patchValue(field.get(target), field.getGenericType(), reader));
+      }
+    }
+
+    reader.endObject();
+  }
+
+  /**
+   * Patch the entries of a map with the members of the current object; a {@code null} member
+   * removes its entry.
+   *
+   * @param target the target
+   * @param mapType the declared map type
+   * @param reader the reader, positioned before the object
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void patchMap(final Map<Object, Object> target, final Type mapType,
+      final JsonReader reader) throws IOException {
+    final Type keyType = typeArgument(mapType, 0);
+    final Type valueType = typeArgument(mapType, 1);
+    final TypeAdapter<?> keyAdapter =
+        String.class == keyType || Object.class == keyType ? null
+            : gson.getAdapter(TypeToken.get(keyType));
+
+    reader.beginObject();
+
+    while (reader.hasNext()) {
+      final String name = reader.nextName();
+      final Object key =
+          null == keyAdapter ? name : keyAdapter.fromJsonTree(new JsonPrimitive(name));
+
+      if (reader.peek() == JsonToken.NULL) {
+        reader.nextNull();
+        target.remove(key);
+      } else {
+        target.put(key, patchValue(target.get(key), valueType, reader));
+      }
+    }
+
+    reader.endObject();
+  }
+
+  /**
+   * Compute the patched value of a field or map entry.
+   *
+   * @param current the current value
+   * @param type the declared type
+   * @param reader the reader, positioned before the patch value
+   * @return the patched value
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  @SuppressWarnings("unchecked")
+  private Object patchValue(final Object current, final Type type, final JsonReader reader)
+      throws IOException {
+    final Class<?> rawType = TypeToken.get(type).getRawType();
+
+    if (reader.peek() == JsonToken.NULL) {
+      reader.nextNull();
+      return rawType.isPrimitive() ? Array.get(Array.newInstance(rawType, 1), 0) : null;
+    }
+
+    if (reader.peek() == JsonToken.BEGIN_OBJECT && null != current) {
+      if (current instanceof Map) {
+        patchMap((Map<Object, Object>) current, type, reader);
+        return current;
+      }
+
+      if (ClassModel.isBean(current.getClass())) {
+        patchBean(current, reader);
+        return current;
+      }
+    }
+
+    // an absent target is patched as an empty one, which amounts to reading the patch value
+    // without the members it clears
+    final Object value = gson.getAdapter(TypeToken.get(type)).read(reader);
+
+    if (value instanceof Map) {
+      ((Map<Object, Object>) value).values().removeIf(Objects::isNull);
+    }
+
+    return value;
+  }
+
+  /**
+   * Gets a type argument of a map type.
+   *
+   * @param mapType the map type
+   * @param index the index, 0 for the key and 1 for the value
+   * @return the type argument, or Object if it is not declared
+   */
+  private static Type typeArgument(final Type mapType, final int index) {
+    if (mapType instanceof ParameterizedType) {
+      final Type[] arguments = ((ParameterizedType) mapType).getActualTypeArguments();
+
+      if (2 == arguments.length) {
+        return arguments[index];
+      }
+    }
+
+    return Object.class;
+  }
+}
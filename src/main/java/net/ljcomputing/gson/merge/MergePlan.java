@@ -0,0 +1,152 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.merge;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.ljcomputing.gson.reflect.ClassModel;
+import net.ljcomputing.gson.reflect.FieldAccessException;
+import net.ljcomputing.gson.reflect.FieldAccessor;
+
+/**
+ * Compiled plan copying the JSON-visible fields of one class onto the matching fields of
+ * another.
+ *
+ * <p>
+ * A plan pairs each serializable field of the "from" class with the field of the same name on
+ * the "to" class, minus the ignored properties. Plans are immutable and thread-safe; obtain them
+ * through {@link MergePlanCache}.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public final class MergePlan {
+
+  /** The SLF4J logger. */
+  private static final Logger LOGGER = LoggerFactory.getLogger(MergePlan.class);
+
+  /** The source accessors. */
+  private final FieldAccessor[] sources;
+
+  /** The target accessors, index-aligned with the sources. */
+  private final FieldAccessor[] targets;
+
+  /**
+   * Instantiates a new merge plan.
+   *
+   * @param sources the sources
+   * @param targets the targets
+   */
+  private MergePlan(final FieldAccessor[] sources, final FieldAccessor[] targets) {
+    this.sources = sources;
+    this.targets = targets;
+  }
+
+  /**
+   * Compile the plan for the given classes.
+   *
+   * @param toClass the to class
+   * @param fromClass the from class
+   * @param ignoredProperties the ignored properties, sorted
+   * @return the merge plan
+   */
+  static MergePlan compile(final Class<?> toClass, final Class<?> fromClass,
+      final String[] ignoredProperties) {
+    final List<FieldAccessor> sources = new ArrayList<>();
+    final List<FieldAccessor> targets = new ArrayList<>();
+
+    if (!ClassModel.isBean(toClass) || !ClassModel.isBean(fromClass)) {
+      LOGGER.debug("no fields merged between {} and {}: not bean types", toClass, fromClass);
+      return new MergePlan(new FieldAccessor[0], new FieldAccessor[0]);
+    }
+
+    final ClassModel toModel = ClassModel.of(toClass);
+
+    for (final FieldAccessor source : ClassModel.of(fromClass).getSerializableFields()) {
+      final String name = source.getName();
+
+      if (Arrays.binarySearch(ignoredProperties, name) >= 0) {
+        continue;
+      }
+
+      final FieldAccessor target = toModel.findField(name);
+
+      if (null == target) {
+        LOGGER.debug("fieldTo is null for class {}, using key {}", toClass, name);
+      } else {
+        sources.add(source);
+        targets.add(target);
+      }
+    }
+
+    return new MergePlan(sources.toArray(new FieldAccessor[sources.size()]),
+        targets.toArray(new FieldAccessor[targets.size()]));
+  }
+
+  /**
+   * Apply the plan, copying values from the given source onto the given target.
+   *
+   * @param to the to Object
+   * @param from the from Object
+   */
+  public void apply(final Object to, final Object from) {
+    for (int i = 0; i < sources.length; i++) {
+      try {
+        targets[i].set(to, sources[i].get(from));
+      } catch (FieldAccessException | ClassCastException | IllegalArgumentException exception) {
+        LOGGER.error(
+            "Exception occured while setting value for key '{}' -  from ['{}'] ; to ['{}']:",
+            sources[i].getName(), from, to, exception);
+      }
+    }
+  }
+
+  /**
+   * Gets the number of fields copied by this plan.
+   *
+   * @return the size
+   */
+  public int size() {
+    return sources.length;
+  }
+
+  /**
+   * Gets the source accessor at the given index.
+   *
+   * @param index the index
+   * @return the field accessor
+   */
+  public FieldAccessor getSource(final int index) {
+    return sources[index];
+  }
+
+  /**
+   * Gets the target accessor at the given index.
+   *
+   * @param index the index
+   * @return the field accessor
+   */
+  public FieldAccessor getTarget(final int index) {
+    return targets[index];
+  }
+}
@@ -0,0 +1,140 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.merge;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent cache of merge plans keyed by (to class, from class, ignored properties).
+ *
+ * <p>
+ * Plans are attached to their classes through {@link ClassValue}s, as {@code ClassModel} does,
+ * so caching a plan never keeps a class loader alive. Merges ignoring no properties look their
+ * plan up without allocating; at most {@value #MAX_IGNORED_SETS} sets of ignored properties are
+ * cached per pair of classes, further sets are compiled on every merge.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class MergePlanCache {
+
+  /** The most sets of ignored properties cached per pair of classes. */
+  public static final int MAX_IGNORED_SETS = 64;
+
+  /** The empty ignored properties. */
+  private static final String[] NONE = new String[0];
+
+  /** The plans by to class, then by from class. */
+  private volatile ClassValue<ClassValue<Plans>> plans = newPlans();
+
+  /** The number of cached plans. */
+  private final AtomicInteger size = new AtomicInteger();
+
+  /**
+   * Gets the plan for the given classes, compiling it on first use.
+   *
+   * @param toClass the to class
+   * @param fromClass the from class
+   * @param ignoredProperties the ignored properties, may be null
+   * @return the merge plan
+   */
+  public MergePlan getPlan(final Class<?> toClass, final Class<?> fromClass,
+      final String... ignoredProperties) {
+    final Plans pair = plans.get(toClass).get(fromClass);
+
+    if (null == ignoredProperties || 0 == ignoredProperties.length) {
+      MergePlan plan = pair.plain;
+
+      if (null == plan) {
+        plan = MergePlan.compile(toClass, fromClass, NONE);
+        pair.plain = plan;
+        size.incrementAndGet();
+      }
+
+      return plan;
+    }
+
+    final String[] sorted = ignoredProperties.clone();
+    Arrays.sort(sorted);
+
+    final List<String> key = Arrays.asList(sorted);
+    MergePlan plan = pair.ignoring.get(key);
+
+    if (null == plan) {
+      plan = MergePlan.compile(toClass, fromClass, sorted);
+
+      if (pair.ignoring.size() < MAX_IGNORED_SETS && null == pair.ignoring.putIfAbsent(key, plan)) {
+        size.incrementAndGet();
+      }
+    }
+
+    return plan;
+  }
+
+  /**
+   * Gets the number of cached plans; concurrent first uses may count a plan twice.
+   *
+   * @return the size
+   */
+  public int size() {
+    return size.get();
+  }
+
+  /**
+   * Clear all cached plans.
+   */
+  public void clear() {
+    plans = newPlans();
+    size.set(0);
+  }
+
+  /**
+   * Create the plans by to class, then by from class.
+   *
+   * @return the plans
+   */
+  private static ClassValue<ClassValue<Plans>> newPlans() {
+    return new ClassValue<ClassValue<Plans>>() {
+      @Override
+      protected ClassValue<Plans> computeValue(final Class<?> toClass) {
+        return new ClassValue<Plans>() {
+          @Override
+          protected Plans computeValue(final Class<?> fromClass) {
+            return new Plans();
+          }
+        };
+      }
+    };
+  }
+
+  /**
+   * The plans of one pair of classes.
+   */
+  private static final class Plans {
+
+    /** The plan ignoring no properties, or null until compiled. */
+    private volatile MergePlan plain;
+
+    /** The plans by sorted ignored properties. */
+    private final ConcurrentMap<List<String>, MergePlan> ignoring = new ConcurrentHashMap<>();
+  }
+}
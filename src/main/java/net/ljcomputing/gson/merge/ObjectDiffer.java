@@ -0,0 +1,517 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.merge;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonWriter;
+
+import net.ljcomputing.gson.reflect.ClassModel;
+import net.ljcomputing.gson.reflect.FieldAccessor;
+
+/**
+ * Computes the delta between two instances of the same type, as an RFC 7386 JSON Merge Patch or
+ * an RFC 6902 JSON Patch, written straight to a JSON writer.
+ *
+ * <p>
+ * Beans are compared field by field through the cached {@link ClassModel}, skipping the fields
+ * excluded from JSON, and maps entry by entry, so only the members that actually changed are
+ * written. A merge patch replaces lists and arrays as a whole, as RFC 7386 requires; a JSON patch
+ * compares them element by element. Back-references to an object whose delta is already being
+ * written are skipped, so cyclic graphs terminate.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class ObjectDiffer {
+
+  /** The Gson instance, writing changed values. */
+  private final Gson gson;
+
+  /**
+   * Instantiates a new object differ.
+   *
+   * @param gson the gson
+   */
+  public ObjectDiffer(final Gson gson) {
+    this.gson = gson;
+  }
+
+  /**
+   * Write the delta turning the before object into the after object.
+   *
+   * @param before the before object
+   * @param after the after object
+   * @param format the format
+   * @param out the out
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  public void diff(final Object before, final Object after, final DiffFormat format,
+      final JsonWriter out) throws IOException {
+    if (null != before && null != after && before.getClass() != after.getClass()) {
+      throw new IllegalArgumentException("Cannot diff a " + before.getClass().getName()
+          + " against a " + after.getClass().getName());
+    }
+
+    // explicit nulls carry meaning in both formats
+    out.setSerializeNulls(true);
+    final Set<Object> path = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+
+    if (DiffFormat.JSON_PATCH == format) {
+      out.beginArray();
+      jsonPatch(before, after, "", out, path);
+      out.endArray();
+      return;
+    }
+
+    final Map<Object, Object> visited = new IdentityHashMap<Object, Object>();
+
+    if (isStructured(before, after)) {
+      if (!mergePatch(before, after, new Member(null, null), out, path, visited)) {
+        out.beginObject().endObject();
+      }
+    } else if (equal(before, after, visited)) {
+      out.beginObject().endObject();
+    } else {
+      writeValue(after, out);
+    }
+  }
+
+  /**
+   * Write the merge patch of two beans or maps known to be structured. The object, and the
+   * member holding it, are only written once the first change is found, so unchanged branches
+   * are walked once and leave nothing behind.
+   *
+   * @param before the before object
+   * @param after the after object
+   * @param member the member holding the patch
+   * @param out the out
+   * @param path the objects whose delta is being written
+   * @param visited the bean pairs being compared for equality
+   * @return true, if anything changed
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private boolean mergePatch(final Object before, final Object after, final Member member,
+      final JsonWriter out, final Set<Object> path, final Map<Object, Object> visited)
+      throws IOException {
+    path.add(after);
+
+    if (after instanceof Map) {
+      final Map<?, ?> beforeMap = (Map<?, ?>) before;
+      final Map<?, ?> afterMap = (Map<?, ?>) after;
+
+      for (final Object key : beforeMap.keySet()) {
+        if (!afterMap.containsKey(key)) {
+          member.open(out);
+          out.name(String.valueOf(key)).nullValue();
+        }
+      }
+
+      for (final Map.Entry<?, ?> entry : afterMap.entrySet()) {
+        final String name = String.valueOf(entry.getKey());
+        final Object value = entry.getValue();
+
+        if (beforeMap.containsKey(entry.getKey())) {
+          mergePatchMember(name, beforeMap.get(entry.getKey()), value, member, out, path,
+              visited);
+        } else if (null == value || !path.contains(value)) {
+          member.open(out);
+          out.name(name);
+          writeValue(value, out);
+        }
+      }
+    } else {
+      for (final FieldAccessor field : ClassModel.of(after.getClass()).getSerializableFields()) {
+        mergePatchMember(field.getJsonName(), field.get(before), field.get(after), member, out,
+            path, visited);
+      }
+    }
+
+    path.remove(after);
+
+    if (member.open) {
+      out.endObject();
+    }
+
+    return member.open;
+  }
+
+  /**
+   * Write a member of a merge patch, if it changed.
+   *
+   * @param name the member name
+   * @param before the before value
+   * @param after the after value
+   * @param parent the member holding the enclosing object
+   * @param out the out
+   * @param path the objects whose delta is being written
+   * @param visited the bean pairs being compared for equality
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void mergePatchMember(final String name, final Object before, final Object after,
+      final Member parent, final JsonWriter out, final Set<Object> path,
+      final Map<Object, Object> visited) throws IOException {
+    if (before == after || (null != after && path.contains(after))) {
+      return;
+    }
+
+    if (isStructured(before, after)) {
+      mergePatch(before, after, new Member(parent, name), out, path, visited);
+    } else if (!equal(before, after, visited)) {
+      parent.open(out);
+      out.name(name);
+      writeValue(after, out);
+    }
+  }
+
+  /**
+   * Write the JSON patch operations turning a value into another. Each level is walked once:
+   * operations are only written for the leaves that differ.
+   *
+   * @param before the before value
+   * @param after the after value
+   * @param pointer the JSON pointer of the value
+   * @param out the out
+   * @param path the objects whose delta is being written
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void jsonPatch(final Object before, final Object after, final String pointer,
+      final JsonWriter out, final Set<Object> path) throws IOException {
+    if (before == after || (null != after && path.contains(after))) {
+      return;
+    }
+
+    if (null == before || null == after) {
+      operation(null == after ? "remove" : "add", pointer, after, out);
+    } else if (isStructured(before, after)) {
+      path.add(after);
+
+      if (after instanceof Map) {
+        jsonPatchMap((Map<?, ?>) before, (Map<?, ?>) after, pointer, out, path);
+      } else {
+        for (final FieldAccessor field : ClassModel.of(after.getClass())
+            .getSerializableFields()) {
+          jsonPatch(field.get(before), field.get(after), child(pointer, field.getJsonName()), out,
+              path);
+        }
+      }
+
+      path.remove(after);
+    } else if (isSequence(before) && isSequence(after)) {
+      jsonPatchSequence(before, after, pointer, out, path);
+    } else if (!before.equals(after)) {
+      operation("replace", pointer, after, out);
+    }
+  }
+
+  /**
+   * Write the JSON patch operations turning a map into another.
+   *
+   * @param before the before map
+   * @param after the after map
+   * @param pointer the JSON pointer of the map
+   * @param out the out
+   * @param path the objects whose delta is being written
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void jsonPatchMap(final Map<?, ?> before, final Map<?, ?> after, final String pointer,
+      final JsonWriter out, final Set<Object> path) throws IOException {
+    for (final Object key : before.keySet()) {
+      if (!after.containsKey(key)) {
+        operation("remove", child(pointer, String.valueOf(key)), null, out);
+      }
+    }
+
+    for (final Map.Entry<?, ?> entry : after.entrySet()) {
+      final String member = child(pointer, String.valueOf(entry.getKey()));
+
+      if (before.containsKey(entry.getKey())) {
+        jsonPatch(before.get(entry.getKey()), entry.getValue(), member, out, path);
+      } else {
+        operation("add", member, entry.getValue(), out);
+      }
+    }
+  }
+
+  /**
+   * Write the JSON patch operations turning a list or array into another: common elements are
+   * patched in place, then elements are appended or removed from the end.
+   *
+   * @param before the before sequence
+   * @param after the after sequence
+   * @param pointer the JSON pointer of the sequence
+   * @param out the out
+   * @param path the objects whose delta is being written
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void jsonPatchSequence(final Object before, final Object after, final String pointer,
+      final JsonWriter out, final Set<Object> path) throws IOException {
+    final int beforeSize = size(before);
+    final int afterSize = size(after);
+    final int common = Math.min(beforeSize, afterSize);
+
+    for (int i = 0; i < common; i++) {
+      jsonPatch(element(before, i), element(after, i), pointer + '/' + i, out, path);
+    }
+
+    for (int i = common; i < afterSize; i++) {
+      operation("add", pointer + "/-", element(after, i), out);
+    }
+
+    for (int i = beforeSize - 1; i >= common; i--) {
+      operation("remove", pointer + '/' + i, null, out);
+    }
+  }
+
+  /**
+   * Write a JSON patch operation.
+   *
+   * @param op the operation
+   * @param pointer the JSON pointer
+   * @param value the value, ignored for removals
+   * @param out the out
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void operation(final String op, final String pointer, final Object value,
+      final JsonWriter out) throws IOException {
+    out.beginObject().name("op").value(op).name("path").value(pointer);
+
+    if (!"remove".equals(op)) {
+      out.name("value");
+      writeValue(value, out);
+    }
+
+    out.endObject();
+  }
+
+  /**
+   * Write a value through its Gson adapter.
+   *
+   * @param value the value
+   * @param out the out
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void writeValue(final Object value, final JsonWriter out) throws IOException {
+    if (null == value) {
+      out.nullValue();
+    } else {
+      gson.toJson(value, value.getClass(), out);
+    }
+  }
+
+  /**
+   * Check whether two values are both beans of the same class or both maps, whose delta is
+   * computed member by member.
+   *
+   * @param before the before value
+   * @param after the after value
+   * @return true, if structured
+   */
+  private static boolean isStructured(final Object before, final Object after) {
+    if (null == before || null == after) {
+      return false;
+    }
+
+    if (before instanceof Map && after instanceof Map) {
+      return true;
+    }
+
+    return before.getClass() == after.getClass() && ClassModel.isBean(after.getClass());
+  }
+
+  /**
+   * Check whether two values are structurally equal: beans field by field, maps entry by entry,
+   * lists and arrays element by element and other values by their equals method.
+   *
+   * @param before the before value
+   * @param after the after value
+   * @param visited the bean pairs being compared, which are assumed equal when met again
+   * @return true, if equal
+   */
+  private static boolean equal(final Object before, final Object after,
+      final Map<Object, Object> visited) {
+    if (before == after) {
+      return true;
+    }
+
+    if (null == before || null == after) {
+      return false;
+    }
+
+    if (before instanceof Map && after instanceof Map) {
+      final Map<?, ?> beforeMap = (Map<?, ?>) before;
+      final Map<?, ?> afterMap = (Map<?, ?>) after;
+
+      if (beforeMap.size() != afterMap.size()) {
+        return false;
+      }
+
+      for (final Map.Entry<?, ?> entry : afterMap.entrySet()) {
+        if (!beforeMap.containsKey(entry.getKey())
+            || !equal(beforeMap.get(entry.getKey()), entry.getValue(), visited)) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    if (isSequence(before) && isSequence(after)) {
+      final int size = size(before);
+
+      if (size != size(after)) {
+        return false;
+      }
+
+      for (int i = 0; i < size; i++) {
+        if (!equal(element(before, i), element(after, i), visited)) {
+          return false;
+        }
+      }
+
+      return true;
+    }
+
+    if (before.getClass() != after.getClass()) {
+      return false;
+    }
+
+    if (!ClassModel.isBean(after.getClass())) {
+      return before.equals(after);
+    }
+
+    if (visited.get(before) == after) {
+      return true;
+    }
+
+    // the pair is only assumed equal while it is being compared, so the map can be shared
+    final Object enclosing = visited.put(before, after);
+
+    try {
+      for (final FieldAccessor field : ClassModel.of(after.getClass()).getSerializableFields()) {
+        if (!equal(field.get(before), field.get(after), visited)) {
+          return false;
+        }
+      }
+
+      return true;
+    } finally {
+      if (null == enclosing) {
+        visited.remove(before);
+      } else {
+        visited.put(before, enclosing);
+      }
+    }
+  }
+
+  /**
+   * Check whether a value is a list or an array.
+   *
+   * @param value the value
+   * @return true, if a sequence
+   */
+  private static boolean isSequence(final Object value) {
+    return value instanceof List || value.getClass().isArray();
+  }
+
+  /**
+   * Gets the size of a list or array.
+   *
+   * @param sequence the sequence
+   * @return the size
+   */
+  private static int size(final Object sequence) {
+    return sequence instanceof List ? ((List<?>) sequence).size() : Array.getLength(sequence);
+  }
+
+  /**
+   * Gets an element of a list or array.
+   *
+   * @param sequence the sequence
+   * @param index the index
+   * @return the element
+   */
+  private static Object element(final Object sequence, final int index) {
+    return sequence instanceof List ? ((List<?>) sequence).get(index)
+        : Array.get(sequence, index);
+  }
+
+  /**
+   * Append a member to a JSON pointer, escaping it as RFC 6901 requires.
+   *
+   * @param pointer the pointer
+   * @param member the member
+   * @return the child pointer
+   */
+  private static String child(final String pointer, final String member) {
+    return pointer + '/' + member.replace("~", "~0").replace("/", "~1");
+  }
+
+  /**
+   * Member of a merge patch whose object is written lazily, on the first change beneath it.
+   */
+  private static final class Member {
+
+    /** The member holding the enclosing object, or null at the root. */
+    private final Member parent;
+
+    /** The member name, or null at the root. */
+    private final String name;
+
+    /** Whether the name and the start of the object are written. */
+    private boolean open;
+
+    /**
+     * Instantiates a new member.
+     *
+     * @param parent the parent
+     * @param name the name
+     */
+    private Member(final Member parent, final String name) {
+      this.parent = parent;
+      this.name = name;
+    }
+
+    /**
+     * Write the names and starts of this object and of its enclosing objects, if not yet written.
+     *
+     * @param out the out
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private void open(final JsonWriter out) throws IOException {
+      if (open) {
+        return;
+      }
+
+      if (null != parent) {
+        parent.open(out);
+        out.name(name);
+      }
+
+      out.beginObject();
+      open = true;
+    }
+  }
+}
@@ -0,0 +1,83 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Reads the bytes allocated by the current thread from the HotSpot {@code ThreadMXBean}
+ * allocation counter.
+ *
+ * @author James G. Willmore
+ *
+ */
+public final class AllocationMeter {
+
+  /** The thread bean, or null when allocation counting is unavailable. */
+  private static final com.sun.management.ThreadMXBean THREADS = threadBean();
+
+  /**
+   * Instantiates a new allocation meter.
+   */
+  private AllocationMeter() {
+  }
+
+  /**
+   * Get the thread bean, enabling allocation counting when supported.
+   *
+   * @return the thread bean, or null
+   */
+  private static com.sun.management.ThreadMXBean threadBean() {
+    final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+
+    if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+      return null;
+    }
+
+    final com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) threads;
+
+    if (!hotspot.isThreadAllocatedMemorySupported()) {
+      return null;
+    }
+
+    if (!hotspot.isThreadAllocatedMemoryEnabled()) {
+      hotspot.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    return hotspot;
+  }
+
+  /**
+   * Check whether allocation counting is available.
+   *
+   * @return true, if available
+   */
+  public static boolean isAvailable() {
+    return null != THREADS;
+  }
+
+  /**
+   * Get the total number of bytes allocated so far by the current thread.
+   *
+   * @return the allocated bytes, or -1 when allocation counting is unavailable
+   */
+  public static long currentThreadAllocatedBytes() {
+    return null == THREADS ? -1 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+}
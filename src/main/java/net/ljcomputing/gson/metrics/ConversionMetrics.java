@@ -0,0 +1,186 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.metrics;
+
+import java.lang.reflect.Type;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.ljcomputing.gson.limit.JsonLimit;
+
+/**
+ * Registry of conversion statistics, per operation and target type, and of the payloads rejected
+ * for exceeding an input limit.
+ *
+ * <p>
+ * Looking up the statistics of a known type is a lock-free map read. Allocation is measured
+ * through {@link AllocationMeter} and is only meaningful when the call runs on one thread.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class ConversionMetrics {
+
+  /** The statistics, per operation and type. */
+  private final Map<ConversionOperation, ConcurrentMap<Type, ConversionStats>> stats =
+      new EnumMap<>(ConversionOperation.class);
+
+  /** The rejected payload counts, per exceeded limit. */
+  private final Map<JsonLimit, LongAdder> rejected = new EnumMap<>(JsonLimit.class);
+
+  /**
+   * Instantiates a new conversion metrics registry.
+   */
+  public ConversionMetrics() {
+    for (final ConversionOperation operation : ConversionOperation.values()) {
+      stats.put(operation, new ConcurrentHashMap<>());
+    }
+
+    for (final JsonLimit limit : JsonLimit.values()) {
+      rejected.put(limit, new LongAdder());
+    }
+  }
+
+  /**
+   * Get the current thread's allocated bytes, to pass to {@link #record}.
+   *
+   * @return the allocated bytes, or -1 when unavailable
+   */
+  public long allocatedBytes() {
+    return AllocationMeter.currentThreadAllocatedBytes();
+  }
+
+  /**
+   * Record a call which started at the given time and allocation counter.
+   *
+   * @param operation the operation
+   * @param type the target type
+   * @param startNanos the {@link System#nanoTime()} at the start of the call
+   * @param startAllocated the {@link #allocatedBytes()} at the start of the call, or -1
+   * @param payload the payload size in bytes, or -1 if unknown
+   * @param failed true, if the call failed
+   */
+  public void record(final ConversionOperation operation, final Type type, final long startNanos,
+      final long startAllocated, final long payload, final boolean failed) {
+    final long nanos = System.nanoTime() - startNanos;
+    final long allocated =
+        startAllocated < 0 ? -1 : AllocationMeter.currentThreadAllocatedBytes() - startAllocated;
+
+    stats(operation, type).record(nanos, payload, allocated, failed);
+  }
+
+  /**
+   * Record a payload rejected for exceeding a limit; suitable as a
+   * {@code JsonLimits} rejection listener.
+   *
+   * @param limit the exceeded limit
+   */
+  public void recordRejected(final JsonLimit limit) {
+    rejected.get(limit).increment();
+  }
+
+  /**
+   * Get the number of payloads rejected for exceeding a limit.
+   *
+   * @param limit the limit
+   * @return the rejected count
+   */
+  public long getRejected(final JsonLimit limit) {
+    return rejected.get(limit).sum();
+  }
+
+  /**
+   * Take a snapshot of the rejected payload counts, by limit label.
+   *
+   * @return the snapshot
+   */
+  public Map<String, Object> rejectedSnapshot() {
+    final Map<String, Object> snapshot = new LinkedHashMap<>();
+
+    for (final Map.Entry<JsonLimit, LongAdder> limit : rejected.entrySet()) {
+      snapshot.put(limit.getKey().getLabel(), limit.getValue().sum());
+    }
+
+    return snapshot;
+  }
+
+  /**
+   * Get the statistics of an operation on a type, creating them if needed.
+   *
+   * @param operation the operation
+   * @param type the type
+   * @return the statistics
+   */
+  public ConversionStats stats(final ConversionOperation operation, final Type type) {
+    final ConcurrentMap<Type, ConversionStats> byType = stats.get(operation);
+    final Type key = null == type ? Void.class : type;
+    ConversionStats typeStats = byType.get(key);
+
+    if (null == typeStats) {
+      final ConversionStats created = new ConversionStats();
+      typeStats = byType.putIfAbsent(key, created);
+
+      if (null == typeStats) {
+        typeStats = created;
+      }
+    }
+
+    return typeStats;
+  }
+
+  /**
+   * Take a snapshot of all statistics, by operation label then type name.
+   *
+   * @return the snapshot
+   */
+  public Map<String, Object> snapshot() {
+    final Map<String, Object> snapshot = new LinkedHashMap<>();
+
+    for (final Map.Entry<ConversionOperation, ConcurrentMap<Type, ConversionStats>> operation
+        : stats.entrySet()) {
+      final Map<String, Object> byType = new TreeMap<>();
+
+      for (final Map.Entry<Type, ConversionStats> type : operation.getValue().entrySet()) {
+        byType.put(type.getKey().getTypeName(), type.getValue().snapshot());
+      }
+
+      snapshot.put(operation.getKey().getLabel(), byType);
+    }
+
+    return snapshot;
+  }
+
+  /**
+   * Clear all statistics.
+   */
+  public void reset() {
+    for (final ConcurrentMap<Type, ConversionStats> byType : stats.values()) {
+      byType.clear();
+    }
+
+    for (final LongAdder count : rejected.values()) {
+      count.reset();
+    }
+  }
+}
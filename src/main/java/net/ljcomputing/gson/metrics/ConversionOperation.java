@@ -0,0 +1,60 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.metrics;
+
+/**
+ * The metered conversion operations.
+ *
+ * @author James G. Willmore
+ *
+ */
+public enum ConversionOperation {
+
+  /** Serialization. */
+  TO_JSON("toJson"),
+
+  /** Deserialization. */
+  FROM_JSON("fromJson"),
+
+  /** Merging. */
+  MERGE("merge"),
+
+  /** Diffing. */
+  DIFF("diff");
+
+  /** The label. */
+  private final String label;
+
+  /**
+   * Instantiates a new conversion operation.
+   *
+   * @param label the label
+   */
+  ConversionOperation(final String label) {
+    this.label = label;
+  }
+
+  /**
+   * Gets the label.
+   *
+   * @return the label
+   */
+  public String getLabel() {
+    return label;
+  }
+}
@@ -0,0 +1,171 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Statistics of one operation on one type: calls, failures, latency, payload size and allocated
+ * bytes. All counters are striped, so recording never takes a lock.
+ *
+ * @author James G. Willmore
+ *
+ */
+public class ConversionStats {
+
+  /** The calls. */
+  private final LongAdder calls = new LongAdder();
+
+  /** The failures. */
+  private final LongAdder failures = new LongAdder();
+
+  /** The total latency, in nanoseconds. */
+  private final LongAdder totalNanos = new LongAdder();
+
+  /** The maximum latency, in nanoseconds. */
+  private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+  /** The latency histogram. */
+  private final LatencyHistogram latency = new LatencyHistogram();
+
+  /** The calls with a known payload size. */
+  private final LongAdder payloads = new LongAdder();
+
+  /** The total payload size. */
+  private final LongAdder payloadBytes = new LongAdder();
+
+  /** The calls with a known allocation. */
+  private final LongAdder allocations = new LongAdder();
+
+  /** The total allocated bytes. */
+  private final LongAdder allocatedBytes = new LongAdder();
+
+  /**
+   * Record a call.
+   *
+   * @param nanos the latency, in nanoseconds
+   * @param payload the payload size, or a negative value if unknown
+   * @param allocated the allocated bytes, or a negative value if unknown
+   * @param failed true, if the call failed
+   */
+  public void record(final long nanos, final long payload, final long allocated,
+      final boolean failed) {
+    calls.increment();
+    totalNanos.add(nanos);
+    maxNanos.accumulate(nanos);
+    latency.record(nanos);
+
+    if (failed) {
+      failures.increment();
+    }
+
+    if (payload >= 0) {
+      payloads.increment();
+      payloadBytes.add(payload);
+    }
+
+    if (allocated >= 0) {
+      allocations.increment();
+      allocatedBytes.add(allocated);
+    }
+  }
+
+  /**
+   * Gets the number of calls.
+   *
+   * @return the calls
+   */
+  public long getCalls() {
+    return calls.sum();
+  }
+
+  /**
+   * Gets the number of failed calls.
+   *
+   * @return the failures
+   */
+  public long getFailures() {
+    return failures.sum();
+  }
+
+  /**
+   * Gets the total payload size.
+   *
+   * @return the payload bytes
+   */
+  public long getPayloadBytes() {
+    return payloadBytes.sum();
+  }
+
+  /**
+   * Gets the total allocated bytes.
+   *
+   * @return the allocated bytes
+   */
+  public long getAllocatedBytes() {
+    return allocatedBytes.sum();
+  }
+
+  /**
+   * Gets the latency histogram.
+   *
+   * @return the latency
+   */
+  public LatencyHistogram getLatency() {
+    return latency;
+  }
+
+  /**
+   * Take a snapshot of the statistics.
+   *
+   * @return the snapshot
+   */
+  public Map<String, Object> snapshot() {
+    final Map<String, Object> snapshot = new LinkedHashMap<>();
+    final long count = calls.sum();
+
+    snapshot.put("calls", count);
+    snapshot.put("failures", failures.sum());
+    snapshot.put("meanMicros", mean(TimeUnit.NANOSECONDS.toMicros(totalNanos.sum()), count));
+    snapshot.put("p50Micros", latency.percentileMicros(0.5));
+    snapshot.put("p90Micros", latency.percentileMicros(0.9));
+    snapshot.put("p99Micros", latency.percentileMicros(0.99));
+    snapshot.put("maxMicros", TimeUnit.NANOSECONDS.toMicros(maxNanos.get()));
+    snapshot.put("payloadBytes", payloadBytes.sum());
+    snapshot.put("meanPayloadBytes", mean(payloadBytes.sum(), payloads.sum()));
+    snapshot.put("allocatedBytes", allocatedBytes.sum());
+    snapshot.put("meanAllocatedBytes", mean(allocatedBytes.sum(), allocations.sum()));
+
+    return snapshot;
+  }
+
+  /**
+   * Compute a mean.
+   *
+   * @param total the total
+   * @param count the count
+   * @return the mean, or 0 if the count is 0
+   */
+  private static long mean(final long total, final long count) {
+    return 0 == count ? 0 : total / count;
+  }
+}
@@ -0,0 +1,99 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+
+import net.ljcomputing.gson.cache.SerializedFormCache;
+import net.ljcomputing.gson.io.StringInterner;
+
+/**
+ * Actuator endpoint exposing the conversion metrics, at {@code /gson} over HTTP and as the
+ * {@code gsonMetricsEndpoint} MBean when actuator JMX export is on.
+ *
+ * @author James G. Willmore
+ *
+ */
+public class GsonMetricsEndpoint extends AbstractEndpoint<Map<String, Object>> {
+
+  /** The metrics. */
+  private final ConversionMetrics metrics;
+
+  /** The serialized form cache, or null. */
+  private final SerializedFormCache cache;
+
+  /** The shared string interner, or null. */
+  private StringInterner stringInterner;
+
+  /**
+   * Instantiates a new gson metrics endpoint.
+   *
+   * @param metrics the metrics
+   */
+  public GsonMetricsEndpoint(final ConversionMetrics metrics) {
+    this(metrics, null);
+  }
+
+  /**
+   * Instantiates a new gson metrics endpoint also exposing the serialized form cache statistics.
+   *
+   * @param metrics the metrics
+   * @param cache the serialized form cache, or null
+   */
+  public GsonMetricsEndpoint(final ConversionMetrics metrics, final SerializedFormCache cache) {
+    super("gson");
+    this.metrics = metrics;
+    this.cache = cache;
+  }
+
+  /**
+   * Sets the shared string interner whose statistics are exposed as well.
+   *
+   * @param stringInterner the new string interner
+   */
+  @Autowired(required = false)
+  public void setStringInterner(final StringInterner stringInterner) {
+    this.stringInterner = stringInterner;
+  }
+
+  /**
+   * @see org.springframework.boot.actuate.endpoint.Endpoint#invoke()
+   */
+  @Override
+  public Map<String, Object> invoke() {
+    final Map<String, Object> result = new LinkedHashMap<>();
+
+    result.put("allocationMetered", AllocationMeter.isAvailable());
+    result.putAll(metrics.snapshot());
+    result.put("rejected", metrics.rejectedSnapshot());
+
+    if (null != cache) {
+      result.put("cache", cache.snapshot());
+    }
+
+    if (null != stringInterner) {
+      result.put("intern", stringInterner.snapshot());
+    }
+
+    return result;
+  }
+}
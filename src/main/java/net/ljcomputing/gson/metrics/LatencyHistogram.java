@@ -0,0 +1,95 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with power of two microsecond buckets.
+ *
+ * <p>
+ * Bucket {@code i} counts latencies below 2<sup>i</sup> microseconds, so a percentile is
+ * reported as the upper bound of its bucket, at most twice the true value. Each bucket is a
+ * striped {@link LongAdder}, so concurrent recorders do not contend.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class LatencyHistogram {
+
+  /** The number of buckets; the last one holds everything from about 9 minutes on. */
+  private static final int BUCKETS = 31;
+
+  /** The buckets. */
+  private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+  /**
+   * Instantiates a new latency histogram.
+   */
+  public LatencyHistogram() {
+    for (int i = 0; i < BUCKETS; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  /**
+   * Record a latency.
+   *
+   * @param nanos the latency, in nanoseconds
+   */
+  public void record(final long nanos) {
+    final long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+    final int bucket = 64 - Long.numberOfLeadingZeros(micros);
+    buckets[Math.min(bucket, BUCKETS - 1)].increment();
+  }
+
+  /**
+   * Get the approximate latency below which the given fraction of the recorded latencies fall.
+   *
+   * @param fraction the fraction, between 0 and 1
+   * @return the latency upper bound, in microseconds, or 0 if nothing was recorded
+   */
+  public long percentileMicros(final double fraction) {
+    final long[] counts = new long[BUCKETS];
+    long total = 0;
+
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = buckets[i].sum();
+      total += counts[i];
+    }
+
+    if (0 == total) {
+      return 0;
+    }
+
+    final long rank = (long) Math.ceil(fraction * total);
+    long seen = 0;
+
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts[i];
+
+      if (seen >= rank && counts[i] > 0) {
+        return 1L << i;
+      }
+    }
+
+    return 1L << (BUCKETS - 1);
+  }
+}
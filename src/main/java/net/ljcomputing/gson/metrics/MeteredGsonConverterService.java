@@ -0,0 +1,627 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.metrics;
+
+import static net.ljcomputing.gson.metrics.ConversionOperation.DIFF;
+import static net.ljcomputing.gson.metrics.ConversionOperation.FROM_JSON;
+import static net.ljcomputing.gson.metrics.ConversionOperation.MERGE;
+import static net.ljcomputing.gson.metrics.ConversionOperation.TO_JSON;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import net.ljcomputing.gson.converter.GsonConverterService;
+import net.ljcomputing.gson.io.CountingInputStream;
+import net.ljcomputing.gson.io.CountingOutputStream;
+import net.ljcomputing.gson.io.StringInterner;
+import net.ljcomputing.gson.merge.DiffFormat;
+import net.ljcomputing.gson.merge.KeyedMergePolicy;
+import net.ljcomputing.gson.merge.MergeOptions;
+
+/**
+ * GSON converter service decorator recording every call in a {@link ConversionMetrics} registry.
+ *
+ * <p>
+ * Payload sizes are bytes, measured for byte and stream payloads only; String, Reader and
+ * Appendable payloads are not measured rather than counted in characters. A lazily decoded array is recorded when its
+ * stream is closed, with the time it was open and no allocation figure.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class MeteredGsonConverterService implements GsonConverterService {
+
+  /** The delegate. */
+  private transient final GsonConverterService delegate;
+
+  /** The metrics. */
+  private transient final ConversionMetrics metrics;
+
+  /**
+   * Instantiates a new metered gson converter service.
+   *
+   * @param delegate the delegate
+   * @param metrics the metrics
+   */
+  public MeteredGsonConverterService(final GsonConverterService delegate,
+      final ConversionMetrics metrics) {
+    this.delegate = delegate;
+    this.metrics = metrics;
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toJson(java.lang.Object)
+   */
+  public final String toJson(final Object source) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    String json = null;
+
+    try {
+      json = delegate.toJson(source);
+      return json;
+    } finally {
+      metrics.record(TO_JSON, typeOf(source), start, allocated, -1, null == json);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toJson(java.lang.Object,
+   *      java.lang.Class)
+   */
+  public final String toJson(final Object source, final Class<?> view) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    String json = null;
+
+    try {
+      json = delegate.toJson(source, view);
+      return json;
+    } finally {
+      metrics.record(TO_JSON, typeOf(source), start, allocated, -1, null == json);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toJson(java.lang.Object,
+   *      java.lang.Appendable)
+   */
+  public final void toJson(final Object source, final Appendable writer) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    boolean failed = true;
+
+    try {
+      delegate.toJson(source, writer);
+      failed = false;
+    } finally {
+      metrics.record(TO_JSON, typeOf(source), start, allocated, -1, failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toJson(java.lang.Object,
+   *      java.io.OutputStream)
+   */
+  public final void toJson(final Object source, final OutputStream out) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    final CountingOutputStream counting = new CountingOutputStream(out);
+    boolean failed = true;
+
+    try {
+      delegate.toJson(source, counting);
+      failed = false;
+    } finally {
+      metrics.record(TO_JSON, typeOf(source), start, allocated, counting.getCount(), failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toJsonBytes(java.lang.Object)
+   */
+  public final byte[] toJsonBytes(final Object source) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    byte[] json = null;
+
+    try {
+      json = delegate.toJsonBytes(source);
+      return json;
+    } finally {
+      metrics.record(TO_JSON, typeOf(source), start, allocated,
+          null == json ? -1 : json.length, null == json);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toJson(java.lang.Object,
+   *      java.nio.ByteBuffer)
+   */
+  public final int toJson(final Object source, final ByteBuffer buffer) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    int written = -1;
+
+    try {
+      written = delegate.toJson(source, buffer);
+      return written;
+    } finally {
+      metrics.record(TO_JSON, typeOf(source), start, allocated, written, written < 0);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.lang.String,
+   *      java.lang.Class)
+   */
+  public final Object fromJson(final String json, final Class<?> target) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    boolean failed = true;
+
+    try {
+      final Object result = delegate.fromJson(json, target);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(FROM_JSON, target, start, allocated, -1, failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.lang.String,
+   *      java.lang.reflect.Type)
+   */
+  @SuppressWarnings("rawtypes")
+  public final List fromJson(final String json, final Type target) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    boolean failed = true;
+
+    try {
+      final List result = delegate.fromJson(json, target);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(FROM_JSON, target, start, allocated, -1, failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.io.Reader,
+   *      java.lang.reflect.Type)
+   */
+  public final <T> T fromJson(final Reader json, final Type target) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    boolean failed = true;
+
+    try {
+      final T result = delegate.fromJson(json, target);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(FROM_JSON, target, start, allocated, -1, failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.io.InputStream,
+   *      java.lang.reflect.Type)
+   */
+  public final <T> T fromJson(final InputStream json, final Type target) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    final CountingInputStream counting = new CountingInputStream(json);
+    boolean failed = true;
+
+    try {
+      final T result = delegate.fromJson(counting, target);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(FROM_JSON, target, start, allocated, counting.getCount(), failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.io.Reader,
+   *      java.lang.reflect.Type, net.ljcomputing.gson.io.StringInterner)
+   */
+  public final <T> T fromJson(final Reader json, final Type target,
+      final StringInterner interner) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    boolean failed = true;
+
+    try {
+      final T result = delegate.fromJson(json, target, interner);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(FROM_JSON, target, start, allocated, -1, failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.io.InputStream,
+   *      java.lang.reflect.Type, net.ljcomputing.gson.io.StringInterner)
+   */
+  public final <T> T fromJson(final InputStream json, final Type target,
+      final StringInterner interner) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    final CountingInputStream counting = new CountingInputStream(json);
+    boolean failed = true;
+
+    try {
+      final T result = delegate.fromJson(counting, target, interner);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(FROM_JSON, target, start, allocated, counting.getCount(), failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.io.Reader,
+   *      java.lang.reflect.Type, java.util.Set)
+   */
+  public final <T> T fromJson(final Reader json, final Type target,
+      final Set<String> fieldPaths) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    boolean failed = true;
+
+    try {
+      final T result = delegate.fromJson(json, target, fieldPaths);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(FROM_JSON, target, start, allocated, -1, failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(byte[],
+   *      java.lang.reflect.Type)
+   */
+  public final <T> T fromJson(final byte[] json, final Type target) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    boolean failed = true;
+
+    try {
+      final T result = delegate.fromJson(json, target);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(FROM_JSON, target, start, allocated, null == json ? -1 : json.length,
+          failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJson(java.nio.ByteBuffer,
+   *      java.lang.reflect.Type)
+   */
+  public final <T> T fromJson(final ByteBuffer json, final Type target) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    final int position = json.position();
+    boolean failed = true;
+
+    try {
+      final T result = delegate.fromJson(json, target);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(FROM_JSON, target, start, allocated, json.position() - position, failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJsonArray(java.io.Reader,
+   *      java.lang.reflect.Type)
+   */
+  public final <T> Stream<T> fromJsonArray(final Reader json, final Type elementType) {
+    final long start = System.nanoTime();
+    final Stream<T> elements = delegate.fromJsonArray(json, elementType);
+    return elements.onClose(() -> metrics.record(FROM_JSON, elementType, start, -1, -1, false));
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromJsonArray(java.io.InputStream,
+   *      java.lang.reflect.Type)
+   */
+  public final <T> Stream<T> fromJsonArray(final InputStream json, final Type elementType) {
+    final long start = System.nanoTime();
+    final CountingInputStream counting = new CountingInputStream(json);
+    final Stream<T> elements = delegate.fromJsonArray(counting, elementType);
+    return elements.onClose(
+        () -> metrics.record(FROM_JSON, elementType, start, -1, counting.getCount(), false));
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toBinary(java.lang.Object)
+   */
+  public final byte[] toBinary(final Object source) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    byte[] binary = null;
+
+    try {
+      binary = delegate.toBinary(source);
+      return binary;
+    } finally {
+      metrics.record(TO_JSON, typeOf(source), start, allocated,
+          null == binary ? -1 : binary.length, null == binary);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#toBinary(java.lang.Object,
+   *      java.io.OutputStream)
+   */
+  public final void toBinary(final Object source, final OutputStream out) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    final CountingOutputStream counting = new CountingOutputStream(out);
+    boolean failed = true;
+
+    try {
+      delegate.toBinary(source, counting);
+      failed = false;
+    } finally {
+      metrics.record(TO_JSON, typeOf(source), start, allocated, counting.getCount(), failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromBinary(java.io.InputStream,
+   *      java.lang.reflect.Type)
+   */
+  public final <T> T fromBinary(final InputStream binary, final Type target) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    final CountingInputStream counting = new CountingInputStream(binary);
+    boolean failed = true;
+
+    try {
+      final T result = delegate.fromBinary(counting, target);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(FROM_JSON, target, start, allocated, counting.getCount(), failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#fromBinary(byte[],
+   *      java.lang.reflect.Type)
+   */
+  public final <T> T fromBinary(final byte[] binary, final Type target) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    boolean failed = true;
+
+    try {
+      final T result = delegate.fromBinary(binary, target);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(FROM_JSON, target, start, allocated, null == binary ? -1 : binary.length,
+          failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#merge(java.lang.Object,
+   *      java.lang.Object)
+   */
+  public final Object merge(final Object to, final Object from) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    boolean failed = true;
+
+    try {
+      final Object result = delegate.merge(to, from);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(MERGE, typeOf(to), start, allocated, -1, failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService
+   * #merge(java.lang.Object, java.lang.Object, java.lang.String[])
+   */
+  public final Object merge(final Object to, final Object from, final String... ignoredProperties) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    boolean failed = true;
+
+    try {
+      final Object result = delegate.merge(to, from, ignoredProperties);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(MERGE, typeOf(to), start, allocated, -1, failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#mergeAll(java.util.Collection,
+   *      java.util.Collection, java.util.function.Function)
+   */
+  public final <T, K> Collection<T> mergeAll(final Collection<T> to,
+      final Collection<? extends T> from, final Function<? super T, ? extends K> key) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    boolean failed = true;
+
+    try {
+      final Collection<T> result = delegate.mergeAll(to, from, key);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(MERGE, typeOf(to), start, allocated, -1, failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#mergeAll(java.util.Collection,
+   *      java.util.Collection, java.util.function.Function,
+   *      net.ljcomputing.gson.merge.KeyedMergePolicy)
+   */
+  public final <T, K> Collection<T> mergeAll(final Collection<T> to,
+      final Collection<? extends T> from, final Function<? super T, ? extends K> key,
+      final KeyedMergePolicy policy) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    boolean failed = true;
+
+    try {
+      final Collection<T> result = delegate.mergeAll(to, from, key, policy);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(MERGE, typeOf(to), start, allocated, -1, failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService
+   * #deepMerge(java.lang.Object, java.lang.Object, net.ljcomputing.gson.merge.MergeOptions)
+   */
+  public final Object deepMerge(final Object to, final Object from, final MergeOptions options) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    boolean failed = true;
+
+    try {
+      final Object result = delegate.deepMerge(to, from, options);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(MERGE, typeOf(to), start, allocated, -1, failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService
+   * #applyMergePatch(java.lang.Object, java.io.Reader)
+   */
+  public final Object applyMergePatch(final Object target, final Reader patch) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    boolean failed = true;
+
+    try {
+      final Object result = delegate.applyMergePatch(target, patch);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(MERGE, typeOf(target), start, allocated, -1, failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService
+   * #applyMergePatch(java.lang.Object, java.lang.String)
+   */
+  public final Object applyMergePatch(final Object target, final String patch) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    boolean failed = true;
+
+    try {
+      final Object result = delegate.applyMergePatch(target, patch);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(MERGE, typeOf(target), start, allocated, -1, failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#diff(java.lang.Object,
+   *      java.lang.Object)
+   */
+  public final String diff(final Object before, final Object after) {
+    return diff(before, after, DiffFormat.MERGE_PATCH);
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#diff(java.lang.Object,
+   *      java.lang.Object, net.ljcomputing.gson.merge.DiffFormat)
+   */
+  public final String diff(final Object before, final Object after, final DiffFormat format) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    boolean failed = true;
+    String result = null;
+
+    try {
+      result = delegate.diff(before, after, format);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(DIFF, typeOf(after), start, allocated, -1, failed);
+    }
+  }
+
+  /**
+   * @see net.ljcomputing.gson.converter.GsonConverterService#diff(java.lang.Object,
+   *      java.lang.Object, net.ljcomputing.gson.merge.DiffFormat, java.lang.Appendable)
+   */
+  public final void diff(final Object before, final Object after, final DiffFormat format,
+      final Appendable writer) {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    boolean failed = true;
+
+    try {
+      delegate.diff(before, after, format, writer);
+      failed = false;
+    } finally {
+      metrics.record(DIFF, typeOf(after), start, allocated, -1, failed);
+    }
+  }
+
+  /**
+   * Get the runtime type of a value.
+   *
+   * @param value the value
+   * @return the type, or null for a null value
+   */
+  private static Type typeOf(final Object value) {
+    return null == value ? null : value.getClass();
+  }
+}
@@ -0,0 +1,272 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.metrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.GenericHttpMessageConverter;
+
+import net.ljcomputing.gson.io.CountingInputStream;
+import net.ljcomputing.gson.io.CountingOutputStream;
+
+/**
+ * HTTP message converter decorator recording every read and write in a
+ * {@link ConversionMetrics} registry. Payload sizes are the body bytes on the wire, i.e. after
+ * any content coding.
+ *
+ * @author James G. Willmore
+ *
+ */
+public class MeteredHttpMessageConverter implements GenericHttpMessageConverter<Object> {
+
+  /** The delegate. */
+  private final GenericHttpMessageConverter<Object> delegate;
+
+  /** The metrics. */
+  private final ConversionMetrics metrics;
+
+  /**
+   * Instantiates a new metered http message converter.
+   *
+   * @param delegate the delegate
+   * @param metrics the metrics
+   */
+  public MeteredHttpMessageConverter(final GenericHttpMessageConverter<Object> delegate,
+      final ConversionMetrics metrics) {
+    this.delegate = delegate;
+    this.metrics = metrics;
+  }
+
+  /**
+   * Gets the delegate.
+   *
+   * @return the delegate
+   */
+  public GenericHttpMessageConverter<Object> getDelegate() {
+    return delegate;
+  }
+
+  /**
+   * @see org.springframework.http.converter.HttpMessageConverter#canRead(java.lang.Class,
+   *      org.springframework.http.MediaType)
+   */
+  @Override
+  public boolean canRead(final Class<?> clazz, final MediaType mediaType) {
+    return delegate.canRead(clazz, mediaType);
+  }
+
+  /**
+   * @see org.springframework.http.converter.GenericHttpMessageConverter
+   *      #canRead(java.lang.reflect.Type, java.lang.Class, org.springframework.http.MediaType)
+   */
+  @Override
+  public boolean canRead(final Type type, final Class<?> contextClass,
+      final MediaType mediaType) {
+    return delegate.canRead(type, contextClass, mediaType);
+  }
+
+  /**
+   * @see org.springframework.http.converter.HttpMessageConverter#canWrite(java.lang.Class,
+   *      org.springframework.http.MediaType)
+   */
+  @Override
+  public boolean canWrite(final Class<?> clazz, final MediaType mediaType) {
+    return delegate.canWrite(clazz, mediaType);
+  }
+
+  /**
+   * @see org.springframework.http.converter.HttpMessageConverter#getSupportedMediaTypes()
+   */
+  @Override
+  public List<MediaType> getSupportedMediaTypes() {
+    return delegate.getSupportedMediaTypes();
+  }
+
+  /**
+   * @see org.springframework.http.converter.HttpMessageConverter#read(java.lang.Class,
+   *      org.springframework.http.HttpInputMessage)
+   */
+  @Override
+  public Object read(final Class<? extends Object> clazz, final HttpInputMessage inputMessage)
+      throws IOException {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    final CountingInputMessage counting = new CountingInputMessage(inputMessage);
+    boolean failed = true;
+
+    try {
+      final Object result = delegate.read(clazz, counting);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(ConversionOperation.FROM_JSON, clazz, start, allocated, counting.getCount(),
+          failed);
+    }
+  }
+
+  /**
+   * @see org.springframework.http.converter.GenericHttpMessageConverter
+   *      #read(java.lang.reflect.Type, java.lang.Class, org.springframework.http.HttpInputMessage)
+   */
+  @Override
+  public Object read(final Type type, final Class<?> contextClass,
+      final HttpInputMessage inputMessage) throws IOException {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    final CountingInputMessage counting = new CountingInputMessage(inputMessage);
+    boolean failed = true;
+
+    try {
+      final Object result = delegate.read(type, contextClass, counting);
+      failed = false;
+      return result;
+    } finally {
+      metrics.record(ConversionOperation.FROM_JSON, type, start, allocated, counting.getCount(),
+          failed);
+    }
+  }
+
+  /**
+   * @see org.springframework.http.converter.HttpMessageConverter#write(java.lang.Object,
+   *      org.springframework.http.MediaType, org.springframework.http.HttpOutputMessage)
+   */
+  @Override
+  public void write(final Object t, final MediaType contentType,
+      final HttpOutputMessage outputMessage) throws IOException {
+    final long allocated = metrics.allocatedBytes();
+    final long start = System.nanoTime();
+    final CountingOutputMessage counting = new CountingOutputMessage(outputMessage);
+    boolean failed = true;
+
+    try {
+      delegate.write(t, contentType, counting);
+      failed = false;
+    } finally {
+      metrics.record(ConversionOperation.TO_JSON, null == t ? null : t.getClass(), start,
+          allocated, counting.getCount(), failed);
+    }
+  }
+
+  /**
+   * Input message counting the body bytes read.
+   */
+  private static final class CountingInputMessage implements HttpInputMessage {
+
+    /** The message. */
+    private final HttpInputMessage message;
+
+    /** The counting body, once opened. */
+    private CountingInputStream body;
+
+    /**
+     * Instantiates a new counting input message.
+     *
+     * @param message the message
+     */
+    private CountingInputMessage(final HttpInputMessage message) {
+      this.message = message;
+    }
+
+    /**
+     * @see org.springframework.http.HttpMessage#getHeaders()
+     */
+    @Override
+    public HttpHeaders getHeaders() {
+      return message.getHeaders();
+    }
+
+    /**
+     * @see org.springframework.http.HttpInputMessage#getBody()
+     */
+    @Override
+    public InputStream getBody() throws IOException {
+      if (null == body) {
+        body = new CountingInputStream(message.getBody());
+      }
+
+      return body;
+    }
+
+    /**
+     * Gets the number of body bytes read.
+     *
+     * @return the count, or -1 if the body was not opened
+     */
+    private long getCount() {
+      return null == body ? -1 : body.getCount();
+    }
+  }
+
+  /**
+   * Output message counting the body bytes written.
+   */
+  private static final class CountingOutputMessage implements HttpOutputMessage {
+
+    /** The message. */
+    private final HttpOutputMessage message;
+
+    /** The counting body, once opened. */
+    private CountingOutputStream body;
+
+    /**
+     * Instantiates a new counting output message.
+     *
+     * @param message the message
+     */
+    private CountingOutputMessage(final HttpOutputMessage message) {
+      this.message = message;
+    }
+
+    /**
+     * @see org.springframework.http.HttpMessage#getHeaders()
+     */
+    @Override
+    public HttpHeaders getHeaders() {
+      return message.getHeaders();
+    }
+
+    /**
+     * @see org.springframework.http.HttpOutputMessage#getBody()
+     */
+    @Override
+    public OutputStream getBody() throws IOException {
+      if (null == body) {
+        body = new CountingOutputStream(message.getBody());
+      }
+
+      return body;
+    }
+
+    /**
+     * Gets the number of body bytes written.
+     *
+     * @return the count, or -1 if the body was not opened
+     */
+    private long getCount() {
+      return null == body ? -1 : body.getCount();
+    }
+  }
+}
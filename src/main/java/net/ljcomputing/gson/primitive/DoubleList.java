@@ -0,0 +1,211 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.primitive;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Growable list of {@code double} values stored in a primitive array.
+ *
+ * <p>
+ * The primitive accessors, such as {@code getDouble} and {@code addDouble}, never box. The
+ * {@link java.util.List} view boxes on access so the list can be handed to code expecting a
+ * {@code List<Double>}; it does not accept null elements.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class DoubleList extends AbstractList<Double> implements RandomAccess {
+
+  /** The default initial capacity. */
+  private static final int DEFAULT_CAPACITY = 16;
+
+  /** The values. */
+  private double[] values;
+
+  /** The size. */
+  private int size;
+
+  /**
+   * Instantiates a new, empty list.
+   */
+  public DoubleList() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Instantiates a new, empty list with the given initial capacity.
+   *
+   * @param capacity the capacity
+   */
+  public DoubleList(final int capacity) {
+    super();
+    this.values = new double[Math.max(capacity, 0)];
+  }
+
+  /**
+   * Create a list holding a copy of the given values.
+   *
+   * @param values the values
+   * @return the list
+   */
+  public static DoubleList of(final double... values) {
+    final DoubleList list = new DoubleList(values.length);
+    System.arraycopy(values, 0, list.values, 0, values.length);
+    list.size = values.length;
+    return list;
+  }
+
+  /**
+   * Gets the value at the given index without boxing.
+   *
+   * @param index the index
+   * @return the value
+   */
+  public double getDouble(final int index) {
+    checkIndex(index);
+    return values[index];
+  }
+
+  /**
+   * Sets the value at the given index without boxing.
+   *
+   * @param index the index
+   * @param value the value
+   * @return the previous value
+   */
+  public double setDouble(final int index, final double value) {
+    checkIndex(index);
+    final double previous = values[index];
+    values[index] = value;
+    return previous;
+  }
+
+  /**
+   * Append a value without boxing.
+   *
+   * @param value the value
+   */
+  public void addDouble(final double value) {
+    if (size == values.length) {
+      grow(size + 1);
+    }
+
+    values[size++] = value;
+    modCount++;
+  }
+
+  /**
+   * Copy the values into a new array.
+   *
+   * @return the array
+   */
+  public double[] toDoubleArray() {
+    return Arrays.copyOf(values, size);
+  }
+
+  /**
+   * @see java.util.AbstractList#get(int)
+   */
+  @Override
+  public Double get(final int index) {
+    return getDouble(index);
+  }
+
+  /**
+   * @see java.util.AbstractList#set(int, java.lang.Object)
+   */
+  @Override
+  public Double set(final int index, final Double element) {
+    return setDouble(index, element);
+  }
+
+  /**
+   * @see java.util.AbstractList#add(int, java.lang.Object)
+   */
+  @Override
+  public void add(final int index, final Double element) {
+    if (index < 0 || index > size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    final double value = element;
+
+    if (size == values.length) {
+      grow(size + 1);
+    }
+
+    System.arraycopy(values, index, values, index + 1, size - index);
+    values[index] = value;
+    size++;
+    modCount++;
+  }
+
+  /**
+   * @see java.util.AbstractList#remove(int)
+   */
+  @Override
+  public Double remove(final int index) {
+    checkIndex(index);
+    final double previous = values[index];
+    System.arraycopy(values, index + 1, values, index, size - index - 1);
+    size--;
+    modCount++;
+    return previous;
+  }
+
+  /**
+   * @see java.util.AbstractCollection#size()
+   */
+  @Override
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @see java.util.AbstractList#clear()
+   */
+  @Override
+  public void clear() {
+    size = 0;
+    modCount++;
+  }
+
+  /**
+   * Grow the array to hold at least the given number of values.
+   *
+   * @param minCapacity the minimum capacity
+   */
+  private void grow(final int minCapacity) {
+    values = Arrays.copyOf(values, Math.max(minCapacity, Math.max(values.length * 2,
+        DEFAULT_CAPACITY)));
+  }
+
+  /**
+   * Check an index.
+   *
+   * @param index the index
+   */
+  private void checkIndex(final int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+  }
+}
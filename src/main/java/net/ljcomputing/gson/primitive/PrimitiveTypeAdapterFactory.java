@@ -0,0 +1,349 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.primitive;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Type adapter factory for {@code int[]}, {@code long[]}, {@code double[]} and the
+ * {@link IntList}, {@link LongList} and {@link DoubleList} primitive lists.
+ *
+ * <p>
+ * Numbers are read straight from the token stream into a primitive buffer and written from it,
+ * without boxing a single element. Longs are read with {@link JsonReader#nextLong()}, so ids
+ * beyond 2^53 keep their precision. As with Gson's own adapters, quoted numbers are accepted and a
+ * null element is a syntax error; NaN and infinities are written only when the Gson instance
+ * serializes special floating point values.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class PrimitiveTypeAdapterFactory implements TypeAdapterFactory {
+
+  /**
+   * @see com.google.gson.TypeAdapterFactory#create(com.google.gson.Gson,
+   *      com.google.gson.reflect.TypeToken)
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public <T> TypeAdapter<T> create(final Gson gson, final TypeToken<T> type) {
+    final Class<?> rawType = type.getRawType();
+    final TypeAdapter<?> adapter;
+
+    if (int[].class == rawType || IntList.class == rawType) {
+      adapter = new IntAdapter(int[].class == rawType);
+    } else if (long[].class == rawType || LongList.class == rawType) {
+      adapter = new LongAdapter(long[].class == rawType);
+    } else if (double[].class == rawType || DoubleList.class == rawType) {
+      adapter = new DoubleAdapter(double[].class == rawType, allowsSpecialValues(gson));
+    } else {
+      adapter = null;
+    }
+
+    return (TypeAdapter<T>) adapter;
+  }
+
+  /**
+   * Checks if the given Gson instance serializes NaN and infinities, which its double adapter
+   * otherwise rejects even on a lenient writer.
+   *
+   * @param gson the gson
+   * @return true, if special floating point values are serialized
+   */
+  private static boolean allowsSpecialValues(final Gson gson) {
+    final JsonWriter probe = new JsonWriter(new StringWriter());
+    probe.setLenient(true);
+
+    try {
+      gson.getAdapter(double.class).write(probe, Double.NaN);
+      return true;
+    } catch (IllegalArgumentException | IOException exception) {
+      return false;
+    }
+  }
+
+  /**
+   * Begin reading an array element, rejecting nulls.
+   *
+   * @param in the reader
+   * @param type the element type name
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private static void checkElement(final JsonReader in, final String type) throws IOException {
+    if (in.peek() == JsonToken.NULL) {
+      throw new JsonSyntaxException("Null element in a " + type + " array");
+    }
+  }
+
+  /**
+   * Adapter of {@code int[]} and {@link IntList}.
+   */
+  private static final class IntAdapter extends TypeAdapter<Object> {
+
+    /** Indicates the adapted type is the array. */
+    private final boolean array;
+
+    /**
+     * Instantiates a new int adapter.
+     *
+     * @param array true for the array type
+     */
+    IntAdapter(final boolean array) {
+      this.array = array;
+    }
+
+    /**
+     * @see com.google.gson.TypeAdapter#read(com.google.gson.stream.JsonReader)
+     */
+    @Override
+    public Object read(final JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+
+      final IntList values = new IntList();
+
+      in.beginArray();
+
+      while (in.hasNext()) {
+        checkElement(in, "int");
+
+        try {
+          values.addInt(in.nextInt());
+        } catch (NumberFormatException exception) {
+          throw new JsonSyntaxException(exception);
+        }
+      }
+
+      in.endArray();
+      return array ? values.toIntArray() : values;
+    }
+
+    /**
+     * @see com.google.gson.TypeAdapter#write(com.google.gson.stream.JsonWriter,
+     *      java.lang.Object)
+     */
+    @Override
+    public void write(final JsonWriter out, final Object value) throws IOException {
+      if (null == value) {
+        out.nullValue();
+        return;
+      }
+
+      out.beginArray();
+
+      if (array) {
+        for (final int element : (int[]) value) {
+          out.value(element);
+        }
+      } else {
+        final IntList list = (IntList) value;
+
+        for (int i = 0; i < list.size(); i++) {
+          out.value(list.getInt(i));
+        }
+      }
+
+      out.endArray();
+    }
+  }
+
+  /**
+   * Adapter of {@code long[]} and {@link LongList}.
+   */
+  private static final class LongAdapter extends TypeAdapter<Object> {
+
+    /** Indicates the adapted type is the array. */
+    private final boolean array;
+
+    /**
+     * Instantiates a new long adapter.
+     *
+     * @param array true for the array type
+     */
+    LongAdapter(final boolean array) {
+      this.array = array;
+    }
+
+    /**
+     * @see com.google.gson.TypeAdapter#read(com.google.gson.stream.JsonReader)
+     */
+    @Override
+    public Object read(final JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+
+      final LongList values = new LongList();
+
+      in.beginArray();
+
+      while (in.hasNext()) {
+        checkElement(in, "long");
+
+        try {
+          values.addLong(in.nextLong());
+        } catch (NumberFormatException exception) {
+          throw new JsonSyntaxException(exception);
+        }
+      }
+
+      in.endArray();
+      return array ? values.toLongArray() : values;
+    }
+
+    /**
+     * @see com.google.gson.TypeAdapter#write(com.google.gson.stream.JsonWriter,
+     *      java.lang.Object)
+     */
+    @Override
+    public void write(final JsonWriter out, final Object value) throws IOException {
+      if (null == value) {
+        out.nullValue();
+        return;
+      }
+
+      out.beginArray();
+
+      if (array) {
+        for (final long element : (long[]) value) {
+          out.value(element);
+        }
+      } else {
+        final LongList list = (LongList) value;
+
+        for (int i = 0; i < list.size(); i++) {
+          out.value(list.getLong(i));
+        }
+      }
+
+      out.endArray();
+    }
+  }
+
+  /**
+   * Adapter of {@code double[]} and {@link DoubleList}.
+   */
+  private static final class DoubleAdapter extends TypeAdapter<Object> {
+
+    /** Indicates the adapted type is the array. */
+    private final boolean array;
+
+    /** Indicates NaN and infinities are left to the writer instead of being rejected. */
+    private final boolean specialValues;
+
+    /**
+     * Instantiates a new double adapter.
+     *
+     * @param array true for the array type
+     * @param specialValues true to write NaN and infinities when the writer accepts them
+     */
+    DoubleAdapter(final boolean array, final boolean specialValues) {
+      this.array = array;
+      this.specialValues = specialValues;
+    }
+
+    /**
+     * @see com.google.gson.TypeAdapter#read(com.google.gson.stream.JsonReader)
+     */
+    @Override
+    public Object read(final JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+
+      final DoubleList values = new DoubleList();
+
+      in.beginArray();
+
+      while (in.hasNext()) {
+        checkElement(in, "double");
+
+        try {
+          values.addDouble(in.nextDouble());
+        } catch (NumberFormatException exception) {
+          throw new JsonSyntaxException(exception);
+        }
+      }
+
+      in.endArray();
+      return array ? values.toDoubleArray() : values;
+    }
+
+    /**
+     * @see com.google.gson.TypeAdapter#write(com.google.gson.stream.JsonWriter,
+     *      java.lang.Object)
+     */
+    @Override
+    public void write(final JsonWriter out, final Object value) throws IOException {
+      if (null == value) {
+        out.nullValue();
+        return;
+      }
+
+      out.beginArray();
+
+      if (array) {
+        for (final double element : (double[]) value) {
+          write(out, element);
+        }
+      } else {
+        final DoubleList list = (DoubleList) value;
+
+        for (int i = 0; i < list.size(); i++) {
+          write(out, list.getDouble(i));
+        }
+      }
+
+      out.endArray();
+    }
+
+    /**
+     * Write a single value, rejecting NaN and infinities as Gson does by default. When special
+     * values are allowed they are written as a {@code Number}, which a lenient writer accepts;
+     * {@link JsonWriter#value(double)} would reject them regardless.
+     *
+     * @param out the writer
+     * @param value the value
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    private void write(final JsonWriter out, final double value) throws IOException {
+      if (!Double.isNaN(value) && !Double.isInfinite(value)) {
+        out.value(value);
+      } else if (specialValues) {
+        out.value(Double.valueOf(value));
+      } else {
+        throw new IllegalArgumentException(value
+            + " is not a valid double value as per JSON specification.");
+      }
+    }
+  }
+}
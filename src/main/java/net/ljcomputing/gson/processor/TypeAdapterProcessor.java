@@ -0,0 +1,717 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.MirroredTypesException;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.type.WildcardType;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+
+import net.ljcomputing.gson.adapter.GeneratedTypeAdapterFactory;
+import net.ljcomputing.gson.annotation.ExcludeFromJson;
+import net.ljcomputing.gson.annotation.GenerateTypeAdapter;
+
+/**
+ * Annotation processor generating a hand-rolled Gson type adapter for every class annotated with
+ * {@link GenerateTypeAdapter}.
+ *
+ * <p>
+ * The generated adapter follows the field rules of Gson's reflective adapter under the baseline
+ * configuration of {@code GsonFactory}: subclass fields first, static and transient fields
+ * skipped, {@code SerializedName} honored. Field naming policies, extra exclusion strategies,
+ * {@code Expose} and {@code Since} are builder settings unknown at compile time and are not
+ * applied; {@code GsonConfiguration} leaves generated adapters out when a
+ * {@code GsonBuilderCustomizer} could set them. Fields annotated with {@link ExcludeFromJson} for
+ * every view are left out at compile time. Fields are read and written directly when visible from
+ * the model's package, otherwise through their getter and setter. Field types are resolved against
+ * the model, so fields inherited from a generic superclass get the model's type arguments.
+ * Booleans, integral numbers and strings are coded inline; other types are delegated to the
+ * adapter Gson provides for them.
+ * </p>
+ *
+ * <p>
+ * A model must be a concrete, non-generic, top-level or static nested class with a non-private
+ * no-argument constructor; anything else is reported as a compile error.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+@SupportedAnnotationTypes("net.ljcomputing.gson.annotation.GenerateTypeAdapter")
+public class TypeAdapterProcessor extends AbstractProcessor {
+
+  /** The Gson serialized name annotation. */
+  private static final String SERIALIZED_NAME = "com.google.gson.annotations.SerializedName";
+
+  /** The generated code annotations, the first one found on the compiler's platform is used. */
+  private static final String[] GENERATED =
+      { "javax.annotation.processing.Generated", "javax.annotation.Generated" };
+
+  /**
+   * @see javax.annotation.processing.AbstractProcessor#getSupportedSourceVersion()
+   */
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  /**
+   * @see javax.annotation.processing.AbstractProcessor#process(java.util.Set,
+   *      javax.annotation.processing.RoundEnvironment)
+   */
+  @Override
+  public boolean process(final Set<? extends TypeElement> annotations,
+      final RoundEnvironment roundEnv) {
+    for (final Element element : roundEnv.getElementsAnnotatedWith(GenerateTypeAdapter.class)) {
+      if (element.getKind() != ElementKind.CLASS) {
+        error(element, "@GenerateTypeAdapter only applies to classes");
+        continue;
+      }
+
+      final TypeElement model = (TypeElement) element;
+
+      if (isValidModel(model)) {
+        final List<Property> properties = collectProperties(model);
+
+        if (null != properties) {
+          generate(model, properties);
+        }
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * Check the model can have a generated adapter.
+   *
+   * @param model the model
+   * @return true, if valid
+   */
+  private boolean isValidModel(final TypeElement model) {
+    if (model.getModifiers().contains(Modifier.ABSTRACT)) {
+      error(model, "@GenerateTypeAdapter models must not be abstract");
+      return false;
+    }
+
+    if (!model.getTypeParameters().isEmpty()) {
+      error(model, "@GenerateTypeAdapter models must not be generic");
+      return false;
+    }
+
+    for (Element type = model; type instanceof TypeElement; type = type.getEnclosingElement()) {
+      if (type.getModifiers().contains(Modifier.PRIVATE)) {
+        error(model, "@GenerateTypeAdapter models must not be private");
+        return false;
+      }
+
+      if (((TypeElement) type).getNestingKind() == NestingKind.MEMBER
+          && !type.getModifiers().contains(Modifier.STATIC)) {
+        error(model, "@GenerateTypeAdapter nested models must be static");
+        return false;
+      }
+    }
+
+    for (final ExecutableElement constructor : ElementFilter
+        .constructorsIn(model.getEnclosedElements())) {
+      if (constructor.getParameters().isEmpty()
+          && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+        return true;
+      }
+    }
+
+    error(model, "@GenerateTypeAdapter models need a non-private no-argument constructor");
+    return false;
+  }
+
+  /**
+   * Collect the serialized properties of the model and its superclasses.
+   *
+   * @param model the model
+   * @return the properties, or null if one of them cannot be accessed
+   */
+  private List<Property> collectProperties(final TypeElement model) {
+    final List<Property> properties = new ArrayList<>();
+    final Set<String> names = new HashSet<>();
+    final List<ExecutableElement> methods =
+        ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(model));
+    final PackageElement modelPackage = processingEnv.getElementUtils().getPackageOf(model);
+    boolean valid = true;
+    TypeElement type = model;
+
+    while (null != type && !type.getQualifiedName().contentEquals("java.lang.Object")) {
+      for (final VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+        final Set<Modifier> modifiers = field.getModifiers();
+
+        if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)
+            || isExcluded(field)) {
+          continue;
+        }
+
+        final TypeMirror fieldType =
+            processingEnv.getTypeUtils().asMemberOf((DeclaredType) model.asType(), field);
+
+        if (hasTypeVariable(fieldType)) {
+          error(field, "Field " + field.getSimpleName() + " of " + model.getQualifiedName()
+              + " has the unresolved type " + fieldType);
+          valid = false;
+          continue;
+        }
+
+        final Property property = new Property(field, fieldType, serializedName(field));
+
+        if (!names.add(property.jsonName)) {
+          error(field, model.getQualifiedName() + " declares multiple JSON fields named "
+              + property.jsonName);
+          valid = false;
+          continue;
+        }
+
+        final boolean visible = isVisible(field, modelPackage);
+        final String fieldName = field.getSimpleName().toString();
+
+        if (visible) {
+          property.getter = "value." + fieldName;
+        } else {
+          final ExecutableElement getter = findGetter(methods, field, modelPackage);
+          property.getter = null == getter ? null : "value." + getter.getSimpleName() + "()";
+        }
+
+        if (visible && !modifiers.contains(Modifier.FINAL)) {
+          property.setter = "value." + fieldName + " = %s";
+        } else {
+          final ExecutableElement setter = findSetter(methods, field, modelPackage);
+          property.setter = null == setter ? null : "value." + setter.getSimpleName() + "(%s)";
+        }
+
+        if (null == property.getter || null == property.setter) {
+          error(field, "Field " + fieldName + " of " + model.getQualifiedName()
+              + " is not accessible to the generated adapter: make it visible and non-final,"
+              + " add a getter and setter, or exclude it");
+          valid = false;
+          continue;
+        }
+
+        properties.add(property);
+      }
+
+      type = (TypeElement) processingEnv.getTypeUtils().asElement(type.getSuperclass());
+    }
+
+    return valid ? properties : null;
+  }
+
+  /**
+   * Check whether a type still refers to a type variable.
+   *
+   * @param type the type
+   * @return true, if a type variable is left
+   */
+  private static boolean hasTypeVariable(final TypeMirror type) {
+    switch (type.getKind()) {
+      case TYPEVAR:
+        return true;
+      case ARRAY:
+        return hasTypeVariable(((ArrayType) type).getComponentType());
+      case WILDCARD:
+        final WildcardType wildcard = (WildcardType) type;
+
+        return null != wildcard.getExtendsBound() && hasTypeVariable(wildcard.getExtendsBound())
+            || null != wildcard.getSuperBound() && hasTypeVariable(wildcard.getSuperBound());
+      case DECLARED:
+        for (final TypeMirror argument : ((DeclaredType) type).getTypeArguments()) {
+          if (hasTypeVariable(argument)) {
+            return true;
+          }
+        }
+
+        return false;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Check a field is excluded from every view. Fields excluded from specific views only are
+   * generated; the views themselves are served by reflection.
+   *
+   * @param field the field
+   * @return true, if excluded
+   */
+  private static boolean isExcluded(final VariableElement field) {
+    final ExcludeFromJson annotation = field.getAnnotation(ExcludeFromJson.class);
+
+    if (null == annotation) {
+      return false;
+    }
+
+    try {
+      return 0 == annotation.views().length;
+    } catch (MirroredTypesException exception) {
+      return exception.getTypeMirrors().isEmpty();
+    }
+  }
+
+  /**
+   * Get the JSON name of a field: its {@code SerializedName} value, or the field name.
+   *
+   * @param field the field
+   * @return the JSON name
+   */
+  private static String serializedName(final VariableElement field) {
+    for (final AnnotationMirror annotation : field.getAnnotationMirrors()) {
+      if (((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName()
+          .contentEquals(SERIALIZED_NAME)) {
+        for (final AnnotationValue value : annotation.getElementValues().values()) {
+          return value.getValue().toString();
+        }
+      }
+    }
+
+    return field.getSimpleName().toString();
+  }
+
+  /**
+   * Check an element is visible from the given package.
+   *
+   * @param element the element
+   * @param from the package
+   * @return true, if visible
+   */
+  private boolean isVisible(final Element element, final PackageElement from) {
+    final Set<Modifier> modifiers = element.getModifiers();
+
+    if (modifiers.contains(Modifier.PUBLIC)) {
+      return true;
+    }
+
+    return !modifiers.contains(Modifier.PRIVATE)
+        && processingEnv.getElementUtils().getPackageOf(element).equals(from);
+  }
+
+  /**
+   * Find the visible getter of a field.
+   *
+   * @param methods the methods
+   * @param field the field
+   * @param from the package
+   * @return the getter, or null
+   */
+  private ExecutableElement findGetter(final List<ExecutableElement> methods,
+      final VariableElement field, final PackageElement from) {
+    final String suffix = capitalize(field.getSimpleName().toString());
+
+    for (final ExecutableElement method : methods) {
+      final String name = method.getSimpleName().toString();
+      final boolean named = ("get" + suffix).equals(name)
+          || field.asType().getKind() == TypeKind.BOOLEAN && ("is" + suffix).equals(name);
+
+      if (named && method.getParameters().isEmpty() && isVisible(method, from)
+          && processingEnv.getTypeUtils().isSameType(method.getReturnType(), field.asType())) {
+        return method;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Find the visible setter of a field.
+   *
+   * @param methods the methods
+   * @param field the field
+   * @param from the package
+   * @return the setter, or null
+   */
+  private ExecutableElement findSetter(final List<ExecutableElement> methods,
+      final VariableElement field, final PackageElement from) {
+    final String name = "set" + capitalize(field.getSimpleName().toString());
+
+    for (final ExecutableElement method : methods) {
+      if (method.getSimpleName().contentEquals(name) && 1 == method.getParameters().size()
+          && isVisible(method, from) && processingEnv.getTypeUtils()
+              .isSameType(method.getParameters().get(0).asType(), field.asType())) {
+        return method;
+      }
+    }
+
+    return null;
+  }
+
+  /**
+   * Capitalize a name.
+   *
+   * @param name the name
+   * @return the capitalized name
+   */
+  private static String capitalize(final String name) {
+    return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+  }
+
+  /**
+   * Write the adapter source.
+   *
+   * @param model the model
+   * @param properties the properties
+   */
+  private void generate(final TypeElement model, final List<Property> properties) {
+    final String packageName =
+        processingEnv.getElementUtils().getPackageOf(model).getQualifiedName().toString();
+    final String modelName = model.getQualifiedName().toString();
+    final String adapterName = flatName(model) + GeneratedTypeAdapterFactory.SUFFIX;
+    final StringBuilder source = new StringBuilder(4096);
+
+    if (!packageName.isEmpty()) {
+      source.append("package ").append(packageName).append(";\n\n");
+    }
+
+    for (final String generated : GENERATED) {
+      if (null != processingEnv.getElementUtils().getTypeElement(generated)) {
+        source.append('@').append(generated).append("(\"").append(getClass().getName())
+            .append("\")\n");
+        break;
+      }
+    }
+
+    source.append("public final class ").append(adapterName)
+        .append(" extends com.google.gson.TypeAdapter<").append(modelName).append("> {\n\n")
+        .append("  private final com.google.gson.Gson gson;\n");
+
+    for (int i = 0; i < properties.size(); i++) {
+      final Property property = properties.get(i);
+
+      if (property.isDelegated()) {
+        source.append("  private final com.google.gson.TypeAdapter<")
+            .append(property.boxedType()).append("> adapter").append(i).append(";\n");
+      }
+    }
+
+    source.append("\n  public ").append(adapterName)
+        .append("(final com.google.gson.Gson gson) {\n").append("    this.gson = gson;\n");
+
+    for (int i = 0; i < properties.size(); i++) {
+      final Property property = properties.get(i);
+
+      if (property.isDelegated()) {
+        source.append("    this.adapter").append(i).append(" = gson.getAdapter(")
+            .append(property.typeLiteral()).append(");\n");
+      }
+    }
+
+    source.append("  }\n\n")
+        .append("  @Override\n")
+        .append("  public void write(final com.google.gson.stream.JsonWriter out, final ")
+        .append(modelName).append(" value) throws java.io.IOException {\n")
+        .append("    if (null == value) {\n")
+        .append("      out.nullValue();\n")
+        .append("      return;\n")
+        .append("    }\n\n")
+        .append("    out.beginObject();\n");
+
+    for (int i = 0; i < properties.size(); i++) {
+      final Property property = properties.get(i);
+
+      source.append("    out.name(\"").append(escape(property.jsonName)).append("\");\n")
+          .append("    ").append(property.writeStatement(i)).append(";\n");
+    }
+
+    source.append("    out.endObject();\n")
+        .append("  }\n\n")
+        .append("  @Override\n")
+        .append("  public ").append(modelName)
+        .append(" read(final com.google.gson.stream.JsonReader in) throws java.io.IOException {\n")
+        .append("    if (in.peek() == com.google.gson.stream.JsonToken.NULL) {\n")
+        .append("      in.nextNull();\n")
+        .append("      return null;\n")
+        .append("    }\n\n")
+        .append("    final ").append(modelName).append(" value = new ").append(modelName)
+        .append("();\n")
+        .append("    in.beginObject();\n\n")
+        .append("    while (in.hasNext()) {\n")
+        .append("      switch (in.nextName()) {\n");
+
+    for (int i = 0; i < properties.size(); i++) {
+      final Property property = properties.get(i);
+
+      source.append("        case \"").append(escape(property.jsonName)).append("\":\n");
+
+      if (property.isPrimitive()) {
+        // like Gson, a null leaves a primitive field at its default
+        source.append("          if (in.peek() == com.google.gson.stream.JsonToken.NULL) {\n")
+            .append("            in.nextNull();\n")
+            .append("          } else {\n")
+            .append("            ").append(property.readStatement(i)).append(";\n")
+            .append("          }\n");
+      } else {
+        source.append("          ").append(property.readStatement(i)).append(";\n");
+      }
+
+      source.append("          break;\n");
+    }
+
+    source.append("        default:\n")
+        .append("          in.skipValue();\n")
+        .append("      }\n")
+        .append("    }\n\n")
+        .append("    in.endObject();\n")
+        .append("    return value;\n")
+        .append("  }\n")
+        .append("}\n");
+
+    final String qualifiedAdapterName =
+        packageName.isEmpty() ? adapterName : packageName + "." + adapterName;
+
+    try (final Writer writer =
+        processingEnv.getFiler().createSourceFile(qualifiedAdapterName, model).openWriter()) {
+      writer.write(source.toString());
+    } catch (IOException exception) {
+      error(model, "Could not write " + qualifiedAdapterName + ": " + exception.getMessage());
+    }
+  }
+
+  /**
+   * Get the model's name within its package, nested names joined by an underscore.
+   *
+   * @param model the model
+   * @return the flat name
+   */
+  private static String flatName(final TypeElement model) {
+    final Element enclosing = model.getEnclosingElement();
+
+    if (enclosing instanceof TypeElement) {
+      return flatName((TypeElement) enclosing) + "_" + model.getSimpleName();
+    }
+
+    return model.getSimpleName().toString();
+  }
+
+  /**
+   * Escape a string for a Java string literal.
+   *
+   * @param value the value
+   * @return the escaped value
+   */
+  private static String escape(final String value) {
+    return value.replace("\\", "\\\\").replace("\"", "\\\"");
+  }
+
+  /**
+   * Report an error.
+   *
+   * @param element the element
+   * @param message the message
+   */
+  private void error(final Element element, final String message) {
+    processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+  }
+
+  /**
+   * A serialized property of a model.
+   */
+  private final class Property {
+
+    /** The field. */
+    private final VariableElement field;
+
+    /** The field type, as a member of the model. */
+    private final TypeMirror type;
+
+    /** The JSON name. */
+    private final String jsonName;
+
+    /** The expression reading the property from {@code value}. */
+    private String getter;
+
+    /** The statement format assigning the property of {@code value}. */
+    private String setter;
+
+    /**
+     * Instantiates a new property.
+     *
+     * @param field the field
+     * @param type the field type, as a member of the model
+     * @param jsonName the JSON name
+     */
+    private Property(final VariableElement field, final TypeMirror type,
+        final String jsonName) {
+      this.field = field;
+      this.type = type;
+      this.jsonName = jsonName;
+    }
+
+    /**
+     * Check whether the property is a primitive.
+     *
+     * @return true, if primitive
+     */
+    private boolean isPrimitive() {
+      return type.getKind().isPrimitive();
+    }
+
+    /**
+     * Check whether the property is coded by a Gson adapter rather than inline. Floating point
+     * numbers are delegated so Gson's special floating point value setting applies.
+     *
+     * @return true, if delegated
+     */
+    private boolean isDelegated() {
+      switch (type.getKind()) {
+        case BOOLEAN:
+        case BYTE:
+        case SHORT:
+        case INT:
+        case LONG:
+          return false;
+        default:
+          return !isString();
+      }
+    }
+
+    /**
+     * Check whether the property is a string.
+     *
+     * @return true, if string
+     */
+    private boolean isString() {
+      return type.toString().equals("java.lang.String");
+    }
+
+    /**
+     * Check whether the property type is a class whose values may be of a more specific runtime
+     * type, the case in which Gson looks up the runtime type's adapter.
+     *
+     * @return true, if the runtime type must be checked
+     */
+    private boolean isPolymorphic() {
+      return type.getKind() == TypeKind.DECLARED && ((DeclaredType) type).getTypeArguments()
+          .isEmpty() && !((DeclaredType) type).asElement().getModifiers().contains(Modifier.FINAL)
+          && ((DeclaredType) type).asElement().getKind() != ElementKind.ENUM;
+    }
+
+    /**
+     * Get the property type, boxed if primitive.
+     *
+     * @return the type name
+     */
+    private String boxedType() {
+      if (type.getKind().isPrimitive()) {
+        return processingEnv.getTypeUtils()
+            .boxedClass(processingEnv.getTypeUtils().getPrimitiveType(type.getKind()))
+            .getQualifiedName().toString();
+      }
+
+      return type.toString();
+    }
+
+    /**
+     * Get the expression used to look up the property's Gson adapter.
+     *
+     * @return the expression
+     */
+    private String typeLiteral() {
+      if (type.getKind().isPrimitive()) {
+        return type.toString() + ".class";
+      }
+
+      if (processingEnv.getTypeUtils().isSameType(type,
+          processingEnv.getTypeUtils().erasure(type))) {
+        return type.toString() + ".class";
+      }
+
+      return "new com.google.gson.reflect.TypeToken<" + type + ">() {}";
+    }
+
+    /**
+     * Get the statement writing the property.
+     *
+     * @param index the property index
+     * @return the statement
+     */
+    private String writeStatement(final int index) {
+      if (!isDelegated()) {
+        return "out.value(" + getter + ")";
+      }
+
+      if (isPolymorphic()) {
+        return "net.ljcomputing.gson.adapter.JsonValues.writeRuntime(gson, adapter" + index
+            + ", " + boxedType() + ".class, out, " + getter + ")";
+      }
+
+      return "adapter" + index + ".write(out, " + getter + ")";
+    }
+
+    /**
+     * Get the statement reading the property.
+     *
+     * @param index the property index
+     * @return the statement
+     */
+    private String readStatement(final int index) {
+      final String values = "net.ljcomputing.gson.adapter.JsonValues.";
+      final String read;
+
+      switch (type.getKind()) {
+        case BOOLEAN:
+          read = values + "readBoolean(in)";
+          break;
+        case BYTE:
+          read = "(byte) " + values + "readInt(in)";
+          break;
+        case SHORT:
+          read = "(short) " + values + "readInt(in)";
+          break;
+        case INT:
+          read = values + "readInt(in)";
+          break;
+        case LONG:
+          read = values + "readLong(in)";
+          break;
+        default:
+          read = isString() ? values + "readString(in)" : "adapter" + index + ".read(in)";
+          break;
+      }
+
+      return String.format(setter, read);
+    }
+  }
+}
@@ -0,0 +1,139 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.projection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Tree of the field paths selected by a projection, such as {@code id} and
+ * {@code customer.name}.
+ *
+ * <p>
+ * Each node maps the JSON names selected at its level to their own projection. A node selecting
+ * a whole value, because its path ends there, has no children. Selecting a field and one of its
+ * descendants, as {@code customer} and {@code customer.name}, selects the whole field.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public final class FieldProjection {
+
+  /** The projection selecting a whole value. */
+  private static final FieldProjection WHOLE = new FieldProjection(null);
+
+  /** The selected names and their projections, or null when the whole value is selected. */
+  private final Map<String, FieldProjection> children;
+
+  /**
+   * Instantiates a new field projection.
+   *
+   * @param children the children, or null for the whole value
+   */
+  private FieldProjection(final Map<String, FieldProjection> children) {
+    this.children = null == children ? null : Collections.unmodifiableMap(children);
+  }
+
+  /**
+   * Parse the given dot separated field paths.
+   *
+   * @param fieldPaths the field paths
+   * @return the field projection
+   * @throws IllegalArgumentException if a path is null, empty or has an empty segment
+   */
+  public static FieldProjection of(final Collection<String> fieldPaths) {
+    final Map<String, List<String>> descendants = new LinkedHashMap<>();
+    final Set<String> whole = new HashSet<>();
+
+    for (final String path : fieldPaths) {
+      final int dot = null == path ? -1 : path.indexOf('.');
+
+      if (null == path || path.isEmpty() || 0 == dot || path.length() - 1 == dot) {
+        throw new IllegalArgumentException("Invalid field path '" + path + "'");
+      }
+
+      final String name = dot < 0 ? path : path.substring(0, dot);
+      final List<String> rest = descendants.computeIfAbsent(name, key -> new ArrayList<>());
+
+      if (dot < 0) {
+        whole.add(name);
+      } else {
+        rest.add(path.substring(dot + 1));
+      }
+    }
+
+    final Map<String, FieldProjection> children = new LinkedHashMap<>();
+
+    for (final Map.Entry<String, List<String>> entry : descendants.entrySet()) {
+      children.put(entry.getKey(),
+          whole.contains(entry.getKey()) ? WHOLE : of(entry.getValue()));
+    }
+
+    return new FieldProjection(children);
+  }
+
+  /**
+   * Checks if the whole value is selected.
+   *
+   * @return true, if the whole value is selected
+   */
+  public boolean isWhole() {
+    return null == children;
+  }
+
+  /**
+   * Gets the selected names and their projections; empty when the whole value is selected.
+   *
+   * @return the children
+   */
+  public Map<String, FieldProjection> getChildren() {
+    return null == children ? Collections.<String, FieldProjection>emptyMap() : children;
+  }
+
+  /**
+   * @see java.lang.Object#hashCode()
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hashCode(children);
+  }
+
+  /**
+   * @see java.lang.Object#equals(java.lang.Object)
+   */
+  @Override
+  public boolean equals(final Object obj) {
+    return this == obj || obj instanceof FieldProjection
+        && Objects.equals(children, ((FieldProjection) obj).children);
+  }
+
+  /**
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    return null == children ? "*" : children.toString();
+  }
+}
@@ -0,0 +1,645 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.projection;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.google.gson.Gson;
+import com.google.gson.InstanceCreator;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.internal.$Gson$Types;
+import com.google.gson.internal.ConstructorConstructor;
+import com.google.gson.internal.ObjectConstructor;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import com.google.gson.stream.MalformedJsonException;
+
+import net.ljcomputing.gson.reflect.ClassModel;
+import net.ljcomputing.gson.reflect.FieldAccessor;
+
+/**
+ * Decodes only the selected field paths of a document, discarding every other value with
+ * {@link JsonReader#skipValue()} instead of binding it.
+ *
+ * <p>
+ * A projection adapter is built once per (type, path set) and cached; as path sets usually come
+ * from requests, the cache keeps only the most recently used adapters, up to a bound. Beans are walked through
+ * their {@link ClassModel}, so a path segment is a field's JSON name and excluded fields cannot
+ * be selected; collections and arrays apply the projection to each element, and maps select
+ * entries by key. Values selected as a whole are read by the Gson instance's own adapters.
+ * Projection adapters only read; writing delegates to Gson.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public class FieldProjector {
+
+  /** The default number of cached projection adapters. */
+  public static final int DEFAULT_MAX_ADAPTERS = 256;
+
+  /** The Gson instance, providing the adapters of values read as a whole. */
+  private final Gson gson;
+
+  /** The constructors of projected beans and containers. */
+  private final ConstructorConstructor constructors =
+      new ConstructorConstructor(Collections.<Type, InstanceCreator<?>>emptyMap());
+
+  /** The cached projection adapters, least recently used first. */
+  private final AdapterCache adapters;
+
+  /**
+   * Instantiates a new field projector caching up to {@value #DEFAULT_MAX_ADAPTERS} adapters.
+   *
+   * @param gson the gson
+   */
+  public FieldProjector(final Gson gson) {
+    this(gson, DEFAULT_MAX_ADAPTERS);
+  }
+
+  /**
+   * Instantiates a new field projector caching up to the given number of adapters.
+   *
+   * @param gson the gson
+   * @param maxAdapters the number of cached adapters, 0 to build one on every call
+   */
+  public FieldProjector(final Gson gson, final int maxAdapters) {
+    this.gson = gson;
+    this.adapters = new AdapterCache(Math.max(maxAdapters, 0));
+  }
+
+  /**
+   * Read a value of the given type from the given reader, materializing only the given field
+   * paths. An empty document reads as null.
+   *
+   * @param <T> the generic type
+   * @param reader the reader, positioned before the value
+   * @param type the type
+   * @param fieldPaths the dot separated field paths
+   * @return the value
+   */
+  public <T> T read(final JsonReader reader, final Type type, final Collection<String> fieldPaths) {
+    final TypeAdapter<T> adapter = getAdapter(type, fieldPaths);
+
+    try {
+      reader.peek();
+    } catch (EOFException exception) {
+      return null;
+    } catch (MalformedJsonException exception) {
+      throw new JsonSyntaxException(exception);
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    }
+
+    try {
+      final T result = adapter.read(reader);
+
+      if (reader.peek() != JsonToken.END_DOCUMENT) {
+        throw new JsonIOException("JSON document was not fully consumed.");
+      }
+
+      return result;
+    } catch (MalformedJsonException | IllegalStateException | NumberFormatException exception) {
+      throw new JsonSyntaxException(exception);
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    }
+  }
+
+  /**
+   * Gets the projection adapter for the given type and field paths, building it on first use.
+   *
+   * @param <T> the generic type
+   * @param type the type
+   * @param fieldPaths the dot separated field paths
+   * @return the type adapter
+   * @throws IllegalArgumentException if a path is invalid or names an unknown field
+   */
+  @SuppressWarnings("unchecked")
+  public <T> TypeAdapter<T> getAdapter(final Type type, final Collection<String> fieldPaths) {
+    final String[] paths = fieldPaths.toArray(new String[fieldPaths.size()]);
+    Arrays.sort(paths);
+
+    final Key key = new Key(TypeToken.get(type), paths);
+    TypeAdapter<?> adapter = adapters.find(key);
+
+    if (null == adapter) {
+      // built outside the lock, a concurrent miss may build the adapter twice
+      adapter = adapters.add(key, create(key.type, FieldProjection.of(Arrays.asList(paths))));
+    }
+
+    return (TypeAdapter<T>) adapter;
+  }
+
+  /**
+   * Gets the number of cached projection adapters.
+   *
+   * @return the size
+   */
+  public int size() {
+    synchronized (adapters) {
+      return adapters.size();
+    }
+  }
+
+  /**
+   * Create the adapter reading the given projection of the given type.
+   *
+   * @param type the type
+   * @param projection the projection
+   * @return the type adapter
+   */
+  private TypeAdapter<?> create(final TypeToken<?> type, final FieldProjection projection) {
+    final Class<?> rawType = type.getRawType();
+
+    if (projection.isWhole()) {
+      return gson.getAdapter(type);
+    }
+
+    if (rawType.isArray()) {
+      final Type componentType = $Gson$Types.getArrayComponentType(type.getType());
+      return new ArrayAdapter(type,
+          create(TypeToken.get(componentType), projection),
+          TypeToken.get(componentType).getRawType());
+    }
+
+    if (Collection.class.isAssignableFrom(rawType)) {
+      final Type elementType =
+          $Gson$Types.getCollectionElementType(type.getType(), rawType);
+      return new CollectionAdapter(type, create(TypeToken.get(elementType), projection));
+    }
+
+    if (Map.class.isAssignableFrom(rawType)) {
+      return createMapAdapter(type, projection);
+    }
+
+    if (ClassModel.isBean(rawType)) {
+      return createBeanAdapter(type, projection);
+    }
+
+    // a scalar cannot be projected any further
+    return gson.getAdapter(type);
+  }
+
+  /**
+   * Create the adapter reading the selected fields of a bean.
+   *
+   * @param type the type
+   * @param projection the projection
+   * @return the type adapter
+   */
+  private TypeAdapter<?> createBeanAdapter(final TypeToken<?> type,
+      final FieldProjection projection) {
+    final ClassModel model = ClassModel.of(type.getRawType());
+    final Map<String, BoundField> fields = new HashMap<>();
+
+    for (final Map.Entry<String, FieldProjection> entry : projection.getChildren().entrySet()) {
+      final FieldAccessor field = model.findJsonField(entry.getKey());
+
+      if (null == field) {
+        throw new IllegalArgumentException(
+            "Unknown field '" + entry.getKey() + "' in " + type.getRawType().getName());
+      }
+
+      final Type fieldType =
+          $Gson$Types.resolve(type.getType(), type.getRawType(), field.getGenericType());
+      fields.put(entry.getKey(),
+          new BoundField(field, create(TypeToken.get(fieldType), entry.getValue())));
+    }
+
+    return new BeanAdapter(type, fields);
+  }
+
+  /**
+   * Create the adapter reading the selected entries of a map.
+   *
+   * @param type the type
+   * @param projection the projection
+   * @return the type adapter
+   */
+  private TypeAdapter<?> createMapAdapter(final TypeToken<?> type,
+      final FieldProjection projection) {
+    final Type[] keyAndValue =
+        $Gson$Types.getMapKeyAndValueTypes(type.getType(), type.getRawType());
+    final TypeAdapter<?> keyAdapter =
+        String.class == keyAndValue[0] || Object.class == keyAndValue[0] ? null
+            : gson.getAdapter(TypeToken.get(keyAndValue[0]));
+    final Map<String, TypeAdapter<?>> entries = new HashMap<>();
+
+    for (final Map.Entry<String, FieldProjection> entry : projection.getChildren().entrySet()) {
+      entries.put(entry.getKey(), create(TypeToken.get(keyAndValue[1]), entry.getValue()));
+    }
+
+    return new MapAdapter(type, keyAdapter, entries);
+  }
+
+  /**
+   * Base of the projection adapters: null reads as null and writing delegates to Gson.
+   */
+  private abstract class ProjectionAdapter extends TypeAdapter<Object> {
+
+    /** The type. */
+    protected final TypeToken<?> type;
+
+    /**
+     * Instantiates a new projection adapter.
+     *
+     * @param type the type
+     */
+    ProjectionAdapter(final TypeToken<?> type) {
+      this.type = type;
+    }
+
+    /**
+     * @see com.google.gson.TypeAdapter#read(com.google.gson.stream.JsonReader)
+     */
+    @Override
+    public final Object read(final JsonReader in) throws IOException {
+      if (in.peek() == JsonToken.NULL) {
+        in.nextNull();
+        return null;
+      }
+
+      return readProjected(in);
+    }
+
+    /**
+     * Read the selected parts of a non-null value.
+     *
+     * @param in the reader
+     * @return the value
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    protected abstract Object readProjected(JsonReader in) throws IOException;
+
+    /**
+     * @see com.google.gson.TypeAdapter#write(com.google.gson.stream.JsonWriter,
+     *      java.lang.Object)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public final void write(final JsonWriter out, final Object value) throws IOException {
+      ((TypeAdapter<Object>) gson.getAdapter(type)).write(out, value);
+    }
+  }
+
+  /**
+   * Reads the selected fields of a bean.
+   */
+  private final class BeanAdapter extends ProjectionAdapter {
+
+    /** The constructor. */
+    private final ObjectConstructor<?> constructor;
+
+    /** The selected fields by JSON name. */
+    private final Map<String, BoundField> fields;
+
+    /**
+     * Instantiates a new bean adapter.
+     *
+     * @param type the type
+     * @param fields the selected fields
+     */
+    BeanAdapter(final TypeToken<?> type, final Map<String, BoundField> fields) {
+      super(type);
+      this.constructor = constructors.get(type);
+      this.fields = fields;
+    }
+
+    /**
+     * @see net.ljcomputing.gson.projection.FieldProjector.ProjectionAdapter
+     *      #readProjected(com.google.gson.stream.JsonReader)
+     */
+    @Override
+    protected Object readProjected(final JsonReader in) throws IOException {
+      final Object instance = constructor.construct();
+
+      in.beginObject();
+
+      while (in.hasNext()) {
+        final BoundField field = fields.get(in.nextName());
+
+        if (null == field) {
+          in.skipValue();
+        } else {
+          final Object value = field.adapter.read(in);
+
+          // as Gson does, null leaves a primitive field at its default value
+          if (null != value || !field.accessor.getType().isPrimitive()) {
+            field.accessor.set(instance, value);
+          }
+        }
+      }
+
+      in.endObject();
+      return instance;
+    }
+  }
+
+  /**
+   * Reads the selected entries of a map.
+   */
+  private final class MapAdapter extends ProjectionAdapter {
+
+    /** The constructor. */
+    private final ObjectConstructor<?> constructor;
+
+    /** The key adapter, or null for string keys. */
+    private final TypeAdapter<?> keyAdapter;
+
+    /** The selected entries' value adapters by key. */
+    private final Map<String, TypeAdapter<?>> entries;
+
+    /**
+     * Instantiates a new map adapter.
+     *
+     * @param type the type
+     * @param keyAdapter the key adapter, or null for string keys
+     * @param entries the selected entries' value adapters
+     */
+    MapAdapter(final TypeToken<?> type, final TypeAdapter<?> keyAdapter,
+        final Map<String, TypeAdapter<?>> entries) {
+      super(type);
+      this.constructor = constructors.get(type);
+      this.keyAdapter = keyAdapter;
+      this.entries = entries;
+    }
+
+    /**
+     * @see net.ljcomputing.gson.projection.FieldProjector.ProjectionAdapter
+     *      #readProjected(com.google.gson.stream.JsonReader)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Object readProjected(final JsonReader in) throws IOException {
+      final Map<Object, Object> map = (Map<Object, Object>) constructor.construct();
+
+      in.beginObject();
+
+      while (in.hasNext()) {
+        final String name = in.nextName();
+        final TypeAdapter<?> adapter = entries.get(name);
+
+        if (null == adapter) {
+          in.skipValue();
+        } else {
+          map.put(null == keyAdapter ? name : keyAdapter.fromJsonTree(new JsonPrimitive(name)),
+              adapter.read(in));
+        }
+      }
+
+      in.endObject();
+      return map;
+    }
+  }
+
+  /**
+   * Reads every element of a collection through the element projection.
+   */
+  private final class CollectionAdapter extends ProjectionAdapter {
+
+    /** The constructor. */
+    private final ObjectConstructor<?> constructor;
+
+    /** The element adapter. */
+    private final TypeAdapter<?> elementAdapter;
+
+    /**
+     * Instantiates a new collection adapter.
+     *
+     * @param type the type
+     * @param elementAdapter the element adapter
+     */
+    CollectionAdapter(final TypeToken<?> type, final TypeAdapter<?> elementAdapter) {
+      super(type);
+      this.constructor = constructors.get(type);
+      this.elementAdapter = elementAdapter;
+    }
+
+    /**
+     * @see net.ljcomputing.gson.projection.FieldProjector.ProjectionAdapter
+     *      #readProjected(com.google.gson.stream.JsonReader)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Object readProjected(final JsonReader in) throws IOException {
+      final Collection<Object> collection = (Collection<Object>) constructor.construct();
+
+      in.beginArray();
+
+      while (in.hasNext()) {
+        collection.add(elementAdapter.read(in));
+      }
+
+      in.endArray();
+      return collection;
+    }
+  }
+
+  /**
+   * Reads every element of an array through the element projection.
+   */
+  private final class ArrayAdapter extends ProjectionAdapter {
+
+    /** The component adapter. */
+    private final TypeAdapter<?> componentAdapter;
+
+    /** The component type. */
+    private final Class<?> componentType;
+
+    /**
+     * Instantiates a new array adapter.
+     *
+     * @param type the type
+     * @param componentAdapter the component adapter
+     * @param componentType the component type
+     */
+    ArrayAdapter(final TypeToken<?> type, final TypeAdapter<?> componentAdapter,
+        final Class<?> componentType) {
+      super(type);
+      this.componentAdapter = componentAdapter;
+      this.componentType = componentType;
+    }
+
+    /**
+     * @see net.ljcomputing.gson.projection.FieldProjector.ProjectionAdapter
+     *      #readProjected(com.google.gson.stream.JsonReader)
+     */
+    @Override
+    protected Object readProjected(final JsonReader in) throws IOException {
+      final List<Object> elements = new ArrayList<>();
+
+      in.beginArray();
+
+      while (in.hasNext()) {
+        elements.add(componentAdapter.read(in));
+      }
+
+      in.endArray();
+
+      final Object array = Array.newInstance(componentType, elements.size());
+
+      for (int i = 0; i < elements.size(); i++) {
+        Array.set(array, i, elements.get(i));
+      }
+
+      return array;
+    }
+  }
+
+  /**
+   * A selected bean field and the adapter reading its projection.
+   */
+  private static final class BoundField {
+
+    /** The accessor. */
+    private final FieldAccessor accessor;
+
+    /** The adapter. */
+    private final TypeAdapter<?> adapter;
+
+    /**
+     * Instantiates a new bound field.
+     *
+     * @param accessor the accessor
+     * @param adapter the adapter
+     */
+    BoundField(final FieldAccessor accessor, final TypeAdapter<?> adapter) {
+      this.accessor = accessor;
+      this.adapter = adapter;
+    }
+  }
+
+  /**
+   * The cache key.
+   */
+  private static final class Key {
+
+    /** The type. */
+    private final TypeToken<?> type;
+
+    /** The sorted field paths. */
+    private final String[] fieldPaths;
+
+    /** The precomputed hash code. */
+    private final int hash;
+
+    /**
+     * Instantiates a new key.
+     *
+     * @param type the type
+     * @param fieldPaths the sorted field paths
+     */
+    Key(final TypeToken<?> type, final String[] fieldPaths) {
+      this.type = type;
+      this.fieldPaths = fieldPaths;
+      this.hash = 31 * type.hashCode() + Arrays.hashCode(fieldPaths);
+    }
+
+    /**
+     * @see java.lang.Object#hashCode()
+     */
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    /**
+     * @see java.lang.Object#equals(java.lang.Object)
+     */
+    @Override
+    public boolean equals(final Object obj) {
+      if (this == obj) {
+        return true;
+      }
+
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+
+      final Key other = (Key) obj;
+      return type.equals(other.type) && Arrays.equals(fieldPaths, other.fieldPaths);
+    }
+  }
+
+  /**
+   * Access ordered cache of projection adapters, evicting the least recently used ones beyond its
+   * bound. Callers synchronize on the cache.
+   */
+  @SuppressWarnings("serial")
+  private static final class AdapterCache extends LinkedHashMap<Key, TypeAdapter<?>> {
+
+    /** The number of cached adapters. */
+    private final int maxAdapters;
+
+    /**
+     * Instantiates a new adapter cache.
+     *
+     * @param maxAdapters the number of cached adapters
+     */
+    private AdapterCache(final int maxAdapters) {
+      super(16, 0.75f, true);
+      this.maxAdapters = maxAdapters;
+    }
+
+    /**
+     * Find the adapter of the given key, marking it as recently used.
+     *
+     * @param key the key
+     * @return the type adapter, or null if it is not cached
+     */
+    private synchronized TypeAdapter<?> find(final Key key) {
+      return get(key);
+    }
+
+    /**
+     * Add an adapter unless one is already cached for its key.
+     *
+     * @param key the key
+     * @param adapter the type adapter
+     * @return the cached type adapter, or the given one
+     */
+    private synchronized TypeAdapter<?> add(final Key key, final TypeAdapter<?> adapter) {
+      final TypeAdapter<?> existing = putIfAbsent(key, adapter);
+      return null == existing ? adapter : existing;
+    }
+
+    /**
+     * @see java.util.LinkedHashMap#removeEldestEntry(java.util.Map.Entry)
+     */
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<Key, TypeAdapter<?>> eldest) {
+      return size() > maxAdapters;
+    }
+  }
+}
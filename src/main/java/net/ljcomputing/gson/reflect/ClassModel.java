@@ -0,0 +1,221 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.reflect;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.ljcomputing.gson.annotation.ExcludeFromJson;
+import net.ljcomputing.gson.strategy.ExcludeFromJsonAnnotationExclusionStrategy;
+
+/**
+ * Per-class field metadata shared by the merge, patch and diff machinery.
+ *
+ * <p>
+ * A model holds one {@link FieldAccessor} per instance field of the class and its superclasses.
+ * Models are built once per class and cached, so callers should obtain them through
+ * {@link #of(Class)}.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public final class ClassModel {
+
+  /** The SLF4J logger. */
+  private static final Logger LOGGER = LoggerFactory.getLogger(ClassModel.class);
+
+  /** The per-class model cache. */
+  private static final ClassValue<ClassModel> MODELS = new ClassValue<ClassModel>() {
+    @Override
+    protected ClassModel computeValue(final Class<?> type) {
+      return new ClassModel(type);
+    }
+  };
+
+  /** The modeled type. */
+  private final Class<?> type;
+
+  /** All instance fields, most derived class first. */
+  private final List<FieldAccessor> fields;
+
+  /** The instance fields written to JSON. */
+  private final List<FieldAccessor> serializableFields;
+
+  /** The fields by name. */
+  private final Map<String, FieldAccessor> fieldsByName;
+
+  /** The serializable fields by JSON name. */
+  private final Map<String, FieldAccessor> fieldsByJsonName;
+
+  /**
+   * Instantiates a new class model.
+   *
+   * @param type the type
+   */
+  private ClassModel(final Class<?> type) {
+    final List<FieldAccessor> all = new ArrayList<>();
+    final List<FieldAccessor> serializable = new ArrayList<>();
+    final Map<String, FieldAccessor> byName = new HashMap<>();
+    final Map<String, FieldAccessor> byJsonName = new HashMap<>();
+    Class<?> current = type;
+
+    while (null != current && Object.class != current) {
+      for (final Field field : current.getDeclaredFields()) {
+        final FieldAccessor accessor = createAccessor(field);
+
+        if (null != accessor && !byName.containsKey(field.getName())) {
+          byName.put(field.getName(), accessor);
+          all.add(accessor);
+
+          if (!accessor.isExcluded()) {
+            serializable.add(accessor);
+            byJsonName.putIfAbsent(accessor.getJsonName(), accessor);
+          }
+        }
+      }
+
+      current = current.getSuperclass();
+    }
+
+    this.type = type;
+    this.fields = Collections.unmodifiableList(all);
+    this.serializableFields = Collections.unmodifiableList(serializable);
+    this.fieldsByName = Collections.unmodifiableMap(byName);
+    this.fieldsByJsonName = Collections.unmodifiableMap(byJsonName);
+  }
+
+  /**
+   * Gets the model for the given class.
+   *
+   * @param type the type
+   * @return the class model
+   */
+  public static ClassModel of(final Class<?> type) {
+    return MODELS.get(type);
+  }
+
+  /**
+   * Checks if the given type is a bean whose fields should be walked, as opposed to a value type
+   * (primitives, strings, numbers, enums, arrays, collections, maps and JDK classes) that is
+   * handled as a whole.
+   *
+   * @param type the type
+   * @return true, if the type is a bean
+   */
+  public static boolean isBean(final Class<?> type) {
+    if (type.isPrimitive() || type.isArray() || type.isEnum() || type.isInterface()
+        || Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type)) {
+      return false;
+    }
+
+    final String name = type.getName();
+    return !(name.startsWith("java.") || name.startsWith("javax."));
+  }
+
+  /**
+   * Creates the accessor for the given field, or null if the field is not modeled.
+   *
+   * @param field the field
+   * @return the field accessor
+   */
+  private static FieldAccessor createAccessor(final Field field) {
+    final int modifiers = field.getModifiers();
+
+    if (Modifier.isStatic(modifiers) || field.isSynthetic()) {
+      return null;
+    }
+
+    try {
+      field.setAccessible(true);
+      return new FieldAccessor(field, isExcluded(field));
+    } catch (IllegalAccessException | RuntimeException exception) {
+      LOGGER.debug("field {} of {} is not accessible and will not be modeled: {}",
+          field.getName(), field.getDeclaringClass(), exception.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Checks if the field is excluded from JSON, following Gson's default modifier rules and the
+   * {@link ExcludeFromJson} annotation of the default view.
+   *
+   * @param field the field
+   * @return true, if excluded
+   */
+  private static boolean isExcluded(final Field field) {
+    return Modifier.isTransient(field.getModifiers())
+        || ExcludeFromJsonAnnotationExclusionStrategy
+            .isExcluded(field.getAnnotation(ExcludeFromJson.class), null);
+  }
+
+  /**
+   * Gets the modeled type.
+   *
+   * @return the type
+   */
+  public Class<?> getType() {
+    return type;
+  }
+
+  /**
+   * Gets all instance fields, including the ones excluded from JSON.
+   *
+   * @return the fields
+   */
+  public List<FieldAccessor> getFields() {
+    return fields;
+  }
+
+  /**
+   * Gets the fields written to JSON.
+   *
+   * @return the serializable fields
+   */
+  public List<FieldAccessor> getSerializableFields() {
+    return serializableFields;
+  }
+
+  /**
+   * Find the field with the given name, searching the class and its superclasses.
+   *
+   * @param name the name
+   * @return the field accessor, or null if there is no such field
+   */
+  public FieldAccessor findField(final String name) {
+    return fieldsByName.get(name);
+  }
+
+  /**
+   * Find the field written to JSON under the given name, honoring {@code SerializedName}.
+   *
+   * @param jsonName the JSON name
+   * @return the field accessor, or null if no serializable field has that name
+   */
+  public FieldAccessor findJsonField(final String jsonName) {
+    return fieldsByJsonName.get(jsonName);
+  }
+}
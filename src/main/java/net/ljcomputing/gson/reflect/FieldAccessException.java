@@ -0,0 +1,39 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.reflect;
+
+/**
+ * Exception thrown when a pre-resolved field accessor fails to read or write a value.
+ *
+ * @author James G. Willmore
+ *
+ */
+public class FieldAccessException extends RuntimeException {
+
+  /** The serial version UID. */
+  private static final long serialVersionUID = -2514960380526513829L;
+
+  /**
+   * Instantiates a new field access exception.
+   *
+   * @param message the message
+   * @param cause the cause
+   */
+  public FieldAccessException(final String message, final Throwable cause) {
+    super(message, cause);
+  }
+}
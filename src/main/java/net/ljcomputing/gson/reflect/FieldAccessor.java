@@ -0,0 +1,219 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.reflect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * Pre-resolved accessor for a single instance field, backed by method handles.
+ *
+ * <p>
+ * Accessors are created once per field by {@link ClassModel} and reused for every read and
+ * write, so no reflective lookup happens on the hot path.
+ * </p>
+ *
+ * @author James G. Willmore
+ *
+ */
+public final class FieldAccessor {
+
+  /** The lookup used to unreflect fields. */
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  /** The erased getter type. */
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  /** The erased setter type. */
+  private static final MethodType SETTER_TYPE =
+      MethodType.methodType(void.class, Object.class, Object.class);
+
+  /** Handle to Field.set, used for final fields that cannot be unreflected as setters. */
+  private static final MethodHandle FIELD_SET;
+
+  static {
+    try {
+      FIELD_SET = LOOKUP.findVirtual(Field.class, "set", SETTER_TYPE);
+    } catch (NoSuchMethodException | IllegalAccessException exception) {
+      throw new ExceptionInInitializerError(exception);
+    }
+  }
+
+  /** The field. */
+  private final Field field;
+
+  /** The JSON name. */
+  private final String jsonName;
+
+  /** Indicates if the field is excluded from JSON. */
+  private final boolean excluded;
+
+  /** The getter handle, typed (Object)Object. */
+  private final MethodHandle getter;
+
+  /** The setter handle, typed (Object,Object)void. */
+  private final MethodHandle setter;
+
+  /**
+   * Instantiates a new field accessor.
+   *
+   * @param field the field, already made accessible
+   * @param excluded true if the field is excluded from JSON
+   * @throws IllegalAccessException the illegal access exception
+   */
+  FieldAccessor(final Field field, final boolean excluded) throws IllegalAccessException {
+    final SerializedName serializedName = field.getAnnotation(SerializedName.class);
+
+    this.field = field;
+    this.jsonName = null == serializedName ? field.getName() : serializedName.value();
+    this.excluded = excluded;
+    this.getter = LOOKUP.unreflectGetter(field).asType(GETTER_TYPE);
+    this.setter = createSetter(field);
+  }
+
+  /**
+   * Creates the setter handle.
+   *
+   * @param field the field
+   * @return the method handle
+   */
+  private static MethodHandle createSetter(final Field field) {
+    if (!Modifier.isFinal(field.getModifiers())) {
+      try {
+        return LOOKUP.unreflectSetter(field).asType(SETTER_TYPE);
+      } catch (IllegalAccessException exception) {
+        // fall through to the reflective setter
+      }
+    }
+
+    return FIELD_SET.bindTo(field);
+  }
+
+  /**
+   * Gets the field name.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return field.getName();
+  }
+
+  /**
+   * Gets the name the field is written to JSON under: its {@link SerializedName} value, or its
+   * name.
+   *
+   * @return the JSON name
+   */
+  public String getJsonName() {
+    return jsonName;
+  }
+
+  /**
+   * Gets the raw field type.
+   *
+   * @return the type
+   */
+  public Class<?> getType() {
+    return field.getType();
+  }
+
+  /**
+   * Gets the generic field type.
+   *
+   * @return the generic type
+   */
+  public Type getGenericType() {
+    return field.getGenericType();
+  }
+
+  /**
+   * Gets the field.
+   *
+   * @return the field
+   */
+  public Field getField() {
+    return field;
+  }
+
+  /**
+   * Checks if the field is excluded from JSON.
+   *
+   * @return true, if excluded
+   */
+  public boolean isExcluded() {
+    return excluded;
+  }
+
+  /**
+   * Read the field value from the given target. Unchecked exceptions and errors propagate
+   * unchanged; only checked throwables are wrapped.
+   *
+   * @param target the target
+   * @return the value
+   * @throws FieldAccessException if the handle throws a checked throwable
+   */
+  public Object get(final Object target) {
+    try {
+      return (Object) getter.invokeExact(target);
+    } catch (RuntimeException | Error exception) {
+      throw exception;
+    } catch (Throwable throwable) {
+      throw new FieldAccessException("Unable to read field " + describe(), throwable);
+    }
+  }
+
+  /**
+   * Write the field value on the given target. Unchecked exceptions and errors propagate
+   * unchanged; only checked throwables are wrapped.
+   *
+   * @param target the target
+   * @param value the value
+   * @throws FieldAccessException if the handle throws a checked throwable
+   */
+  public void set(final Object target, final Object value) {
+    try {
+      setter.invokeExact(target, value);
+    } catch (RuntimeException | Error exception) {
+      throw exception;
+    } catch (Throwable throwable) {
+      throw new FieldAccessException("Unable to write field " + describe(), throwable);
+    }
+  }
+
+  /**
+   * Describe the field for messages.
+   *
+   * @return the string
+   */
+  private String describe() {
+    return field.getDeclaringClass().getName() + "." + field.getName();
+  }
+
+  /**
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    return "FieldAccessor [" + describe() + ", excluded=" + excluded + "]";
+  }
+}
@@ -24,18 +24,80 @@ import net.ljcomputing.gson.annotation.ExcludeFromJson;
 /**
  * Exclude from Json annotation Gson exclusion strategy.
  * 
+ * <p>
+ * The strategy serializes a single view: members excluded from every view are always skipped,
+ * members excluded from specific views only when the strategy's view is one of them.
+ * </p>
+ * 
  * @author James G. Willmore
  *
  */
 public class ExcludeFromJsonAnnotationExclusionStrategy implements ExclusionStrategy {
 
+  /** The view, or null for the default one. */
+  private final Class<?> view;
+
+  /**
+   * Instantiates a new exclude from json annotation exclusion strategy for the default view.
+   */
+  public ExcludeFromJsonAnnotationExclusionStrategy() {
+    this(null);
+  }
+
+  /**
+   * Instantiates a new exclude from json annotation exclusion strategy for the given view.
+   *
+   * @param view the view, or null for the default one
+   */
+  public ExcludeFromJsonAnnotationExclusionStrategy(final Class<?> view) {
+    this.view = view;
+  }
+
+  /**
+   * Checks if an annotation excludes its member from a view.
+   *
+   * @param annotation the annotation, or null
+   * @param view the view, or null for the default one
+   * @return true, if excluded
+   */
+  public static boolean isExcluded(final ExcludeFromJson annotation, final Class<?> view) {
+    if (null == annotation) {
+      return false;
+    }
+
+    final Class<?>[] views = annotation.views();
+
+    if (0 == views.length) {
+      return true;
+    }
+
+    if (null != view) {
+      for (final Class<?> excluding : views) {
+        if (excluding.isAssignableFrom(view)) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Gets the view.
+   *
+   * @return the view, or null for the default one
+   */
+  public Class<?> getView() {
+    return view;
+  }
+
   /**
    * @see com.google.gson.ExclusionStrategy
    * #shouldSkipField(com.google.gson.FieldAttributes)
    */
   @Override
   public boolean shouldSkipField(final FieldAttributes fieldAttributes) {
-    return fieldAttributes.getAnnotation(ExcludeFromJson.class) != null;
+    return isExcluded(fieldAttributes.getAnnotation(ExcludeFromJson.class), view);
   }
 
   /**
@@ -0,0 +1,259 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.adapter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.gson.FieldNamingPolicy;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.annotations.SerializedName;
+
+import net.ljcomputing.gson.annotation.ExcludeFromJson;
+import net.ljcomputing.gson.annotation.GenerateTypeAdapter;
+import net.ljcomputing.gson.config.GsonFactory;
+import net.ljcomputing.gson.strategy.ExcludeFromJsonAnnotationExclusionStrategy;
+
+/**
+ * Generated type adapter tests.
+ */
+public class GeneratedTypeAdapterFactoryTest {
+
+  /** The gson using the generated adapters. */
+  private final Gson generated = GsonFactory.createDefault();
+
+  /** The gson using reflection. */
+  private final Gson reflective = new GsonBuilder()
+      .setExclusionStrategies(new ExcludeFromJsonAnnotationExclusionStrategy()).serializeNulls()
+      .create();
+
+  @Test
+  public void testGeneratedAdapterIsUsed() {
+    assertTrue(generated.getAdapter(Account.class) instanceof Account_GsonTypeAdapter);
+    assertTrue(
+        generated.getAdapter(Account.Address.class) instanceof Account_Address_GsonTypeAdapter);
+  }
+
+  @Test
+  public void testMatchesReflectiveSerialization() {
+    final Account account = newAccount();
+
+    assertEquals(reflective.toJson(account), generated.toJson(account));
+    assertEquals(reflective.toJson(new Account()), generated.toJson(new Account()));
+  }
+
+  @Test
+  public void testRoundTrip() {
+    final Account account = generated.fromJson(
+        generated.toJson(newAccount()).replace("\"id\":7", "\"id\":7,\"unknown\":[1,{}]"),
+        Account.class);
+
+    assertEquals(7, account.id);
+    assertEquals("James", account.getName());
+    assertEquals(Arrays.asList("a", "b"), account.tags);
+    assertEquals("Main St", account.address.street);
+    assertEquals(1.5, account.balance, 0);
+    assertTrue(account.active);
+    assertEquals("owner", account.role);
+    assertNull(account.secret);
+    assertNull(account.cache);
+  }
+
+  @Test
+  public void testViewUsesReflection() {
+    final Gson view = GsonFactory.newBuilder(true, Account.Public.class).create();
+    final Account account = newAccount();
+
+    assertFalse(view.getAdapter(Account.class) instanceof Account_GsonTypeAdapter);
+    assertTrue(view.getAdapter(Account.Address.class) instanceof Account_Address_GsonTypeAdapter);
+    assertTrue(generated.toJson(account).contains("\"email\":\"james@example.com\""));
+    assertEquals(reflective.toJson(account).replace(",\"email\":\"james@example.com\"", ""),
+        view.toJson(account));
+  }
+
+  @Test
+  public void testNamingPolicyNeedsReflection() {
+    final Gson renamed = GsonFactory.newBuilder(true, null, false)
+        .setFieldNamingPolicy(FieldNamingPolicy.UPPER_CAMEL_CASE).create();
+
+    assertFalse(renamed.getAdapter(Account.class) instanceof Account_GsonTypeAdapter);
+    assertTrue(renamed.toJson(newAccount()).contains("\"Id\":7"));
+  }
+
+  @Test
+  public void testGenericSuperclassFieldsAreResolved() {
+    final IntBox box = new IntBox();
+    box.value = 3;
+    box.values = Arrays.asList(1, 2);
+    box.label = "box";
+
+    assertTrue(generated.getAdapter(IntBox.class) instanceof IntBox_GsonTypeAdapter);
+    assertEquals(reflective.toJson(box), generated.toJson(box));
+
+    final IntBox copy = generated.fromJson("{\"value\":4,\"values\":[5],\"label\":\"x\"}",
+        IntBox.class);
+    assertEquals(Integer.valueOf(4), copy.value);
+    assertEquals(Arrays.asList(5), copy.values);
+    assertEquals("x", copy.label);
+  }
+
+  @Test
+  public void testNullPrimitiveKeepsDefault() {
+    final Account account = generated.fromJson("{\"id\":null,\"active\":\"true\"}", Account.class);
+
+    assertEquals(0, account.id);
+    assertTrue(account.active);
+  }
+
+  /**
+   * Create a populated account.
+   *
+   * @return the account
+   */
+  private static Account newAccount() {
+    final Account account = new Account();
+    account.id = 7;
+    account.setName("James");
+    account.tags = Arrays.asList("a", "b");
+    account.address = new Account.Address();
+    account.address.street = "Main St";
+    account.balance = 1.5;
+    account.active = true;
+    account.role = "owner";
+    account.secret = "hidden";
+    account.email = "james@example.com";
+    account.cache = "transient";
+    account.extra = 42;
+    return account;
+  }
+}
+
+/**
+ * Base model.
+ */
+class Entity {
+
+  /** The id. */
+  int id;
+}
+
+/**
+ * Model with a generated adapter.
+ */
+@GenerateTypeAdapter
+class Account extends Entity {
+
+  /** The name. */
+  private String name;
+
+  /** The tags. */
+  List<String> tags;
+
+  /** The address. */
+  Address address;
+
+  /** The balance. */
+  double balance;
+
+  /** The active flag. */
+  boolean active;
+
+  /** The role. */
+  @SerializedName("account_role")
+  String role;
+
+  /** The secret. */
+  @ExcludeFromJson
+  String secret;
+
+  /** The email. */
+  @ExcludeFromJson(views = Public.class)
+  String email;
+
+  /** The cache. */
+  transient String cache;
+
+  /** A value of any type. */
+  Object extra;
+
+  /**
+   * Gets the name.
+   *
+   * @return the name
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Sets the name.
+   *
+   * @param name the new name
+   */
+  public void setName(final String name) {
+    this.name = name;
+  }
+
+  /**
+   * The public view.
+   */
+  interface Public {
+  }
+
+  /**
+   * Nested model with a generated adapter.
+   */
+  @GenerateTypeAdapter
+  static class Address {
+
+    /** The street. */
+    String street;
+  }
+}
+
+/**
+ * Generic base model.
+ *
+ * @param <T> the value type
+ */
+class Box<T> {
+
+  /** The value. */
+  T value;
+
+  /** The values. */
+  List<T> values;
+}
+
+/**
+ * Model with a generated adapter inheriting generic fields.
+ */
+@GenerateTypeAdapter
+class IntBox extends Box<Integer> {
+
+  /** The label. */
+  String label;
+}
@@ -0,0 +1,129 @@
+package net.ljcomputing.gson.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+
+import net.ljcomputing.gson.annotation.CacheableJson;
+import net.ljcomputing.gson.annotation.JsonVersion;
+
+public class SerializedFormCacheTest {
+
+  private final Gson gson = new Gson();
+
+  private final AtomicInteger serializations = new AtomicInteger();
+
+  private final Function<Object, byte[]> serializer = value -> {
+    serializations.incrementAndGet();
+    return gson.toJson(value).getBytes(StandardCharsets.UTF_8);
+  };
+
+  @Test
+  public void testHitReusesSerializedForm() {
+    final SerializedFormCache cache = new SerializedFormCache(1024 * 1024, 0);
+    final Product product = new Product("widget", 1);
+
+    final CachedJson first = cache.get(product, serializer);
+    final CachedJson second = cache.get(product, serializer);
+
+    assertSame(first, second);
+    assertEquals(gson.toJson(product), second.toString());
+    assertEquals(1, serializations.get());
+    assertEquals(1, cache.getHits());
+    assertEquals(1, cache.getMisses());
+  }
+
+  @Test
+  public void testVersionChangeMakesEntryStale() {
+    final SerializedFormCache cache = new SerializedFormCache(1024 * 1024, 0);
+    final Product product = new Product("widget", 1);
+
+    cache.get(product, serializer);
+    product.name = "gadget";
+    product.version = 2;
+
+    assertEquals(gson.toJson(product), cache.get(product, serializer).toString());
+    assertEquals(2, serializations.get());
+  }
+
+  @Test
+  public void testExpiredEntryIsReserialized() throws InterruptedException {
+    final SerializedFormCache cache = new SerializedFormCache(1024 * 1024, 1);
+    final Product product = new Product("widget", 1);
+
+    cache.get(product, serializer);
+    Thread.sleep(5);
+    cache.get(product, serializer);
+
+    assertEquals(2, serializations.get());
+  }
+
+  @Test
+  public void testInvalidation() {
+    final SerializedFormCache cache = new SerializedFormCache(1024 * 1024, 0);
+    final Product product = new Product("widget", 1);
+
+    cache.get(product, serializer);
+    cache.invalidate(product);
+    assertNull(cache.get(product));
+
+    cache.get(product, serializer);
+    cache.invalidateAll(Product.class);
+    assertNull(cache.get(product));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEntriesAreEvicted() {
+    // 16 segments of 64 bytes each
+    final SerializedFormCache cache = new SerializedFormCache(16 * 64, 0);
+    final Product[] products = new Product[200];
+
+    for (int i = 0; i < products.length; i++) {
+      products[i] = new Product("product-" + i, 1);
+      cache.get(products[i], serializer);
+    }
+
+    assertTrue((Long) cache.snapshot().get("bytes") <= 16 * 64);
+    assertTrue((Long) cache.snapshot().get("evictions") > 0);
+  }
+
+  @Test
+  public void testUnannotatedTypesAreNotCached() {
+    final SerializedFormCache cache = new SerializedFormCache(1024 * 1024, 0);
+    final Object value = new Plain();
+
+    assertFalse(cache.isCacheable(value));
+    cache.get(value, serializer);
+    cache.get(value, serializer);
+
+    assertEquals(2, serializations.get());
+    assertEquals(0, cache.getMisses());
+  }
+
+  @CacheableJson
+  static class Product {
+    String name;
+
+    @JsonVersion
+    long version;
+
+    Product(final String name, final long version) {
+      this.name = name;
+      this.version = version;
+    }
+  }
+
+  static class Plain {
+    String name = "plain";
+  }
+}
@@ -0,0 +1,64 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import com.google.gson.reflect.TypeToken;
+
+/**
+ * Binary Gson HTTP message converter tests.
+ */
+public class BinaryGsonHttpMessageConverterTest {
+
+  /** The converter. */
+  private final BinaryGsonHttpMessageConverter converter = new BinaryGsonHttpMessageConverter();
+
+  @Test
+  public void testOnlyBinaryIsNegotiated() {
+    assertTrue(converter.canWrite(List.class, MediaType.valueOf("application/x-ljc-binary")));
+    assertFalse(converter.canWrite(List.class, MediaType.APPLICATION_JSON));
+    assertFalse(converter.canRead(List.class, MediaType.APPLICATION_JSON));
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    final List<String> values = Arrays.asList("first", "second é", null);
+    final Type type = new TypeToken<List<String>>() {
+    }.getType();
+    final MockHttpOutputMessage message = new MockHttpOutputMessage();
+
+    converter.write(values, BinaryGsonHttpMessageConverter.BINARY, message);
+
+    assertEquals(BinaryGsonHttpMessageConverter.BINARY, message.getHeaders().getContentType());
+    assertEquals(values,
+        converter.read(type, null, new MockHttpInputMessage(message.getBodyAsBytes())));
+  }
+}
@@ -0,0 +1,109 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+
+import net.ljcomputing.gson.converter.GsonConverterService;
+import net.ljcomputing.gson.converter.impl.GsonConverterServiceImpl;
+import net.ljcomputing.gson.metrics.GsonMetricsEndpoint;
+import net.ljcomputing.gson.metrics.MeteredHttpMessageConverter;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.web.HttpMessageConverters;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.GsonHttpMessageConverter;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import com.google.gson.Gson;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = GsonConfiguration.class)
+@TestPropertySource(properties = {
+    "ljcomputing.gson.warmup.types=net.ljcomputing.gson.converter.impl.Thing, java.util.UUID",
+    "ljcomputing.gson.warmup.packages=net.ljcomputing.gson.annotation" })
+public class GsonConfigurationTest {
+
+  @Autowired
+  private Gson gson;
+
+  @Autowired
+  private GsonConverterServiceImpl gsonConverterServiceImpl;
+
+  @Autowired
+  private GsonConverterService gsonConverterService;
+
+  @Autowired
+  private GsonMetricsEndpoint gsonMetricsEndpoint;
+
+  @Autowired
+  private HttpMessageConverters customConverters;
+
+  @Autowired
+  private GsonWarmup gsonWarmup;
+
+  @Test
+  public void testSingleSharedGson() throws Exception {
+    final Field field = GsonConverterServiceImpl.class.getDeclaredField("gson");
+    field.setAccessible(true);
+    assertSame(gson, field.get(gsonConverterServiceImpl));
+
+    for (final HttpMessageConverter<?> converter : customConverters.getConverters()) {
+      if (converter instanceof MeteredHttpMessageConverter) {
+        final Object delegate = ((MeteredHttpMessageConverter) converter).getDelegate();
+        assertSame(gson, delegate instanceof BinaryGsonHttpMessageConverter
+            ? ((BinaryGsonHttpMessageConverter) delegate).getGson()
+            : ((GsonHttpMessageConverter) delegate).getGson());
+      }
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testMetrics() {
+    gsonConverterService.toJson(UUID.randomUUID());
+    gsonConverterService.toJsonBytes(UUID.randomUUID());
+    gsonConverterService.fromJson("[1]".getBytes(StandardCharsets.UTF_8), int[].class);
+
+    final Map<String, Object> toJson =
+        (Map<String, Object>) gsonMetricsEndpoint.invoke().get("toJson");
+    final Map<String, Object> stats = (Map<String, Object>) toJson.get(UUID.class.getName());
+    assertTrue((Long) stats.get("calls") >= 2);
+    assertEquals(38L, stats.get("payloadBytes"));
+
+    final Map<String, Object> fromJson =
+        (Map<String, Object>) gsonMetricsEndpoint.invoke().get("fromJson");
+    assertTrue(fromJson.containsKey("int[]"));
+  }
+
+  @Test
+  public void testWarmup() {
+    assertEquals(2, gsonWarmup.getWarmedUpTypes().size());
+    assertTrue(gsonWarmup.getWarmedUpTypes().contains(UUID.class));
+  }
+}
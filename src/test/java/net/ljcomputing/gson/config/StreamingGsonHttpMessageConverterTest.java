@@ -0,0 +1,317 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.google.gson.JsonParseException;
+
+import net.ljcomputing.gson.annotation.CacheableJson;
+import net.ljcomputing.gson.cache.SerializedFormCache;
+import net.ljcomputing.gson.limit.JsonLimit;
+import net.ljcomputing.gson.limit.JsonLimitExceededException;
+import net.ljcomputing.gson.limit.JsonLimits;
+
+/**
+ * Streaming Gson HTTP message converter tests.
+ */
+public class StreamingGsonHttpMessageConverterTest {
+
+  /** The converter. */
+  private final StreamingGsonHttpMessageConverter converter = newConverter();
+
+  /**
+   * Clear the request.
+   */
+  @After
+  public void clearRequest() {
+    RequestContextHolder.resetRequestAttributes();
+  }
+
+  @Test
+  public void testBufferedBodyHasContentLength() throws IOException {
+    final MockHttpOutputMessage message = new MockHttpOutputMessage();
+
+    converter.write(values(3), MediaType.APPLICATION_JSON, message);
+
+    assertEquals("[\"value 0 é\",\"value 1 é\",\"value 2 é\"]",
+        message.getBodyAsString(StandardCharsets.UTF_8));
+    assertEquals(message.getBodyAsBytes().length, message.getHeaders().getContentLength());
+  }
+
+  @Test
+  public void testLargeBodyIsStreamed() throws IOException {
+    final MockHttpOutputMessage message = new MockHttpOutputMessage();
+    final List<String> values = values(1000);
+
+    converter.write(values, MediaType.APPLICATION_JSON, message);
+
+    assertEquals(-1, message.getHeaders().getContentLength());
+    assertEquals(converter.getGson().toJson(values),
+        message.getBodyAsString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testGzipNegotiation() throws IOException {
+    final MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.8");
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+    final MockHttpOutputMessage message = new MockHttpOutputMessage();
+    final List<String> values = values(100);
+
+    converter.write(values, MediaType.APPLICATION_JSON, message);
+
+    assertEquals("gzip", message.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+    assertEquals(message.getBodyAsBytes().length, message.getHeaders().getContentLength());
+    assertEquals(converter.getGson().toJson(values), gunzip(message.getBodyAsBytes()));
+
+    final MockHttpServletRequest refusing = new MockHttpServletRequest();
+    refusing.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0");
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(refusing));
+
+    final MockHttpOutputMessage refused = new MockHttpOutputMessage();
+    converter.write(values, MediaType.APPLICATION_JSON, refused);
+
+    assertNull(refused.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+
+    final MockHttpServletRequest wildcard = new MockHttpServletRequest();
+    wildcard.addHeader(HttpHeaders.ACCEPT_ENCODING, "*, gzip;q=0");
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(wildcard));
+
+    final MockHttpOutputMessage overridden = new MockHttpOutputMessage();
+    converter.write(values, MediaType.APPLICATION_JSON, overridden);
+
+    assertNull(overridden.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+  }
+
+  @Test
+  public void testCachedFormIsWritten() throws IOException {
+    final SerializedFormCache cache = new SerializedFormCache(1024 * 1024, 0);
+    final Snapshot snapshot = new Snapshot();
+
+    converter.setSerializedFormCache(cache);
+    converter.setJsonPrefix(")]}', ");
+
+    for (int i = 0; i < 2; i++) {
+      final MockHttpOutputMessage message = new MockHttpOutputMessage();
+      converter.write(snapshot, MediaType.APPLICATION_JSON, message);
+
+      assertEquals(")]}', {\"text\":\"café\"}", message.getBodyAsString(StandardCharsets.UTF_8));
+    }
+
+    assertEquals(1, cache.getHits());
+  }
+
+  @Test
+  public void testStreamedArray() throws IOException {
+    final MockHttpServletRequest request = new MockHttpServletRequest();
+    request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+    RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+    final AtomicBoolean closed = new AtomicBoolean();
+    final MockHttpOutputMessage message = new MockHttpOutputMessage();
+    final List<String> values = values(5);
+
+    converter.setFlushInterval(2);
+    converter.write(values.stream().onClose(() -> closed.set(true)), MediaType.APPLICATION_JSON,
+        message);
+
+    assertTrue(closed.get());
+    assertEquals(-1, message.getHeaders().getContentLength());
+    assertEquals(converter.getGson().toJson(values), gunzip(message.getBodyAsBytes()));
+
+    RequestContextHolder.resetRequestAttributes();
+
+    final MockHttpOutputMessage empty = new MockHttpOutputMessage();
+    converter.write(Collections.emptyIterator(), MediaType.APPLICATION_JSON, empty);
+
+    assertEquals("[]", empty.getBodyAsString(StandardCharsets.UTF_8));
+    assertEquals(2, empty.getHeaders().getContentLength());
+  }
+
+  @Test
+  public void testDisconnectClosesSource() {
+    final AtomicBoolean closed = new AtomicBoolean();
+    final HttpHeaders headers = new HttpHeaders();
+    final HttpOutputMessage disconnected = new HttpOutputMessage() {
+      @Override
+      public HttpHeaders getHeaders() {
+        return headers;
+      }
+
+      @Override
+      public OutputStream getBody() {
+        return new OutputStream() {
+          @Override
+          public void write(final int b) throws IOException {
+            throw new IOException("Connection reset by peer");
+          }
+        };
+      }
+    };
+
+    converter.setFlushInterval(10);
+
+    try {
+      converter.write(Stream.generate(() -> "value").onClose(() -> closed.set(true)),
+          MediaType.APPLICATION_JSON, disconnected);
+      fail("expected the write to fail");
+    } catch (IOException | HttpMessageNotWritableException exception) {
+      assertTrue(closed.get());
+    }
+  }
+
+  @Test
+  public void testRequestBodyLimits() throws IOException {
+    final List<JsonLimit> rejected = new ArrayList<JsonLimit>();
+    converter.setJsonLimits(JsonLimits.builder().maxBytes(64).maxDepth(2)
+        .rejectionListener(rejected::add).build());
+
+    assertEquals(values(2), converter.read(List.class, input("[\"value 0 é\",\"value 1 é\"]")));
+
+    final MockHttpInputMessage tooLarge = input("[]");
+    tooLarge.getHeaders().setContentLength(65);
+    assertRejected(tooLarge);
+    assertRejected(input("[[[1]]]"));
+    assertEquals(Arrays.asList(JsonLimit.BYTES, JsonLimit.DEPTH), rejected);
+
+    try {
+      converter.read(List.class, input("[1] [2]"));
+      fail("expected trailing content to be rejected");
+    } catch (HttpMessageNotReadableException exception) {
+      assertTrue(exception.getCause() instanceof JsonParseException);
+    }
+  }
+
+  /**
+   * Assert a request body is rejected for exceeding a limit.
+   *
+   * @param message the message
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void assertRejected(final MockHttpInputMessage message) throws IOException {
+    try {
+      converter.read(List.class, message);
+      fail("expected the body to be rejected");
+    } catch (HttpMessageNotReadableException exception) {
+      assertTrue(exception.getCause() instanceof JsonLimitExceededException);
+    }
+  }
+
+  /**
+   * Create a UTF-8 JSON request body.
+   *
+   * @param json the json
+   * @return the input message
+   */
+  private static MockHttpInputMessage input(final String json) {
+    final MockHttpInputMessage message =
+        new MockHttpInputMessage(json.getBytes(StandardCharsets.UTF_8));
+    message.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+    return message;
+  }
+
+  /**
+   * Create a converter with a small buffer.
+   *
+   * @return the converter
+   */
+  private static StreamingGsonHttpMessageConverter newConverter() {
+    final StreamingGsonHttpMessageConverter converter = new StreamingGsonHttpMessageConverter();
+    converter.setGson(GsonFactory.createDefault());
+    converter.setBufferSize(1024);
+    return converter;
+  }
+
+  /**
+   * Create values with non-ASCII content.
+   *
+   * @param count the count
+   * @return the values
+   */
+  private static List<String> values(final int count) {
+    final List<String> values = new ArrayList<>();
+
+    for (int i = 0; i < count; i++) {
+      values.add("value " + i + " é");
+    }
+
+    return values;
+  }
+
+  /**
+   * Cacheable value.
+   */
+  @CacheableJson
+  static class Snapshot {
+    String text = "café";
+  }
+
+  /**
+   * Decompress a gzip body.
+   *
+   * @param body the body
+   * @return the text
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private static String gunzip(final byte[] body) throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try (final InputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+      final byte[] buffer = new byte[1024];
+      int read;
+
+      while ((read = in.read(buffer)) > 0) {
+        out.write(buffer, 0, read);
+      }
+    }
+
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+}
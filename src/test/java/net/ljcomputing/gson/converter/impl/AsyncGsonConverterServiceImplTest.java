@@ -0,0 +1,134 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+
+package net.ljcomputing.gson.converter.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import net.ljcomputing.gson.config.GsonFactory;
+
+/**
+ * Async converter service tests.
+ */
+public class AsyncGsonConverterServiceImplTest {
+
+  /** Released to let blocked conversions finish. */
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  /** The service: one running and one queued conversion at most. */
+  private final AsyncGsonConverterServiceImpl service = new AsyncGsonConverterServiceImpl(
+      new GsonConverterServiceImpl(newGson()), 1, 1, 0, false);
+
+  /**
+   * Shut the service down.
+   */
+  @After
+  public void shutdown() {
+    release.countDown();
+    service.destroy();
+  }
+
+  @Test
+  public void testConversions() throws Exception {
+    final String json = service.toJson(new int[] { 1, 2 }).get(5, TimeUnit.SECONDS);
+    assertEquals("[1,2]", json);
+
+    final int[] values = service.<int[]>fromJson(json, int[].class).get(5, TimeUnit.SECONDS);
+    assertEquals(2, values[1]);
+
+    try {
+      service.fromJson("[1,", int[].class).get(5, TimeUnit.SECONDS);
+      fail("expected a syntax error");
+    } catch (ExecutionException exception) {
+      assertTrue(exception.getCause() instanceof RuntimeException);
+    }
+
+    assertEquals(0, service.getInFlight());
+  }
+
+  @Test
+  public void testAdmissionControl() throws Exception {
+    final CompletableFuture<String> running = service.toJson(new Blocker());
+    final CompletableFuture<String> queued = service.toJson(new Blocker());
+    final CompletableFuture<String> rejected = service.toJson(new Blocker());
+
+    assertEquals(2, service.getInFlight());
+    assertTrue(rejected.isCompletedExceptionally());
+    assertEquals(1, service.getRejected());
+
+    try {
+      rejected.get();
+      fail("expected a rejection");
+    } catch (ExecutionException exception) {
+      assertTrue(exception.getCause() instanceof RejectedExecutionException);
+    }
+
+    release.countDown();
+    assertEquals("\"done\"", running.get(5, TimeUnit.SECONDS));
+    assertEquals("\"done\"", queued.get(5, TimeUnit.SECONDS));
+    assertEquals("\"done\"", service.toJson(new Blocker()).get(5, TimeUnit.SECONDS));
+  }
+
+  /**
+   * Create a Gson whose blocker adapter waits for the release latch.
+   *
+   * @return the gson
+   */
+  private Gson newGson() {
+    return GsonFactory.newBuilder().registerTypeAdapter(Blocker.class, new TypeAdapter<Blocker>() {
+      @Override
+      public void write(final JsonWriter out, final Blocker value) throws IOException {
+        try {
+          release.await();
+        } catch (InterruptedException exception) {
+          Thread.currentThread().interrupt();
+        }
+
+        out.value("done");
+      }
+
+      @Override
+      public Blocker read(final JsonReader in) throws IOException {
+        in.skipValue();
+        return new Blocker();
+      }
+    }).create();
+  }
+
+  /**
+   * Value whose serialization blocks.
+   */
+  static class Blocker {
+  }
+}
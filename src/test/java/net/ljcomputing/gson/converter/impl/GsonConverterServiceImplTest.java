@@ -1,15 +1,43 @@
 package net.ljcomputing.gson.converter.impl;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
-
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import net.ljcomputing.gson.annotation.ExcludeFromJson;
 import net.ljcomputing.gson.config.GsonConfiguration;
+import net.ljcomputing.gson.config.GsonFactory;
 import net.ljcomputing.gson.converter.GsonConverterService;
+import net.ljcomputing.gson.io.StringInterner;
+import net.ljcomputing.gson.merge.CollectionMergePolicy;
+import net.ljcomputing.gson.merge.DiffFormat;
+import net.ljcomputing.gson.merge.KeyedMergePolicy;
+import net.ljcomputing.gson.merge.MergeOptions;
+import net.ljcomputing.gson.projection.FieldProjector;
 
 import org.junit.BeforeClass;
 import org.junit.FixMethodOrder;
@@ -22,6 +50,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
 
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
 import com.google.gson.reflect.TypeToken;
 
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -100,6 +130,567 @@ public class GsonConverterServiceImplTest {
     assertEquals(thingFrom, thing);
   }
 
+  @Test
+  public void test5MergeSkipsExcludedAndIgnoredFields() {
+    final SecretThing to = new SecretThing();
+    to.setId(1L);
+    to.setKey("key");
+    to.setSecret("kept");
+
+    final SecretThing from = new SecretThing();
+    from.setId(2L);
+    from.setKey("other");
+    from.setSecret("leaked");
+
+    final String[] ignored = new String[] { "key", "id" };
+    gsonConverterService.merge(to, from, ignored);
+    gsonConverterService.merge(to, from, ignored);
+
+    assertEquals(Long.valueOf(1L), to.getId());
+    assertEquals("key", to.getKey());
+    assertEquals("kept", to.getSecret());
+    assertEquals("key", ignored[0]);
+
+    gsonConverterService.merge(to, from);
+    assertEquals(Long.valueOf(2L), to.getId());
+    assertEquals("kept", to.getSecret());
+  }
+
+  @Test
+  public void test6DeepMerge() {
+    final Order to = Order.sample(1L, "to");
+    to.getCustomer().setName("Jane");
+    final Order from = Order.sample(1L, "from");
+    from.setCustomer(new Customer());
+    from.getCustomer().setId(7L);
+    from.getLines().get(0).setName("changed");
+    from.getLines().add(new Line());
+    from.getLines().get(1).setId(99L);
+    from.getTags().put("to", null);
+    to.setParent(to);
+    from.setParent(from);
+
+    final MergeOptions options = MergeOptions.builder().skipNulls(true)
+        .collectionPolicy(CollectionMergePolicy.MATCH_BY_KEY)
+        .mapPolicy(CollectionMergePolicy.MATCH_BY_KEY).ignore("customer.email").build();
+    final Customer customer = to.getCustomer();
+    final Order result = (Order) gsonConverterService.deepMerge(to, from, options);
+
+    assertSame(to, result);
+    assertSame(customer, result.getCustomer());
+    assertEquals(Long.valueOf(7L), customer.getId());
+    assertEquals("Jane", customer.getName());
+    assertEquals("to@example.com", customer.getEmail());
+    assertEquals(2, result.getLines().size());
+    assertEquals("changed", result.getLines().get(0).getName());
+    assertEquals("to", result.getTags().get("to"));
+    assertEquals("from", result.getTags().get("from"));
+    assertSame(to, result.getParent());
+
+    final Order sharedTo = Order.sample(2L, "to");
+    sharedTo.setParent(Order.sample(3L, "parent"));
+    final Customer shared = new Customer();
+    shared.setName("Shared");
+    final Order sharedFrom = new Order();
+    sharedFrom.setCustomer(shared);
+    sharedFrom.setParent(new Order());
+    sharedFrom.getParent().setCustomer(shared);
+
+    gsonConverterService.deepMerge(sharedTo, sharedFrom, options);
+
+    assertEquals("Shared", sharedTo.getCustomer().getName());
+    assertEquals("Shared", sharedTo.getParent().getCustomer().getName());
+  }
+
+  @Test
+  public void test7StreamingRoundTrip() {
+    final Thing streamed = new Thing();
+    streamed.setId(7L);
+    streamed.setKey("k\u00e9y \u20ac");
+    streamed.setValue("\ud83d\ude00 value");
+    streamed.setUuid(UUID.randomUUID());
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    gsonConverterService.toJson(streamed, out);
+    assertEquals(gsonConverterService.toJson(streamed),
+        new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+    final Thing fromStream = gsonConverterService
+        .fromJson(new ByteArrayInputStream(out.toByteArray()), Thing.class);
+    assertEquals(streamed, fromStream);
+
+    final StringBuilder builder = new StringBuilder();
+    gsonConverterService.toJson(listOfThings, builder);
+    final List<Thing> fromReader = gsonConverterService.fromJson(
+        new StringReader(builder.toString()), new TypeToken<List<Thing>>() {
+        }.getType());
+    assertEquals(listOfThings, fromReader);
+
+    final GsonConverterServiceImpl pretty =
+        new GsonConverterServiceImpl(GsonFactory.newBuilder().setPrettyPrinting().create());
+    assertTrue(pretty.toJson(streamed).contains("\n  \"id\": 7"));
+    assertEquals(pretty.toJson(streamed),
+        new String(pretty.toJsonBytes(streamed), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void test8LazyArrayStream() {
+    final byte[] bytes = gsonConverterService.toJson(listOfThings)
+        .getBytes(StandardCharsets.UTF_8);
+    final AtomicBoolean closed = new AtomicBoolean();
+    final ByteArrayInputStream in = new ByteArrayInputStream(bytes) {
+      @Override
+      public void close() {
+        closed.set(true);
+      }
+    };
+
+    try (Stream<Thing> things = gsonConverterService.fromJsonArray(in, Thing.class)) {
+      assertEquals(listOfThings.get(0), things.findFirst().get());
+    }
+
+    assertTrue(closed.get());
+
+    try (Stream<Thing> things = gsonConverterService
+        .fromJsonArray(new StringReader(new String(bytes, StandardCharsets.UTF_8)), Thing.class)) {
+      assertEquals(listOfThings, things.collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  public void test9BinaryRoundTrip() {
+    final Type listType = new TypeToken<List<Thing>>() {
+    }.getType();
+    final byte[] binary = gsonConverterService.toBinary(listOfThings);
+    assertTrue(binary.length < gsonConverterService.toJsonBytes(listOfThings).length);
+    assertEquals(listOfThings, gsonConverterService.fromBinary(binary, listType));
+
+    final Order order = Order.sample(1L, "binary");
+    order.getTags().put("unicode", "caf\u00e9 \ud83d\ude00");
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    gsonConverterService.toBinary(order, out);
+    final Order decoded = gsonConverterService
+        .fromBinary(new ByteArrayInputStream(out.toByteArray()), Order.class);
+    assertEquals(gsonConverterService.toJson(order), gsonConverterService.toJson(decoded));
+
+    final SecretThing secretThing = new SecretThing();
+    secretThing.setSecret("secret");
+    final SecretThing decodedSecret = gsonConverterService
+        .fromBinary(gsonConverterService.toBinary(secretThing), SecretThing.class);
+    assertEquals(null, decodedSecret.getSecret());
+
+    final List<?> mixed = gsonConverterService.fromBinary(
+        gsonConverterService.toBinary(new Object[] { 1, -2.5, "x", true, null }), List.class);
+    assertEquals("[1.0,-2.5,\"x\",true,null]", gsonConverterService.toJson(mixed));
+
+    try {
+      gsonConverterService.fromBinary(new byte[] { 1, 7, 5 }, Thing.class);
+      fail("expected a truncated document to fail");
+    } catch (JsonSyntaxException exception) {
+      assertNotNull(exception.getMessage());
+    }
+
+    try {
+      // a string declaring a length of 2GB followed by a single byte
+      gsonConverterService.fromBinary(
+          new byte[] { 1, 5, (byte) 0xF0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 7 },
+          String.class);
+      fail("expected a truncated string to fail");
+    } catch (JsonSyntaxException exception) {
+      assertNotNull(exception.getMessage());
+    }
+
+    final char[] large = new char[100000];
+    Arrays.fill(large, 'é');
+    final List<String> strings = Arrays.asList(new String(large), "tail");
+    assertEquals(strings,
+        gsonConverterService.fromBinary(gsonConverterService.toBinary(strings), List.class));
+  }
+
+  @Test
+  public void test9ByteRoundTrip() {
+    final Type listType = new TypeToken<List<Thing>>() {
+    }.getType();
+    final byte[] bytes = gsonConverterService.toJsonBytes(listOfThings);
+    assertArrayEquals(gsonConverterService.toJson(listOfThings).getBytes(StandardCharsets.UTF_8),
+        bytes);
+    assertEquals(listOfThings, gsonConverterService.fromJson(bytes, listType));
+
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length + 8);
+    buffer.put((byte) ' ');
+    assertEquals(bytes.length, gsonConverterService.toJson(listOfThings, buffer));
+    buffer.flip();
+    assertEquals(listOfThings, gsonConverterService.fromJson(buffer, listType));
+    assertEquals(buffer.limit(), buffer.position());
+
+    final ByteBuffer small = ByteBuffer.allocate(bytes.length - 1);
+
+    try {
+      gsonConverterService.toJson(listOfThings, small);
+      fail("expected an overflow");
+    } catch (BufferOverflowException exception) {
+      assertEquals(0, small.position());
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void test9InternedStrings() {
+    final StringBuilder json = new StringBuilder("[");
+
+    for (int i = 0; i < 100; i++) {
+      json.append(i == 0 ? "" : ",").append("{\"status\":\"ACTIVE\",\"country\":\"US\"}");
+    }
+
+    final String array = json.append(']').toString();
+    final StringInterner interner = new StringInterner(64, 16);
+    final List<Map<String, Object>> values =
+        gsonConverterService.fromJson(new StringReader(array), List.class, interner);
+
+    assertEquals(100, values.size());
+    assertSame(values.get(0).get("status"), values.get(99).get("status"));
+    assertSame(values.get(0).keySet().iterator().next(),
+        values.get(99).keySet().iterator().next());
+    assertTrue(interner.getBytesSaved() > 0);
+
+    final List<Map<String, Object>> plain =
+        gsonConverterService.fromJson(new StringReader(array), List.class);
+    assertTrue(plain.get(0).get("status") != plain.get(99).get("status"));
+  }
+
+  @Test
+  public void test9MergeAll() {
+    final List<Thing> to = things(0, 10000, "old");
+    final Thing first = to.get(5000);
+
+    assertSame(to, gsonConverterService.mergeAll(to, things(5000, 15000, "new"), Thing::getId));
+    assertEquals(15000, to.size());
+    assertSame(first, to.get(5000));
+    assertEquals("new", first.getValue());
+    assertEquals("old", to.get(4999).getValue());
+
+    gsonConverterService.mergeAll(to, things(14000, 16000, "sync"), Thing::getId,
+        KeyedMergePolicy.SYNC);
+    assertEquals(2000, to.size());
+    assertEquals(Long.valueOf(14000L), to.get(0).getId());
+    assertEquals("sync", to.get(1999).getValue());
+
+    gsonConverterService.mergeAll(to, things(15990, 17000, "update"), Thing::getId,
+        KeyedMergePolicy.UPDATE);
+    assertEquals(2000, to.size());
+    assertEquals("update", to.get(1999).getValue());
+    assertEquals("sync", to.get(1989).getValue());
+  }
+
+  @Test
+  public void test9MergePatch() {
+    final Order order = Order.sample(1L, "to");
+    final Customer customer = order.getCustomer();
+    order.getTags().put("keep", "kept");
+
+    final Object result = gsonConverterService.applyMergePatch(order,
+        "{\"customer\":{\"name\":\"Jane\",\"email\":null},\"tags\":{\"to\":null,\"new\":\"x\"},"
+            + "\"lines\":[{\"id\":5}],\"unknown\":{\"a\":[1]},\"parent\":{\"id\":3}}");
+
+    assertSame(order, result);
+    assertEquals(Long.valueOf(1L), order.getId());
+    assertSame(customer, order.getCustomer());
+    assertEquals("Jane", customer.getName());
+    assertEquals(null, customer.getEmail());
+    assertEquals(2, order.getTags().size());
+    assertEquals("kept", order.getTags().get("keep"));
+    assertEquals("x", order.getTags().get("new"));
+    assertEquals(1, order.getLines().size());
+    assertEquals(Long.valueOf(5L), order.getLines().get(0).getId());
+    assertEquals(Long.valueOf(3L), order.getParent().getId());
+
+    try {
+      gsonConverterService.applyMergePatch(order, "[1]");
+      fail("expected a syntax error");
+    } catch (JsonSyntaxException exception) {
+      assertNotNull(exception.getMessage());
+    }
+
+    final Map<String, Object> map = new HashMap<>();
+    map.put("keep", "kept");
+    map.put("drop", "dropped");
+    assertSame(map, gsonConverterService.applyMergePatch(map, "{\"drop\":null,\"new\":1}"));
+    assertEquals(2, map.size());
+    assertEquals("kept", map.get("keep"));
+    assertEquals(1.0, map.get("new"));
+
+    try {
+      gsonConverterService.applyMergePatch("text", "{\"value\":1}");
+      fail("expected a non-bean target to be rejected");
+    } catch (IllegalArgumentException exception) {
+      assertNotNull(exception.getMessage());
+    }
+  }
+
+  @Test
+  public void test9Projection() {
+    final Order order = Order.sample(7L, "projected");
+    order.getCustomer().setId(3L);
+    order.getCustomer().setName("Jane");
+    order.getTags().put("keep", "kept");
+    order.setParent(Order.sample(8L, "parent"));
+    final String json = gsonConverterService.toJson(order);
+
+    final Order projected = gsonConverterService.fromJson(new StringReader(json), Order.class,
+        new HashSet<>(Arrays.asList("id", "customer.name", "lines.id", "tags.keep")));
+
+    assertEquals(Long.valueOf(7L), projected.getId());
+    assertEquals("Jane", projected.getCustomer().getName());
+    assertEquals(null, projected.getCustomer().getId());
+    assertEquals(null, projected.getCustomer().getEmail());
+    assertEquals(1, projected.getLines().size());
+    assertEquals(Long.valueOf(1L), projected.getLines().get(0).getId());
+    assertEquals(null, projected.getLines().get(0).getName());
+    assertEquals(1, projected.getTags().size());
+    assertEquals("kept", projected.getTags().get("keep"));
+    assertEquals(null, projected.getParent());
+
+    final Order whole = gsonConverterService.fromJson(new StringReader(json), Order.class,
+        new HashSet<>(Arrays.asList("parent", "parent.id")));
+    assertEquals(gsonConverterService.toJson(order.getParent()),
+        gsonConverterService.toJson(whole.getParent()));
+    assertEquals(null, whole.getId());
+
+    try {
+      gsonConverterService.fromJson(new StringReader(json), Order.class,
+          new HashSet<>(Arrays.asList("customer.unknown")));
+      fail("expected an unknown field to be rejected");
+    } catch (IllegalArgumentException exception) {
+      assertNotNull(exception.getMessage());
+    }
+
+    final FieldProjector projector = new FieldProjector(GsonFactory.createDefault(), 2);
+    final TypeAdapter<Order> id = projector.getAdapter(Order.class, Arrays.asList("id"));
+    final TypeAdapter<Order> name =
+        projector.getAdapter(Order.class, Arrays.asList("customer.name"));
+    assertSame(id, projector.getAdapter(Order.class, Arrays.asList("id")));
+    projector.getAdapter(Order.class, Arrays.asList("lines.id"));
+    assertEquals(2, projector.size());
+    assertSame(id, projector.getAdapter(Order.class, Arrays.asList("id")));
+    assertNotSame(name, projector.getAdapter(Order.class, Arrays.asList("customer.name")));
+  }
+
+  @Test
+  public void test9ObjectDiff() {
+    final Order before = Order.sample(1L, "before");
+    final Order after = Order.sample(1L, "before");
+    before.setParent(before);
+    after.setParent(after);
+
+    assertEquals("{}", gsonConverterService.diff(before, after));
+    assertEquals("[]", gsonConverterService.diff(before, after, DiffFormat.JSON_PATCH));
+
+    after.getCustomer().setName("Jane");
+    after.getCustomer().setEmail(null);
+    after.getTags().put("new", "x");
+    after.getLines().add(new Line());
+    after.getLines().get(1).setId(2L);
+
+    assertEquals("{\"customer\":{\"name\":\"Jane\",\"email\":null},"
+        + "\"lines\":[{\"id\":1,\"name\":\"before\"},{\"id\":2,\"name\":null}],"
+        + "\"tags\":{\"new\":\"x\"}}", gsonConverterService.diff(before, after));
+    assertEquals("[{\"op\":\"add\",\"path\":\"/customer/name\",\"value\":\"Jane\"},"
+        + "{\"op\":\"remove\",\"path\":\"/customer/email\"},"
+        + "{\"op\":\"add\",\"path\":\"/lines/-\",\"value\":{\"id\":2,\"name\":null}},"
+        + "{\"op\":\"add\",\"path\":\"/tags/new\",\"value\":\"x\"}]",
+        gsonConverterService.diff(before, after, DiffFormat.JSON_PATCH));
+
+    gsonConverterService.applyMergePatch(before, gsonConverterService.diff(before, after));
+    assertEquals("{}", gsonConverterService.diff(before, after));
+
+    after.getTags().put("other", "y");
+    assertEquals("{\"tags\":{\"other\":\"y\"}}", gsonConverterService.diff(before, after));
+    assertEquals("[{\"op\":\"add\",\"path\":\"/tags/other\",\"value\":\"y\"}]",
+        gsonConverterService.diff(before, after, DiffFormat.JSON_PATCH));
+  }
+
+  @Test
+  public void test9Views() {
+    final ViewedThing thing = new ViewedThing();
+    thing.setId(1L);
+    thing.setValue("value");
+    thing.setOwner("owner");
+    thing.setSecret("secret");
+
+    assertEquals("{\"owner\":\"owner\",\"id\":1,\"value\":\"value\"}",
+        gsonConverterService.toJson(thing).replaceAll(",?\"(uuid|key)\":null", ""));
+    assertFalse(gsonConverterService.toJson(thing, ViewedThing.Public.class).contains("owner"));
+    assertFalse(gsonConverterService.toJson(thing, ViewedThing.Public.class).contains("secret"));
+    assertTrue(gsonConverterService.toJson(thing, ViewedThing.Internal.class).contains("owner"));
+  }
+
+  private static List<Thing> things(final long from, final long to, final String value) {
+    final List<Thing> things = new ArrayList<Thing>();
+
+    for (long id = from; id < to; id++) {
+      final Thing thing = new Thing();
+      thing.setId(id);
+      thing.setValue(value);
+      things.add(thing);
+    }
+
+    return things;
+  }
+
+}
+
+class Customer {
+  private Long id;
+  private String name;
+  private String email;
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public String getEmail() {
+    return email;
+  }
+
+  public void setEmail(String email) {
+    this.email = email;
+  }
+}
+
+class Order {
+  private Long id;
+  private Customer customer;
+  private List<Line> lines = new ArrayList<Line>();
+  private Map<String, String> tags = new HashMap<String, String>();
+  private Order parent;
+
+  static Order sample(Long id, String name) {
+    final Order order = new Order();
+    order.setId(id);
+    order.setCustomer(new Customer());
+    order.getCustomer().setEmail(name + "@example.com");
+    order.getLines().add(new Line());
+    order.getLines().get(0).setId(1L);
+    order.getLines().get(0).setName(name);
+    order.getTags().put(name, name);
+    return order;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public Customer getCustomer() {
+    return customer;
+  }
+
+  public void setCustomer(Customer customer) {
+    this.customer = customer;
+  }
+
+  public List<Line> getLines() {
+    return lines;
+  }
+
+  public void setLines(List<Line> lines) {
+    this.lines = lines;
+  }
+
+  public Map<String, String> getTags() {
+    return tags;
+  }
+
+  public void setTags(Map<String, String> tags) {
+    this.tags = tags;
+  }
+
+  public Order getParent() {
+    return parent;
+  }
+
+  public void setParent(Order parent) {
+    this.parent = parent;
+  }
+}
+
+class Line {
+  private Long id;
+  private String name;
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+}
+
+class SecretThing extends Thing {
+  @ExcludeFromJson
+  private String secret;
+
+  public String getSecret() {
+    return secret;
+  }
+
+  public void setSecret(String secret) {
+    this.secret = secret;
+  }
+}
+
+class ViewedThing extends Thing {
+  interface Public {
+  }
+
+  interface Internal {
+  }
+
+  @ExcludeFromJson(views = Public.class)
+  private String owner;
+
+  @ExcludeFromJson
+  private String secret;
+
+  public String getOwner() {
+    return owner;
+  }
+
+  public void setOwner(String owner) {
+    this.owner = owner;
+  }
+
+  public String getSecret() {
+    return secret;
+  }
+
+  public void setSecret(String secret) {
+    this.secret = secret;
+  }
 }
 
 class Thing {
@@ -0,0 +1,166 @@
+package net.ljcomputing.gson.converter.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+
+import net.ljcomputing.gson.config.GsonConfiguration;
+import net.ljcomputing.gson.config.GsonFactory;
+import net.ljcomputing.gson.converter.NdjsonConverterService;
+
+import com.google.gson.JsonSyntaxException;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = GsonConfiguration.class)
+public class NdjsonConverterServiceImplTest {
+
+  @Autowired
+  private NdjsonConverterService ndjsonConverterService;
+
+  private static List<Thing> things = new ArrayList<Thing>();
+
+  @BeforeClass
+  public static void setUp() {
+    for (int i = 0; i < 20000; i++) {
+      Thing thing = new Thing();
+      thing.setId((long) i);
+      thing.setKey("key-" + i);
+      thing.setValue(i % 2 == 0 ? null : "value € " + i);
+      thing.setUuid(UUID.randomUUID());
+      things.add(thing);
+    }
+  }
+
+  @Test
+  public void testOrderedRoundTrip() {
+    final StringWriter out = new StringWriter();
+    assertEquals(things.size(), ndjsonConverterService.toNdjson(things, out));
+
+    final List<Thing> result =
+        ndjsonConverterService.fromNdjson(new StringReader(out.toString()), Thing.class, true);
+    assertEquals(things, result);
+  }
+
+  @Test
+  public void testPrettyPrintingGsonWritesOneLinePerValue() {
+    final NdjsonConverterServiceImpl pretty =
+        new NdjsonConverterServiceImpl(GsonFactory.newBuilder().setPrettyPrinting().create());
+    final StringWriter out = new StringWriter();
+    pretty.toNdjson(things.subList(0, 3), out);
+
+    assertEquals(3, out.toString().split("\n").length);
+    assertEquals(things.subList(0, 3),
+        pretty.fromNdjson(new StringReader(out.toString()), Thing.class, true));
+  }
+
+  @Test
+  public void testUnorderedStreamRoundTrip() {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ndjsonConverterService.toNdjson(things, out);
+
+    final List<Thing> result = new ArrayList<Thing>();
+    final long count = ndjsonConverterService.<Thing>fromNdjson(
+        new ByteArrayInputStream(out.toByteArray()), Thing.class, false, result::add);
+
+    assertEquals(things.size(), count);
+    assertEquals(new HashSet<Thing>(things), new HashSet<Thing>(result));
+  }
+
+  @Test
+  public void testStrictLines() {
+    assertEquals(Arrays.asList(1.0, "x", null, Arrays.asList(1.0, 2.0), values("a", "y")),
+        ndjsonConverterService.fromNdjson(
+            new StringReader("1\n\n\"x\"\r\nnull\n \t\n[1,2]\n{\"a\":\"y\"}"), Object.class,
+            true));
+
+    assertMalformed(1, "{a:'x', /*c*/ b:unquoted} {\"a\":\"y\"}\n[1,\n2]\n");
+    assertMalformed(2, "{\"a\":1}\n{\"a\":'x'}\n");
+    assertMalformed(2, "{\"a\":1}\n{\"a\":1} // c\n");
+    assertMalformed(3, "{\"a\":1}\n\n{\"a\":1} {\"a\":2}\n");
+    assertMalformed(1, "[1,\n2]\n");
+    assertMalformed(2, "1\n2]\n");
+
+    final StringBuilder lines = new StringBuilder();
+
+    for (int i = 0; i < 100; i++) {
+      lines.append("{\"a\":").append(i).append("}\n");
+    }
+
+    assertMalformed(101, lines + "{\"a\":unquoted}\n");
+  }
+
+  /**
+   * Assert NDJSON input is rejected, at the given line, by a service decoding small chunks.
+   *
+   * @param line the expected line number
+   * @param json the json lines
+   */
+  private static void assertMalformed(final int line, final String json) {
+    final NdjsonConverterServiceImpl service = new NdjsonConverterServiceImpl(
+        GsonFactory.createDefault(), ForkJoinPool.commonPool(), 64, 16);
+
+    try {
+      service.fromNdjson(new StringReader(json), Object.class, true);
+      fail("expected " + json + " to be rejected");
+    } catch (JsonSyntaxException exception) {
+      assertEquals("Malformed NDJSON at line " + line, exception.getMessage());
+    }
+  }
+
+  /**
+   * Create a map holding a single entry.
+   *
+   * @param key the key
+   * @param value the value
+   * @return the map
+   */
+  private static Map<String, Object> values(final String key, final Object value) {
+    final Map<String, Object> values = new LinkedHashMap<String, Object>();
+    values.put(key, value);
+    return values;
+  }
+
+  @Test
+  public void testJsonArrayFileImport() throws IOException {
+    final Path file = Files.createTempFile("things", ".json");
+
+    try {
+      try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+        GsonFactory.createDefault().toJson(things, writer);
+      }
+
+      final List<Thing> result = new ArrayList<Thing>();
+      final long count =
+          ndjsonConverterService.<Thing>fromJsonArrayFile(file, Thing.class, true, result::add);
+
+      assertEquals(things.size(), count);
+      assertEquals(things, result);
+    } finally {
+      Files.delete(file);
+    }
+  }
+}
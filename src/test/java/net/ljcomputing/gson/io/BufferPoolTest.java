@@ -0,0 +1,60 @@
+package net.ljcomputing.gson.io;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class BufferPoolTest {
+
+  @Test
+  public void testGrownStreamReturnsOnlyItsPooledBuffer() {
+    final byte[] first = BufferPool.acquireBytes();
+    final byte[] second = BufferPool.acquireBytes();
+    BufferPool.releaseBytes(first);
+    BufferPool.releaseBytes(second);
+
+    final byte[] payload = new byte[BufferPool.DEFAULT_SIZE * 10];
+    Arrays.fill(payload, (byte) 'x');
+
+    try (PooledByteArrayOutputStream out = new PooledByteArrayOutputStream()) {
+      out.write(payload, 0, payload.length);
+      assertArrayEquals(payload, out.toByteArray());
+    }
+
+    final byte[] a = BufferPool.acquireBytes();
+    final byte[] b = BufferPool.acquireBytes();
+    assertParked(first, second, a, b);
+    BufferPool.releaseBytes(a);
+    BufferPool.releaseBytes(b);
+  }
+
+  @Test
+  public void testParkedBuffersAreNotReplacedByLargerOnes() {
+    final byte[] first = BufferPool.acquireBytes();
+    final byte[] second = BufferPool.acquireBytes();
+    BufferPool.releaseBytes(first);
+    BufferPool.releaseBytes(second);
+
+    BufferPool.releaseBytes(new byte[BufferPool.MAX_POOLED_SIZE]);
+    BufferPool.releaseBytes(new byte[BufferPool.MAX_POOLED_SIZE + 1]);
+
+    final byte[] a = BufferPool.acquireBytes();
+    final byte[] b = BufferPool.acquireBytes();
+    assertParked(first, second, a, b);
+    BufferPool.releaseBytes(a);
+    BufferPool.releaseBytes(b);
+  }
+
+  private static void assertParked(final byte[] first, final byte[] second, final byte[] a,
+      final byte[] b) {
+    if (first == a) {
+      assertSame(second, b);
+    } else {
+      assertSame(second, a);
+      assertSame(first, b);
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package net.ljcomputing.gson.io;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.gson.JsonSyntaxException;
+
+public class MappedJsonArrayChunkerTest {
+  private static final String ELEMENTS = "{\"a\":\"x,]}\\\"[\"},[1,\n [2, {}]],\"€,\","
+      + "null,{\"b\":{\"c\":[]}},42";
+
+  @Test
+  public void testChunksHoldWholeElementsAcrossWindows() throws IOException {
+    final Path file = write("\uFEFF [" + ELEMENTS + "]\n");
+
+    try {
+      for (int chunkSize = 1; chunkSize < 64; chunkSize += 7) {
+        final List<String> chunks = chunks(file, chunkSize, 16);
+        assertEquals(ELEMENTS, String.join(",", chunks));
+      }
+
+      assertEquals(1, chunks(file, 1024, 1024).size());
+    } finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testEmptyAndMalformedArrays() throws IOException {
+    final Path empty = write(" [ \n ] ");
+    final Path unterminated = write("[1,[2]");
+    final Path trailing = write("[1] 2");
+
+    try {
+      assertEquals(0, chunks(empty, 16, 16).size());
+      assertFails(unterminated);
+      assertFails(trailing);
+    } finally {
+      Files.delete(empty);
+      Files.delete(unterminated);
+      Files.delete(trailing);
+    }
+  }
+
+  private static void assertFails(final Path file) throws IOException {
+    try {
+      chunks(file, 16, 16);
+      fail("expected " + file + " to be rejected");
+    } catch (JsonSyntaxException exception) {
+      // expected
+    }
+  }
+
+  private static List<String> chunks(final Path file, final int chunkSize,
+      final long windowSize) throws IOException {
+    final List<String> chunks = new ArrayList<String>();
+
+    try (MappedJsonArrayChunker chunker = new MappedJsonArrayChunker(file, chunkSize,
+        windowSize)) {
+      ByteBuffer chunk;
+
+      while ((chunk = chunker.next()) != null) {
+        final byte[] bytes = new byte[chunk.remaining()];
+        chunk.get(bytes);
+        chunks.add(new String(bytes, StandardCharsets.UTF_8).trim());
+      }
+
+      assertNull(chunker.next());
+    }
+
+    return chunks;
+  }
+
+  private static Path write(final String content) throws IOException {
+    final Path file = Files.createTempFile("chunker", ".json");
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+}
@@ -0,0 +1,120 @@
+package net.ljcomputing.gson.io;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class Utf8StreamReaderTest {
+  private static final String TEXT = "plain ascii, café, €, 中文, "
+      + "😀👍 and more ascii";
+
+  @Test
+  public void testWriterMatchesJdkEncoding() throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    try (Writer writer = new Utf8StreamWriter(out)) {
+      for (int i = 0; i < 1000; i++) {
+        writer.write(TEXT);
+      }
+    }
+
+    assertEquals(repeat(TEXT, 1000), new String(out.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testReaderDecodesAcrossChunkBoundaries() throws IOException {
+    final byte[] bytes = repeat(TEXT, 1000).getBytes(StandardCharsets.UTF_8);
+    final StringBuilder decoded = new StringBuilder();
+
+    try (Reader reader = new Utf8StreamReader(new TrickleInputStream(bytes))) {
+      final char[] chars = new char[3];
+      int read;
+
+      while ((read = reader.read(chars, 0, chars.length)) != -1) {
+        decoded.append(chars, 0, read);
+      }
+    }
+
+    assertEquals(repeat(TEXT, 1000), decoded.toString());
+  }
+
+  @Test
+  public void testReaderReplacesMalformedInput() throws IOException {
+    final byte[] bytes = new byte[] { 'a', (byte) 0x80, 'b', (byte) 0xE2, (byte) 0x82 };
+    final StringBuilder decoded = new StringBuilder();
+
+    try (Reader reader = new Utf8StreamReader(new ByteArrayInputStream(bytes))) {
+      int c;
+
+      while ((c = reader.read()) != -1) {
+        decoded.append((char) c);
+      }
+    }
+
+    assertEquals("a�b��", decoded.toString());
+  }
+
+  @Test
+  public void testReaderRejectsIllFormedSequences() throws IOException {
+    // overlong '/', encoded U+D800, a code point over U+10FFFF and an overlong U+0000
+    assertDecoded("\ufffd\ufffd", (byte) 0xC0, (byte) 0xAF);
+    assertDecoded("\ufffd\ufffd\ufffd", (byte) 0xED, (byte) 0xA0, (byte) 0x80);
+    assertDecoded("\ufffd\ufffd\ufffd\ufffd", (byte) 0xF5, (byte) 0x80, (byte) 0x80,
+        (byte) 0x80);
+    assertDecoded("\ufffd\ufffd\ufffd\ufffd", (byte) 0xF4, (byte) 0x90, (byte) 0x80,
+        (byte) 0x80);
+    assertDecoded("\ufffd\ufffd\ufffd", (byte) 0xE0, (byte) 0x80, (byte) 0x80);
+
+    // the boundaries themselves are well formed
+    assertDecoded("\u0080\u07ff\u0800\ud7ff\ue000\ud800\udc00\udbff\udfff", (byte) 0xC2,
+        (byte) 0x80, (byte) 0xDF, (byte) 0xBF, (byte) 0xE0, (byte) 0xA0, (byte) 0x80, (byte) 0xED,
+        (byte) 0x9F, (byte) 0xBF, (byte) 0xEE, (byte) 0x80, (byte) 0x80, (byte) 0xF0, (byte) 0x90,
+        (byte) 0x80, (byte) 0x80, (byte) 0xF4, (byte) 0x8F, (byte) 0xBF, (byte) 0xBF);
+  }
+
+  private static void assertDecoded(final String expected, final byte... bytes)
+      throws IOException {
+    final StringBuilder decoded = new StringBuilder();
+
+    try (Reader reader = new Utf8StreamReader(new ByteArrayInputStream(bytes))) {
+      int c;
+
+      while ((c = reader.read()) != -1) {
+        decoded.append((char) c);
+      }
+    }
+
+    assertEquals(expected, decoded.toString());
+  }
+
+  private static String repeat(final String text, final int times) {
+    final StringBuilder builder = new StringBuilder();
+
+    for (int i = 0; i < times; i++) {
+      builder.append(text);
+    }
+
+    return builder.toString();
+  }
+
+  /**
+   * Input stream returning at most five bytes per read.
+   */
+  private static class TrickleInputStream extends ByteArrayInputStream {
+    TrickleInputStream(final byte[] bytes) {
+      super(bytes);
+    }
+
+    @Override
+    public synchronized int read(final byte[] b, final int off, final int len) {
+      return super.read(b, off, Math.min(5, len));
+    }
+  }
+}
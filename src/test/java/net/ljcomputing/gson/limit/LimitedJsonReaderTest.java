@@ -0,0 +1,214 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.limit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+
+import net.ljcomputing.gson.binary.BinaryJsonReader;
+import net.ljcomputing.gson.config.GsonFactory;
+import net.ljcomputing.gson.converter.impl.GsonConverterServiceImpl;
+
+/**
+ * Input limit tests.
+ */
+public class LimitedJsonReaderTest {
+
+  /** The map of lists type. */
+  private static final Type MAP_OF_LISTS = new TypeToken<Map<Integer, List<Object>>>() {
+  }.getType();
+
+  /** The gson. */
+  private final Gson gson = GsonFactory.createDefault();
+
+  /** The limits. */
+  private final JsonLimits limits = JsonLimits.builder().maxBytes(64).maxDepth(2)
+      .maxStringLength(5).maxArrayLength(3).maxObjectMembers(2).build();
+
+  @Test
+  public void testInputWithinLimitsIsRead() throws IOException {
+    final String json = "{\"1\":[\"a\",\"bcdef\",null],\"2\":[]}";
+
+    assertEquals(gson.fromJson(json, MAP_OF_LISTS), read(json));
+    assertEquals(gson.fromJson(json, MAP_OF_LISTS), readBinary(json));
+  }
+
+  @Test
+  public void testEachLimitIsEnforced() throws IOException {
+    assertRejected(JsonLimit.BYTES, "{\"1\":[\"" + repeat('a', 60) + "\"]}");
+    assertRejected(JsonLimit.DEPTH, "{\"1\":[[\"a\"]]}");
+    assertRejected(JsonLimit.STRING_LENGTH, "{\"1\":[\"abcdef\"]}");
+    assertRejected(JsonLimit.STRING_LENGTH, "{\"1\":[\"123456\"]}");
+    assertRejected(JsonLimit.ARRAY_LENGTH, "{\"1\":[\"a\",\"b\",\"c\",\"d\"]}");
+    assertRejected(JsonLimit.OBJECT_MEMBERS, "{\"1\":[],\"2\":[],\"3\":[]}");
+  }
+
+  @Test
+  public void testStringLengthIsCheckedWhileReading() throws IOException {
+    final JsonLimits strings = JsonLimits.builder().maxStringLength(5).build();
+    final Reader endless = new Reader() {
+      private boolean opened;
+
+      @Override
+      public int read(final char[] cbuf, final int off, final int len) {
+        if (!opened) {
+          opened = true;
+          cbuf[off] = '[';
+          cbuf[off + 1] = '"';
+          return 2;
+        }
+
+        Arrays.fill(cbuf, off, off + len, 'a');
+        return len;
+      }
+
+      @Override
+      public void close() {
+      }
+    };
+
+    assertStringRejected(new LimitedJsonReader(endless, strings));
+    assertEquals(Arrays.asList("A\n\t\"a", "abcde", 12345.0, "a"),
+        gson.fromJson(new LimitedJsonReader(new StringReader("[\"\\u0041\\n\\t\\\"a\", 'abcde', "
+            + "12345, /* \"abcdef */ \"a\" # 'abcdef\n]"), strings), List.class));
+    assertStringRejected(new LimitedJsonReader(new StringReader("['abcdef']"), strings));
+    assertStringRejected(new LimitedJsonReader(new StringReader("[abcdef]"), strings));
+    assertStringRejected(new LimitedJsonReader(new StringReader("[123456]"), strings));
+    assertStringRejected(new LimitedJsonReader(new StringReader("{\"abcdef\":1}"), strings));
+  }
+
+  @Test
+  public void testServiceCountsRejections() {
+    final int[] rejected = new int[JsonLimit.values().length];
+    final GsonConverterServiceImpl service = new GsonConverterServiceImpl();
+    service.setJsonLimits(JsonLimits.builder().maxDepth(3)
+        .rejectionListener(limit -> rejected[limit.ordinal()]++).build());
+
+    assertEquals(1, ((List<?>) service.fromJson("[[[]]]", List.class)).size());
+
+    try {
+      service.fromJson(new StringReader("[[[[]]]]"), List.class);
+      fail("expected the depth limit to be exceeded");
+    } catch (JsonLimitExceededException exception) {
+      assertEquals(JsonLimit.DEPTH, exception.getLimit());
+      assertEquals(3, exception.getMaximum());
+      assertEquals(1, rejected[JsonLimit.DEPTH.ordinal()]);
+    }
+  }
+
+  /**
+   * Assert JSON text and its binary encoding are both rejected for exceeding a limit.
+   *
+   * @param limit the expected limit
+   * @param json the json
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private void assertRejected(final JsonLimit limit, final String json) throws IOException {
+    try {
+      read(json);
+      fail("expected " + json + " to exceed " + limit);
+    } catch (JsonLimitExceededException exception) {
+      assertEquals(limit, exception.getLimit());
+    }
+
+    if (JsonLimit.BYTES == limit) {
+      return;
+    }
+
+    try {
+      readBinary(json);
+      fail("expected binary " + json + " to exceed " + limit);
+    } catch (JsonLimitExceededException exception) {
+      assertEquals(limit, exception.getLimit());
+    }
+  }
+
+  /**
+   * Assert reading from the given reader exceeds the string length limit.
+   *
+   * @param reader the reader
+   */
+  private void assertStringRejected(final JsonReader reader) {
+    try {
+      gson.fromJson(reader, Object.class);
+      fail("expected a string to exceed " + JsonLimit.STRING_LENGTH);
+    } catch (JsonLimitExceededException exception) {
+      assertEquals(JsonLimit.STRING_LENGTH, exception.getLimit());
+    }
+  }
+
+  /**
+   * Read JSON text through a limited reader.
+   *
+   * @param json the json
+   * @return the value
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private Object read(final String json) throws IOException {
+    try (JsonReader reader = new LimitedJsonReader(new StringReader(json), limits)) {
+      return gson.fromJson(reader, MAP_OF_LISTS);
+    }
+  }
+
+  /**
+   * Encode JSON text to binary and read it through a limited binary reader.
+   *
+   * @param json the json
+   * @return the value
+   * @throws IOException Signals that an I/O exception has occurred.
+   */
+  private Object readBinary(final String json) throws IOException {
+    final byte[] binary =
+        new GsonConverterServiceImpl().toBinary(gson.fromJson(json, Object.class));
+
+    try (JsonReader reader = new BinaryJsonReader(new ByteArrayInputStream(binary), limits)) {
+      return gson.fromJson(reader, MAP_OF_LISTS);
+    }
+  }
+
+  /**
+   * Repeat a character.
+   *
+   * @param c the character
+   * @param count the count
+   * @return the string
+   */
+  private static String repeat(final char c, final int count) {
+    final StringBuilder builder = new StringBuilder(count);
+
+    for (int i = 0; i < count; i++) {
+      builder.append(c);
+    }
+
+    return builder.toString();
+  }
+}
@@ -0,0 +1,116 @@
+/**
+           Copyright 2015, James G. Willmore
+
+   Licensed under the Apache License, Version 2.0 (the "License");
+   you may not use this file except in compliance with the License.
+   You may obtain a copy of the License at
+
+       http://www.apache.org/licenses/LICENSE-2.0
+
+   Unless required by applicable law or agreed to in writing, software
+   distributed under the License is distributed on an "AS IS" BASIS,
+   WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+   See the License for the specific language governing permissions and
+   limitations under the License.
+ */
+
+package net.ljcomputing.gson.primitive;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.reflect.TypeToken;
+
+import net.ljcomputing.gson.config.GsonFactory;
+
+/**
+ * Primitive array and list adapter tests.
+ */
+public class PrimitiveTypeAdapterFactoryTest {
+
+  /** The gson. */
+  private final Gson gson = GsonFactory.createDefault();
+
+  @Test
+  public void testArraysRoundTrip() {
+    final Sample sample = new Sample();
+    sample.counts = new int[] { 1, -2, 3 };
+    sample.ids = new long[] { 9007199254740993L, Long.MIN_VALUE };
+    sample.weights = new double[] { 0.5, -1.25 };
+
+    final String json = gson.toJson(sample);
+    assertEquals("{\"counts\":[1,-2,3],\"ids\":[9007199254740993,-9223372036854775808],"
+        + "\"weights\":[0.5,-1.25],\"idList\":null,\"weightList\":null,\"countList\":null}", json);
+
+    final Sample copy = gson.fromJson(json, Sample.class);
+    assertArrayEquals(sample.counts, copy.counts);
+    assertArrayEquals(sample.ids, copy.ids);
+    assertArrayEquals(sample.weights, copy.weights, 0);
+    assertNull(copy.idList);
+  }
+
+  @Test
+  public void testListsRoundTrip() {
+    final Sample sample = gson.fromJson("{\"idList\":[9007199254740993,\"7\"],"
+        + "\"weightList\":[1e3],\"countList\":[]}", Sample.class);
+
+    assertEquals(9007199254740993L, sample.idList.getLong(0));
+    assertEquals(7L, sample.idList.getLong(1));
+    assertEquals(1000.0, sample.weightList.getDouble(0), 0);
+    assertEquals(0, sample.countList.size());
+
+    sample.idList.addLong(Long.MAX_VALUE);
+    assertEquals(Arrays.asList(9007199254740993L, 7L, Long.MAX_VALUE), sample.idList);
+
+    final List<Long> boxed = gson.fromJson(gson.toJson(sample.idList),
+        new TypeToken<List<Long>>() {}.getType());
+    assertEquals(sample.idList, boxed);
+    assertEquals(sample.idList, gson.fromJson(gson.toJson(boxed), LongList.class));
+  }
+
+  @Test
+  public void testNullElementFails() {
+    try {
+      gson.fromJson("[1,null]", long[].class);
+      fail("expected a null element to be rejected");
+    } catch (JsonSyntaxException exception) {
+      // expected
+    }
+
+    try {
+      gson.toJson(DoubleList.of(Double.NaN));
+      fail("expected NaN to be rejected");
+    } catch (IllegalArgumentException exception) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testSpecialValuesWhenAllowed() {
+    final Gson special = GsonFactory.newBuilder().serializeSpecialFloatingPointValues().create();
+    final double[] values = { Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 1.5 };
+
+    assertEquals("[NaN,Infinity,-Infinity,1.5]", special.toJson(values));
+    assertEquals("[NaN,Infinity,-Infinity,1.5]", special.toJson(DoubleList.of(values)));
+    assertArrayEquals(values, special.fromJson("[NaN,Infinity,-Infinity,1.5]", double[].class),
+        0);
+  }
+
+  static class Sample {
+    int[] counts;
+    long[] ids;
+    double[] weights;
+    LongList idList;
+    DoubleList weightList;
+    IntList countList;
+  }
+}
@@ -0,0 +1,31 @@
+package net.ljcomputing.gson.reflect;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class FieldAccessorTest {
+
+  @Test(expected = NullPointerException.class)
+  public void testReadFromNullTargetIsNotWrapped() {
+    ClassModel.of(Holder.class).findField("value").get(null);
+  }
+
+  @Test(expected = ClassCastException.class)
+  public void testWriteOfWrongTypeIsNotWrapped() {
+    ClassModel.of(Holder.class).findField("value").set(new Holder(), 1L);
+  }
+
+  @Test
+  public void testReadAndWrite() {
+    final FieldAccessor accessor = ClassModel.of(Holder.class).findField("value");
+    final Holder holder = new Holder();
+
+    accessor.set(holder, "set");
+    assertEquals("set", accessor.get(holder));
+  }
+
+  static class Holder {
+    private String value;
+  }
+}